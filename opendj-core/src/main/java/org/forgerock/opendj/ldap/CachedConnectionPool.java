@@ -23,12 +23,12 @@ import static com.forgerock.opendj.ldap.CoreMessages.*;
 import static com.forgerock.opendj.util.StaticUtils.*;
 
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -67,6 +67,14 @@ import com.forgerock.opendj.util.ReferenceCountedObject;
  * A connection pool implementation which maintains a cache of pooled
  * connections with a configurable core pool size, maximum size, and expiration
  * policy.
+ * <p>
+ * The pool does not use any lock: idle connections are kept in a lock-free
+ * stack, so that the most recently used connections are reused first and the
+ * others may expire, and connection requests which cannot be served
+ * immediately wait in a lock-free queue, so that they are served in arrival
+ * order. A thread releasing a connection and a thread requesting one both
+ * check the other structure after updating their own, so that neither can miss
+ * the other.
  */
 final class CachedConnectionPool implements ConnectionPool {
 
@@ -81,6 +89,9 @@ final class CachedConnectionPool implements ConnectionPool {
                     "Connection attempt succeeded:  availableConnections=%d, maxPoolSize=%d",
                      currentPoolSize(), maxPoolSize));
             pendingConnectionAttempts.decrementAndGet();
+            for (final ConnectionPoolListener listener : poolListeners) {
+                listener.handleConnectionCreated();
+            }
             publishConnection(connection);
         }
     }
@@ -94,7 +105,10 @@ final class CachedConnectionPool implements ConnectionPool {
         public void handleException(final LdapException exception) {
             // Connection attempt failed, so decrease the pool size.
             pendingConnectionAttempts.decrementAndGet();
-            availableConnections.release();
+            poolSize.decrementAndGet();
+            for (final ConnectionPoolListener listener : poolListeners) {
+                listener.handleConnectionCreationFailed(exception);
+            }
 
             logger.debug(LocalizableMessage.raw(
                     "Connection attempt failed: availableConnections=%d, maxPoolSize=%d",
@@ -111,14 +125,9 @@ final class CachedConnectionPool implements ConnectionPool {
              * attempts succeed, which is unlikely (if one fails, then they are
              * all likely to fail).
              */
-            final List<QueueElement> waitingPromises = new LinkedList<>();
-            synchronized (queue) {
-                while (hasWaitingPromises()) {
-                    waitingPromises.add(queue.removeFirst());
-                }
-            }
-            for (QueueElement waitingPromise : waitingPromises) {
-                waitingPromise.getWaitingPromise().handleException(exception);
+            ConnectionRequest request;
+            while ((request = waitingRequests.poll()) != null) {
+                request.promise.handleException(exception);
             }
         }
     }
@@ -127,14 +136,18 @@ final class CachedConnectionPool implements ConnectionPool {
      * A pooled connection is passed to the client. It wraps an underlying
      * "pooled" connection obtained from the underlying factory and lasts until
      * the client application closes this connection. More specifically, pooled
-     * connections are not actually stored in the internal queue.
+     * connections are not actually stored in the internal stack.
+     * <p>
+     * Listeners are rarely registered on pooled connections, so the state lock
+     * only guards their registration and the events: closing a pooled
+     * connection without listeners does not acquire it.
      */
     class PooledConnection implements Connection, ConnectionEventListener {
         private final Connection connection;
         private LdapException error;
         private final AtomicBoolean isClosed = new AtomicBoolean(false);
         private boolean isDisconnectNotification;
-        private List<ConnectionEventListener> listeners;
+        private volatile List<ConnectionEventListener> listeners;
         private final Object stateLock = new Object();
 
         PooledConnection(final Connection connection) {
@@ -178,22 +191,25 @@ final class CachedConnectionPool implements ConnectionPool {
             final boolean notifyClose;
             final boolean notifyErrorOccurred;
             synchronized (stateLock) {
-                notifyClose = isClosed.get();
                 notifyErrorOccurred = error != null;
-                if (!notifyClose) {
-                    if (listeners == null) {
-                        /*
-                         * Create and register first listener. If an error has
-                         * already occurred on the underlying connection, then
-                         * the listener may be immediately invoked so ensure
-                         * that it is already in the list.
-                         */
-                        listeners = new CopyOnWriteArrayList<>();
-                        listeners.add(listener);
+                if (isClosed.get()) {
+                    notifyClose = true;
+                } else if (listeners == null) {
+                    /*
+                     * Create and register first listener. If an error has
+                     * already occurred on the underlying connection, then
+                     * the listener may be immediately invoked so ensure
+                     * that it is already in the list.
+                     */
+                    listeners = new CopyOnWriteArrayList<>();
+                    listeners.add(listener);
+                    notifyClose = isClosedAfterListenerRegistration(listener);
+                    if (!notifyClose) {
                         connection.addConnectionEventListener(this);
-                    } else {
-                        listeners.add(listener);
                     }
+                } else {
+                    listeners.add(listener);
+                    notifyClose = isClosedAfterListenerRegistration(listener);
                 }
             }
             if (notifyErrorOccurred) {
@@ -243,14 +259,11 @@ final class CachedConnectionPool implements ConnectionPool {
 
         @Override
         public void close() {
-            final List<ConnectionEventListener> tmpListeners;
-            synchronized (stateLock) {
-                if (!isClosed.compareAndSet(false, true)) {
-                    // Already closed.
-                    return;
-                }
-                tmpListeners = listeners;
+            if (!isClosed.compareAndSet(false, true)) {
+                // Already closed.
+                return;
             }
+            final List<ConnectionEventListener> tmpListeners = getListenersOnClose();
 
             /*
              * Remove underlying listener if needed and do this before
@@ -268,13 +281,14 @@ final class CachedConnectionPool implements ConnectionPool {
                  * The connection may have been disconnected by the remote
                  * server, but the server may still be available. In order to
                  * avoid leaving pending promises hanging indefinitely, we should
-                 * try to reconnect immediately. No need to release/acquire
-                 * availableConnections.
+                 * try to reconnect immediately. No need to change the pool
+                 * size.
                  */
                 connection.close();
-                pendingConnectionAttempts.incrementAndGet();
-                factory.getConnectionAsync().thenOnResult(connectionResultHandler)
-                                            .thenOnException(connectionFailureHandler);
+                for (final ConnectionPoolListener listener : poolListeners) {
+                    listener.handleConnectionDiscarded();
+                }
+                connect();
 
                 logger.debug(LocalizableMessage.raw(
                         "Connection no longer valid: availableConnections=%d, maxPoolSize=%d",
@@ -554,6 +568,34 @@ final class CachedConnectionPool implements ConnectionPool {
             return builder.toString();
         }
 
+        /**
+         * Returns whether this pooled connection has been closed while the
+         * provided listener was being registered, in which case the listener
+         * is removed since {@link #close()} may not have seen it.
+         * <p>
+         * The listener has been added in the volatile list before reading the
+         * closed state, while {@code close()} reads the list after updating the
+         * closed state, so at least one of them sees the other.
+         */
+        private boolean isClosedAfterListenerRegistration(final ConnectionEventListener listener) {
+            if (isClosed.get()) {
+                listeners.remove(listener);
+                return true;
+            }
+            return false;
+        }
+
+        /** Returns the listeners to notify when this pooled connection has just been closed. */
+        private List<ConnectionEventListener> getListenersOnClose() {
+            if (listeners == null) {
+                return null;
+            }
+            // Wait for any listener registration to complete
+            synchronized (stateLock) {
+                return listeners;
+            }
+        }
+
         /** Checks that this pooled connection has not been closed. */
         private Connection checkState() {
             if (isClosed()) {
@@ -570,41 +612,34 @@ final class CachedConnectionPool implements ConnectionPool {
     private final class PurgeIdleConnectionsTask implements Runnable {
         @Override
         public void run() {
-            final List<Connection> idleConnections;
-            synchronized (queue) {
-                if (isClosed) {
-                    return;
-                }
+            if (isClosed.get()) {
+                return;
+            }
 
-                /*
-                 * Obtain a list of expired connections but don't close them yet
-                 * since we don't want to hold the lock too long.
-                 */
-                idleConnections = new LinkedList<>();
-                final long timeoutMillis = timeService.now() - idleTimeoutMillis;
-                int nonCoreConnectionCount = currentPoolSize() - corePoolSize;
-                for (QueueElement holder = queue.peek(); nonCoreConnectionCount > 0
-                        && isTimedOutQueuedConnection(holder, timeoutMillis); holder = queue.peek()) {
-                    idleConnections.add(holder.getWaitingConnection());
-                    queue.poll();
-                    availableConnections.release();
-                    nonCoreConnectionCount--;
+            /*
+             * The least recently released connections are at the bottom of the
+             * stack. A connection which is borrowed in the meantime is simply
+             * no longer removed.
+             */
+            final long timeoutMillis = timeService.now() - idleTimeoutMillis;
+            int idleConnectionCount = 0;
+            for (IdleConnection idleConnection = idleConnections.peekLast(); currentPoolSize() > corePoolSize
+                    && isTimedOut(idleConnection, timeoutMillis); idleConnection = idleConnections.peekLast()) {
+                if (idleConnections.removeLastOccurrence(idleConnection)) {
+                    discardConnection(idleConnection.connection);
+                    idleConnectionCount++;
                 }
             }
 
-            // Close the idle connections.
-            if (!idleConnections.isEmpty()) {
+            if (idleConnectionCount > 0) {
                 logger.debug(LocalizableMessage.raw(
-                        "Closing %d idle pooled connections: availableConnections=%d, maxPoolSize=%d",
-                        idleConnections.size(), currentPoolSize(), maxPoolSize));
-                for (final Connection connection : idleConnections) {
-                    connection.close();
-                }
+                        "Closed %d idle pooled connections: availableConnections=%d, maxPoolSize=%d",
+                        idleConnectionCount, currentPoolSize(), maxPoolSize));
             }
         }
 
-        private boolean isTimedOutQueuedConnection(final QueueElement holder, final long timeoutMillis) {
-            return holder != null && !holder.isWaitingPromise() && holder.hasTimedOut(timeoutMillis);
+        private boolean isTimedOut(final IdleConnection idleConnection, final long timeoutMillis) {
+            return idleConnection != null && idleConnection.timestampMillis < timeoutMillis;
         }
     }
 
@@ -625,56 +660,36 @@ final class CachedConnectionPool implements ConnectionPool {
         }
     }
 
-    /**
-     * A queue element is either a pending connection request promise awaiting an
-     * {@code Connection} or it is an unused {@code Connection} awaiting a
-     * connection request.
-     */
-    private static final class QueueElement {
+    /** An unused connection awaiting a connection request, with the time it has been released to the pool. */
+    private static final class IdleConnection {
+        private final Connection connection;
         private final long timestampMillis;
-        private final Object value;
-        private final StackTraceElement[] stack;
 
-        QueueElement(final Connection connection, final long timestampMillis) {
-            this.value = connection;
-            this.timestampMillis = timestampMillis;
-            this.stack = null;
-        }
-
-        QueueElement(final long timestampMillis, final StackTraceElement[] stack) {
-            this.value = PromiseImpl.create();
+        IdleConnection(final Connection connection, final long timestampMillis) {
+            this.connection = connection;
             this.timestampMillis = timestampMillis;
-            this.stack = stack;
         }
 
         @Override
         public String toString() {
-            return String.valueOf(value);
-        }
-
-        StackTraceElement[] getStackTrace() {
-            return stack;
-        }
-
-        Connection getWaitingConnection() {
-            if (value instanceof Connection) {
-                return (Connection) value;
-            } else {
-                throw new IllegalStateException();
-            }
+            return String.valueOf(connection);
         }
+    }
 
-        @SuppressWarnings("unchecked")
-        PromiseImpl<Connection, LdapException> getWaitingPromise() {
-            return (PromiseImpl<Connection, LdapException>) value;
-        }
+    /** A pending connection request promise awaiting a connection. */
+    private static final class ConnectionRequest {
+        private final PromiseImpl<Connection, LdapException> promise = PromiseImpl.create();
+        private final long requestTimeNanos;
+        private final StackTraceElement[] stack;
 
-        boolean hasTimedOut(final long timeLimitMillis) {
-            return timestampMillis < timeLimitMillis;
+        ConnectionRequest(final long requestTimeNanos, final StackTraceElement[] stack) {
+            this.requestTimeNanos = requestTimeNanos;
+            this.stack = stack;
         }
 
-        boolean isWaitingPromise() {
-            return value instanceof PromiseImpl;
+        @Override
+        public String toString() {
+            return String.valueOf(promise);
         }
     }
 
@@ -686,24 +701,36 @@ final class CachedConnectionPool implements ConnectionPool {
      */
     TimeService timeService = TimeService.SYSTEM;
 
-    private final Semaphore availableConnections;
     private final ResultHandler<Connection> connectionResultHandler = new ConnectionResultHandler();
     private final ExceptionHandler<LdapException> connectionFailureHandler = new ConnectionFailureHandler();
     private final int corePoolSize;
     private final ConnectionFactory factory;
-    private boolean isClosed;
+    private final AtomicBoolean isClosed = new AtomicBoolean();
     private final ScheduledFuture<?> idleTimeoutFuture;
     private final long idleTimeoutMillis;
     private final int maxPoolSize;
-    private final LinkedList<QueueElement> queue = new LinkedList<>();
     private final ReferenceCountedObject<ScheduledExecutorService>.Reference scheduler;
 
+    /** The unused connections, the most recently released one first. */
+    private final ConcurrentLinkedDeque<IdleConnection> idleConnections = new ConcurrentLinkedDeque<>();
+
+    /** The connection requests awaiting a connection, the oldest one first. */
+    private final ConcurrentLinkedQueue<ConnectionRequest> waitingRequests = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of connections which are either idle, in use, or in the
+     * process of being established.
+     */
+    private final AtomicInteger poolSize = new AtomicInteger();
+
     /**
      * The number of new connections which are in the process of being
      * established.
      */
     private final AtomicInteger pendingConnectionAttempts = new AtomicInteger();
 
+    private final List<ConnectionPoolListener> poolListeners = new CopyOnWriteArrayList<>();
+
     CachedConnectionPool(final ConnectionFactory factory, final int corePoolSize,
             final int maximumPoolSize, final long idleTimeout, final TimeUnit unit,
             final ScheduledExecutorService scheduler) {
@@ -717,7 +744,6 @@ final class CachedConnectionPool implements ConnectionPool {
         this.factory = factory;
         this.corePoolSize = corePoolSize;
         this.maxPoolSize = maximumPoolSize;
-        this.availableConnections = new Semaphore(maximumPoolSize);
 
         if (corePoolSize < maximumPoolSize && idleTimeout > 0) {
             // Dynamic pool.
@@ -735,44 +761,41 @@ final class CachedConnectionPool implements ConnectionPool {
     }
 
     @Override
-    public void close() {
-        final LinkedList<Connection> idleConnections;
-        synchronized (queue) {
-            if (isClosed) {
-                return;
-            }
-            isClosed = true;
+    public void addConnectionPoolListener(final ConnectionPoolListener listener) {
+        Reject.ifNull(listener);
+        poolListeners.add(listener);
+    }
 
-            /*
-             * Remove any connections which are waiting in the queue as these
-             * can be closed immediately.
-             */
-            idleConnections = new LinkedList<>();
-            while (hasWaitingConnections()) {
-                final QueueElement holder = queue.removeFirst();
-                idleConnections.add(holder.getWaitingConnection());
-                availableConnections.release();
-            }
+    @Override
+    public void close() {
+        if (!isClosed.compareAndSet(false, true)) {
+            return;
         }
 
-        logger.debug(LocalizableMessage.raw(
-                "Connection pool is closing: availableConnections=%d, maxPoolSize=%d",
-                currentPoolSize(), maxPoolSize));
-
         if (idleTimeoutFuture != null) {
             idleTimeoutFuture.cancel(false);
             scheduler.release();
         }
 
-        // Close all idle connections.
-        for (final Connection connection : idleConnections) {
-            connection.close();
-        }
+        /*
+         * Close any connections which are waiting in the stack as these can be
+         * closed immediately.
+         */
+        closeIdleConnections();
+
+        logger.debug(LocalizableMessage.raw(
+                "Connection pool is closing: availableConnections=%d, maxPoolSize=%d",
+                currentPoolSize(), maxPoolSize));
 
         // Close the underlying factory.
         factory.close();
     }
 
+    @Override
+    public int getActiveConnectionCount() {
+        return Math.max(0, currentPoolSize() - pendingConnectionAttempts.get() - idleConnections.size());
+    }
+
     @Override
     public Connection getConnection() throws LdapException {
         try {
@@ -784,62 +807,62 @@ final class CachedConnectionPool implements ConnectionPool {
 
     @Override
     public Promise<Connection, LdapException> getConnectionAsync() {
+        final long requestTimeNanos = System.nanoTime();
         // Loop while iterating through stale connections (see OPENDJ-590).
-        for (;;) {
-            final QueueElement holder;
-            synchronized (queue) {
-                if (isClosed) {
-                    throw new IllegalStateException("CachedConnectionPool is already closed");
-                } else if (hasWaitingConnections()) {
-                    holder = queue.removeFirst();
-                } else {
-                    holder = new QueueElement(timeService.now(), getStackTraceIfDebugEnabled());
-                    queue.add(holder);
-                }
-            }
-
-            if (holder.isWaitingPromise()) {
-                // Grow the pool if needed.
-                final Promise<Connection, LdapException> promise = holder.getWaitingPromise();
-                if (!promise.isDone() && availableConnections.tryAcquire()) {
-                    pendingConnectionAttempts.incrementAndGet();
-                    factory.getConnectionAsync().thenOnResult(connectionResultHandler)
-                                                .thenOnException(connectionFailureHandler);
-                }
-                return promise;
-            }
-
-            // There was a completed connection attempt.
-            final Connection connection = holder.getWaitingConnection();
+        for (IdleConnection idleConnection = pollIdleConnection(); idleConnection != null;
+                idleConnection = pollIdleConnection()) {
+            final Connection connection = idleConnection.connection;
             if (connection.isValid()) {
                 final Connection pooledConnection = newPooledConnection(connection, getStackTraceIfDebugEnabled());
+                notifyConnectionBorrowed(requestTimeNanos);
                 return newResultPromise(pooledConnection);
-            } else {
-                // Close the stale connection and try again.
-                connection.close();
-                availableConnections.release();
-
-                logger.debug(LocalizableMessage.raw("Connection no longer valid: availableConnections=%d, poolSize=%d",
-                        currentPoolSize(), maxPoolSize));
             }
+
+            // Close the stale connection and try again.
+            discardConnection(connection);
+
+            logger.debug(LocalizableMessage.raw("Connection no longer valid: availableConnections=%d, poolSize=%d",
+                    currentPoolSize(), maxPoolSize));
         }
+
+        /*
+         * Wait for a connection to be released or established. A connection
+         * may have been released since the stack has been found empty, so
+         * check it again now that the request is visible to releasing threads.
+         */
+        final ConnectionRequest request = new ConnectionRequest(requestTimeNanos, getStackTraceIfDebugEnabled());
+        waitingRequests.offer(request);
+        serveWaitingRequests();
+
+        // Grow the pool if needed.
+        if (!request.promise.isDone() && tryIncrementPoolSize()) {
+            connect();
+        }
+        return request.promise;
+    }
+
+    @Override
+    public int getIdleConnectionCount() {
+        return idleConnections.size();
+    }
+
+    @Override
+    public int getWaitingRequestCount() {
+        return waitingRequests.size();
+    }
+
+    @Override
+    public void removeConnectionPoolListener(final ConnectionPoolListener listener) {
+        Reject.ifNull(listener);
+        poolListeners.remove(listener);
     }
 
     @Override
     public String toString() {
         final int size = currentPoolSize();
         final int pending = pendingConnectionAttempts.get();
-        int in = 0;
-        int blocked = 0;
-        synchronized (queue) {
-            for (QueueElement qe : queue) {
-                if (qe.isWaitingPromise()) {
-                    blocked++;
-                } else {
-                    in++;
-                }
-            }
-        }
+        final int in = idleConnections.size();
+        final int blocked = waitingRequests.size();
         final int out = size - in - pending;
         return String.format("CachedConnectionPool(size=%d[in:%d + out:%d + "
                 + "pending:%d], maxSize=%d, blocked=%d, factory=%s)", size, in, out, pending,
@@ -858,58 +881,137 @@ final class CachedConnectionPool implements ConnectionPool {
 
     /** Package private for unit testing. */
     int currentPoolSize() {
-        return maxPoolSize - availableConnections.availablePermits();
+        return poolSize.get();
     }
 
-    private boolean hasWaitingConnections() {
-        return !queue.isEmpty() && !queue.getFirst().isWaitingPromise();
+    private void closeIdleConnections() {
+        IdleConnection idleConnection;
+        while ((idleConnection = idleConnections.pollFirst()) != null) {
+            discardConnection(idleConnection.connection);
+        }
     }
 
-    private boolean hasWaitingPromises() {
-        return !queue.isEmpty() && queue.getFirst().isWaitingPromise();
+    /** Asynchronously establishes a new connection, for which room has already been made in the pool. */
+    private void connect() {
+        pendingConnectionAttempts.incrementAndGet();
+        factory.getConnectionAsync().thenOnResult(connectionResultHandler)
+                                    .thenOnException(connectionFailureHandler);
     }
 
-    private void publishConnection(final Connection connection) {
-        final QueueElement holder;
-        boolean connectionPoolIsClosing = false;
-
-        synchronized (queue) {
-            if (hasWaitingPromises()) {
-                connectionPoolIsClosing = isClosed;
-                holder = queue.removeFirst();
-            } else if (isClosed) {
-                connectionPoolIsClosing = true;
-                holder = null;
-            } else {
-                holder = new QueueElement(connection, timeService.now());
-                queue.add(holder);
-                return;
+    /** Closes a connection which is removed from the pool, making room for a new one. */
+    private void discardConnection(final Connection connection) {
+        connection.close();
+        poolSize.decrementAndGet();
+        for (final ConnectionPoolListener listener : poolListeners) {
+            listener.handleConnectionDiscarded();
+        }
+
+        /*
+         * Requests which could not grow the pool while it was full may be
+         * waiting for the room which has just been made.
+         */
+        if (!waitingRequests.isEmpty() && !isClosed.get() && tryIncrementPoolSize()) {
+            connect();
+        }
+    }
+
+    /**
+     * Hands over the provided connection to the oldest waiting request, and
+     * returns {@code false} if there is none.
+     */
+    private boolean handOverConnection(final Connection connection) {
+        ConnectionRequest request;
+        while ((request = waitingRequests.poll()) != null) {
+            // The promise may already have been completed by the application.
+            if (!request.promise.isDone()
+                    && request.promise.tryHandleResult(newPooledConnection(connection, request.stack))) {
+                notifyConnectionBorrowed(request.requestTimeNanos);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void notifyConnectionBorrowed(final long requestTimeNanos) {
+        if (!poolListeners.isEmpty()) {
+            final long borrowTimeNanos = System.nanoTime() - requestTimeNanos;
+            for (final ConnectionPoolListener listener : poolListeners) {
+                listener.handleConnectionBorrowed(borrowTimeNanos);
             }
         }
+    }
+
+    private IdleConnection pollIdleConnection() {
+        if (isClosed.get()) {
+            throw new IllegalStateException("CachedConnectionPool is already closed");
+        }
+        return idleConnections.pollFirst();
+    }
 
-        // There was waiting promise, so complete it.
-        if (connectionPoolIsClosing) {
+    private void publishConnection(final Connection connection) {
+        if (isClosed.get()) {
             // The connection will be closed, so decrease the pool size.
-            availableConnections.release();
-            connection.close();
+            discardConnection(connection);
 
             logger.debug(LocalizableMessage.raw(
                     "Closing connection because connection pool is closing: availableConnections=%d, maxPoolSize=%d",
                     currentPoolSize(), maxPoolSize));
 
-            if (holder != null) {
+            final ConnectionRequest request = waitingRequests.poll();
+            if (request != null) {
                 final LdapException e =
                         newLdapException(ResultCode.CLIENT_SIDE_USER_CANCELLED,
                                 ERR_CONNECTION_POOL_CLOSING.get(toString()).toString());
-                holder.getWaitingPromise().handleException(e);
+                request.promise.handleException(e);
 
                 logger.debug(LocalizableMessage.raw(
                         "Connection attempt failed: availableConnections=%d, maxPoolSize=%d",
                         currentPoolSize(), maxPoolSize, e));
             }
-        } else {
-            holder.getWaitingPromise().handleResult(
-                    newPooledConnection(connection, holder.getStackTrace()));
+        } else if (!handOverConnection(connection)) {
+            // There was no waiting request, so the connection becomes idle.
+            pushIdleConnection(new IdleConnection(connection, timeService.now()));
+            serveWaitingRequests();
+        }
+    }
+
+    private void pushIdleConnection(final IdleConnection idleConnection) {
+        idleConnections.offerFirst(idleConnection);
+        if (isClosed.get()) {
+            // The pool may have been closed without seeing this connection.
+            closeIdleConnections();
+        }
+    }
+
+    /**
+     * Hands over idle connections to waiting requests. Both a thread pushing
+     * an idle connection and a thread adding a waiting request call this
+     * method after updating their own structure, so that at least one of them
+     * sees both the connection and the request.
+     */
+    private void serveWaitingRequests() {
+        while (!waitingRequests.isEmpty() && !isClosed.get()) {
+            final IdleConnection idleConnection = idleConnections.pollFirst();
+            if (idleConnection == null) {
+                return;
+            } else if (!idleConnection.connection.isValid()) {
+                discardConnection(idleConnection.connection);
+            } else if (!handOverConnection(idleConnection.connection)) {
+                // Another thread has served the request in the meantime.
+                pushIdleConnection(idleConnection);
+            }
+        }
+    }
+
+    /** Makes room for a new connection, unless the pool is full. */
+    private boolean tryIncrementPoolSize() {
+        for (;;) {
+            final int size = poolSize.get();
+            if (size >= maxPoolSize) {
+                return false;
+            } else if (poolSize.compareAndSet(size, size + 1)) {
+                return true;
+            }
         }
     }
 
@@ -16,6 +16,7 @@
 
 package org.forgerock.opendj.ldap;
 
+import org.forgerock.util.Reject;
 import org.forgerock.util.promise.Promise;
 
 /**
@@ -78,4 +79,86 @@ public interface ConnectionPool extends ConnectionFactory {
      */
     @Override
     Connection getConnection() throws LdapException;
+
+    /**
+     * Registers the provided listener so that it will be notified of the
+     * activity of this connection pool.
+     * <p>
+     * The default implementation does nothing, for connection pools which do
+     * not report their activity.
+     *
+     * @param listener
+     *            The listener which wants to be notified of the activity of
+     *            this connection pool.
+     * @throws NullPointerException
+     *             If the {@code listener} was {@code null}.
+     */
+    default void addConnectionPoolListener(ConnectionPoolListener listener) {
+        Reject.ifNull(listener);
+    }
+
+    /**
+     * Removes the provided listener from the list of listeners to be notified
+     * of the activity of this connection pool.
+     * <p>
+     * The default implementation does nothing, for connection pools which do
+     * not report their activity.
+     *
+     * @param listener
+     *            The listener which no longer wants to be notified of the
+     *            activity of this connection pool.
+     * @throws NullPointerException
+     *             If the {@code listener} was {@code null}.
+     */
+    default void removeConnectionPoolListener(ConnectionPoolListener listener) {
+        Reject.ifNull(listener);
+    }
+
+    /**
+     * Returns the number of pooled connections which are currently in use by
+     * the application.
+     * <p>
+     * The returned value is a snapshot which may be outdated as soon as it is
+     * returned, and is intended for monitoring purposes only.
+     * <p>
+     * The default implementation returns {@code -1}, for connection pools
+     * which do not maintain this count.
+     *
+     * @return The number of pooled connections which are currently in use.
+     */
+    default int getActiveConnectionCount() {
+        return -1;
+    }
+
+    /**
+     * Returns the number of pooled connections which are currently waiting to
+     * be used by the application.
+     * <p>
+     * The returned value is a snapshot which may be outdated as soon as it is
+     * returned, and is intended for monitoring purposes only.
+     * <p>
+     * The default implementation returns {@code -1}, for connection pools
+     * which do not maintain this count.
+     *
+     * @return The number of pooled connections which are currently idle.
+     */
+    default int getIdleConnectionCount() {
+        return -1;
+    }
+
+    /**
+     * Returns the number of connection requests which are currently waiting
+     * for a connection to be released or established.
+     * <p>
+     * The returned value is a snapshot which may be outdated as soon as it is
+     * returned, and is intended for monitoring purposes only.
+     * <p>
+     * The default implementation returns {@code -1}, for connection pools
+     * which do not maintain this count.
+     *
+     * @return The number of connection requests which are currently waiting.
+     */
+    default int getWaitingRequestCount() {
+        return -1;
+    }
 }
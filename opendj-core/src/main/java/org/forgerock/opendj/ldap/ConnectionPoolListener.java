@@ -0,0 +1,68 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+
+package org.forgerock.opendj.ldap;
+
+import java.util.EventListener;
+
+/**
+ * An object that registers to be notified of the activity of a connection
+ * pool, typically in order to export its metrics. Together with the current
+ * number of active, idle and waiting connection requests exposed by the
+ * {@link ConnectionPool}, these notifications allow monitoring the pool
+ * utilization, the time spent waiting for a connection and the connection
+ * failures.
+ * <p>
+ * Listeners are invoked by the thread which triggered the event, which may be
+ * an application thread or a connection factory thread, so they must be
+ * thread safe and must not block.
+ */
+public interface ConnectionPoolListener extends EventListener {
+    /**
+     * Notifies this connection pool listener that a pooled connection has been
+     * handed to the application. The borrow time is the time elapsed between
+     * the connection request and the connection becoming available, and may
+     * for example be recorded in a latency histogram.
+     *
+     * @param borrowTimeNanos
+     *            The time, in nanoseconds, the application waited for the
+     *            pooled connection.
+     */
+    void handleConnectionBorrowed(long borrowTimeNanos);
+
+    /**
+     * Notifies this connection pool listener that a new connection has been
+     * established by the underlying connection factory and added to the pool.
+     */
+    void handleConnectionCreated();
+
+    /**
+     * Notifies this connection pool listener that the underlying connection
+     * factory failed to establish a new connection. All the connection
+     * requests waiting for a connection are failed with the same error.
+     *
+     * @param error
+     *            The error returned by the underlying connection factory.
+     */
+    void handleConnectionCreationFailed(LdapException error);
+
+    /**
+     * Notifies this connection pool listener that a connection has been
+     * removed from the pool and closed, because it was no longer valid, it
+     * has been idle for too long, or the pool is closing.
+     */
+    void handleConnectionDiscarded();
+}
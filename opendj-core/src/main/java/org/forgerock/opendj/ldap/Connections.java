@@ -21,12 +21,16 @@ import static org.forgerock.util.time.Duration.duration;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
+import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.RequestLoadBalancer.PartitionedRequest;
 import org.forgerock.opendj.ldap.requests.AddRequest;
@@ -50,6 +54,7 @@ import org.forgerock.util.Reject;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promise;
 import org.forgerock.util.time.Duration;
+import org.forgerock.util.time.TimeService;
 
 import com.forgerock.opendj.ldap.CoreMessages;
 import com.forgerock.opendj.ldap.controls.AffinityControl;
@@ -63,7 +68,9 @@ public final class Connections {
 
     /**
      * Specifies the interval between successive attempts to reconnect to offline load-balanced connection factories.
-     * The default configuration is to attempt to reconnect every second.
+     * The default configuration is to attempt to reconnect every second. This is also the minimum interval between
+     * successive statistics notifications sent by the "least latency" load-balancer for each of its connection
+     * factories, which are only sent when requests complete.
      */
     public static final Option<Duration> LOAD_BALANCER_MONITORING_INTERVAL = Option.withDefault(duration("1 seconds"));
 
@@ -732,6 +739,7 @@ public final class Connections {
      * @see #newRoundRobinLoadBalancer(Collection, Options)
      * @see #newFailoverLoadBalancer(Collection, Options)
      * @see #newAffinityRequestLoadBalancer(Collection, Options)
+     * @see #newLeastLatencyLoadBalancer(Collection, Options)
      * @see #LOAD_BALANCER_EVENT_LISTENER
      * @see #LOAD_BALANCER_MONITORING_INTERVAL
      * @see #LOAD_BALANCER_SCHEDULER
@@ -775,22 +783,22 @@ public final class Connections {
         };
     }
 
-    static Function<Integer, Void, NeverThrowsException> newLeastRequestsLoadBalancerEndOfRequestFunction(
+    static Function<PartitionedRequest, Void, NeverThrowsException> newLeastRequestsLoadBalancerEndOfRequestFunction(
             final LeastRequestsDispatcher dispatcher) {
-        return new Function<Integer, Void, NeverThrowsException>() {
+        return new Function<PartitionedRequest, Void, NeverThrowsException>() {
             @Override
-            public Void apply(final Integer index) {
-                dispatcher.terminatedRequest(index);
+            public Void apply(final PartitionedRequest request) {
+                dispatcher.terminatedRequest(request.getServerIndex());
                 return null;
             }
         };
     }
 
     /** No-op "end of request" function for the saturation-based request load balancer. */
-    static final Function<Integer, Void, NeverThrowsException> NOOP_END_OF_REQUEST_FUNCTION =
-            new Function<Integer, Void, NeverThrowsException>() {
+    static final Function<PartitionedRequest, Void, NeverThrowsException> NOOP_END_OF_REQUEST_FUNCTION =
+            new Function<PartitionedRequest, Void, NeverThrowsException>() {
                 @Override
-                public Void apply(Integer index) {
+                public Void apply(PartitionedRequest request) {
                     return null;
                 }
             };
@@ -853,6 +861,306 @@ public final class Connections {
         }
     }
 
+    /**
+     * Creates a new "least latency" load-balancer which will load-balance individual requests across the provided
+     * set of connection factories, each typically representing a single replica, using an algorithm that routes
+     * requests to the replica which is expected to respond the fastest.
+     * <p>
+     * The load-balancer maintains, for each replica, a moving average of the response times of the requests sent to
+     * it, as well as its number of active requests. For each request, two replicas are picked at random and the
+     * request is routed to the one having the lowest average response time multiplied by its number of active
+     * requests plus one. Comparing two random replicas rather than all of them prevents all the requests from being
+     * routed to the same replica until its statistics are updated, while still routing most requests to the fastest
+     * replicas. As a result, a replica which becomes slower, for example because of a garbage collection or an index
+     * rebuild, receives progressively fewer requests, without being considered as failed. The average response time
+     * of a replica which has no active requests decays over time, so that slow replicas are gradually tried again.
+     * <p>
+     * The average response time and the number of active requests of a replica are reported to the
+     * {@link LoadBalancerEventListener} configured using the {@link #LOAD_BALANCER_EVENT_LISTENER} option when a request
+     * sent to it completes, at most once per interval configured using the {@link #LOAD_BALANCER_MONITORING_INTERVAL}
+     * option. No statistics are reported for a replica which does not receive any requests.
+     * <p/>
+     * <b>NOTE:</b> this connection factory returns fake connections, since real connections are obtained for each
+     * request. Therefore, the returned fake connections have certain limitations: abandon requests will be ignored
+     * since they cannot be routed; connection event listeners can be registered, but will only be notified when the
+     * fake connection is closed or when all of the connection factories are unavailable.
+     * <p/>
+     * <b>NOTE:</b>Server selection is only based on information which is local to the client application, as for the
+     * "least requests" load-balancer. However, the response times of the replicas also reflect the load generated by
+     * other applications.
+     * <p/>
+     * The implementation periodically attempts to connect to failed connection factories in order to determine if they
+     * have become available again.
+     *
+     * @param factories
+     *            The connection factories.
+     * @param options
+     *            This configuration options for the load-balancer.
+     * @return The new least latency load balancer.
+     * @see #newRoundRobinLoadBalancer(Collection, Options)
+     * @see #newFailoverLoadBalancer(Collection, Options)
+     * @see #newLeastRequestsLoadBalancer(Collection, Options)
+     * @see #LOAD_BALANCER_EVENT_LISTENER
+     * @see #LOAD_BALANCER_MONITORING_INTERVAL
+     * @see #LOAD_BALANCER_SCHEDULER
+     */
+    public static ConnectionFactory newLeastLatencyLoadBalancer(
+            final Collection<? extends ConnectionFactory> factories, final Options options) {
+        // Statistics and online/offline events are notified one at a time.
+        final Object listenerLock = new Object();
+        final LeastLatencyDispatcher dispatcher = new LeastLatencyDispatcher(factories,
+                options.get(LOAD_BALANCER_EVENT_LISTENER), listenerLock,
+                options.get(LOAD_BALANCER_MONITORING_INTERVAL).to(TimeUnit.MILLISECONDS), TimeService.SYSTEM);
+        return new RequestLoadBalancer("LatencyBasedRequestLoadBalancer", factories, options,
+                newLeastLatencyLoadBalancerNextFunction(dispatcher),
+                newLeastLatencyLoadBalancerEndOfRequestFunction(dispatcher), listenerLock);
+    }
+
+    static Function<Request, PartitionedRequest, NeverThrowsException> newLeastLatencyLoadBalancerNextFunction(
+            final LeastLatencyDispatcher dispatcher) {
+        return new Function<Request, PartitionedRequest, NeverThrowsException>() {
+            @Override
+            public PartitionedRequest apply(final Request request) {
+                return new PartitionedRequest(request, dispatcher.selectServer());
+            }
+        };
+    }
+
+    static Function<PartitionedRequest, Void, NeverThrowsException> newLeastLatencyLoadBalancerEndOfRequestFunction(
+            final LeastLatencyDispatcher dispatcher) {
+        return new Function<PartitionedRequest, Void, NeverThrowsException>() {
+            @Override
+            public Void apply(final PartitionedRequest request) {
+                dispatcher.terminatedRequest(request.getServerIndex(), request.getServingServerIndex(),
+                        request.getElapsedTimeNanos(), isServerFailure(request.getError()));
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Returns {@code true} if the provided error shows that the server could not process the request, rather than a
+     * normal LDAP error such as a missing entry.
+     */
+    private static boolean isServerFailure(final LdapException error) {
+        if (error == null) {
+            return false;
+        }
+        final ResultCode resultCode = error.getResult().getResultCode();
+        return error instanceof ConnectionException
+                || error instanceof TimeoutResultException
+                || resultCode == ResultCode.BUSY
+                || resultCode == ResultCode.UNAVAILABLE;
+    }
+
+    /**
+     * Dispatch requests to the server index which is expected to have the lowest response time.
+     * <p>
+     * Each server is scored by the exponentially weighted moving average of its response times, multiplied by its
+     * number of active requests plus one. The requests are dispatched to the server having the lowest score among two
+     * servers chosen at random ("power of two choices"). The average response time of a server which has no active
+     * requests decays exponentially with the time elapsed since its last response, so that servers which have been
+     * slow receive requests again once they have been avoided for long enough.
+     * <p>
+     * Response times are recorded against the server which actually served the request, which differs from the
+     * selected server when the selected server was offline. A request which failed because the server could not process
+     * it is recorded with a response time of at least {@link #FAILED_REQUEST_PENALTY_NANOS}, so that a server rejecting
+     * requests quickly is avoided rather than preferred.
+     */
+    static class LeastLatencyDispatcher {
+        /** The weight of each new response time in the moving average of the response times of a server. */
+        private static final double RESPONSE_TIME_WEIGHT = 0.2;
+        /** The time after which the average response time of an idle server has decayed by a factor of e. */
+        private static final long RESPONSE_TIME_DECAY_MS = 10000;
+        /** The minimum response time recorded for a request which failed because of the server. */
+        static final long FAILED_REQUEST_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        /** The statistics of a server. */
+        private static final class ServerStatistics {
+            private final ConnectionFactory factory;
+            private final AtomicInteger activeRequests = new AtomicInteger();
+            private final AtomicLong lastReportTimeMS;
+            /** Guarded by this. Zero until the first response is received. */
+            private double averageResponseTimeNanos;
+            /** Guarded by this. The time of the last response, or of the last request when the server was idle. */
+            private long lastUpdateTimeMS;
+
+            private ServerStatistics(final ConnectionFactory factory, final long currentTimeMS) {
+                this.factory = factory;
+                this.lastReportTimeMS = new AtomicLong(currentTimeMS);
+                this.lastUpdateTimeMS = currentTimeMS;
+            }
+
+            private synchronized double getAverageResponseTimeNanos(final long currentTimeMS) {
+                if (activeRequests.get() > 0) {
+                    return averageResponseTimeNanos;
+                }
+                final long idleTimeMS = Math.max(currentTimeMS - lastUpdateTimeMS, 0);
+                return averageResponseTimeNanos * Math.exp(-(double) idleTimeMS / RESPONSE_TIME_DECAY_MS);
+            }
+
+            private double getScore(final long currentTimeMS) {
+                // Servers without any response yet compare by their number of active requests.
+                return (getAverageResponseTimeNanos(currentTimeMS) + 1) * (activeRequests.get() + 1);
+            }
+
+            private synchronized void requestStarted(final long currentTimeMS) {
+                if (activeRequests.getAndIncrement() == 0) {
+                    // Stop the decay while waiting for the response.
+                    applyDecay(currentTimeMS);
+                }
+            }
+
+            private synchronized void addResponseTime(final long responseTimeNanos, final long currentTimeMS) {
+                if (activeRequests.get() == 0) {
+                    // The request was selected for another server which was offline.
+                    applyDecay(currentTimeMS);
+                }
+                if (averageResponseTimeNanos == 0) {
+                    averageResponseTimeNanos = responseTimeNanos;
+                } else {
+                    averageResponseTimeNanos += RESPONSE_TIME_WEIGHT * (responseTimeNanos - averageResponseTimeNanos);
+                }
+                lastUpdateTimeMS = currentTimeMS;
+            }
+
+            private synchronized void requestTerminated() {
+                activeRequests.decrementAndGet();
+            }
+
+            /** Applies the decay since the last update to the average response time. Guarded by this. */
+            private void applyDecay(final long currentTimeMS) {
+                averageResponseTimeNanos *=
+                        Math.exp(-(double) Math.max(currentTimeMS - lastUpdateTimeMS, 0) / RESPONSE_TIME_DECAY_MS);
+                lastUpdateTimeMS = currentTimeMS;
+            }
+        }
+
+        private final ServerStatistics[] servers;
+        private final LoadBalancerEventListener listener;
+        /** Shared with the load-balancer so that all its events are notified one at a time. */
+        private final Object listenerLock;
+        private final long statisticsIntervalMS;
+        private final TimeService timeService;
+
+        LeastLatencyDispatcher(final Collection<? extends ConnectionFactory> factories,
+                final LoadBalancerEventListener listener, final Object listenerLock, final long statisticsIntervalMS,
+                final TimeService timeService) {
+            final List<ServerStatistics> statistics = new ArrayList<>(factories.size());
+            for (final ConnectionFactory factory : factories) {
+                statistics.add(new ServerStatistics(factory, timeService.now()));
+            }
+            this.servers = statistics.toArray(new ServerStatistics[statistics.size()]);
+            this.listener = listener;
+            this.listenerLock = listenerLock;
+            this.statisticsIntervalMS = statisticsIntervalMS;
+            this.timeService = timeService;
+        }
+
+        /**
+         * Returns the server index to use and accounts for the new active request on this server.
+         *
+         * @return the server index
+         */
+        int selectServer() {
+            final long currentTimeMS = timeService.now();
+            final int index;
+            if (servers.length == 1) {
+                index = 0;
+            } else {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                final int first = random.nextInt(servers.length);
+                final int second = (first + 1 + random.nextInt(servers.length - 1)) % servers.length;
+                index = servers[second].getScore(currentTimeMS) < servers[first].getScore(currentTimeMS)
+                        ? second : first;
+            }
+            servers[index].requestStarted(currentTimeMS);
+            return index;
+        }
+
+        /**
+         * Signals to this dispatcher that a request has been finished for the provided server index, and reports the
+         * statistics of the server which served the request to the load-balancer event listener, at most once per
+         * statistics interval.
+         *
+         * @param index
+         *            The index of server returned by {@link #selectServer()} for the request.
+         * @param servingIndex
+         *            The index of server that processed the request.
+         * @param responseTimeNanos
+         *            The response time of the request, in nanoseconds.
+         * @param failed
+         *            {@code true} if the request failed because the server could not process it.
+         */
+        void terminatedRequest(final int index, final int servingIndex, final long responseTimeNanos,
+                final boolean failed) {
+            final long currentTimeMS = timeService.now();
+            final ServerStatistics server = servers[servingIndex];
+            server.addResponseTime(failed ? Math.max(responseTimeNanos, FAILED_REQUEST_PENALTY_NANOS)
+                                          : responseTimeNanos, currentTimeMS);
+            servers[index].requestTerminated();
+
+            final long lastReportTimeMS = server.lastReportTimeMS.get();
+            if (currentTimeMS - lastReportTimeMS >= statisticsIntervalMS
+                    && server.lastReportTimeMS.compareAndSet(lastReportTimeMS, currentTimeMS)) {
+                synchronized (listenerLock) {
+                    try {
+                        listener.handleConnectionFactoryStatistics(server.factory,
+                                (long) server.getAverageResponseTimeNanos(currentTimeMS),
+                                server.activeRequests.get());
+                    } catch (RuntimeException e) {
+                        // TODO: I18N
+                        logger.error(LocalizableMessage.raw(
+                                "A run-time error occurred while processing a load-balancer event", e));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new connection factory which multiplexes the requests of all
+     * the connections it returns over a small number of connections obtained
+     * from the provided factory, instead of using one connection per concurrent
+     * request.
+     * <p>
+     * Each request is sent over the shared connection which has the least
+     * outstanding requests. Attempts to have more than
+     * {@code maxOutstandingRequestsPerConnection} outstanding requests on each
+     * shared connection will wait until a request completes, in arrival order.
+     * Shared connections are established when first needed, and established
+     * again when they are no longer valid.
+     * <p>
+     * <b>NOTE:</b> since the shared connections are used by concurrent
+     * requests, they must be authenticated by the provided factory, e.g. using
+     * {@link LDAPConnectionFactory#AUTHN_BIND_REQUEST}. Bind and StartTLS
+     * requests, which would change the state of the shared connections, are
+     * rejected with a {@link ResultCode#CLIENT_SIDE_NOT_SUPPORTED} error.
+     * Abandon requests are ignored since they cannot be routed. Connection
+     * event listeners can be registered, but will only be notified when the
+     * returned connection is closed or when a shared connection cannot be
+     * established.
+     *
+     * @param factory
+     *            The connection factory to use for creating the shared
+     *            connections.
+     * @param numberOfConnections
+     *            The number of shared connections.
+     * @param maxOutstandingRequestsPerConnection
+     *            The maximum number of outstanding requests on each shared
+     *            connection.
+     * @return The new multiplexed connection factory.
+     * @throws IllegalArgumentException
+     *             If {@code numberOfConnections} or
+     *             {@code maxOutstandingRequestsPerConnection} is not positive.
+     * @throws NullPointerException
+     *             If {@code factory} was {@code null}.
+     */
+    public static ConnectionFactory newMultiplexedConnectionFactory(final ConnectionFactory factory,
+            final int numberOfConnections, final int maxOutstandingRequestsPerConnection) {
+        return new MultiplexedConnectionFactory(factory, numberOfConnections, maxOutstandingRequestsPerConnection);
+    }
+
     /**
      * Creates a new connection factory which forwards connection requests to
      * the provided factory, but whose {@code toString} method will always
@@ -30,6 +30,7 @@ import org.forgerock.util.Options;
 import org.forgerock.util.Reject;
 import org.forgerock.util.AsyncFunction;
 import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.ResultHandler;
 
 import com.forgerock.opendj.util.ReferenceCountedObject;
 
@@ -54,7 +55,19 @@ abstract class LoadBalancer implements ConnectionFactory {
     LoadBalancer(final String loadBalancerName,
                  final Collection<? extends ConnectionFactory> factories,
                  final Options options) {
-        Reject.ifNull(loadBalancerName, factories, options);
+        this(loadBalancerName, factories, options, new Object());
+    }
+
+    /**
+     * Creates a load-balancer whose events are notified while holding the provided lock, so that load-balancing
+     * algorithms which also notify the event listener can notify their own events one at a time with the
+     * load-balancer events.
+     */
+    LoadBalancer(final String loadBalancerName,
+                 final Collection<? extends ConnectionFactory> factories,
+                 final Options options,
+                 final Object listenerLock) {
+        Reject.ifNull(loadBalancerName, factories, options, listenerLock);
 
         this.loadBalancerName = loadBalancerName;
         this.monitoredFactories = new ArrayList<>(factories.size());
@@ -65,6 +78,7 @@ abstract class LoadBalancer implements ConnectionFactory {
         this.scheduler = DEFAULT_SCHEDULER.acquireIfNull(options.get(LOAD_BALANCER_SCHEDULER));
         this.monitoringIntervalMS = options.get(LOAD_BALANCER_MONITORING_INTERVAL).to(TimeUnit.MILLISECONDS);
         this.listener = options.get(LOAD_BALANCER_EVENT_LISTENER);
+        this.listenerLock = listenerLock;
     }
 
     @Override
@@ -117,7 +131,7 @@ abstract class LoadBalancer implements ConnectionFactory {
                 // Attempt failed - try next factory.
                 notifyOffline(e);
                 final int nextIndex = (index + 1) % monitoredFactories.size();
-                return getMonitoredConnectionFactory(nextIndex).getConnection();
+                return getOperationalFactory(nextIndex).getConnection();
             }
             notifyOnline();
             return connection;
@@ -125,11 +139,23 @@ abstract class LoadBalancer implements ConnectionFactory {
 
         @Override
         public Promise<Connection, LdapException> getConnectionAsync() {
+            return getConnectionAsync(null);
+        }
+
+        /**
+         * Returns a connection from this factory, or from the next available factory if this one fails, and notifies
+         * the provided handler, if any, of the index of the factory which provided the connection.
+         */
+        private Promise<Connection, LdapException> getConnectionAsync(
+                final ResultHandler<Integer> servingIndexHandler) {
             return factory.getConnectionAsync().thenAsync(
                 new AsyncFunction<Connection, Connection, LdapException>() {
                     @Override
                     public Promise<Connection, LdapException> apply(Connection value) throws LdapException {
                         notifyOnline();
+                        if (servingIndexHandler != null) {
+                            servingIndexHandler.handleResult(index);
+                        }
                         return newResultPromise(value);
                     }
                 },
@@ -139,7 +165,7 @@ abstract class LoadBalancer implements ConnectionFactory {
                         // Attempt failed - try next factory.
                         notifyOffline(error);
                         final int nextIndex = (index + 1) % monitoredFactories.size();
-                        return getMonitoredConnectionFactory(nextIndex).getConnectionAsync();
+                        return getOperationalFactory(nextIndex).getConnectionAsync(servingIndexHandler);
                     }
                 });
         }
@@ -255,7 +281,7 @@ abstract class LoadBalancer implements ConnectionFactory {
     private final LoadBalancerEventListener listener;
 
     /** Ensures that events are notified one at a time. */
-    private final Object listenerLock = new Object();
+    private final Object listenerLock;
 
     /** Guarded by stateLock. */
     private int offlineFactoriesCount;
@@ -273,6 +299,27 @@ abstract class LoadBalancer implements ConnectionFactory {
      * @throws LdapException If no connection factories are available.
      */
     final ConnectionFactory getMonitoredConnectionFactory(final int initialIndex) throws LdapException {
+        return getOperationalFactory(initialIndex);
+    }
+
+    /**
+     * Asynchronously obtains a connection from the first available connection factory starting from
+     * {@code initialIndex}. Since the connection may be provided by another connection factory than the requested
+     * one, the index of the connection factory which actually provided the connection is notified to
+     * {@code servingIndexHandler} before the returned promise completes.
+     *
+     * @param initialIndex The index of the connection factory to be used if operational.
+     * @param servingIndexHandler The handler notified with the index of the connection factory providing the
+     *                            connection.
+     * @return A promise for the connection.
+     * @throws LdapException If no connection factories are available.
+     */
+    final Promise<Connection, LdapException> getMonitoredConnectionAsync(final int initialIndex,
+            final ResultHandler<Integer> servingIndexHandler) throws LdapException {
+        return getOperationalFactory(initialIndex).getConnectionAsync(servingIndexHandler);
+    }
+
+    private MonitoredConnectionFactory getOperationalFactory(final int initialIndex) throws LdapException {
         final int maxIndex = monitoredFactories.size();
         int index = initialIndex;
         do {
@@ -21,11 +21,14 @@ import static com.forgerock.opendj.ldap.CoreMessages.LOAD_BALANCER_EVENT_LISTENE
 
 import java.util.EventListener;
 
+import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 
 /**
  * An object that registers to be notified when a connection factory associated
- * with a load-balancer changes state from offline to online or vice-versa.
+ * with a load-balancer changes state from offline to online or vice-versa, and
+ * of the statistics of load-balancers which measure the load of their
+ * connection factories.
  * <p>
  * <b>NOTE:</b> load-balancer implementations must ensure that only one event is
  * sent at a time. Event listener implementations should not need to be thread
@@ -51,6 +54,14 @@ public interface LoadBalancerEventListener extends EventListener {
         public void handleConnectionFactoryOffline(final ConnectionFactory factory, final LdapException error) {
             logger.warn(LOAD_BALANCER_EVENT_LISTENER_LOG_OFFLINE.get(factory, error.getMessage()));
         }
+
+        @Override
+        public void handleConnectionFactoryStatistics(final ConnectionFactory factory,
+                final long averageResponseTimeNanos, final int activeRequests) {
+            logger.debug(LocalizableMessage.raw(
+                    "Connection factory '%s' has an average response time of %d us and %d active requests",
+                    factory, averageResponseTimeNanos / 1000, activeRequests));
+        }
     };
 
     /** An event listener implementation which ignores all events. */
@@ -88,4 +99,29 @@ public interface LoadBalancerEventListener extends EventListener {
      *            The connection factory which is now available for use.
      */
     void handleConnectionFactoryOnline(ConnectionFactory factory);
+
+    /**
+     * Invoked by load-balancers which measure the load of their connection
+     * factories, such as the "least latency" load-balancer, in order to report
+     * the current load of the specified connection factory. The "least latency"
+     * load-balancer reports the statistics of a connection factory when a
+     * request sent to it completes, at most once per
+     * {@link Connections#LOAD_BALANCER_MONITORING_INTERVAL monitoring interval}.
+     * <p>
+     * The default implementation does nothing.
+     *
+     * @param factory
+     *            The connection factory.
+     * @param averageResponseTimeNanos
+     *            The moving average of the response times of the requests
+     *            sent to the connection factory, in nanoseconds.
+     * @param activeRequests
+     *            The number of requests currently in progress on the
+     *            connection factory.
+     * @see Connections#newLeastLatencyLoadBalancer
+     */
+    default void handleConnectionFactoryStatistics(ConnectionFactory factory, long averageResponseTimeNanos,
+            int activeRequests) {
+        // Do nothing.
+    }
 }
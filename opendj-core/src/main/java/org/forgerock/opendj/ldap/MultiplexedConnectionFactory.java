@@ -0,0 +1,454 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.ldap;
+
+import static com.forgerock.opendj.ldap.CoreMessages.*;
+
+import static org.forgerock.opendj.ldap.LdapException.newLdapException;
+import static org.forgerock.opendj.ldap.spi.LdapPromises.newFailedLdapPromise;
+import static org.forgerock.util.Utils.closeSilently;
+import static org.forgerock.util.promise.Promises.newExceptionPromise;
+import static org.forgerock.util.promise.Promises.newResultPromise;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.forgerock.opendj.ldap.requests.AbandonRequest;
+import org.forgerock.opendj.ldap.requests.AddRequest;
+import org.forgerock.opendj.ldap.requests.BindRequest;
+import org.forgerock.opendj.ldap.requests.CompareRequest;
+import org.forgerock.opendj.ldap.requests.DeleteRequest;
+import org.forgerock.opendj.ldap.requests.ExtendedRequest;
+import org.forgerock.opendj.ldap.requests.ModifyDNRequest;
+import org.forgerock.opendj.ldap.requests.ModifyRequest;
+import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.requests.StartTLSExtendedRequest;
+import org.forgerock.opendj.ldap.requests.UnbindRequest;
+import org.forgerock.opendj.ldap.responses.BindResult;
+import org.forgerock.opendj.ldap.responses.CompareResult;
+import org.forgerock.opendj.ldap.responses.ExtendedResult;
+import org.forgerock.opendj.ldap.responses.Result;
+import org.forgerock.opendj.ldap.spi.ConnectionState;
+import org.forgerock.opendj.ldap.spi.LdapPromises;
+import org.forgerock.util.AsyncFunction;
+import org.forgerock.util.Reject;
+import org.forgerock.util.promise.ExceptionHandler;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.ResultHandler;
+
+/**
+ * A connection factory which multiplexes the requests of all the connections it returns over a small number of
+ * connections shared with each other, taking advantage of LDAP allowing many outstanding requests per connection.
+ * <p>
+ * Each request is sent over the shared connection which has the least outstanding requests. When all the shared
+ * connections have reached the maximum number of outstanding requests, requests wait, in arrival order, for one of
+ * them to complete. Shared connections are established on demand and re-established when they are no longer valid.
+ * <p>
+ * The shared connections are authenticated once by the underlying connection factory. Requests which would change
+ * the state of a shared connection, i.e. binds and StartTLS, are therefore rejected. Abandon requests are ignored
+ * since they cannot be routed to the shared connection of the abandoned request.
+ */
+final class MultiplexedConnectionFactory implements ConnectionFactory {
+    /** A connection shared by the requests of all the multiplexed connections. */
+    private final class SharedConnection {
+        private final AtomicReference<Promise<Connection, LdapException>> connection = new AtomicReference<>();
+        private final AtomicInteger outstandingRequests = new AtomicInteger();
+
+        /** Reserves room for a new request, unless this shared connection has too many outstanding requests. */
+        private boolean tryReserve() {
+            for (;;) {
+                final int count = outstandingRequests.get();
+                if (count >= maxOutstandingRequestsPerConnection) {
+                    return false;
+                } else if (outstandingRequests.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Returns the shared connection, which is established if it has never been or if it is no longer valid.
+         * Requests may be pipelined while the connection is being established.
+         */
+        private Promise<Connection, LdapException> getConnectionAsync() {
+            for (;;) {
+                if (isClosed.get()) {
+                    return newExceptionPromise(newFactoryClosingException());
+                }
+                final Promise<Connection, LdapException> current = connection.get();
+                final Connection previousConnection = getConnectionIfDone(current);
+                if (current != null && (!current.isDone() || isValid(previousConnection))) {
+                    return current;
+                }
+                final PromiseImpl<Connection, LdapException> next = PromiseImpl.create();
+                if (connection.compareAndSet(current, next)) {
+                    closeSilently(previousConnection);
+                    factory.getConnectionAsync().thenOnResult(new ResultHandler<Connection>() {
+                        @Override
+                        public void handleResult(final Connection newConnection) {
+                            if (!isClosed.get()) {
+                                next.handleResult(newConnection);
+                            }
+                            // Checked again once published: close() only closes the established connections.
+                            if (isClosed.get()) {
+                                closeSilently(newConnection);
+                                next.tryHandleException(newFactoryClosingException());
+                            }
+                        }
+                    }).thenOnException(next);
+                    return next;
+                }
+            }
+        }
+
+        /**
+         * Closes the shared connection. A connection still being established is closed once established, see
+         * {@link #getConnectionAsync()}.
+         */
+        private void close() {
+            closeSilently(getConnectionIfDone(connection.getAndSet(null)));
+        }
+
+        private boolean isValid(final Connection connection) {
+            return connection != null && connection.isValid();
+        }
+
+        private Connection getConnectionIfDone(final Promise<Connection, LdapException> promise) {
+            if (promise != null && promise.isDone()) {
+                try {
+                    return promise.getOrThrowUninterruptibly();
+                } catch (final LdapException e) {
+                    // The connection could not be established.
+                }
+            }
+            return null;
+        }
+    }
+
+    /** A connection whose requests are performed over the shared connections. */
+    private final class MultiplexedConnection extends AbstractAsynchronousConnection {
+        private final ConnectionState state = new ConnectionState();
+
+        @Override
+        public LdapPromise<Void> abandonAsync(final AbandonRequest request) {
+            // We cannot possibly route these correctly, so just drop them.
+            return LdapPromises.newSuccessfulLdapPromise(null);
+        }
+
+        @Override
+        public LdapPromise<Result> addAsync(
+                final AddRequest request, final IntermediateResponseHandler intermediateResponseHandler) {
+            return execute(new AsyncFunction<Connection, Result, LdapException>() {
+                @Override
+                public Promise<Result, LdapException> apply(final Connection connection) throws LdapException {
+                    return connection.addAsync(request, intermediateResponseHandler);
+                }
+            });
+        }
+
+        @Override
+        public void addConnectionEventListener(final ConnectionEventListener listener) {
+            state.addConnectionEventListener(listener);
+        }
+
+        @Override
+        public LdapPromise<BindResult> bindAsync(
+                final BindRequest request, final IntermediateResponseHandler intermediateResponseHandler) {
+            return newConnectionStateChangeError("Bind");
+        }
+
+        @Override
+        public void close(final UnbindRequest request, final String reason) {
+            state.notifyConnectionClosed();
+        }
+
+        @Override
+        public LdapPromise<CompareResult> compareAsync(
+                final CompareRequest request, final IntermediateResponseHandler intermediateResponseHandler) {
+            return execute(new AsyncFunction<Connection, CompareResult, LdapException>() {
+                @Override
+                public Promise<CompareResult, LdapException> apply(final Connection connection)
+                        throws LdapException {
+                    return connection.compareAsync(request, intermediateResponseHandler);
+                }
+            });
+        }
+
+        @Override
+        public LdapPromise<Result> deleteAsync(
+                final DeleteRequest request, final IntermediateResponseHandler intermediateResponseHandler) {
+            return execute(new AsyncFunction<Connection, Result, LdapException>() {
+                @Override
+                public Promise<Result, LdapException> apply(final Connection connection) throws LdapException {
+                    return connection.deleteAsync(request, intermediateResponseHandler);
+                }
+            });
+        }
+
+        @Override
+        public <R extends ExtendedResult> LdapPromise<R> extendedRequestAsync(
+                final ExtendedRequest<R> request, final IntermediateResponseHandler intermediateResponseHandler) {
+            if (StartTLSExtendedRequest.OID.equals(request.getOID())) {
+                return newConnectionStateChangeError("StartTLS");
+            }
+            return execute(new AsyncFunction<Connection, R, LdapException>() {
+                @Override
+                public Promise<R, LdapException> apply(final Connection connection) throws LdapException {
+                    return connection.extendedRequestAsync(request, intermediateResponseHandler);
+                }
+            });
+        }
+
+        @Override
+        public boolean isClosed() {
+            return state.isClosed();
+        }
+
+        @Override
+        public boolean isValid() {
+            return state.isValid();
+        }
+
+        @Override
+        public LdapPromise<Result> modifyAsync(
+                final ModifyRequest request, final IntermediateResponseHandler intermediateResponseHandler) {
+            return execute(new AsyncFunction<Connection, Result, LdapException>() {
+                @Override
+                public Promise<Result, LdapException> apply(final Connection connection) throws LdapException {
+                    return connection.modifyAsync(request, intermediateResponseHandler);
+                }
+            });
+        }
+
+        @Override
+        public LdapPromise<Result> modifyDNAsync(
+                final ModifyDNRequest request, final IntermediateResponseHandler intermediateResponseHandler) {
+            return execute(new AsyncFunction<Connection, Result, LdapException>() {
+                @Override
+                public Promise<Result, LdapException> apply(final Connection connection) throws LdapException {
+                    return connection.modifyDNAsync(request, intermediateResponseHandler);
+                }
+            });
+        }
+
+        @Override
+        public void removeConnectionEventListener(final ConnectionEventListener listener) {
+            state.removeConnectionEventListener(listener);
+        }
+
+        @Override
+        public LdapPromise<Result> searchAsync(
+                final SearchRequest request,
+                final IntermediateResponseHandler intermediateResponseHandler,
+                final SearchResultHandler entryHandler) {
+            return execute(new AsyncFunction<Connection, Result, LdapException>() {
+                @Override
+                public Promise<Result, LdapException> apply(final Connection connection) throws LdapException {
+                    return connection.searchAsync(request, intermediateResponseHandler, entryHandler);
+                }
+            });
+        }
+
+        @Override
+        public String toString() {
+            return "MultiplexedConnection(" + factory + ')';
+        }
+
+        private <R> LdapPromise<R> execute(final AsyncFunction<Connection, R, LdapException> requestSender) {
+            if (state.isClosed()) {
+                throw new IllegalStateException();
+            }
+            final AtomicReference<SharedConnection> reservedConnection = new AtomicReference<>();
+            return LdapPromises.asPromise(reserveSharedConnection()
+                    .thenAsync(new AsyncFunction<SharedConnection, Connection, LdapException>() {
+                        @Override
+                        public Promise<Connection, LdapException> apply(final SharedConnection sharedConnection) {
+                            reservedConnection.set(sharedConnection);
+                            return sharedConnection.getConnectionAsync()
+                                    .thenOnException(new ExceptionHandler<LdapException>() {
+                                        @Override
+                                        public void handleException(final LdapException e) {
+                                            state.notifyConnectionError(false, e);
+                                        }
+                                    });
+                        }
+                    })
+                    .thenAsync(requestSender)
+                    .thenFinally(new Runnable() {
+                        @Override
+                        public void run() {
+                            final SharedConnection sharedConnection = reservedConnection.get();
+                            if (sharedConnection != null) {
+                                release(sharedConnection);
+                            }
+                        }
+                    }));
+        }
+
+        private <R> LdapPromise<R> newConnectionStateChangeError(final String requestName) {
+            return newFailedLdapPromise(newLdapException(ResultCode.CLIENT_SIDE_NOT_SUPPORTED,
+                    ERR_MULTIPLEXED_CONNECTION_STATE_CHANGE.get(requestName, factory)
+                            .toString()));
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final SharedConnection[] sharedConnections;
+    private final int maxOutstandingRequestsPerConnection;
+    private final AtomicBoolean isClosed = new AtomicBoolean();
+
+    /** The requests waiting for a shared connection to have room for them, the oldest one first. */
+    private final ConcurrentLinkedQueue<PromiseImpl<SharedConnection, LdapException>> waitingRequests =
+            new ConcurrentLinkedQueue<>();
+
+    MultiplexedConnectionFactory(final ConnectionFactory factory, final int numberOfConnections,
+            final int maxOutstandingRequestsPerConnection) {
+        Reject.ifNull(factory);
+        Reject.ifFalse(numberOfConnections > 0, "numberOfConnections <= 0");
+        Reject.ifFalse(maxOutstandingRequestsPerConnection > 0, "maxOutstandingRequestsPerConnection <= 0");
+        this.factory = factory;
+        this.maxOutstandingRequestsPerConnection = maxOutstandingRequestsPerConnection;
+        this.sharedConnections = new SharedConnection[numberOfConnections];
+        for (int i = 0; i < numberOfConnections; i++) {
+            sharedConnections[i] = new SharedConnection();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!isClosed.compareAndSet(false, true)) {
+            return;
+        }
+        for (final SharedConnection sharedConnection : sharedConnections) {
+            sharedConnection.close();
+        }
+        failWaitingRequests();
+        factory.close();
+    }
+
+    @Override
+    public Connection getConnection() throws LdapException {
+        checkNotClosed();
+        return new MultiplexedConnection();
+    }
+
+    @Override
+    public Promise<Connection, LdapException> getConnectionAsync() {
+        checkNotClosed();
+        return newResultPromise((Connection) new MultiplexedConnection());
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("MultiplexedConnectionFactory(outstandingRequests=[");
+        for (int i = 0; i < sharedConnections.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(sharedConnections[i].outstandingRequests.get());
+        }
+        builder.append("], maxOutstandingRequestsPerConnection=").append(maxOutstandingRequestsPerConnection);
+        builder.append(", waitingRequests=").append(waitingRequests.size());
+        builder.append(", factory=").append(factory).append(')');
+        return builder.toString();
+    }
+
+    private void checkNotClosed() {
+        if (isClosed.get()) {
+            throw new IllegalStateException("MultiplexedConnectionFactory is already closed");
+        }
+    }
+
+    /**
+     * Dispatches the waiting requests to the shared connections which have room for them. Both a thread releasing
+     * room and a thread adding a waiting request call this method after updating their own state, so that at least
+     * one of them sees both the room and the request.
+     */
+    private void dispatchWaitingRequests() {
+        while (!waitingRequests.isEmpty() && !isClosed.get()) {
+            final SharedConnection sharedConnection = tryReserveLeastLoadedSharedConnection();
+            if (sharedConnection == null) {
+                return;
+            }
+            final PromiseImpl<SharedConnection, LdapException> request = waitingRequests.poll();
+            if (request == null || !request.tryHandleResult(sharedConnection)) {
+                // Another thread has dispatched the request in the meantime.
+                sharedConnection.outstandingRequests.decrementAndGet();
+            }
+        }
+        if (isClosed.get()) {
+            failWaitingRequests();
+        }
+    }
+
+    private void failWaitingRequests() {
+        PromiseImpl<SharedConnection, LdapException> request;
+        while ((request = waitingRequests.poll()) != null) {
+            request.handleException(newFactoryClosingException());
+        }
+    }
+
+    private LdapException newFactoryClosingException() {
+        return newLdapException(ResultCode.CLIENT_SIDE_USER_CANCELLED,
+                ERR_MULTIPLEXED_CONNECTION_FACTORY_CLOSING.get(toString()).toString());
+    }
+
+    private void release(final SharedConnection sharedConnection) {
+        sharedConnection.outstandingRequests.decrementAndGet();
+        dispatchWaitingRequests();
+    }
+
+    private Promise<SharedConnection, LdapException> reserveSharedConnection() {
+        if (isClosed.get()) {
+            return newExceptionPromise(newFactoryClosingException());
+        }
+        final SharedConnection sharedConnection = tryReserveLeastLoadedSharedConnection();
+        if (sharedConnection != null) {
+            return newResultPromise(sharedConnection);
+        }
+        final PromiseImpl<SharedConnection, LdapException> request = PromiseImpl.create();
+        waitingRequests.offer(request);
+        dispatchWaitingRequests();
+        return request;
+    }
+
+    /**
+     * Reserves room for a new request on the shared connection which has the least outstanding requests, and returns
+     * {@code null} if all the shared connections have reached the maximum number of outstanding requests.
+     */
+    private SharedConnection tryReserveLeastLoadedSharedConnection() {
+        for (;;) {
+            SharedConnection leastLoaded = null;
+            int min = maxOutstandingRequestsPerConnection;
+            // Modifications during this loop are ok, the reservation below will fail if the selected one is full
+            for (final SharedConnection sharedConnection : sharedConnections) {
+                final int count = sharedConnection.outstandingRequests.get();
+                if (count < min) {
+                    min = count;
+                    leastLoaded = sharedConnection;
+                }
+            }
+            if (leastLoaded == null) {
+                return null;
+            } else if (leastLoaded.tryReserve()) {
+                return leastLoaded;
+            }
+        }
+    }
+}
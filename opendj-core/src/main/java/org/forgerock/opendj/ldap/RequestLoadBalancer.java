@@ -64,15 +64,29 @@ final class RequestLoadBalancer extends LoadBalancer {
      * for the actual LDAP operation.
      */
     private final Function<Request, PartitionedRequest, NeverThrowsException> nextFactoryFunction;
-    /** A function which is called after a request is terminated. */
-    private final Function<Integer, Void, NeverThrowsException> endOfRequestFunction;
+    /**
+     * A function which is called after a request is terminated with the request and server index returned by the
+     * next factory function, and which may use the time elapsed since then in order to measure response times. The
+     * partitioned request also provides the index of the server which actually served the request, as well as the
+     * error which terminated it, if any.
+     */
+    private final Function<PartitionedRequest, Void, NeverThrowsException> endOfRequestFunction;
 
     RequestLoadBalancer(final String loadBalancerName,
                         final Collection<? extends ConnectionFactory> factories,
                         final Options options,
                         final Function<Request, PartitionedRequest, NeverThrowsException> nextFactoryFunction,
-                        final Function<Integer, Void, NeverThrowsException> endOfRequestFunction) {
-        super(loadBalancerName, factories, options);
+                        final Function<PartitionedRequest, Void, NeverThrowsException> endOfRequestFunction) {
+        this(loadBalancerName, factories, options, nextFactoryFunction, endOfRequestFunction, new Object());
+    }
+
+    RequestLoadBalancer(final String loadBalancerName,
+                        final Collection<? extends ConnectionFactory> factories,
+                        final Options options,
+                        final Function<Request, PartitionedRequest, NeverThrowsException> nextFactoryFunction,
+                        final Function<PartitionedRequest, Void, NeverThrowsException> endOfRequestFunction,
+                        final Object listenerLock) {
+        super(loadBalancerName, factories, options, listenerLock);
         this.nextFactoryFunction = nextFactoryFunction;
         this.endOfRequestFunction = endOfRequestFunction;
     }
@@ -246,11 +260,17 @@ final class RequestLoadBalancer extends LoadBalancer {
             if (state.isClosed()) {
                 throw new IllegalStateException();
             }
+            final PartitionedRequest partitionedRequest = nextFactoryFunction.apply(request);
             try {
-                final PartitionedRequest partitionedRequest = nextFactoryFunction.apply(request);
-                final ConnectionFactory factory = getMonitoredConnectionFactory(partitionedRequest.getServerIndex());
+                final Promise<Connection, LdapException> connectionPromise = getMonitoredConnectionAsync(
+                        partitionedRequest.getServerIndex(), new ResultHandler<Integer>() {
+                            @Override
+                            public void handleResult(final Integer servingServerIndex) {
+                                partitionedRequest.setServingServerIndex(servingServerIndex);
+                            }
+                        });
                 return new ConnectionContext(
-                        LdapPromises.asPromise(factory.getConnectionAsync()
+                        LdapPromises.asPromise(connectionPromise
                                 .thenOnException(new ExceptionHandler<LdapException>() {
                                     @Override
                                     public void handleException(final LdapException e) {
@@ -260,7 +280,7 @@ final class RequestLoadBalancer extends LoadBalancer {
             } catch (final LdapException e) {
                 state.notifyConnectionError(false, e);
                 LdapPromise<Connection> failedLdapPromise = newFailedLdapPromise(e);
-                return new ConnectionContext(failedLdapPromise, new PartitionedRequest(request, -1));
+                return new ConnectionContext(failedLdapPromise, partitionedRequest);
             }
         }
 
@@ -274,11 +294,17 @@ final class RequestLoadBalancer extends LoadBalancer {
                         }
                     })
                     .thenAsync(requestSender)
+                    .thenOnException(new ExceptionHandler<LdapException>() {
+                        @Override
+                        public void handleException(final LdapException e) {
+                            connectionContext.getPartitionedRequest().setError(e);
+                        }
+                    })
                     .thenFinally(new Runnable() {
                         @Override
                         public void run() {
                             closeSilently(connectionContext.getConnection());
-                            endOfRequestFunction.apply(connectionContext.getServerIndex());
+                            endOfRequestFunction.apply(connectionContext.getPartitionedRequest());
                         }
                     });
         }
@@ -289,12 +315,34 @@ final class RequestLoadBalancer extends LoadBalancer {
         private final Request request;
         /** The index of server chosen for the connection. */
         private final int serverIndex;
+        /**
+         * The index of the server which provided the connection, which differs from the chosen server when the chosen
+         * server was not available.
+         */
+        private volatile int servingServerIndex;
+        /** The error which terminated the request, or {@code null} if the request succeeded. */
+        private volatile LdapException error;
+        /** The time at which the server was chosen, used for measuring the response time of the request. */
+        private final long startTimeNanos = System.nanoTime();
 
         PartitionedRequest(Request request, int serverIndex) {
             this.serverIndex = serverIndex;
+            this.servingServerIndex = serverIndex;
             this.request = request;
         }
 
+        LdapException getError() {
+            return error;
+        }
+
+        void setError(LdapException error) {
+            this.error = error;
+        }
+
+        long getElapsedTimeNanos() {
+            return System.nanoTime() - startTimeNanos;
+        }
+
         Request getRequest() {
             return request;
         }
@@ -302,6 +350,14 @@ final class RequestLoadBalancer extends LoadBalancer {
         int getServerIndex() {
             return serverIndex;
         }
+
+        int getServingServerIndex() {
+            return servingServerIndex;
+        }
+
+        void setServingServerIndex(int servingServerIndex) {
+            this.servingServerIndex = servingServerIndex;
+        }
     }
 
     /** Utility class to hold together parameters for a request and the connection used to perform it. */
@@ -327,8 +383,8 @@ final class RequestLoadBalancer extends LoadBalancer {
             return connectionPromise;
         }
 
-        int getServerIndex() {
-            return partitionedRequest.getServerIndex();
+        PartitionedRequest getPartitionedRequest() {
+            return partitionedRequest;
         }
 
         Request getRequest() {
@@ -20,6 +20,10 @@ package org.forgerock.opendj.ldap;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.forgerock.opendj.ldap.requests.BindRequest;
@@ -37,6 +41,7 @@ import static org.fest.assertions.Assertions.*;
 import static org.forgerock.opendj.ldap.Connections.*;
 import static org.forgerock.opendj.ldap.LdapException.*;
 import static org.forgerock.opendj.ldap.TestCaseUtils.*;
+import static org.forgerock.opendj.ldap.spi.LdapPromises.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
@@ -536,4 +541,98 @@ public class ConnectionPoolTestCase extends SdkTestCase {
         }
     }
 
+    /**
+     * Verifies that connection pool listeners are notified of the pool activity
+     * and that the pool exposes its current utilization.
+     */
+    @Test
+    public void testConnectionPoolListener() throws Exception {
+        final Connection connection1 = mock(Connection.class);
+        when(connection1.isValid()).thenReturn(true);
+        final Connection connection2 = mock(Connection.class);
+        when(connection2.isValid()).thenReturn(true);
+
+        final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
+        final ConnectionPool pool = Connections.newFixedConnectionPool(factory, 1);
+        final ConnectionPoolListener listener = mock(ConnectionPoolListener.class);
+        pool.addConnectionPoolListener(listener);
+
+        final Connection pc1 = pool.getConnection();
+        verify(listener).handleConnectionCreated();
+        verify(listener).handleConnectionBorrowed(anyLong());
+        assertThat(pool.getActiveConnectionCount()).isEqualTo(1);
+        assertThat(pool.getIdleConnectionCount()).isEqualTo(0);
+
+        // The pool is full, so the next request waits for the connection to be released.
+        final Promise<? extends Connection, LdapException> promise = pool.getConnectionAsync();
+        assertThat(pool.getWaitingRequestCount()).isEqualTo(1);
+        pc1.close();
+        assertThat(promise.isDone()).isTrue();
+        assertThat(pool.getWaitingRequestCount()).isEqualTo(0);
+        verify(listener, times(2)).handleConnectionBorrowed(anyLong());
+
+        // An invalid connection is replaced by a new one.
+        when(connection1.isValid()).thenReturn(false);
+        promise.get().close();
+        verify(listener).handleConnectionDiscarded();
+        verify(listener, times(2)).handleConnectionCreated();
+        assertThat(pool.getActiveConnectionCount()).isEqualTo(0);
+        assertThat(pool.getIdleConnectionCount()).isEqualTo(1);
+
+        pool.removeConnectionPoolListener(listener);
+        pool.getConnection().close();
+        verifyNoMoreInteractions(listener);
+        pool.close();
+    }
+
+    /**
+     * Verifies that many threads concurrently borrowing and releasing
+     * connections from a small pool are all served without exceeding the
+     * maximum pool size.
+     */
+    @Test(timeOut = 60000)
+    public void testConcurrentBorrowers() throws Exception {
+        final ConnectionFactory factory = mock(ConnectionFactory.class);
+        when(factory.getConnectionAsync()).thenAnswer(new Answer<Promise<Connection, LdapException>>() {
+            @Override
+            public Promise<Connection, LdapException> answer(final InvocationOnMock invocation) throws Throwable {
+                final Connection connection = mock(Connection.class);
+                when(connection.isValid()).thenReturn(true);
+                return newSuccessfulLdapPromise(connection);
+            }
+        });
+        final int maxPoolSize = 2;
+        final CachedConnectionPool pool =
+                new CachedConnectionPool(factory, 0, maxPoolSize, 0, null, null);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        for (int j = 0; j < 1000; j++) {
+                            final Connection connection = pool.getConnectionAsync().getOrThrow(10, TimeUnit.SECONDS);
+                            assertThat(pool.currentPoolSize()).isLessThanOrEqualTo(maxPoolSize);
+                            connection.close();
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(pool.getWaitingRequestCount()).isEqualTo(0);
+        assertThat(pool.getActiveConnectionCount()).isEqualTo(0);
+        assertThat(pool.getIdleConnectionCount()).isEqualTo(pool.currentPoolSize());
+        pool.close();
+        assertThat(pool.currentPoolSize()).isEqualTo(0);
+    }
+
 }
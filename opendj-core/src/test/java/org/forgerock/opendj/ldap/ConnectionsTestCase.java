@@ -16,13 +16,19 @@
 package org.forgerock.opendj.ldap;
 
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.forgerock.opendj.ldap.Connections.*;
+import static org.forgerock.opendj.ldap.LdapException.newLdapException;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.List;
+
+import org.forgerock.opendj.ldap.Connections.LeastLatencyDispatcher;
 import org.forgerock.opendj.ldap.Connections.LeastRequestsDispatcher;
 import org.forgerock.opendj.ldap.RequestLoadBalancer.PartitionedRequest;
 import org.forgerock.opendj.ldap.requests.AddRequest;
@@ -42,6 +48,7 @@ import org.forgerock.opendj.ldap.requests.SearchRequest;
 import org.forgerock.opendj.ldap.requests.SimpleBindRequest;
 import org.forgerock.util.Function;
 import org.forgerock.util.promise.NeverThrowsException;
+import org.forgerock.util.time.TimeService;
 import org.testng.annotations.Test;
 
 import com.forgerock.opendj.ldap.controls.AffinityControl;
@@ -148,7 +155,7 @@ public class ConnectionsTestCase extends SdkTestCase {
         LeastRequestsDispatcher dispatcher = new Connections.LeastRequestsDispatcher(3);
         Function<Request, PartitionedRequest, NeverThrowsException> next =
                 newLeastRequestsLoadBalancerNextFunction(dispatcher);
-        Function<Integer, Void, NeverThrowsException> end =
+        Function<PartitionedRequest, Void, NeverThrowsException> end =
                 newLeastRequestsLoadBalancerEndOfRequestFunction(dispatcher);
 
         final SearchRequest[] reqs = new SearchRequest[11];
@@ -158,15 +165,15 @@ public class ConnectionsTestCase extends SdkTestCase {
         assertThat(next.apply(reqs[0]).getServerIndex()).isEqualTo(0);  // number of reqs = [1, 0, 0]
         assertThat(next.apply(reqs[1]).getServerIndex()).isEqualTo(1);  // number of reqs = [1, 1, 0]
         assertThat(next.apply(reqs[2]).getServerIndex()).isEqualTo(2);  // number of reqs = [1, 1, 1]
-        end.apply(1);                                                   // number of reqs = [1, 0, 1]
+        end.apply(new PartitionedRequest(reqs[1], 1));                  // number of reqs = [1, 0, 1]
         assertThat(next.apply(reqs[3]).getServerIndex()).isEqualTo(1);  // number of reqs = [1, 1, 1]
-        end.apply(1);                                                   // number of reqs = [1, 0, 1]
+        end.apply(new PartitionedRequest(reqs[1], 1));                  // number of reqs = [1, 0, 1]
         assertThat(next.apply(reqs[5]).getServerIndex()).isEqualTo(1);  // number of reqs = [1, 1, 1]
         assertThat(next.apply(reqs[6]).getServerIndex()).isEqualTo(0);  // number of reqs = [2, 1, 1]
         assertThat(next.apply(reqs[7]).getServerIndex()).isEqualTo(1);  // number of reqs = [2, 2, 1]
         assertThat(next.apply(reqs[8]).getServerIndex()).isEqualTo(2);  // number of reqs = [2, 2, 2]
         assertThat(next.apply(reqs[9]).getServerIndex()).isEqualTo(0);  // number of reqs = [3, 2, 2]
-        end.apply(2);                                                   // number of reqs = [3, 2, 1]
+        end.apply(new PartitionedRequest(reqs[2], 2));                  // number of reqs = [3, 2, 1]
         assertThat(next.apply(reqs[10]).getServerIndex()).isEqualTo(2); // number of reqs = [3, 2, 2]
     }
 
@@ -211,6 +218,92 @@ public class ConnectionsTestCase extends SdkTestCase {
         assertThat(next.apply(reqs[9]).getServerIndex()).isEqualTo(2); // number of reqs = [4, 3, 3]
     }
 
+    @Test
+    public void leastLatencyDispatcherMustAvoidTheSlowerServer() {
+        final LeastLatencyDispatcher dispatcher = newLeastLatencyDispatcher(mock(TimeService.class));
+        final int slow = dispatcher.selectServer();
+        dispatcher.terminatedRequest(slow, slow, MILLISECONDS.toNanos(10), false);
+        final int fast = dispatcher.selectServer();
+        assertThat(fast).isEqualTo(1 - slow);
+        dispatcher.terminatedRequest(fast, fast, MILLISECONDS.toNanos(1), false);
+
+        // The fast server is preferred until its active requests make it as loaded as the slow server.
+        for (int i = 0; i < 9; i++) {
+            assertThat(dispatcher.selectServer()).isEqualTo(fast);
+        }
+        assertThat(dispatcher.selectServer()).isEqualTo(slow);
+    }
+
+    @Test
+    public void leastLatencyDispatcherMustGraduallyRetryIdleSlowServers() {
+        final TimeService time = mock(TimeService.class);
+        final LeastLatencyDispatcher dispatcher = newLeastLatencyDispatcher(time);
+        final int slow = dispatcher.selectServer();
+        dispatcher.terminatedRequest(slow, slow, MILLISECONDS.toNanos(10), false);
+        final int fast = dispatcher.selectServer();
+        dispatcher.terminatedRequest(fast, fast, MILLISECONDS.toNanos(1), false);
+
+        assertThat(dispatcher.selectServer()).isEqualTo(fast);
+        when(time.now()).thenReturn(SECONDS.toMillis(10));
+        assertThat(dispatcher.selectServer()).isEqualTo(fast);
+        when(time.now()).thenReturn(SECONDS.toMillis(30));
+        assertThat(dispatcher.selectServer()).isEqualTo(slow);
+    }
+
+    @Test
+    public void leastLatencyDispatcherMustReportStatisticsAtMostOncePerInterval() {
+        final TimeService time = mock(TimeService.class);
+        final LoadBalancerEventListener listener = mock(LoadBalancerEventListener.class);
+        final ConnectionFactory factory = mock(ConnectionFactory.class);
+        final LeastLatencyDispatcher dispatcher =
+                new LeastLatencyDispatcher(asList(factory), listener, new Object(), SECONDS.toMillis(1), time);
+
+        dispatcher.selectServer();
+        dispatcher.selectServer();
+        dispatcher.terminatedRequest(0, 0, MILLISECONDS.toNanos(1), false);
+        verifyZeroInteractions(listener);
+
+        when(time.now()).thenReturn(SECONDS.toMillis(1));
+        dispatcher.terminatedRequest(0, 0, MILLISECONDS.toNanos(1), false);
+        verify(listener).handleConnectionFactoryStatistics(factory, MILLISECONDS.toNanos(1), 0);
+    }
+
+    @Test
+    public void leastLatencyDispatcherMustRecordResponseTimesAgainstTheServingServer() {
+        final LeastLatencyDispatcher dispatcher = newLeastLatencyDispatcher(mock(TimeService.class));
+        final int offline = dispatcher.selectServer();
+        final int serving = 1 - offline;
+        dispatcher.terminatedRequest(offline, serving, MILLISECONDS.toNanos(10), false);
+
+        // The offline server has not been charged for the response time of the server which served the request.
+        assertThat(dispatcher.selectServer()).isEqualTo(offline);
+    }
+
+    @Test
+    public void leastLatencyDispatcherMustAvoidServersFailingFast() {
+        final LeastLatencyDispatcher dispatcher = newLeastLatencyDispatcher(mock(TimeService.class));
+        final Function<PartitionedRequest, Void, NeverThrowsException> endOfRequest =
+                newLeastLatencyLoadBalancerEndOfRequestFunction(dispatcher);
+        final PartitionedRequest rejected = new PartitionedRequest(mock(Request.class), dispatcher.selectServer());
+        rejected.setError(newLdapException(ResultCode.BUSY));
+        endOfRequest.apply(rejected);
+
+        final int healthy = dispatcher.selectServer();
+        assertThat(healthy).isEqualTo(1 - rejected.getServerIndex());
+        dispatcher.terminatedRequest(healthy, healthy, MILLISECONDS.toNanos(10), false);
+
+        // The immediate rejection has been charged the failed request penalty rather than its response time.
+        for (int i = 0; i < 10; i++) {
+            assertThat(dispatcher.selectServer()).isEqualTo(healthy);
+        }
+    }
+
+    private LeastLatencyDispatcher newLeastLatencyDispatcher(final TimeService time) {
+        final List<ConnectionFactory> factories = asList(mock(ConnectionFactory.class), mock(ConnectionFactory.class));
+        return new LeastLatencyDispatcher(factories, mock(LoadBalancerEventListener.class), new Object(),
+                SECONDS.toMillis(1), time);
+    }
+
     private void assertRequestsAreRoutedConsistently(
             final Function<Request, PartitionedRequest, NeverThrowsException> f, final Request r,
             final int firstExpectedIndex, final int secondExpectedIndex) {
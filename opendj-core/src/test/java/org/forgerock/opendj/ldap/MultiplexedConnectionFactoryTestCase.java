@@ -0,0 +1,181 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.ldap;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Fail.fail;
+import static org.forgerock.opendj.ldap.Connections.newMultiplexedConnectionFactory;
+import static org.forgerock.opendj.ldap.TestCaseUtils.mockConnectionFactory;
+import static org.forgerock.opendj.ldap.requests.Requests.newSearchRequest;
+import static org.forgerock.opendj.ldap.responses.Responses.newResult;
+import static org.forgerock.opendj.ldap.spi.LdapPromises.asPromise;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.LinkedList;
+import java.util.Queue;
+
+import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.Result;
+import org.forgerock.util.promise.PromiseImpl;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class MultiplexedConnectionFactoryTestCase extends SdkTestCase {
+    private final SearchRequest searchRequest =
+            newSearchRequest("dc=example,dc=com", SearchScope.BASE_OBJECT, "(objectClass=*)");
+
+    @Test
+    public void requestsShouldBeSentOverTheLeastLoadedConnection() throws Exception {
+        final Queue<PromiseImpl<Result, LdapException>> results1 = new LinkedList<>();
+        final Queue<PromiseImpl<Result, LdapException>> results2 = new LinkedList<>();
+        final Connection connection1 = mockSharedConnection(results1);
+        final Connection connection2 = mockSharedConnection(results2);
+        final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
+
+        try (ConnectionFactory multiplexed = newMultiplexedConnectionFactory(factory, 2, 2);
+             Connection connection = multiplexed.getConnection()) {
+            final LdapPromise<Result> promise1 = connection.searchAsync(searchRequest, null, null);
+            final LdapPromise<Result> promise2 = connection.searchAsync(searchRequest, null, null);
+            final LdapPromise<Result> promise3 = connection.searchAsync(searchRequest, null, null);
+            assertThat(results1).hasSize(2);
+            assertThat(results2).hasSize(1);
+            verify(factory, times(2)).getConnectionAsync();
+
+            results1.remove().handleResult(newResult(ResultCode.SUCCESS));
+            assertThat(promise1.get().getResultCode()).isEqualTo(ResultCode.SUCCESS);
+            assertThat(promise2.isDone()).isFalse();
+            assertThat(promise3.isDone()).isFalse();
+        }
+        verify(connection1).close();
+        verify(connection2).close();
+        verify(factory).close();
+    }
+
+    @Test
+    public void requestsShouldWaitWhenAllConnectionsAreBusy() throws Exception {
+        final Queue<PromiseImpl<Result, LdapException>> results = new LinkedList<>();
+        final Connection sharedConnection = mockSharedConnection(results);
+        final ConnectionFactory factory = mockConnectionFactory(sharedConnection);
+
+        final ConnectionFactory multiplexed = newMultiplexedConnectionFactory(factory, 1, 1);
+        final Connection connection = multiplexed.getConnection();
+        final LdapPromise<Result> promise1 = connection.searchAsync(searchRequest, null, null);
+        final LdapPromise<Result> promise2 = connection.searchAsync(searchRequest, null, null);
+        final LdapPromise<Result> promise3 = connection.searchAsync(searchRequest, null, null);
+        assertThat(results).hasSize(1);
+
+        // Completing the outstanding request releases a slot for the oldest waiting request.
+        results.remove().handleResult(newResult(ResultCode.SUCCESS));
+        assertThat(promise1.isDone()).isTrue();
+        assertThat(results).hasSize(1);
+        assertThat(promise2.isDone()).isFalse();
+
+        // Closing the factory fails the requests which are still waiting.
+        multiplexed.close();
+        assertThat(promise3.isDone()).isTrue();
+        try {
+            promise3.getOrThrow();
+            fail("Waiting request should have been failed");
+        } catch (LdapException e) {
+            assertThat(e.getResult().getResultCode()).isEqualTo(ResultCode.CLIENT_SIDE_USER_CANCELLED);
+        }
+        verify(sharedConnection, times(2)).searchAsync(searchRequest, null, null);
+        try {
+            multiplexed.getConnection();
+            fail("Closed factory should not return connections");
+        } catch (IllegalStateException expected) {
+            // Expected.
+        }
+    }
+
+    @Test
+    public void bindRequestsShouldBeRejected() throws Exception {
+        final Connection sharedConnection = mockSharedConnection(new LinkedList<PromiseImpl<Result, LdapException>>());
+        final ConnectionFactory factory = mockConnectionFactory(sharedConnection);
+
+        try (ConnectionFactory multiplexed = newMultiplexedConnectionFactory(factory, 1, 10);
+             Connection connection = multiplexed.getConnection()) {
+            connection.bind("cn=directory manager", "password".toCharArray());
+            fail("Bind requests should not be sent over shared connections");
+        } catch (LdapException e) {
+            assertThat(e.getResult().getResultCode()).isEqualTo(ResultCode.CLIENT_SIDE_NOT_SUPPORTED);
+        }
+        verifyZeroInteractions(sharedConnection);
+    }
+
+    @Test
+    public void invalidSharedConnectionsShouldBeReplaced() throws Exception {
+        final Queue<PromiseImpl<Result, LdapException>> results1 = new LinkedList<>();
+        final Queue<PromiseImpl<Result, LdapException>> results2 = new LinkedList<>();
+        final Connection connection1 = mockSharedConnection(results1);
+        final Connection connection2 = mockSharedConnection(results2);
+        final ConnectionFactory factory = mockConnectionFactory(connection1, connection2);
+
+        try (ConnectionFactory multiplexed = newMultiplexedConnectionFactory(factory, 1, 10);
+             Connection connection = multiplexed.getConnection()) {
+            connection.searchAsync(searchRequest, null, null);
+            when(connection1.isValid()).thenReturn(false);
+            connection.searchAsync(searchRequest, null, null);
+            assertThat(results1).hasSize(1);
+            assertThat(results2).hasSize(1);
+            verify(connection1).close();
+        }
+        verify(connection2).close();
+    }
+
+    @Test
+    public void connectionsEstablishedAfterCloseShouldBeClosed() throws Exception {
+        final PromiseImpl<Connection, LdapException> pendingConnection = PromiseImpl.create();
+        final ConnectionFactory factory = mock(ConnectionFactory.class);
+        when(factory.getConnectionAsync()).thenReturn(pendingConnection);
+        final Connection sharedConnection = mockSharedConnection(new LinkedList<PromiseImpl<Result, LdapException>>());
+
+        final ConnectionFactory multiplexed = newMultiplexedConnectionFactory(factory, 1, 10);
+        final LdapPromise<Result> result = multiplexed.getConnection().searchAsync(searchRequest, null, null);
+        multiplexed.close();
+        pendingConnection.handleResult(sharedConnection);
+
+        verify(sharedConnection).close();
+        verify(sharedConnection, never()).searchAsync(any(SearchRequest.class), any(IntermediateResponseHandler.class),
+                                                      any(SearchResultHandler.class));
+        verify(factory, times(1)).getConnectionAsync();
+        try {
+            result.getOrThrow();
+            fail("Requests should fail when the factory is closed");
+        } catch (LdapException e) {
+            assertThat(e.getResult().getResultCode()).isEqualTo(ResultCode.CLIENT_SIDE_USER_CANCELLED);
+        }
+    }
+
+    private static Connection mockSharedConnection(final Queue<PromiseImpl<Result, LdapException>> results) {
+        final Connection connection = mock(Connection.class);
+        when(connection.isValid()).thenReturn(true);
+        when(connection.searchAsync(any(SearchRequest.class), any(IntermediateResponseHandler.class),
+                                    any(SearchResultHandler.class)))
+                .thenAnswer(new Answer<LdapPromise<Result>>() {
+                    @Override
+                    public LdapPromise<Result> answer(final InvocationOnMock invocation) {
+                        final PromiseImpl<Result, LdapException> result = PromiseImpl.create();
+                        results.add(result);
+                        return asPromise(result);
+                    }
+                });
+        return connection;
+    }
+}
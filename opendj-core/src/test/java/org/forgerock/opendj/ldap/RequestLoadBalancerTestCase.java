@@ -35,6 +35,8 @@ import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
 import org.forgerock.opendj.ldap.RequestLoadBalancer.PartitionedRequest;
@@ -49,6 +51,8 @@ import org.forgerock.opendj.ldap.requests.ModifyDNRequest;
 import org.forgerock.opendj.ldap.requests.ModifyRequest;
 import org.forgerock.opendj.ldap.requests.Request;
 import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.Result;
+import org.forgerock.opendj.ldap.spi.LdapPromises;
 import org.forgerock.util.Function;
 import org.forgerock.util.promise.NeverThrowsException;
 import org.forgerock.util.promise.Promises;
@@ -191,6 +195,51 @@ public class RequestLoadBalancerTestCase extends SdkTestCase {
         verifyZeroInteractions(factory1, factory2, factory3);
     }
 
+    @Test
+    public void endOfRequestShouldReportTheFactoryWhichServedTheRequest() throws Exception {
+        configureFactoriesOneAndTwoOffline();
+        final List<PartitionedRequest> terminatedRequests = useEndOfRequestRecorder();
+        try (Connection connection = loadBalancer.getConnectionAsync().get()) {
+            connection.add(addRequest1);
+        }
+        assertThat(terminatedRequests).hasSize(1);
+        assertThat(terminatedRequests.get(0).getServerIndex()).isEqualTo(0);
+        assertThat(terminatedRequests.get(0).getServingServerIndex()).isEqualTo(2);
+        assertThat(terminatedRequests.get(0).getError()).isNull();
+    }
+
+    @Test
+    public void endOfRequestShouldReportTheRequestError() throws Exception {
+        configureAllFactoriesOnline();
+        when(connection1.addAsync(any(AddRequest.class), any(IntermediateResponseHandler.class)))
+                .thenReturn(LdapPromises.<Result, LdapException> newFailedLdapPromise(
+                        newLdapException(ResultCode.BUSY)));
+        final List<PartitionedRequest> terminatedRequests = useEndOfRequestRecorder();
+        try (Connection connection = loadBalancer.getConnectionAsync().get()) {
+            connection.add(addRequest1);
+            fail("add unexpectedly succeeded");
+        } catch (LdapException expected) {
+            // Expected.
+        }
+        assertThat(terminatedRequests).hasSize(1);
+        assertThat(terminatedRequests.get(0).getServingServerIndex()).isEqualTo(0);
+        assertThat(terminatedRequests.get(0).getError().getResult().getResultCode()).isEqualTo(ResultCode.BUSY);
+    }
+
+    @Test
+    public void endOfRequestShouldReportTheConnectionError() throws Exception {
+        configureAllFactoriesOffline();
+        final List<PartitionedRequest> terminatedRequests = useEndOfRequestRecorder();
+        try (Connection connection = loadBalancer.getConnectionAsync().get()) {
+            connection.add(addRequest1);
+            fail("add unexpectedly succeeded");
+        } catch (LdapException expected) {
+            // Expected.
+        }
+        assertThat(terminatedRequests).hasSize(1);
+        assertThat(terminatedRequests.get(0).getError()).isInstanceOf(ConnectionException.class);
+    }
+
     // We can't use a DataProviders here because the mocks will be re-initialized for each test method call.
 
     // ################## Add Requests ####################
@@ -855,6 +904,23 @@ public class RequestLoadBalancerTestCase extends SdkTestCase {
                                                Connections.NOOP_END_OF_REQUEST_FUNCTION);
     }
 
+    /** Replaces the load-balancer with one recording the requests passed to the end of request function. */
+    private List<PartitionedRequest> useEndOfRequestRecorder() {
+        final List<PartitionedRequest> terminatedRequests = new CopyOnWriteArrayList<>();
+        loadBalancer.close();
+        loadBalancer = new RequestLoadBalancer("Test",
+                                               asList(factory1, factory2, factory3),
+                                               defaultOptions(), newNextFactoryFunction(),
+                                               new Function<PartitionedRequest, Void, NeverThrowsException>() {
+                                                   @Override
+                                                   public Void apply(final PartitionedRequest request) {
+                                                       terminatedRequests.add(request);
+                                                       return null;
+                                                   }
+                                               });
+        return terminatedRequests;
+    }
+
     private Function<Request, PartitionedRequest, NeverThrowsException> newNextFactoryFunction() {
         return new Function<Request, PartitionedRequest, NeverThrowsException>() {
             @Override
@@ -135,6 +135,7 @@ final class ASN1BufferReader extends AbstractASN1Reader {
     private int lengthBytesNeeded;
     private final int maxElementSize;
     private final Buffer buffer;
+    private final boolean sharedBuffer;
     private SequenceLimiter readLimiter;
 
     /**
@@ -149,20 +150,48 @@ final class ASN1BufferReader extends AbstractASN1Reader {
      *            @{code {@link #close()} this reader will also dispose the buffer.
      */
     ASN1BufferReader(final int maxElementSize, final Buffer buffer) {
+        this(maxElementSize, buffer, false);
+    }
+
+    /**
+     * Creates a new ASN1 reader whose source is the provided buffer and
+     * having a user defined maximum BER element size.
+     * <p>
+     * In shared buffer mode the octet strings returned by {@link #readOctetString()}
+     * are views over the memory of the buffer whenever it is backed by an
+     * array. The buffer is then owned by the caller, which must not dispose it
+     * before it is done with the decoded values: {@link #close()} will leave it
+     * untouched.
+     *
+     * @param maxElementSize
+     *            The maximum BER element size, or <code>0</code> to indicate
+     *            that there is no limit.
+     * @param buffer
+     *            The buffer where the content will be read from.
+     * @param sharedBuffer
+     *            {@code true} if octet strings should share the memory of the
+     *            buffer rather than being copied out of it.
+     */
+    ASN1BufferReader(final int maxElementSize, final Buffer buffer, final boolean sharedBuffer) {
         this.readLimiter = new RootSequenceLimiter();
         this.buffer = buffer;
         this.maxElementSize = maxElementSize;
+        this.sharedBuffer = sharedBuffer;
     }
 
     /**
-     * Closes this ASN.1 reader and the underlying {@link Buffer}.
+     * Closes this ASN.1 reader and the underlying {@link Buffer}, unless this
+     * reader is in shared buffer mode in which case the buffer is left to its
+     * owner.
      *
      * @throws IOException
      *             if an I/O error occurs
      */
     @Override
     public void close() throws IOException {
-        buffer.tryDispose();
+        if (!sharedBuffer) {
+            buffer.tryDispose();
+        }
     }
 
     /**
@@ -345,14 +374,23 @@ final class ASN1BufferReader extends AbstractASN1Reader {
         }
 
         readLimiter.checkLimit(peekLength);
-        // Copy the value and construct the element to return.
-        final byte[] value = new byte[peekLength];
-        buffer.get(value);
+        final ByteString value;
+        if (sharedBuffer && buffer.hasArray()) {
+            // Share the buffer's memory: the owner keeps it alive until the value is no longer used.
+            final int position = buffer.position();
+            value = ByteString.wrap(buffer.array(), buffer.arrayOffset() + position, peekLength);
+            buffer.position(position + peekLength);
+        } else {
+            // Copy the value and construct the element to return.
+            final byte[] bytes = new byte[peekLength];
+            buffer.get(bytes);
+            value = ByteString.wrap(bytes);
+        }
 
         logger.trace("READ ASN.1 OCTETSTRING(type=0x%x, length=%d)", peekType, peekLength);
 
         state = ASN1.ELEMENT_READ_STATE_NEED_TYPE;
-        return ByteString.wrap(value);
+        return value;
     }
 
     @Override
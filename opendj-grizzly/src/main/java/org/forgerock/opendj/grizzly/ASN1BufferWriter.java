@@ -19,6 +19,7 @@ package org.forgerock.opendj.grizzly;
 import static com.forgerock.opendj.ldap.CoreMessages.ERR_ASN1_SEQUENCE_WRITE_NOT_STARTED;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -120,6 +121,102 @@ final class ASN1BufferWriter extends AbstractASN1Writer implements Cacheable {
         }
     }
 
+    /**
+     * Computes the length of the sequences without writing anything, during the
+     * first pass of a two-pass encoding.
+     */
+    private final class MeasuringSequenceBuffer implements SequenceBuffer {
+        private MeasuringSequenceBuffer parent;
+        private MeasuringSequenceBuffer child;
+        private int index;
+        private int length;
+
+        @Override
+        public SequenceBuffer endSequence() throws IOException {
+            if (parent == null) {
+                final LocalizableMessage message = ERR_ASN1_SEQUENCE_WRITE_NOT_STARTED.get();
+                throw new IllegalStateException(message.toString());
+            }
+            sequenceLengths[index] = length;
+            parent.length += lengthOfLength(length) + length;
+            return parent;
+        }
+
+        @Override
+        public SequenceBuffer startSequence(final byte type) throws IOException {
+            if (child == null) {
+                child = new MeasuringSequenceBuffer();
+                child.parent = this;
+            }
+            length++;
+            if (sequenceCount == sequenceLengths.length) {
+                sequenceLengths = Arrays.copyOf(sequenceLengths, sequenceCount << 1);
+            }
+            child.index = sequenceCount++;
+            child.length = 0;
+            return child;
+        }
+
+        @Override
+        public void writeByte(final byte b) throws IOException {
+            length++;
+        }
+
+        @Override
+        public void writeByteSequence(ByteSequence bs) {
+            length += bs.length();
+        }
+
+        @Override
+        public void writeByteArray(final byte[] bs, final int offset, final int length) throws IOException {
+            this.length += length;
+        }
+    }
+
+    /**
+     * Writes directly to the output buffer using the sequence lengths computed
+     * by the first pass of a two-pass encoding.
+     */
+    private final class PrecomputedSequenceBuffer implements SequenceBuffer {
+        private int depth;
+
+        @Override
+        public SequenceBuffer endSequence() throws IOException {
+            if (depth == 0) {
+                final LocalizableMessage message = ERR_ASN1_SEQUENCE_WRITE_NOT_STARTED.get();
+                throw new IllegalStateException(message.toString());
+            }
+            depth--;
+            return this;
+        }
+
+        @Override
+        public SequenceBuffer startSequence(final byte type) throws IOException {
+            if (nextSequence == sequenceCount) {
+                throw new IllegalStateException("The encoded content differs from the measured content");
+            }
+            rootBuffer.writeByte(type);
+            writeLength(rootBuffer, sequenceLengths[nextSequence++]);
+            depth++;
+            return this;
+        }
+
+        @Override
+        public void writeByte(final byte b) throws IOException {
+            rootBuffer.writeByte(b);
+        }
+
+        @Override
+        public void writeByteSequence(ByteSequence bs) {
+            rootBuffer.writeByteSequence(bs);
+        }
+
+        @Override
+        public void writeByteArray(final byte[] bs, final int offset, final int length) throws IOException {
+            rootBuffer.writeByteArray(bs, offset, length);
+        }
+    }
+
     private interface SequenceBuffer {
         SequenceBuffer endSequence() throws IOException;
 
@@ -138,15 +235,26 @@ final class ASN1BufferWriter extends AbstractASN1Writer implements Cacheable {
     private static final int BUFFER_INIT_SIZE = 1024;
     /** Default maximum size for cached protocol/entry encoding buffers. */
     private static final int DEFAULT_MAX_INTERNAL_BUFFER_SIZE = 32 * 1024;
+    /** Default maximum number of cached sequence lengths for two-pass encodings. */
+    private static final int DEFAULT_MAX_SEQUENCE_COUNT = 4 * 1024;
 
     private MemoryManager<Buffer> memoryManager;
     private SequenceBuffer sequenceBuffer;
     private Buffer outBuffer;
     private final RootSequenceBuffer rootBuffer;
+    private final MeasuringSequenceBuffer measuringRootBuffer;
+    private final PrecomputedSequenceBuffer precomputedBuffer;
+
+    /** Lengths of the sequences measured by the first pass of a two-pass encoding, in order of their start. */
+    private int[] sequenceLengths = new int[16];
+    private int sequenceCount;
+    private int nextSequence;
 
     /** Creates a new ASN.1 writer that writes to a StreamWriter. */
     ASN1BufferWriter() {
         this.rootBuffer = new RootSequenceBuffer();
+        this.measuringRootBuffer = new MeasuringSequenceBuffer();
+        this.precomputedBuffer = new PrecomputedSequenceBuffer();
     }
 
     /** Reset the writer. */
@@ -156,6 +264,42 @@ final class ASN1BufferWriter extends AbstractASN1Writer implements Cacheable {
         outBuffer = memoryManager.allocate(BUFFER_INIT_SIZE);
     }
 
+    /**
+     * Starts the first pass of a two-pass encoding.
+     * <p>
+     * Nested sequences are normally encoded in intermediate buffers and copied
+     * into their parent once their length is known. Instead, the elements are
+     * first written to this writer in measuring mode, which only computes the
+     * length of each sequence. Then {@link #startWriting()} allocates a buffer
+     * of the exact encoded size and the same elements must be written again:
+     * they are written directly into the output buffer, with the sequence
+     * lengths written in place.
+     */
+    void startMeasuring() {
+        sequenceBuffer = measuringRootBuffer;
+        measuringRootBuffer.length = 0;
+        sequenceCount = 0;
+    }
+
+    /**
+     * Ends the first pass of a two-pass encoding started with
+     * {@link #startMeasuring()} and starts the second pass, which must write
+     * the same elements.
+     */
+    void startWriting() {
+        if (sequenceBuffer != measuringRootBuffer) {
+            throw new IllegalStateException("The measuring pass has not been started or has unfinished sequences");
+        }
+        final int length = measuringRootBuffer.length;
+        if (outBuffer.position() + length > outBuffer.limit()) {
+            outBuffer.dispose();
+            outBuffer = memoryManager.allocate(length);
+        }
+        sequenceBuffer = precomputedBuffer;
+        precomputedBuffer.depth = 0;
+        nextSequence = 0;
+    }
+
     void ensureAdditionalCapacity(final int size) {
         final int newCount = outBuffer.position() + size;
         if (newCount > outBuffer.limit()) {
@@ -192,6 +336,9 @@ final class ASN1BufferWriter extends AbstractASN1Writer implements Cacheable {
         memoryManager = null;
         sequenceBuffer = null;
         outBuffer = null;
+        if (sequenceLengths.length > DEFAULT_MAX_SEQUENCE_COUNT) {
+            sequenceLengths = new int[16];
+        }
     }
 
     @Override
@@ -432,6 +579,28 @@ final class ASN1BufferWriter extends AbstractASN1Writer implements Cacheable {
         return outBuffer.flip();
     }
 
+    /**
+     * Returns the number of bytes needed to encode the provided length of an
+     * ASN.1 element.
+     *
+     * @param length
+     *            The length to encode for use in an ASN.1 element.
+     * @return The number of bytes written by {@link #writeLength}.
+     */
+    private static int lengthOfLength(final int length) {
+        if (length < 128) {
+            return 1;
+        } else if ((length & 0x000000FF) == length) {
+            return 2;
+        } else if ((length & 0x0000FFFF) == length) {
+            return 3;
+        } else if ((length & 0x00FFFFFF) == length) {
+            return 4;
+        } else {
+            return 5;
+        }
+    }
+
     /**
      * Writes the provided value for use as the length of an ASN.1 element.
      *
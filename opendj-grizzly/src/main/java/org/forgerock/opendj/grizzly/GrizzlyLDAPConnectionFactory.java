@@ -172,6 +172,20 @@ public final class GrizzlyLDAPConnectionFactory implements LDAPConnectionFactory
      */
     public static final Option<TCPNIOTransport> GRIZZLY_TRANSPORT = Option.of(TCPNIOTransport.class, null);
 
+    /**
+     * Specifies whether each received response should be copied out of the
+     * network buffers in a single bulk copy, its values being decoded as views
+     * over this copy, rather than being copied one by one. Default value is
+     * {@code false}.
+     * <p>
+     * Enabling this option replaces the allocation and copy of every value of
+     * large search result entries with a single allocation and copy per
+     * response. The decoded values stay valid once the network buffers have
+     * been released, but each value kept by the application retains the
+     * memory of the whole response it belongs to.
+     */
+    public static final Option<Boolean> BULK_COPY_DECODING = Option.withDefault(false);
+
     /**
      * Creates a new LDAP connection factory based on Grizzly which can be used to create connections to the Directory
      * Server at the provided host and port address using provided connection options.
@@ -188,7 +202,7 @@ public final class GrizzlyLDAPConnectionFactory implements LDAPConnectionFactory
         this.host = host;
         this.port = port;
         this.options = options;
-        this.clientFilter = new LDAPClientFilter(options.get(LDAP_DECODE_OPTIONS), 0);
+        this.clientFilter = new LDAPClientFilter(options.get(LDAP_DECODE_OPTIONS), 0, options.get(BULK_COPY_DECODING));
         this.defaultFilterChain = buildFilterChain(this.transport.get().getProcessor(), clientFilter);
     }
 
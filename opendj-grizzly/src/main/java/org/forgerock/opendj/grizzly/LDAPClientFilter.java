@@ -23,6 +23,7 @@ import static org.forgerock.opendj.ldap.responses.Responses.newResult;
 
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import javax.net.ssl.SSLEngine;
 
@@ -66,6 +67,7 @@ import org.glassfish.grizzly.Grizzly;
 import org.glassfish.grizzly.attributes.Attribute;
 import org.glassfish.grizzly.filterchain.FilterChainContext;
 import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.memory.ByteBufferWrapper;
 
 /**
  * Grizzly filter implementation for decoding LDAP responses and handling client
@@ -379,6 +381,8 @@ final class LDAPClientFilter extends LDAPBaseFilter {
         }
     }
 
+    private final boolean bulkCopyDecoding;
+
     /**
      * Creates a client filter with provided options and max size of ASN1
      * elements.
@@ -390,7 +394,26 @@ final class LDAPClientFilter extends LDAPBaseFilter {
      *            that there is no limit.
      */
     LDAPClientFilter(final DecodeOptions options, final int maxASN1ElementSize) {
+        this(options, maxASN1ElementSize, false);
+    }
+
+    /**
+     * Creates a client filter with provided options, max size of ASN1
+     * elements and decoding mode.
+     *
+     * @param options
+     *            allow to control how request and responses are decoded
+     * @param maxASN1ElementSize
+     *            The maximum BER element size, or <code>0</code> to indicate
+     *            that there is no limit.
+     * @param bulkCopyDecoding
+     *            {@code true} if the values of each response should be views
+     *            over a single copy of the received response rather than
+     *            being copied one by one.
+     */
+    LDAPClientFilter(final DecodeOptions options, final int maxASN1ElementSize, final boolean bulkCopyDecoding) {
         super(options, maxASN1ElementSize);
+        this.bulkCopyDecoding = bulkCopyDecoding;
     }
 
     @Override
@@ -431,12 +454,8 @@ final class LDAPClientFilter extends LDAPBaseFilter {
             final int length = reader.peekLength();
             final Buffer remainder = buffer.remaining() > length ? buffer.split(buffer.position() + length) : null;
             buffer.reset();
-            try (final ASN1BufferReader packetReader =
-                    new ASN1BufferReader(maxASN1ElementSize, buffer.asReadOnlyBuffer())) {
-                final LDAPReader<? extends ASN1Reader> ldapReader = LDAP.getReader(packetReader, decodeOptions);
-                ctx.setMessage(null);
-                ldapReader.readMessage(handler);
-            }
+            ctx.setMessage(null);
+            readMessage(buffer, handler);
             return ctx.getInvokeAction(remainder);
         } catch (IOException e) {
             handleReadException(ctx, e);
@@ -444,6 +463,39 @@ final class LDAPClientFilter extends LDAPBaseFilter {
         }
     }
 
+    /**
+     * Decodes the LDAP message held by the provided buffer and passes it to
+     * the provided handler.
+     * <p>
+     * In bulk copy mode, the message is copied once out of the buffer and its
+     * values are views over this private copy, otherwise each of its values is
+     * copied. Either way they remain valid once the buffer has been released,
+     * since responses are usually kept beyond the read, for instance once they
+     * complete a promise.
+     *
+     * @param pdu
+     *            the buffer holding exactly one LDAP message, which is left
+     *            to the caller to release
+     * @param handler
+     *            the handler of the decoded message
+     * @throws IOException
+     *             if the message could not be decoded
+     */
+    void readMessage(final Buffer pdu, final LDAPMessageHandler handler) throws IOException {
+        final Buffer packet = bulkCopyDecoding ? copyOf(pdu) : pdu.asReadOnlyBuffer();
+        try (final ASN1BufferReader packetReader =
+                new ASN1BufferReader(maxASN1ElementSize, packet, bulkCopyDecoding)) {
+            final LDAPReader<? extends ASN1Reader> ldapReader = LDAP.getReader(packetReader, decodeOptions);
+            ldapReader.readMessage(handler);
+        }
+    }
+
+    private static Buffer copyOf(final Buffer pdu) {
+        final byte[] bytes = new byte[pdu.remaining()];
+        pdu.get(bytes);
+        return new ByteBufferWrapper(ByteBuffer.wrap(bytes));
+    }
+
     private final void handleReadException(FilterChainContext ctx, IOException e) {
         final GrizzlyLDAPConnection ldapConnection = LDAP_CONNECTION_ATTR.get(ctx.getConnection());
         final Result errorResult =
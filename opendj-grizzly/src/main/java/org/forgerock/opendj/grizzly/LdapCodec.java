@@ -138,8 +138,13 @@ abstract class LdapCodec extends LDAPBaseFilter {
 
         final LDAPWriter<ASN1BufferWriter> writer = GrizzlyUtils.getWriter(ctx.getMemoryManager(), protocolVersion);
         try {
-            final Buffer buffer = toBuffer(writer, ctx.<LdapResponseMessage> getMessage());
-            ctx.setMessage(buffer);
+            // Encode in two passes so that the response is written directly into a buffer of the right size
+            final ASN1BufferWriter asn1Writer = writer.getASN1Writer();
+            asn1Writer.startMeasuring();
+            writeResponse(writer, response);
+            asn1Writer.startWriting();
+            writeResponse(writer, response);
+            ctx.setMessage(asn1Writer.getBuffer());
             return ctx.getInvokeAction();
         } catch (Exception e) {
             onLdapCodecError(ctx, e);
@@ -152,7 +157,7 @@ abstract class LdapCodec extends LDAPBaseFilter {
         }
     }
 
-    private Buffer toBuffer(final LDAPWriter<ASN1BufferWriter> writer, final LdapResponseMessage message)
+    private void writeResponse(final LDAPWriter<ASN1BufferWriter> writer, final LdapResponseMessage message)
             throws IOException {
         final int msgId = message.getMessageId();
         final Response msgContent = message.getContent();
@@ -193,6 +198,5 @@ abstract class LdapCodec extends LDAPBaseFilter {
         default:
             throw new IOException("Unsupported message type '" + message.getMessageType() + "'");
         }
-        return writer.getASN1Writer().getBuffer();
     }
 }
@@ -17,13 +17,20 @@
 
 package org.forgerock.opendj.grizzly;
 
+import static org.fest.assertions.Assertions.assertThat;
+
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.forgerock.opendj.io.ASN1Reader;
 import org.forgerock.opendj.io.ASN1Writer;
 import org.forgerock.opendj.io.ASN1WriterTestCase;
+import org.forgerock.opendj.io.LDAP;
+import org.forgerock.opendj.io.LDAPWriter;
 import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.responses.Responses;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
 import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.memory.ByteBufferWrapper;
 import org.glassfish.grizzly.memory.MemoryManager;
@@ -56,4 +63,31 @@ public class ASN1BufferWriterTestCase extends ASN1WriterTestCase {
         writer.reset(MemoryManager.DEFAULT_MEMORY_MANAGER);
         return writer;
     }
+
+    @Test
+    public void testTwoPassEncodingIsIdenticalToSinglePassEncoding() throws Exception {
+        final char[] largeValue = new char[100000];
+        Arrays.fill(largeValue, 'x');
+        final SearchResultEntry entry = Responses.newSearchResultEntry(
+                "dn: uid=user.0,ou=people,dc=example,dc=com",
+                "objectClass: top",
+                "objectClass: person",
+                "uid: user.0",
+                "cn: " + new String(largeValue, 0, 200),
+                "sn: " + new String(largeValue));
+        final LDAPWriter<ASN1BufferWriter> ldapWriter = LDAP.getWriter(writer, 3);
+
+        getWriter();
+        ldapWriter.writeSearchResultEntry(1, entry);
+        final byte[] singlePass = getEncodedBytes();
+
+        getWriter();
+        writer.startMeasuring();
+        ldapWriter.writeSearchResultEntry(1, entry);
+        writer.startWriting();
+        ldapWriter.writeSearchResultEntry(1, entry);
+        final byte[] twoPass = getEncodedBytes();
+
+        assertThat(twoPass).isEqualTo(singlePass);
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.grizzly;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.forgerock.opendj.ldap.responses.Responses.newResult;
+import static org.forgerock.opendj.ldap.responses.Responses.newSearchResultEntry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.forgerock.opendj.io.ASN1;
+import org.forgerock.opendj.io.ASN1Writer;
+import org.forgerock.opendj.io.AbstractLDAPMessageHandler;
+import org.forgerock.opendj.io.LDAP;
+import org.forgerock.opendj.io.LDAPWriter;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.opendj.ldap.DecodeOptions;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SdkTestCase;
+import org.forgerock.opendj.ldap.controls.SimplePagedResultsControl;
+import org.forgerock.opendj.ldap.responses.Result;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.glassfish.grizzly.memory.ByteBufferWrapper;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the responses decoded by the LDAP client filter remain valid once
+ * their network buffer has been released and reused.
+ */
+@SuppressWarnings("javadoc")
+public class LDAPClientFilterTestCase extends SdkTestCase {
+    private static final class CapturingHandler extends AbstractLDAPMessageHandler {
+        private SearchResultEntry entry;
+        private Result result;
+
+        @Override
+        public void searchResultEntry(final int messageID, final SearchResultEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void searchResult(final int messageID, final Result result) {
+            this.result = result;
+        }
+    }
+
+    @DataProvider
+    public Object[][] decodingModes() {
+        return new Object[][] { { true }, { false } };
+    }
+
+    @Test(dataProvider = "decodingModes")
+    public void testSearchResultAndControlsOutliveTheBuffer(final boolean bulkCopyDecoding) throws Exception {
+        final ByteString cookie = ByteString.valueOfUtf8("cookie");
+        final Result result = newResult(ResultCode.SUCCESS)
+                .setDiagnosticMessage("done")
+                .addControl(SimplePagedResultsControl.newControl(false, 0, cookie));
+        final byte[] pdu = encodeSearchResult(result);
+
+        final CapturingHandler handler = new CapturingHandler();
+        new LDAPClientFilter(new DecodeOptions(), 0, bulkCopyDecoding).readMessage(wrap(pdu), handler);
+        // the buffer has been released and its memory reused for another read
+        Arrays.fill(pdu, (byte) 0);
+
+        assertThat(handler.result.getResultCode()).isEqualTo(ResultCode.SUCCESS);
+        assertThat(handler.result.getDiagnosticMessage()).isEqualTo("done");
+        final SimplePagedResultsControl control =
+                handler.result.getControl(SimplePagedResultsControl.DECODER, new DecodeOptions());
+        assertThat(control.getCookie()).isEqualTo(cookie);
+    }
+
+    @Test(dataProvider = "decodingModes")
+    public void testSearchResultEntryOutlivesTheBuffer(final boolean bulkCopyDecoding) throws Exception {
+        final byte[] pdu = encodeSearchResultEntry(newSearchResultEntry(
+                "dn: cn=test",
+                "objectClass: top",
+                "cn: test",
+                "description: a value kept after the read"));
+
+        final CapturingHandler handler = new CapturingHandler();
+        new LDAPClientFilter(new DecodeOptions(), 0, bulkCopyDecoding).readMessage(wrap(pdu), handler);
+        Arrays.fill(pdu, (byte) 0);
+
+        assertThat(handler.entry.getName().toString()).isEqualTo("cn=test");
+        assertThat(handler.entry.parseAttribute("cn").asString()).isEqualTo("test");
+        assertThat(handler.entry.parseAttribute("description").asString()).isEqualTo("a value kept after the read");
+    }
+
+    private static ByteBufferWrapper wrap(final byte[] pdu) {
+        return new ByteBufferWrapper(ByteBuffer.wrap(pdu));
+    }
+
+    private static byte[] encodeSearchResult(final Result result) throws IOException {
+        final ByteStringBuilder builder = new ByteStringBuilder();
+        final LDAPWriter<ASN1Writer> writer = LDAP.getWriter(ASN1.getWriter(builder), 3);
+        writer.writeSearchResult(1, result);
+        writer.getASN1Writer().flush();
+        return builder.toByteArray();
+    }
+
+    private static byte[] encodeSearchResultEntry(final SearchResultEntry entry) throws IOException {
+        final ByteStringBuilder builder = new ByteStringBuilder();
+        final LDAPWriter<ASN1Writer> writer = LDAP.getWriter(ASN1.getWriter(builder), 3);
+        writer.writeSearchResultEntry(1, entry);
+        writer.getASN1Writer().flush();
+        return builder.toByteArray();
+    }
+}
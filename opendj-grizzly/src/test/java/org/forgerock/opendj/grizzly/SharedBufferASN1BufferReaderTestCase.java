@@ -0,0 +1,50 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.grizzly;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.forgerock.opendj.io.ASN1Reader;
+import org.forgerock.opendj.io.ASN1ReaderTestCase;
+import org.forgerock.opendj.ldap.ByteString;
+import org.glassfish.grizzly.memory.ByteBufferWrapper;
+import org.testng.annotations.Test;
+
+/**
+ * This class provides test cases for ASN1BufferReader in shared buffer mode.
+ */
+public class SharedBufferASN1BufferReaderTestCase extends ASN1ReaderTestCase {
+    @Override
+    protected ASN1Reader getReader(final byte[] b, final int maxElementSize) throws IOException {
+        return new ASN1BufferReader(maxElementSize, new ByteBufferWrapper(ByteBuffer.wrap(b)), true);
+    }
+
+    @Test
+    public void testReadOctetStringSharesBufferMemory() throws Exception {
+        final byte[] b = { 0x04, 0x03, 'a', 'b', 'c', 0x04, 0x01, 'd' };
+        final ASN1Reader reader = getReader(b, 0);
+
+        final ByteString first = reader.readOctetString();
+        assertThat(first.toString()).isEqualTo("abc");
+        assertThat(reader.readOctetString().toString()).isEqualTo("d");
+
+        b[3] = 'x';
+        assertThat(first.toString()).isEqualTo("axc");
+    }
+}
@@ -0,0 +1,458 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package com.forgerock.opendj.ldap.tools;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the records of a server access log, as written by the text access log publishers, in
+ * separate or combined request and response mode, or by the JSON access log publishers.
+ * <p>
+ * Only the fields needed to replay the operations are retained. Lines which cannot be parsed are
+ * skipped.
+ */
+final class AccessLogReader implements Closeable {
+    /** A record of an access log. */
+    static final class AccessLogRecord {
+        private final long timeMs;
+        private final String operation;
+        private final boolean isRequest;
+        private final long etimeNs;
+        private final long connectionId;
+        private final long operationId;
+        private final Map<String, String> fields;
+
+        AccessLogRecord(final long timeMs, final String operation, final boolean isRequest, final long etimeNs,
+                final long connectionId, final long operationId, final Map<String, String> fields) {
+            this.timeMs = timeMs;
+            this.operation = operation;
+            this.isRequest = isRequest;
+            this.etimeNs = etimeNs;
+            this.connectionId = connectionId;
+            this.operationId = operationId;
+            this.fields = fields;
+        }
+
+        /**
+         * Returns the time at which the request was received, which is estimated from the logged
+         * processing time when the record was written on response.
+         */
+        long getRequestTimeMs() {
+            return isRequest && etimeNs >= 0 ? timeMs - TimeUnit.NANOSECONDS.toMillis(etimeNs) : timeMs;
+        }
+
+        /** Returns the type of the operation, like {@code SEARCH}, {@code BIND} or {@code DISCONNECT}. */
+        String getOperation() {
+            return operation;
+        }
+
+        /** Returns whether the record contains the request of the operation. */
+        boolean isRequest() {
+            return isRequest;
+        }
+
+        /** Returns whether the record contains the response of the operation. */
+        boolean isResponse() {
+            return etimeNs >= 0;
+        }
+
+        /** Returns the logged processing time of the operation in nanoseconds, or -1 if it is not a response. */
+        long getEtimeNs() {
+            return etimeNs;
+        }
+
+        long getConnectionId() {
+            return connectionId;
+        }
+
+        /** Returns the identifier of the operation, which is unique within its connection. */
+        long getOperationId() {
+            return operationId;
+        }
+
+        /**
+         * Returns the value of the provided request field, among {@code dn} (also holding the base
+         * DN of the searches), {@code scope}, {@code filter}, {@code attrs} (comma separated) and
+         * {@code authType} ({@code SIMPLE} or {@code SASL}), or {@code null} if it is not logged.
+         */
+        String getField(final String name) {
+            return fields.get(name);
+        }
+
+        /** Returns whether the operation was performed by the replication, and not by a client. */
+        boolean isSynchronization() {
+            return "synchronization".equals(fields.get("type")) || "sync".equals(fields.get("opType"));
+        }
+    }
+
+    private final BufferedReader reader;
+    private final SimpleDateFormat textTimeFormat;
+    private final SimpleDateFormat jsonTimeFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX", Locale.US);
+    private final SimpleDateFormat jsonTimeFormatWithoutMillis =
+            new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX", Locale.US);
+    private final TimeUnit textEtimeUnit;
+    private long skippedLineCount;
+
+    /**
+     * Creates a reader of access log records.
+     *
+     * @param reader
+     *            The reader of the access log.
+     * @param textTimeFormat
+     *            The format of the time stamps of the text access log records.
+     * @param textEtimeUnit
+     *            The unit of the processing times of the text access log records.
+     */
+    AccessLogReader(final Reader reader, final String textTimeFormat, final TimeUnit textEtimeUnit) {
+        this.reader = new BufferedReader(reader);
+        this.textTimeFormat = new SimpleDateFormat(textTimeFormat, Locale.US);
+        this.textEtimeUnit = textEtimeUnit;
+    }
+
+    /**
+     * Returns the next record of the access log, or {@code null} if the end of the log has been
+     * reached.
+     *
+     * @return The next record of the access log, or {@code null} if the end of the log has been
+     *         reached.
+     * @throws IOException
+     *             If an error occurred while reading the access log.
+     */
+    AccessLogRecord readRecord() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            final AccessLogRecord record;
+            try {
+                record = line.startsWith("{") ? parseJsonRecord(line) : parseTextRecord(line);
+            } catch (final ParseException | RuntimeException e) {
+                skippedLineCount++;
+                continue;
+            }
+            if (record != null) {
+                return record;
+            }
+            skippedLineCount++;
+        }
+        return null;
+    }
+
+    /** Returns the number of lines which have been skipped because they could not be parsed. */
+    long getSkippedLineCount() {
+        return skippedLineCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Parses a text record like
+     * {@code [01/Jan/2016:10:00:00 +0100] SEARCH REQ conn=1 op=2 msgID=3 base="dc=example,dc=com" scope=sub ...}.
+     */
+    private AccessLogRecord parseTextRecord(final String line) throws ParseException {
+        final int endOfTime = line.indexOf(']');
+        if (!line.startsWith("[") || endOfTime < 0) {
+            return null;
+        }
+        final long timeMs = textTimeFormat.parse(line.substring(1, endOfTime)).getTime();
+
+        final List<String> words = new ArrayList<>();
+        final Map<String, String> fields = new HashMap<>();
+        int pos = endOfTime + 1;
+        while (pos < line.length()) {
+            if (line.charAt(pos) == ' ') {
+                pos++;
+                continue;
+            }
+            final int end = nextSpace(line, pos);
+            final int equalsPos = line.indexOf('=', pos);
+            if (equalsPos < 0 || equalsPos > end) {
+                words.add(line.substring(pos, end));
+                pos = end;
+            } else if (equalsPos + 1 < line.length() && line.charAt(equalsPos + 1) == '"') {
+                // Quoted values are not escaped: they end with the first quote followed by a space
+                int closingQuote = line.indexOf("\" ", equalsPos + 2);
+                if (closingQuote < 0) {
+                    closingQuote = line.endsWith("\"") ? line.length() - 1 : line.length();
+                }
+                fields.put(line.substring(pos, equalsPos), line.substring(equalsPos + 2, closingQuote));
+                pos = closingQuote + 1;
+            } else {
+                fields.put(line.substring(pos, equalsPos), line.substring(equalsPos + 1, end));
+                pos = end;
+            }
+        }
+        if (words.isEmpty() || !fields.containsKey("conn")) {
+            return null;
+        }
+
+        final String operation = words.get(0);
+        final String category = words.size() > 1 ? words.get(1) : null;
+        final String etime = fields.get("etime");
+        final long etimeNs =
+                etime != null && !"REQ".equals(category) ? textEtimeUnit.toNanos(Long.parseLong(etime)) : -1;
+        final boolean isRequest = !"RES".equals(category);
+        if (fields.containsKey("base")) {
+            fields.put("dn", fields.remove("base"));
+        }
+        final String type = fields.get("type");
+        if ("SIMPLE".equals(type) || "SASL".equals(type)) {
+            fields.put("authType", type);
+        }
+        final String operationId = fields.containsKey("op") ? fields.get("op") : fields.get("msgID");
+        return new AccessLogRecord(timeMs, operation, isRequest, etimeNs, Long.parseLong(fields.get("conn")),
+                operationId != null ? Long.parseLong(operationId) : -1, fields);
+    }
+
+    private static int nextSpace(final String line, final int pos) {
+        final int space = line.indexOf(' ', pos);
+        return space < 0 ? line.length() : space;
+    }
+
+    /** Parses a JSON record like {@code {"eventName":"DJ-LDAP","timestamp":"...","request":{...},...}}. */
+    private AccessLogRecord parseJsonRecord(final String line) throws ParseException {
+        final Object event = new JsonParser(line).parse();
+        if (!(event instanceof Map) || !"DJ-LDAP".equals(((Map<?, ?>) event).get("eventName"))) {
+            return null;
+        }
+        final Map<?, ?> eventMap = (Map<?, ?>) event;
+        final Map<?, ?> request = (Map<?, ?>) eventMap.get("request");
+        final Map<?, ?> response = (Map<?, ?>) eventMap.get("response");
+        if (request == null || !(request.get("connId") instanceof Number)) {
+            return null;
+        }
+
+        final Map<String, String> fields = new HashMap<>();
+        for (final Map.Entry<?, ?> field : request.entrySet()) {
+            final Object value = field.getValue();
+            if (value instanceof List) {
+                final StringBuilder builder = new StringBuilder();
+                for (final Object element : (List<?>) value) {
+                    builder.append(builder.length() > 0 ? "," : "").append(element);
+                }
+                fields.put(field.getKey().toString(), builder.toString());
+            } else if (value != null) {
+                fields.put(field.getKey().toString(), value.toString());
+            }
+        }
+        final String authType = fields.get("authType");
+        if (authType != null && authType.startsWith("SASL")) {
+            fields.put("authType", "SASL");
+        }
+
+        long etimeNs = -1;
+        if (response != null && response.get("elapsedTime") instanceof Number) {
+            final Object unit = response.get("elapsedTimeUnits");
+            etimeNs = TimeUnit.valueOf(unit != null ? unit.toString() : "MILLISECONDS")
+                              .toNanos(((Number) response.get("elapsedTime")).longValue());
+        }
+        final Object msgId = request.get("msgId");
+        return new AccessLogRecord(parseJsonTime(String.valueOf(eventMap.get("timestamp"))),
+                String.valueOf(request.get("operation")), true, etimeNs, ((Number) request.get("connId")).longValue(),
+                msgId instanceof Number ? ((Number) msgId).longValue() : -1, fields);
+    }
+
+    private long parseJsonTime(final String timestamp) throws ParseException {
+        final Date date = timestamp.indexOf('.') >= 0 ? jsonTimeFormat.parse(timestamp)
+                                                      : jsonTimeFormatWithoutMillis.parse(timestamp);
+        return date.getTime();
+    }
+
+    /** A minimal JSON parser returning maps, lists, strings, numbers, booleans and nulls. */
+    private static final class JsonParser {
+        private final String json;
+        private int pos;
+
+        private JsonParser(final String json) {
+            this.json = json;
+        }
+
+        Object parse() {
+            final Object value = parseValue();
+            skipWhitespaces();
+            if (pos != json.length()) {
+                throw error();
+            }
+            return value;
+        }
+
+        private Object parseValue() {
+            skipWhitespaces();
+            if (pos >= json.length()) {
+                throw error();
+            }
+            final char c = json.charAt(pos);
+            switch (c) {
+            case '{':
+                return parseObject();
+            case '[':
+                return parseArray();
+            case '"':
+                return parseString();
+            case 't':
+                return parseLiteral("true", Boolean.TRUE);
+            case 'f':
+                return parseLiteral("false", Boolean.FALSE);
+            case 'n':
+                return parseLiteral("null", null);
+            default:
+                return parseNumber();
+            }
+        }
+
+        private Map<String, Object> parseObject() {
+            final Map<String, Object> object = new LinkedHashMap<>();
+            pos++;
+            skipWhitespaces();
+            if (consume('}')) {
+                return object;
+            }
+            do {
+                skipWhitespaces();
+                final String key = parseString();
+                skipWhitespaces();
+                expect(':');
+                object.put(key, parseValue());
+                skipWhitespaces();
+            } while (consume(','));
+            expect('}');
+            return object;
+        }
+
+        private List<Object> parseArray() {
+            final List<Object> array = new ArrayList<>();
+            pos++;
+            skipWhitespaces();
+            if (consume(']')) {
+                return array;
+            }
+            do {
+                array.add(parseValue());
+                skipWhitespaces();
+            } while (consume(','));
+            expect(']');
+            return array;
+        }
+
+        private String parseString() {
+            expect('"');
+            final StringBuilder builder = new StringBuilder();
+            while (pos < json.length()) {
+                final char c = json.charAt(pos++);
+                if (c == '"') {
+                    return builder.toString();
+                } else if (c != '\\') {
+                    builder.append(c);
+                    continue;
+                }
+                if (pos >= json.length()) {
+                    break;
+                }
+                final char escaped = json.charAt(pos++);
+                switch (escaped) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    builder.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                    pos += 4;
+                    break;
+                default:
+                    builder.append(escaped);
+                    break;
+                }
+            }
+            throw error();
+        }
+
+        private Object parseLiteral(final String literal, final Object value) {
+            if (!json.startsWith(literal, pos)) {
+                throw error();
+            }
+            pos += literal.length();
+            return value;
+        }
+
+        private Number parseNumber() {
+            final int start = pos;
+            while (pos < json.length() && "+-0123456789.eE".indexOf(json.charAt(pos)) >= 0) {
+                pos++;
+            }
+            final String number = json.substring(start, pos);
+            if (number.isEmpty()) {
+                throw error();
+            }
+            if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+                return Double.valueOf(number);
+            }
+            return Long.valueOf(number);
+        }
+
+        private void skipWhitespaces() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private boolean consume(final char c) {
+            if (pos < json.length() && json.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(final char c) {
+            if (!consume(c)) {
+                throw error();
+            }
+        }
+
+        private IllegalArgumentException error() {
+            return new IllegalArgumentException("Invalid JSON at position " + pos + ": " + json);
+        }
+    }
+}
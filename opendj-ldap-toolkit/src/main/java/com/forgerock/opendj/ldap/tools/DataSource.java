@@ -168,6 +168,92 @@ final class DataSource {
         }
     }
 
+    /**
+     * Generates integers following a Zipf distribution, the lowest values being the most frequent.
+     * <p>
+     * The values are drawn with the rejection-inversion method, which neither depends on the size
+     * of the range nor allocates memory, as described in "Rejection-Inversion to Generate Variates
+     * from Monotone Discrete Distributions" by W. Hörmann and G. Derflinger.
+     */
+    private static class ZipfNumberDataSource implements IDataSource {
+        private final Random random;
+        private final int offset;
+        private final int numberOfElements;
+        private final double exponent;
+        private final double hIntegralX1;
+        private final double hIntegralNumberOfElements;
+        private final double s;
+
+        public ZipfNumberDataSource(final long seed, final int low, final int high, final double exponent) {
+            Reject.ifTrue(high < low, "The maximum must be greater than or equal to the minimum");
+            Reject.ifTrue(exponent <= 0, "The exponent must be strictly positive");
+            this.random = new Random(seed);
+            this.offset = low;
+            this.numberOfElements = high - low + 1;
+            this.exponent = exponent;
+            this.hIntegralX1 = hIntegral(1.5) - 1;
+            this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+            this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+        }
+
+        @Override
+        public IDataSource duplicate() {
+            // There is no state info so threads can just share one instance.
+            return this;
+        }
+
+        @Override
+        public Object getData() {
+            while (true) {
+                final double u =
+                        hIntegralNumberOfElements + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+                final double x = hIntegralInverse(u);
+                final int k = (int) Math.max(1, Math.min(numberOfElements, (long) (x + 0.5)));
+                if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                    return offset + k - 1;
+                }
+            }
+        }
+
+        /** Integral of {@link #h(double)}, shifted so that it is well defined for any exponent. */
+        private double hIntegral(final double x) {
+            final double logX = Math.log(x);
+            return helper2((1 - exponent) * logX) * logX;
+        }
+
+        /** The probability density, up to a constant factor. */
+        private double h(final double x) {
+            return Math.exp(-exponent * Math.log(x));
+        }
+
+        private double hIntegralInverse(final double x) {
+            // rounding errors may push the value below the -1 limit
+            final double t = Math.max(-1, x * (1 - exponent));
+            return Math.exp(helper1(t) * x);
+        }
+
+        /** Returns log(1 + x) / x, accurately even for values close to 0. */
+        private static double helper1(final double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.log1p(x) / x;
+            }
+            return 1 - x * (1.0 / 2 - x * (1.0 / 3 - x / 4));
+        }
+
+        /** Returns (exp(x) - 1) / x, accurately even for values close to 0. */
+        private static double helper2(final double x) {
+            if (Math.abs(x) > 1e-8) {
+                return Math.expm1(x) / x;
+            }
+            return 1 + x / 2 * (1 + x / 3 * (1 + x / 4));
+        }
+
+        public static LocalizableMessage getUsage() {
+            return LocalizableMessage.raw("\"zipf({min},{max},{exponent})\" Random number following a Zipf "
+                    + "distribution of the specified exponent, the lowest numbers being the most frequent");
+        }
+    }
+
     private static final class RandomStringDataSource implements IDataSource {
         private final Random random;
         private final int length;
@@ -268,7 +354,9 @@ final class DataSource {
      * random integer between the min and max. - rand({filename}) retrieves a
      * random line from a file. - inc({min},{max}) returns incremental integer
      * between the min and max. - inc({filename}) retrieves lines in order from
-     * a file. - {number} always return the integer as given. - {string} always
+     * a file. - zipf({min},{max},{exponent}) generates a random integer between
+     * the min and max following a Zipf distribution, the lowest integers being
+     * the most frequent. - {number} always return the integer as given. - {string} always
      * return the string as given.
      *
      * @param sources
@@ -317,6 +405,21 @@ final class DataSource {
                     }
                 }
 
+            } else if (dataSourceDef.startsWith("zipf(") && dataSourceDef.endsWith(")")) {
+                final String[] params =
+                        dataSourceDef.substring(dataSourceDef.indexOf("(") + 1, dataSourceDef.length() - 1).split(",");
+                try {
+                    if (params.length != 3) {
+                        throw new IllegalArgumentException("zipf() requires a minimum, a maximum and an exponent");
+                    }
+                    dataSources[i] =
+                            new DataSource(new ZipfNumberDataSource(Thread.currentThread().getId(),
+                                    Integer.parseInt(params[0].trim()), Integer.parseInt(params[1].trim()),
+                                    Double.parseDouble(params[2].trim())));
+                } catch (Exception e) {
+                    throw new ArgumentException(LocalizableMessage.raw(
+                            "Error parsing value generator: %s", e.getMessage()), e);
+                }
             } else if (dataSourceDef.startsWith("randstr(") && dataSourceDef.endsWith(")")) {
                 final int lparenPos = dataSourceDef.indexOf("(");
                 final int commaPos = dataSourceDef.indexOf(",");
@@ -391,6 +494,8 @@ final class DataSource {
         builder.append(StaticUtils.EOL);
         builder.append(RandomNumberDataSource.getUsage());
         builder.append(StaticUtils.EOL);
+        builder.append(ZipfNumberDataSource.getUsage());
+        builder.append(StaticUtils.EOL);
         builder.append(RandomStringDataSource.getUsage());
         return LocalizableMessage.raw(builder.toString());
     }
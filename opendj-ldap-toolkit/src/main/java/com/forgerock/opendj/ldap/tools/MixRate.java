@@ -0,0 +1,728 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package com.forgerock.opendj.ldap.tools;
+
+import static com.forgerock.opendj.cli.CommonArguments.*;
+import static com.forgerock.opendj.cli.MultiColumnPrinter.column;
+import static com.forgerock.opendj.cli.ToolVersionHandler.newSdkVersionHandler;
+import static com.forgerock.opendj.cli.Utils.*;
+import static com.forgerock.opendj.ldap.tools.ToolsMessages.*;
+
+import static org.forgerock.util.Utils.closeSilently;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.ConnectionFactory;
+import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.ldap.ModificationType;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchResultHandler;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.requests.AddRequest;
+import org.forgerock.opendj.ldap.requests.ModifyRequest;
+import org.forgerock.opendj.ldap.requests.Requests;
+import org.forgerock.opendj.ldap.responses.Result;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.opendj.ldap.responses.SearchResultReference;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.Promises;
+import org.forgerock.util.promise.ResultHandler;
+import org.mpierce.metrics.reservoir.hdrhistogram.HdrHistogramReservoir;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.RatioGauge;
+import com.forgerock.opendj.cli.ArgumentException;
+import com.forgerock.opendj.cli.ArgumentParser;
+import com.forgerock.opendj.cli.BooleanArgument;
+import com.forgerock.opendj.cli.ConnectionFactoryProvider;
+import com.forgerock.opendj.cli.ConsoleApplication;
+import com.forgerock.opendj.cli.MultiColumnPrinter;
+import com.forgerock.opendj.cli.StringArgument;
+
+/**
+ * A load generation tool that can be used to load a Directory Server with a
+ * weighted mix of search, bind, modify, add and delete requests, described in a
+ * scenario file, using one or more LDAP connections.
+ * <p>
+ * The scenario file is a properties file. Each operation taking part in the mix
+ * has a weight, request format strings, and optional value generators whose
+ * values are referenced by the format strings:
+ *
+ * <pre>
+ * search.weight=70
+ * search.baseDN=ou=people,dc=example,dc=com
+ * search.scope=sub
+ * search.filter=(uid=user.%d)
+ * search.attributes=cn mail
+ * search.argument.1=zipf(0,9999,1)
+ *
+ * bind.weight=15
+ * bind.dn=uid=user.%d,ou=people,dc=example,dc=com
+ * bind.password=password
+ * bind.argument.1=zipf(0,9999,1)
+ *
+ * modify.weight=10
+ * modify.dn=uid=user.%d,ou=people,dc=example,dc=com
+ * modify.modification.1=description:%2$s
+ * modify.argument.1=zipf(0,9999,1)
+ * modify.argument.2=randstr(16)
+ *
+ * add.weight=3
+ * add.dn=uid=mixrate.%d,ou=people,dc=example,dc=com
+ * add.attribute.1=objectClass:inetOrgPerson
+ * add.attribute.2=cn:mixrate %d
+ * add.attribute.3=sn:%d
+ *
+ * delete.weight=2
+ * </pre>
+ *
+ * The first format argument of the add requests is a number unique to the run,
+ * the values of the generators following it. The delete requests remove the
+ * entries added by the run, the oldest first, and are replaced by add requests
+ * when there is none left. Binds are performed on a dedicated connection per
+ * worker thread, so that they do not change the identity of the connections
+ * used by the other operations.
+ */
+public final class MixRate extends ConsoleApplication {
+    /** The types of operations which can take part in a scenario, in display order. */
+    enum OperationType {
+        SEARCH, BIND, MODIFY, ADD, DELETE;
+
+        String getName() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    /** An operation taking part in a scenario, with its request format strings and statistics. */
+    static final class ScenarioOperation {
+        private static final Pattern NUMBERED_KEY = Pattern.compile("([a-z]+)\\.([0-9]+)");
+
+        final OperationType type;
+        final int weight;
+        /** The base DN of the searches, or the DN of the entries to bind as, modify or add. */
+        String dn;
+        SearchScope scope = SearchScope.WHOLE_SUBTREE;
+        String filter;
+        String[] attributes = new String[0];
+        String password;
+        /** The "attribute:value" format strings of the modifications or of the added attributes. */
+        final List<String> attributeValues = new ArrayList<>();
+        final List<String> arguments = new ArrayList<>();
+        DataSource[] dataSources;
+
+        final StatsThread.IntervalCounter count = StatsThread.newIntervalCounter();
+        final StatsThread.IntervalCounter durationNs = StatsThread.newIntervalCounter();
+        final Histogram responseTimes = new Histogram(new HdrHistogramReservoir());
+
+        private ScenarioOperation(final OperationType type, final int weight) {
+            this.type = type;
+            this.weight = weight;
+        }
+
+        private void setProperty(final String key, final String value) throws ArgumentException {
+            final Matcher matcher = NUMBERED_KEY.matcher(key);
+            if (matcher.matches()) {
+                final String name = matcher.group(1);
+                if ("argument".equals(name)) {
+                    addNumbered(arguments, matcher.group(2), value, key);
+                    return;
+                } else if (("modification".equals(name) && type == OperationType.MODIFY)
+                        || ("attribute".equals(name) && type == OperationType.ADD)) {
+                    addNumbered(attributeValues, matcher.group(2), value, key);
+                    return;
+                }
+            } else if ("baseDN".equals(key) && type == OperationType.SEARCH) {
+                dn = value;
+                return;
+            } else if ("dn".equals(key) && type != OperationType.SEARCH && type != OperationType.DELETE) {
+                dn = value;
+                return;
+            } else if ("scope".equals(key) && type == OperationType.SEARCH) {
+                scope = SearchScope.valueOf(value);
+                if (scope == null) {
+                    throw new ArgumentException(LocalizableMessage.raw(
+                            "Invalid search scope %s in the scenario, expected base, one, sub or subordinates",
+                            value));
+                }
+                return;
+            } else if ("filter".equals(key) && type == OperationType.SEARCH) {
+                filter = value;
+                return;
+            } else if ("attributes".equals(key) && type == OperationType.SEARCH) {
+                attributes = value.trim().split("[\\s,]+");
+                return;
+            } else if ("password".equals(key) && type == OperationType.BIND) {
+                password = value;
+                return;
+            }
+            throw new ArgumentException(LocalizableMessage.raw(
+                    "Unknown property %s.%s in the scenario", type.getName(), key));
+        }
+
+        /** Values of numbered properties are ordered by number, the numbers having to be consecutive from 1. */
+        private static void addNumbered(final List<String> values, final String number, final String value,
+                final String key) throws ArgumentException {
+            final int index = Integer.parseInt(number) - 1;
+            while (values.size() <= index) {
+                values.add(null);
+            }
+            if (index < 0 || values.get(index) != null) {
+                throw new ArgumentException(LocalizableMessage.raw("Invalid property number in %s", key));
+            }
+            values.set(index, value);
+        }
+
+        private void validate() throws ArgumentException {
+            if (arguments.contains(null) || attributeValues.contains(null)) {
+                throw new ArgumentException(LocalizableMessage.raw(
+                        "The numbers of the %s properties of the scenario must be consecutive, starting from 1",
+                        type.getName()));
+            }
+            switch (type) {
+            case SEARCH:
+                require(dn, "baseDN");
+                require(filter, "filter");
+                break;
+            case BIND:
+                require(dn, "dn");
+                require(password, "password");
+                break;
+            case MODIFY:
+            case ADD:
+                require(dn, "dn");
+                if (attributeValues.isEmpty()) {
+                    require(null, type == OperationType.MODIFY ? "modification.1" : "attribute.1");
+                }
+                break;
+            default:
+                break;
+            }
+            dataSources = DataSource.parse(arguments);
+
+            try {
+                /* Try it out to make sure the format strings and data sources match. */
+                final Object[] data = generateData(DataSource.generateData(dataSources, null), 0);
+                if (dn != null) {
+                    String.format(dn, data);
+                }
+                if (filter != null) {
+                    String.format(filter, data);
+                }
+                for (final String attributeValue : attributeValues) {
+                    String.format(attributeValue, data);
+                }
+            } catch (final Exception e) {
+                throw new ArgumentException(LocalizableMessage.raw(
+                        "Error formatting the %s requests of the scenario: %s", type.getName(), e), e);
+            }
+        }
+
+        private void require(final String value, final String key) throws ArgumentException {
+            if (value == null) {
+                throw new ArgumentException(LocalizableMessage.raw(
+                        "The %s.%s property is missing from the scenario", type.getName(), key));
+            }
+        }
+
+        /** Returns the format arguments of a request, prefixed with the entry number for an add. */
+        Object[] generateData(final Object[] generatedData, final long entryNumber) {
+            if (type != OperationType.ADD) {
+                return generatedData;
+            }
+            final Object[] data = new Object[generatedData.length + 1];
+            data[0] = entryNumber;
+            System.arraycopy(generatedData, 0, data, 1, generatedData.length);
+            return data;
+        }
+
+        void addResponseTime(final long responseTimeNs) {
+            if (responseTimeNs >= 0) {
+                count.inc();
+                durationNs.inc(responseTimeNs);
+                responseTimes.update(responseTimeNs);
+            }
+        }
+    }
+
+    /** The weighted mix of operations to run. */
+    static final class Scenario {
+        private static final Pattern KEY = Pattern.compile("([a-z]+)\\.(.+)");
+
+        final List<ScenarioOperation> operations;
+        private final int[] cumulativeWeights;
+
+        private Scenario(final List<ScenarioOperation> operations) {
+            this.operations = operations;
+            this.cumulativeWeights = new int[operations.size()];
+            int totalWeight = 0;
+            for (int i = 0; i < operations.size(); i++) {
+                totalWeight += operations.get(i).weight;
+                cumulativeWeights[i] = totalWeight;
+            }
+        }
+
+        static Scenario read(final String scenarioPath) throws ArgumentException {
+            final Properties properties = new Properties();
+            try (Reader reader = new FileReader(scenarioPath)) {
+                properties.load(reader);
+            } catch (final IOException e) {
+                throw new ArgumentException(LocalizableMessage.raw(
+                        "Error reading scenario file %s: %s", scenarioPath, e.getMessage()), e);
+            }
+            return parse(properties);
+        }
+
+        static Scenario parse(final Properties properties) throws ArgumentException {
+            final Map<OperationType, ScenarioOperation> operations = new EnumMap<>(OperationType.class);
+            for (final OperationType type : OperationType.values()) {
+                final String weight = properties.getProperty(type.getName() + ".weight");
+                if (weight != null) {
+                    operations.put(type, new ScenarioOperation(type, parseWeight(type, weight.trim())));
+                }
+            }
+            if (operations.isEmpty()) {
+                throw new ArgumentException(LocalizableMessage.raw(
+                        "The scenario must give a weight to at least one operation among search, bind, modify, "
+                                + "add and delete"));
+            }
+            if (operations.containsKey(OperationType.DELETE) && !operations.containsKey(OperationType.ADD)) {
+                throw new ArgumentException(LocalizableMessage.raw(
+                        "The delete operation of the scenario removes entries added by the add operation, "
+                                + "which must be part of the scenario too"));
+            }
+
+            for (final String key : properties.stringPropertyNames()) {
+                final Matcher matcher = KEY.matcher(key);
+                final ScenarioOperation operation =
+                        matcher.matches() ? getOperation(operations, matcher.group(1)) : null;
+                if (operation == null) {
+                    throw new ArgumentException(LocalizableMessage.raw("Unknown property %s in the scenario", key));
+                }
+                if (!"weight".equals(matcher.group(2))) {
+                    operation.setProperty(matcher.group(2), properties.getProperty(key));
+                }
+            }
+            for (final ScenarioOperation operation : operations.values()) {
+                operation.validate();
+            }
+            return new Scenario(new ArrayList<>(operations.values()));
+        }
+
+        private static ScenarioOperation getOperation(final Map<OperationType, ScenarioOperation> operations,
+                final String name) {
+            for (final Map.Entry<OperationType, ScenarioOperation> entry : operations.entrySet()) {
+                if (entry.getKey().getName().equals(name)) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+
+        private static int parseWeight(final OperationType type, final String weight) throws ArgumentException {
+            try {
+                final int value = Integer.parseInt(weight);
+                if (value > 0) {
+                    return value;
+                }
+            } catch (final NumberFormatException e) {
+                // Reported below
+            }
+            throw new ArgumentException(LocalizableMessage.raw(
+                    "The weight %s of the %s operation must be a strictly positive integer", weight, type.getName()));
+        }
+
+        int getTotalWeight() {
+            return cumulativeWeights[cumulativeWeights.length - 1];
+        }
+
+        /** Returns the operation selected by the provided number, between 0 and the total weight excluded. */
+        ScenarioOperation select(final int number) {
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (number < cumulativeWeights[i]) {
+                    return operations.get(i);
+                }
+            }
+            throw new IllegalArgumentException(String.valueOf(number));
+        }
+
+        ScenarioOperation getOperation(final OperationType type) {
+            for (final ScenarioOperation operation : operations) {
+                if (operation.type == type) {
+                    return operation;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final class MixPerformanceRunner extends PerformanceRunner {
+        private final class MixStatsThread extends StatsThread {
+            private static final int OPERATION_COLUMN_WIDTH = 8;
+
+            private MixStatsThread(final PerformanceRunner performanceRunner, final ConsoleApplication app) {
+                super(performanceRunner, app);
+            }
+
+            @Override
+            void resetAdditionalStats() {
+                if (scenario != null) {
+                    for (final ScenarioOperation operation : scenario.operations) {
+                        operation.count.refreshIntervalCount();
+                        operation.durationNs.refreshIntervalCount();
+                    }
+                }
+            }
+
+            @Override
+            List<MultiColumnPrinter.Column> registerAdditionalColumns() {
+                final List<MultiColumnPrinter.Column> columns = new ArrayList<>();
+                for (final ScenarioOperation operation : scenario.operations) {
+                    final String name = operation.type.getName();
+                    final String throughputId = STAT_ID_PREFIX + name + "_recent_throughput";
+                    registry.register(throughputId, new RatioGauge() {
+                        @Override
+                        protected Ratio getRatio() {
+                            return Ratio.of(operation.count.refreshIntervalCount(),
+                                            durationMsCount.getLastIntervalCount() / MS_IN_S);
+                        }
+                    });
+                    columns.add(isScriptFriendly()
+                            ? column(throughputId, "Recent " + name + " throughput (ops/second)", 1)
+                            : column(throughputId, name + "/s", OPERATION_COLUMN_WIDTH, 1));
+
+                    final String responseTimeId = STAT_ID_PREFIX + name + "_recent_response_time";
+                    registry.register(responseTimeId, new RatioGauge() {
+                        @Override
+                        protected Ratio getRatio() {
+                            return Ratio.of(operation.durationNs.refreshIntervalCount() / NS_IN_MS,
+                                            operation.count.getLastIntervalCount());
+                        }
+                    });
+                    columns.add(isScriptFriendly()
+                            ? column(responseTimeId, "Recent " + name + " response time (milliseconds)", 3)
+                            : column(responseTimeId, name + " ms", OPERATION_COLUMN_WIDTH, 3));
+
+                    for (final double percentile : getPercentiles()) {
+                        final String percentileId = STAT_ID_PREFIX + name + "_response_time_" + percentile;
+                        registry.register(percentileId, new Gauge<Double>() {
+                            @Override
+                            public Double getValue() {
+                                return operation.responseTimes.getSnapshot().getValue(percentile / 100.0) / NS_IN_MS;
+                            }
+                        });
+                        columns.add(isScriptFriendly()
+                                ? column(percentileId, name + " " + percentile + "% response time (milliseconds)", 2)
+                                : column(percentileId, name + " " + percentile + "%", OPERATION_COLUMN_WIDTH, 2));
+                    }
+                }
+                return columns;
+            }
+        }
+
+        /** Updates the statistics of all the operations, ignoring the entries returned by the searches. */
+        private final class StatsHandler extends UpdateStatsResultHandler<Result> implements SearchResultHandler {
+            private StatsHandler(final long startTime) {
+                super(startTime);
+            }
+
+            @Override
+            public boolean handleEntry(final SearchResultEntry entry) {
+                return true;
+            }
+
+            @Override
+            public boolean handleReference(final SearchResultReference reference) {
+                return true;
+            }
+        }
+
+        private final class MixWorkerThread extends WorkerThread {
+            private final Random random = new Random();
+            private final DataSource[][] dataSources = new DataSource[scenario.operations.size()][];
+            private final Object[][] data = new Object[scenario.operations.size()][];
+            private Connection bindConnection;
+
+            private MixWorkerThread(final Connection connection, final ConnectionFactory connectionFactory) {
+                super(connection, connectionFactory);
+                for (int i = 0; i < dataSources.length; i++) {
+                    final DataSource[] prototypes = scenario.operations.get(i).dataSources;
+                    dataSources[i] = new DataSource[prototypes.length];
+                    for (int j = 0; j < prototypes.length; j++) {
+                        dataSources[i][j] = prototypes[j].duplicate();
+                    }
+                }
+            }
+
+            @Override
+            public Promise<?, LdapException> performOperation(final Connection connection,
+                    final DataSource[] ignored, final long currentTimeNs) {
+                ScenarioOperation operation = scenario.select(random.nextInt(scenario.getTotalWeight()));
+                String deletedDN = null;
+                if (operation.type == OperationType.DELETE) {
+                    deletedDN = addedEntries.poll();
+                    if (deletedDN == null) {
+                        operation = scenario.getOperation(OperationType.ADD);
+                    }
+                }
+                final int index = scenario.operations.indexOf(operation);
+                data[index] = DataSource.generateData(dataSources[index], data[index]);
+                final Object[] args = operation.generateData(data[index], entryNumber.incrementAndGet());
+
+                incrementIterationCount();
+                final ScenarioOperation performedOperation = operation;
+                final Runnable updateOperationStats = new Runnable() {
+                    @Override
+                    public void run() {
+                        // Like the global statistics, the per operation statistics ignore the warm-up operations
+                        if (!statsThread.isWarmingUp()) {
+                            performedOperation.addResponseTime(System.nanoTime() - currentTimeNs);
+                        }
+                    }
+                };
+                final StatsHandler handler = new StatsHandler(currentTimeNs);
+                switch (operation.type) {
+                case SEARCH:
+                    return connection.searchAsync(Requests.newSearchRequest(String.format(operation.dn, args),
+                            operation.scope, String.format(operation.filter, args), operation.attributes), handler)
+                            .thenOnResultOrException(updateOperationStats)
+                            .thenOnResult(handler).thenOnException(handler);
+                case BIND:
+                    return bind(String.format(operation.dn, args), operation.password, handler, updateOperationStats);
+                case MODIFY:
+                    return connection.modifyAsync(newModifyRequest(operation, args))
+                            .thenOnResultOrException(updateOperationStats)
+                            .thenOnResult(handler).thenOnException(handler);
+                case ADD:
+                    final AddRequest addRequest = Requests.newAddRequest(String.format(operation.dn, args));
+                    for (final String attributeValue : operation.attributeValues) {
+                        final String formattedString = String.format(attributeValue, args);
+                        final int colonPos = formattedString.indexOf(':');
+                        if (colonPos > 0) {
+                            addRequest.addAttribute(formattedString.substring(0, colonPos),
+                                    formattedString.substring(colonPos + 1));
+                        }
+                    }
+                    return connection.addAsync(addRequest)
+                            .thenOnResultOrException(updateOperationStats)
+                            .thenOnResult(new ResultHandler<Result>() {
+                                @Override
+                                public void handleResult(final Result result) {
+                                    addedEntries.add(addRequest.getName().toString());
+                                }
+                            })
+                            .thenOnResult(handler).thenOnException(handler);
+                default:
+                    return connection.deleteAsync(Requests.newDeleteRequest(deletedDN))
+                            .thenOnResultOrException(updateOperationStats)
+                            .thenOnResult(handler).thenOnException(handler);
+                }
+            }
+
+            private ModifyRequest newModifyRequest(final ScenarioOperation operation, final Object[] args) {
+                final ModifyRequest mr = Requests.newModifyRequest(String.format(operation.dn, args));
+                for (final String modString : operation.attributeValues) {
+                    final String formattedString = String.format(modString, args);
+                    final int colonPos = formattedString.indexOf(':');
+                    if (colonPos > 0) {
+                        mr.addModification(ModificationType.REPLACE, formattedString.substring(0, colonPos),
+                                formattedString.substring(colonPos + 1));
+                    }
+                }
+                return mr;
+            }
+
+            private Promise<?, LdapException> bind(final String bindDN, final String password,
+                    final StatsHandler handler, final Runnable updateOperationStats) {
+                try {
+                    if (bindConnection == null || !bindConnection.isValid()) {
+                        closeSilently(bindConnection);
+                        bindConnection = bindConnectionFactory.getConnection();
+                        bindConnections.add(bindConnection);
+                    }
+                } catch (final LdapException e) {
+                    handler.handleException(e);
+                    return Promises.newExceptionPromise(e);
+                }
+                return bindConnection.bindAsync(Requests.newSimpleBindRequest(bindDN, password.toCharArray()))
+                        .thenOnResultOrException(updateOperationStats)
+                        .thenOnResult(handler).thenOnException(handler);
+            }
+        }
+
+        private Scenario scenario;
+        /** Creates the connections used for binds, which must not change the identity of the shared connections. */
+        private ConnectionFactory bindConnectionFactory;
+        private final Queue<Connection> bindConnections = new ConcurrentLinkedQueue<>();
+        /** The DNs of the entries added and not deleted yet, the oldest first. */
+        private final Queue<String> addedEntries = new ConcurrentLinkedQueue<>();
+        private final AtomicLong entryNumber = new AtomicLong();
+
+        private MixPerformanceRunner(final PerformanceRunnerOptions options) throws ArgumentException {
+            super(options);
+        }
+
+        @Override
+        WorkerThread newWorkerThread(final Connection connection, final ConnectionFactory connectionFactory) {
+            return new MixWorkerThread(connection, connectionFactory);
+        }
+
+        @Override
+        StatsThread newStatsThread(final PerformanceRunner performanceRunner, final ConsoleApplication app) {
+            return new MixStatsThread(performanceRunner, app);
+        }
+    }
+
+    /**
+     * The main method for MixRate tool.
+     *
+     * @param args
+     *            The command-line arguments provided to this program.
+     */
+    public static void main(final String[] args) {
+        final int retCode = new MixRate().run(args);
+        System.exit(filterExitCode(retCode));
+    }
+
+    private BooleanArgument verbose;
+    private BooleanArgument scriptFriendly;
+
+    private MixRate() {
+        // Nothing to do.
+    }
+
+    /**
+     * Constructor to allow tests.
+     *
+     * @param out
+     *            output stream of console application
+     * @param err
+     *            error stream of console application
+     */
+    MixRate(PrintStream out, PrintStream err) {
+        super(out, err);
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+
+    @Override
+    public boolean isScriptFriendly() {
+        return scriptFriendly.isPresent();
+    }
+
+    @Override
+    public boolean isVerbose() {
+        return verbose.isPresent();
+    }
+
+    int run(final String[] args) {
+        // Create the command-line argument parser for use with this program.
+        final LocalizableMessage toolDescription = INFO_MIXRATE_TOOL_DESCRIPTION.get();
+        final ArgumentParser argParser = LDAPToolArgumentParser.builder(MixRate.class.getName())
+                .toolDescription(toolDescription)
+                .trailingArguments(1, "scenario-file-path")
+                .build();
+        argParser.setVersionHandler(newSdkVersionHandler());
+        argParser.setShortToolDescription(REF_SHORT_DESC_MIXRATE.get());
+        argParser.setDocToolDescriptionSupplement(SUPPLEMENT_DESCRIPTION_RATE_TOOLS.get());
+
+        ConnectionFactoryProvider connectionFactoryProvider;
+        ConnectionFactory connectionFactory;
+        MixPerformanceRunner runner;
+
+        BooleanArgument showUsage;
+        StringArgument propertiesFileArgument;
+        BooleanArgument noPropertiesFileArgument;
+        try {
+            Utils.setDefaultPerfToolProperties();
+            final PerformanceRunnerOptions options = new PerformanceRunnerOptions(argParser, this);
+            options.setSupportsGeneratorArgument(false);
+
+            connectionFactoryProvider = new ConnectionFactoryProvider(argParser, this);
+            runner = new MixPerformanceRunner(options);
+
+            propertiesFileArgument = propertiesFileArgument();
+            argParser.addArgument(propertiesFileArgument);
+            argParser.setFilePropertiesArgument(propertiesFileArgument);
+
+            noPropertiesFileArgument = noPropertiesFileArgument();
+            argParser.addArgument(noPropertiesFileArgument);
+            argParser.setNoPropertiesFileArgument(noPropertiesFileArgument);
+
+            showUsage = showUsageArgument();
+            argParser.addArgument(showUsage);
+            argParser.setUsageArgument(showUsage, getOutputStream());
+
+            verbose = verboseArgument();
+            argParser.addArgument(verbose);
+
+            scriptFriendly = scriptFriendlySdkArgument();
+            argParser.addArgument(scriptFriendly);
+        } catch (final ArgumentException ae) {
+            final LocalizableMessage message = ERR_CANNOT_INITIALIZE_ARGS.get(ae.getMessage());
+            errPrintln(message);
+            return ResultCode.CLIENT_SIDE_PARAM_ERROR.intValue();
+        }
+
+        // Parse the command-line arguments provided to this program.
+        try {
+            argParser.parseArguments(args);
+
+            // If we should just display usage or version information,
+            // then print it and exit.
+            if (argParser.usageOrVersionDisplayed()) {
+                return 0;
+            }
+
+            connectionFactory = connectionFactoryProvider.getAuthenticatedConnectionFactory();
+            runner.bindConnectionFactory = connectionFactoryProvider.getUnauthenticatedConnectionFactory();
+            runner.setBindRequest(connectionFactoryProvider.getBindRequest());
+            runner.validate();
+            runner.scenario = Scenario.read(argParser.getTrailingArguments().get(0));
+        } catch (final ArgumentException ae) {
+            argParser.displayMessageAndUsageReference(getErrStream(), ERR_ERROR_PARSING_ARGS.get(ae.getMessage()));
+            return ResultCode.CLIENT_SIDE_PARAM_ERROR.intValue();
+        }
+
+        try {
+            return runner.run(connectionFactory);
+        } finally {
+            for (final Connection bindConnection : runner.bindConnections) {
+                closeSilently(bindConnection);
+            }
+        }
+    }
+}
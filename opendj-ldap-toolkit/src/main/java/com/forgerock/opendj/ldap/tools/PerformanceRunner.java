@@ -82,9 +82,12 @@ abstract class PerformanceRunner implements ConnectionEventListener {
      */
     class UpdateStatsResultHandler<S extends Result> implements LdapResultHandler<S> {
         protected final long operationStartTimeNs;
+        /** The time the request is actually sent, which is later than the start time if it is sent late. */
+        private final long operationSendTimeNs;
 
         UpdateStatsResultHandler(final long currentTimeNs) {
             this.operationStartTimeNs = currentTimeNs;
+            this.operationSendTimeNs = System.nanoTime();
         }
 
         @Override
@@ -105,7 +108,8 @@ abstract class PerformanceRunner implements ConnectionEventListener {
         void updateAdditionalStatsOnResult() { }
 
         private void updateResponseTime() {
-            statsThread.addResponseTime(System.nanoTime() - operationStartTimeNs);
+            final long currentTimeNs = System.nanoTime();
+            statsThread.addResponseTime(currentTimeNs - operationStartTimeNs, currentTimeNs - operationSendTimeNs);
         }
     }
 
@@ -115,6 +119,9 @@ abstract class PerformanceRunner implements ConnectionEventListener {
         private final Connection connection;
         private final ConnectionFactory connectionFactory;
         boolean localStopRequested;
+        /** Open-loop mode only: the number of requests scheduled so far by this thread. */
+        private long scheduledCount;
+        private long scheduleStartTimeNs;
 
         WorkerThread(final Connection connection, final ConnectionFactory connectionFactory) {
             super("Worker Thread");
@@ -131,10 +138,14 @@ abstract class PerformanceRunner implements ConnectionEventListener {
             Connection connection;
             final double targetTimeMs = 1000.0 / (targetThroughput / (double) (numThreads * numConnections));
             double sleepTimeMs = 0;
+            scheduleStartTimeNs = System.nanoTime();
 
-            while (!stopRequested && !localStopRequested
-                    && (maxIterations <= 0 || count < maxIterations)) {
+            while (shouldContinue()) {
+                long startTimeNs = 0;
                 try {
+                    if (openLoop) {
+                        startTimeNs = waitForNextScheduledTime(targetTimeMs);
+                    }
                     connection = getConnectionToUse();
                 } catch (final InterruptedException e) {
                     // Ignore and check stop requested
@@ -144,7 +155,9 @@ abstract class PerformanceRunner implements ConnectionEventListener {
                     break;
                 }
 
-                long startTimeNs = System.nanoTime();
+                if (!openLoop) {
+                    startTimeNs = System.nanoTime();
+                }
                 promise = performOperation(connection, dataSources.get(), startTimeNs);
                 statsThread.incrementOperationCount();
                 try {
@@ -165,7 +178,7 @@ abstract class PerformanceRunner implements ConnectionEventListener {
                     }
                 }
 
-                if (targetThroughput > 0) {
+                if (targetThroughput > 0 && !openLoop) {
                     try {
                         if (sleepTimeMs > 1) {
                             sleep((long) Math.floor(sleepTimeMs));
@@ -184,6 +197,24 @@ abstract class PerformanceRunner implements ConnectionEventListener {
             }
         }
 
+        /**
+         * Waits for the time at which the next request is scheduled, and returns it.
+         * <p>
+         * The requests are scheduled at a fixed rate, whatever the response times: a request which
+         * could not be sent on time is sent as soon as possible, and its response time is measured
+         * from its scheduled time, so that a server stall is accounted for in the response times
+         * rather than hidden by a lower throughput.
+         */
+        private long waitForNextScheduledTime(final double targetTimeMs) throws InterruptedException {
+            final long scheduledTimeNs =
+                    scheduleStartTimeNs + (long) (scheduledCount++ * targetTimeMs * MILLISECONDS.toNanos(1));
+            final long delayNs = scheduledTimeNs - System.nanoTime();
+            if (delayNs > 0) {
+                NANOSECONDS.sleep(delayNs);
+            }
+            return scheduledTimeNs;
+        }
+
         private Connection getConnectionToUse() throws InterruptedException, LdapException {
             if (this.connection == null) {
                 return connectionFactory.getConnectionAsync().getOrThrow();
@@ -196,6 +227,11 @@ abstract class PerformanceRunner implements ConnectionEventListener {
             }
         }
 
+        /** Returns whether the tool is not stopping and this thread has not performed all its iterations. */
+        boolean shouldContinue() {
+            return !stopRequested && !localStopRequested && (maxIterations <= 0 || count < maxIterations);
+        }
+
         void incrementIterationCount() {
             count++;
         }
@@ -224,12 +260,15 @@ abstract class PerformanceRunner implements ConnectionEventListener {
     private boolean stopRequested;
 
     private int targetThroughput;
+    private boolean openLoop;
     private int maxIterations;
     /** Warm-up duration time in ms. */
     private long warmUpDurationMs;
     /** Max duration time in ms, 0 for unlimited. */
     private long maxDurationTimeMs;
     private boolean noRebind;
+    /** Whether each worker thread uses a connection opened once for all, whatever the arguments. */
+    private final boolean alwaysKeepConnectionsOpen;
     private BindRequest bindRequest;
     private int statsIntervalMs;
     private final IntegerArgument numThreadsArgument;
@@ -240,6 +279,7 @@ abstract class PerformanceRunner implements ConnectionEventListener {
     private final IntegerArgument percentilesArgument;
     private final BooleanArgument keepConnectionsOpen;
     private final BooleanArgument noRebindArgument;
+    private final BooleanArgument openLoopArgument;
     private final StringArgument arguments;
     protected final IntegerArgument maxIterationsArgument;
     protected final IntegerArgument warmUpArgument;
@@ -251,6 +291,7 @@ abstract class PerformanceRunner implements ConnectionEventListener {
         ArgumentParser argParser = options.getArgumentParser();
 
         this.app = options.getConsoleApplication();
+        this.alwaysKeepConnectionsOpen = options.alwaysKeepConnectionsOpen();
 
         numThreadsArgument =
                 IntegerArgument.builder("numThreads")
@@ -311,6 +352,13 @@ abstract class PerformanceRunner implements ConnectionEventListener {
                         .defaultValue(0)
                         .valuePlaceholder(LocalizableMessage.raw("{targetThroughput}"))
                         .buildAndAddToParser(argParser);
+        openLoopArgument =
+                BooleanArgument.builder("openLoop")
+                        .description(LocalizableMessage.raw(
+                                "Send requests at the target throughput whatever the response times, and measure "
+                                        + "response times from the scheduled send times. Uncorrected response time "
+                                        + "percentiles, measured from the actual send times, are also displayed"))
+                        .buildAndAddToParser(argParser);
         percentilesArgument =
                 IntegerArgument.builder("percentile")
                         .shortIdentifier('e')
@@ -324,7 +372,10 @@ abstract class PerformanceRunner implements ConnectionEventListener {
                 BooleanArgument.builder("keepConnectionsOpen")
                         .shortIdentifier('f')
                         .description(LocalizableMessage.raw("Keep connections open"))
-                        .buildAndAddToParser(argParser);
+                        .buildArgument();
+        if (!alwaysKeepConnectionsOpen) {
+            argParser.addArgument(keepConnectionsOpen);
+        }
         noRebindArgument =
                 BooleanArgument.builder("noRebind")
                         .shortIdentifier('F')
@@ -382,6 +433,7 @@ abstract class PerformanceRunner implements ConnectionEventListener {
         maxDurationTimeMs = maxDurationArgument.getIntValue() * 1000L;
         statsIntervalMs = statsIntervalArgument.getIntValue() * 1000;
         targetThroughput = targetThroughputArgument.getIntValue();
+        openLoop = openLoopArgument.isPresent();
 
         noRebind = noRebindArgument.isPresent();
 
@@ -390,6 +442,12 @@ abstract class PerformanceRunner implements ConnectionEventListener {
                 "--" + noRebindArgument.getLongIdentifier(), "--" + numThreadsArgument.getLongIdentifier(), "> 1"));
         }
 
+        if (openLoop && targetThroughput <= 0) {
+            throw new ArgumentException(ERR_TOOL_ARG_MUST_BE_USED_WHEN_ARG_CONDITION.get(
+                "--" + targetThroughputArgument.getLongIdentifier(), "--" + openLoopArgument.getLongIdentifier(),
+                "present"));
+        }
+
         if (maxIterationsArgument.isPresent() && maxIterations <= 0) {
             throw new ArgumentException(ERR_TOOL_NOT_ENOUGH_ITERATIONS.get(
                 "--" + maxIterationsArgument.getLongIdentifier(), numConnections * numThreads,
@@ -421,7 +479,7 @@ abstract class PerformanceRunner implements ConnectionEventListener {
             validateCanConnectToServer(connectionFactory);
             for (int i = 0; i < numConnections; i++) {
                 Connection connection = null;
-                if (keepConnectionsOpen.isPresent() || noRebindArgument.isPresent()) {
+                if (alwaysKeepConnectionsOpen || keepConnectionsOpen.isPresent() || noRebindArgument.isPresent()) {
                     connection = connectionFactory.getConnection();
                     connection.addConnectionEventListener(this);
                     connections.add(connection);
@@ -493,6 +551,10 @@ abstract class PerformanceRunner implements ConnectionEventListener {
         return DEFAULT_PERCENTILES;
     }
 
+    boolean isOpenLoop() {
+        return openLoop;
+    }
+
     long getWarmUpDurationMs() {
         return warmUpDurationMs;
     }
@@ -29,6 +29,7 @@ class PerformanceRunnerOptions {
     private boolean supportsRebind = true;
     private boolean supportsMultipleThreadsPerConnection = true;
     private boolean supportsGeneratorArgument = true;
+    private boolean alwaysKeepConnectionsOpen;
 
     PerformanceRunnerOptions(ArgumentParser argParser, ConsoleApplication app) {
         this.argParser = argParser;
@@ -59,6 +60,14 @@ class PerformanceRunnerOptions {
         this.supportsGeneratorArgument = supportsGeneratorArgument;
     }
 
+    boolean alwaysKeepConnectionsOpen() {
+        return alwaysKeepConnectionsOpen;
+    }
+
+    void setAlwaysKeepConnectionsOpen(boolean alwaysKeepConnectionsOpen) {
+        this.alwaysKeepConnectionsOpen = alwaysKeepConnectionsOpen;
+    }
+
     ArgumentParser getArgumentParser() {
         return argParser;
     }
@@ -0,0 +1,805 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package com.forgerock.opendj.ldap.tools;
+
+import static java.util.concurrent.TimeUnit.*;
+
+import static com.forgerock.opendj.cli.CliMessages.ERR_TOOL_CONFLICTING_ARGS;
+import static com.forgerock.opendj.cli.CommonArguments.*;
+import static com.forgerock.opendj.cli.MultiColumnPrinter.column;
+import static com.forgerock.opendj.cli.ToolVersionHandler.newSdkVersionHandler;
+import static com.forgerock.opendj.cli.Utils.*;
+import static com.forgerock.opendj.ldap.tools.ToolsMessages.*;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.i18n.LocalizedIllegalArgumentException;
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.ConnectionFactory;
+import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchResultHandler;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.requests.BindRequest;
+import org.forgerock.opendj.ldap.requests.Request;
+import org.forgerock.opendj.ldap.requests.Requests;
+import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.Result;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.opendj.ldap.responses.SearchResultReference;
+import org.forgerock.util.AsyncFunction;
+import org.forgerock.util.promise.ExceptionHandler;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.ResultHandler;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.RatioGauge;
+import com.forgerock.opendj.cli.ArgumentException;
+import com.forgerock.opendj.cli.ArgumentParser;
+import com.forgerock.opendj.cli.BooleanArgument;
+import com.forgerock.opendj.cli.ConnectionFactoryProvider;
+import com.forgerock.opendj.cli.ConsoleApplication;
+import com.forgerock.opendj.cli.MultiChoiceArgument;
+import com.forgerock.opendj.cli.MultiColumnPrinter;
+import com.forgerock.opendj.cli.StringArgument;
+import com.forgerock.opendj.ldap.tools.AccessLogReader.AccessLogRecord;
+
+/**
+ * A load generation tool that replays the searches and binds of a server access log against a
+ * Directory Server, at the original timing, faster or slower, or as fast as possible.
+ * <p>
+ * The log is read once, and the operations of each logged connection are replayed by one of the
+ * connections of the tool, one at a time and in the order of the log, with the identity established
+ * by the binds of the logged connection which preceded them. The passwords are not logged: simple
+ * binds are replayed with the password provided for all the replayed users, or with the credentials
+ * of the tool if there is none. Updates, compares and extended operations, whose content is not
+ * logged either, are not replayed.
+ * <p>
+ * Once the log has been replayed, the average processing times which have been logged and the
+ * average response times of the replay are reported for each operation signature, the signature
+ * of a search being made of its scope and of the shape of its filter, without the assertion
+ * values. The replayed response times are measured by the client, hence also include the network
+ * round trip: they show which signatures are the most expensive, rather than how the etimes differ.
+ */
+public final class ReplayRate extends ConsoleApplication {
+    /**
+     * The logged processing times and the replayed response times of the operations having the same
+     * signature.
+     */
+    static final class SignatureStatistics {
+        private final AtomicLong loggedCount = new AtomicLong();
+        private final AtomicLong loggedEtimeNs = new AtomicLong();
+        private final AtomicLong replayedCount = new AtomicLong();
+        private final AtomicLong replayedResponseTimeNs = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+
+        void addLogged(final long etimeNs) {
+            loggedCount.incrementAndGet();
+            loggedEtimeNs.addAndGet(etimeNs);
+        }
+
+        void addReplayed(final long responseTimeNs, final boolean isError) {
+            replayedCount.incrementAndGet();
+            replayedResponseTimeNs.addAndGet(responseTimeNs);
+            if (isError) {
+                errorCount.incrementAndGet();
+            }
+        }
+
+        long getLoggedCount() {
+            return loggedCount.get();
+        }
+
+        long getReplayedCount() {
+            return replayedCount.get();
+        }
+
+        long getErrorCount() {
+            return errorCount.get();
+        }
+
+        double getAverageLoggedEtimeMs() {
+            return average(loggedEtimeNs.get(), loggedCount.get());
+        }
+
+        double getAverageReplayedResponseTimeMs() {
+            return average(replayedResponseTimeNs.get(), replayedCount.get());
+        }
+
+        private static double average(final long totalNs, final long count) {
+            return count > 0 ? totalNs / StatsThread.NS_IN_MS / count : Double.NaN;
+        }
+    }
+
+    /** Matches the assertion values of a filter, which are replaced to get the shape of the filter. */
+    private static final Pattern ASSERTION_VALUE = Pattern.compile("=([^()]*)\\)");
+    /** Maximum number of operations dispatched to a worker thread and not performed yet. */
+    private static final int MAX_QUEUED_OPERATIONS = 1000;
+    /** How often the threads waiting for each other check whether the replay is over. */
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static final SearchResultHandler IGNORE_ENTRIES = new SearchResultHandler() {
+        @Override
+        public boolean handleEntry(final SearchResultEntry entry) {
+            return true;
+        }
+
+        @Override
+        public boolean handleReference(final SearchResultReference reference) {
+            return true;
+        }
+    };
+
+    /**
+     * Returns the signature of a logged search or bind, which is the same for all the operations
+     * differing only by their DN or their assertion values.
+     */
+    static String getSignature(final AccessLogRecord record) {
+        if ("BIND".equals(record.getOperation())) {
+            return "BIND " + record.getField("authType");
+        }
+        final Matcher matcher = ASSERTION_VALUE.matcher(record.getField("filter"));
+        final StringBuffer filterShape = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(filterShape, "*".equals(matcher.group(1)) ? "=*)" : "=?)");
+        }
+        matcher.appendTail(filterShape);
+        return record.getOperation() + " " + record.getField("scope") + " " + filterShape;
+    }
+
+    /** A logged operation dispatched to the worker thread replaying its connection. */
+    private static final class ReplayedOperation {
+        private final long connectionId;
+        /** The replayed request, or {@code null} if the logged connection has been closed. */
+        private final Request request;
+        private final SignatureStatistics statistics;
+        /** The time at which the request is due according to the replayed timing, or 0 if there is none. */
+        private final long scheduledTimeNs;
+
+        private ReplayedOperation(final long connectionId, final Request request,
+                final SignatureStatistics statistics, final long scheduledTimeNs) {
+            this.connectionId = connectionId;
+            this.request = request;
+            this.statistics = statistics;
+            this.scheduledTimeNs = scheduledTimeNs;
+        }
+    }
+
+    /** Dispatched to all the worker threads once the whole log has been read. */
+    private static final ReplayedOperation END_OF_LOG = new ReplayedOperation(-1, null, null, 0);
+
+    private final class ReplayPerformanceRunner extends PerformanceRunner {
+        private final class ReplayStatsThread extends StatsThread {
+            private static final int REPLAY_COLUMN_WIDTH = 8;
+            private static final String SKIPPED_PER_SECOND = STAT_ID_PREFIX + "skipped_per_second";
+            private static final String REPLAY_LAG = STAT_ID_PREFIX + "replay_lag";
+
+            private ReplayStatsThread(final PerformanceRunner performanceRunner, final ConsoleApplication app) {
+                super(performanceRunner, app);
+            }
+
+            @Override
+            void resetAdditionalStats() {
+                skippedCount = newIntervalCounter();
+            }
+
+            @Override
+            List<MultiColumnPrinter.Column> registerAdditionalColumns() {
+                registry.register(SKIPPED_PER_SECOND, new RatioGauge() {
+                    @Override
+                    protected Ratio getRatio() {
+                        return Ratio.of(skippedCount.refreshIntervalCount(),
+                                        durationMsCount.getLastIntervalCount() / MS_IN_S);
+                    }
+                });
+                registry.register(REPLAY_LAG, new Gauge<Double>() {
+                    @Override
+                    public Double getValue() {
+                        return replayLagNs / NS_IN_MS;
+                    }
+                });
+                if (isScriptFriendly()) {
+                    return Arrays.asList(column(SKIPPED_PER_SECOND, "Skipped/second", 1),
+                                         column(REPLAY_LAG, "Replay lag (milliseconds)", 1));
+                }
+                return Arrays.asList(column(SKIPPED_PER_SECOND, "Skip/s", REPLAY_COLUMN_WIDTH, 1),
+                                     column(REPLAY_LAG, "Lag ms", REPLAY_COLUMN_WIDTH, 1));
+            }
+        }
+
+        /**
+         * Reads the access log once, and dispatches each replayed operation to the worker thread
+         * replaying its connection, at the time it is due.
+         */
+        private final class AccessLogReaderThread extends Thread {
+            /** The signatures of the logged requests whose response has not been read yet. */
+            private final Map<String, String> pendingSignatures = new HashMap<>();
+
+            private AccessLogReaderThread() {
+                super("Access Log Reader Thread");
+            }
+
+            @Override
+            public void run() {
+                final long replayStartTimeNs = System.nanoTime();
+                long firstRequestTimeMs = -1;
+                try (AccessLogReader reader = new AccessLogReader(
+                        new FileReader(accessLogPath), logRecordTimeFormat, etimeUnit)) {
+                    AccessLogRecord record;
+                    while ((record = reader.readRecord()) != null) {
+                        final long connectionId = record.getConnectionId();
+                        if (connectionId < 0 || record.isSynchronization()) {
+                            // Internal or replication connection
+                            continue;
+                        }
+
+                        final Request request = record.isRequest() ? newRequest(record) : null;
+                        final String operationKey = connectionId + "/" + record.getOperationId();
+                        final String signature =
+                                request != null ? getSignature(record) : pendingSignatures.remove(operationKey);
+                        if (signature != null && record.isResponse()) {
+                            getSignatureStatistics(signature).addLogged(record.getEtimeNs());
+                        } else if (signature != null && request != null) {
+                            pendingSignatures.put(operationKey, signature);
+                        }
+
+                        if (!record.isRequest() || "CONNECT".equals(record.getOperation())) {
+                            continue;
+                        } else if ("DISCONNECT".equals(record.getOperation())
+                                || "UNBIND".equals(record.getOperation())) {
+                            if (!dispatch(new ReplayedOperation(connectionId, null, null, 0))) {
+                                break;
+                            }
+                            continue;
+                        } else if (request == null) {
+                            skippedCount.inc();
+                            continue;
+                        }
+
+                        long scheduledTimeNs = 0;
+                        if (speed > 0) {
+                            if (firstRequestTimeMs < 0) {
+                                firstRequestTimeMs = record.getRequestTimeMs();
+                            }
+                            scheduledTimeNs = replayStartTimeNs
+                                    + (long) (MILLISECONDS.toNanos(record.getRequestTimeMs() - firstRequestTimeMs)
+                                              / speed);
+                            final long delayNs = scheduledTimeNs - System.nanoTime();
+                            if (delayNs > 0) {
+                                NANOSECONDS.sleep(delayNs);
+                            }
+                        }
+                        if (!dispatch(new ReplayedOperation(
+                                connectionId, request, getSignatureStatistics(signature), scheduledTimeNs))) {
+                            break;
+                        }
+                    }
+                    unparsedLineCount.addAndGet(reader.getSkippedLineCount());
+                } catch (final IOException e) {
+                    errPrintln(LocalizableMessage.raw("Error reading access log %s: %s", accessLogPath,
+                            e.getMessage()));
+                    stopTool(true);
+                } catch (final InterruptedException e) {
+                    // Stop replaying
+                } finally {
+                    // Also when a worker thread has stopped early, so that the others do not wait forever
+                    endReplay();
+                }
+            }
+
+            private void endReplay() {
+                try {
+                    for (final ReplayWorkerThread worker : workers) {
+                        dispatch(worker, END_OF_LOG);
+                    }
+                } catch (final InterruptedException e) {
+                    // All the worker threads have stopped
+                }
+            }
+
+            private boolean dispatch(final ReplayedOperation operation) throws InterruptedException {
+                return dispatch(workers.get((int) (operation.connectionId % workers.size())), operation);
+            }
+
+            /**
+             * Waits for room in the queue of the worker thread, and returns {@code false} if the worker
+             * thread has stopped, in which case the replay is over.
+             */
+            private boolean dispatch(final ReplayWorkerThread worker, final ReplayedOperation operation)
+                    throws InterruptedException {
+                while (!worker.operations.offer(operation, POLL_INTERVAL_MS, MILLISECONDS)) {
+                    if (worker.getState() == State.TERMINATED) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Replays the operations of the logged connections dispatched to it, one at a time and in the
+         * order of the log, on its own connection.
+         * <p>
+         * Several logged connections may share the same replaying connection: before an operation, the
+         * last bind of its logged connection is replayed again if the connection currently has the
+         * identity of another logged connection.
+         */
+        private final class ReplayWorkerThread extends WorkerThread {
+            private final BlockingQueue<ReplayedOperation> operations =
+                    new ArrayBlockingQueue<>(MAX_QUEUED_OPERATIONS);
+            /** The last bind of each logged connection, the connections which have not bound being anonymous. */
+            private final Map<Long, BindRequest> bindRequests = new HashMap<>();
+            /** The bind which has established the identity of the connection, {@code null} if anonymous. */
+            private BindRequest currentBindRequest;
+            /** The operation to perform next, taken from the queue by {@link #shouldContinue()}. */
+            private ReplayedOperation operation;
+
+            private ReplayWorkerThread(final Connection connection, final ConnectionFactory connectionFactory) {
+                super(connection, connectionFactory);
+            }
+
+            @Override
+            boolean shouldContinue() {
+                try {
+                    while (super.shouldContinue()) {
+                        final ReplayedOperation next = operations.poll(POLL_INTERVAL_MS, MILLISECONDS);
+                        if (next == END_OF_LOG) {
+                            return false;
+                        } else if (next != null && next.request == null) {
+                            bindRequests.remove(next.connectionId);
+                        } else if (next != null) {
+                            operation = next;
+                            return true;
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    // Stop replaying
+                }
+                return false;
+            }
+
+            @Override
+            public Promise<?, LdapException> performOperation(final Connection connection,
+                    final DataSource[] dataSources, final long currentTimeNs) {
+                final ReplayedOperation operation = this.operation;
+                if (operation.scheduledTimeNs > 0) {
+                    replayLagNs = Math.max(0, currentTimeNs - operation.scheduledTimeNs);
+                }
+                incrementIterationCount();
+
+                final BindRequest identity = bindRequests.get(operation.connectionId);
+                if (operation.request instanceof BindRequest || identity == currentBindRequest) {
+                    return perform(connection, operation, currentTimeNs);
+                }
+                // Restore the identity of the logged connection, whatever the result of the bind
+                currentBindRequest = identity;
+                final AsyncFunction<Object, Result, LdapException> performOperation =
+                        new AsyncFunction<Object, Result, LdapException>() {
+                            @Override
+                            public Promise<? extends Result, LdapException> apply(final Object value) {
+                                return perform(connection, operation, System.nanoTime());
+                            }
+                        };
+                return connection.bindAsync(identity != null ? identity : Requests.newSimpleBindRequest())
+                                 .thenAsync(performOperation, performOperation);
+            }
+
+            private Promise<? extends Result, LdapException> perform(final Connection connection,
+                    final ReplayedOperation operation, final long startTimeNs) {
+                final UpdateStatsResultHandler<Result> handler = new UpdateStatsResultHandler<>(startTimeNs);
+                final ReplayedOperationHandler statistics = new ReplayedOperationHandler(operation, startTimeNs);
+                if (operation.request instanceof SearchRequest) {
+                    return connection.searchAsync((SearchRequest) operation.request, IGNORE_ENTRIES)
+                                     .thenOnResult(handler).thenOnException(handler)
+                                     .thenOnResult(statistics).thenOnException(statistics);
+                }
+                final BindRequest bindRequest = (BindRequest) operation.request;
+                bindRequests.put(operation.connectionId, bindRequest);
+                currentBindRequest = bindRequest;
+                return connection.bindAsync(bindRequest)
+                                 .thenOnResult(handler).thenOnException(handler)
+                                 .thenOnResult(statistics).thenOnException(statistics);
+            }
+
+            /** Records the replayed response times, and the identity of the connection after a failed bind. */
+            private final class ReplayedOperationHandler implements ResultHandler<Result>,
+                    ExceptionHandler<LdapException> {
+                private final ReplayedOperation operation;
+                private final long startTimeNs;
+
+                private ReplayedOperationHandler(final ReplayedOperation operation, final long startTimeNs) {
+                    this.operation = operation;
+                    this.startTimeNs = startTimeNs;
+                }
+
+                @Override
+                public void handleResult(final Result result) {
+                    addReplayed(false);
+                }
+
+                @Override
+                public void handleException(final LdapException e) {
+                    if (operation.request instanceof BindRequest) {
+                        // A failed bind leaves the connection anonymous
+                        bindRequests.remove(operation.connectionId);
+                        currentBindRequest = null;
+                    }
+                    addReplayed(true);
+                }
+
+                private void addReplayed(final boolean isError) {
+                    if (!statsThread.isWarmingUp()) {
+                        operation.statistics.addReplayed(System.nanoTime() - startTimeNs, isError);
+                    }
+                }
+            }
+        }
+
+        private String accessLogPath;
+        private String logRecordTimeFormat;
+        private TimeUnit etimeUnit;
+        /** The replay speed relative to the original timing, or 0 to replay as fast as possible. */
+        private double speed;
+        private char[] replayedBindPassword;
+        /** The bind request of the tool, replacing the logged binds which cannot be replayed as is. */
+        private BindRequest toolBindRequest;
+
+        private final List<ReplayWorkerThread> workers = new ArrayList<>();
+        private final AccessLogReaderThread readerThread = new AccessLogReaderThread();
+        private final ConcurrentMap<String, SignatureStatistics> signatureStatistics = new ConcurrentHashMap<>();
+        private final AtomicLong unparsedLineCount = new AtomicLong();
+        private volatile StatsThread.IntervalCounter skippedCount = StatsThread.newIntervalCounter();
+        /** How late the last replayed request has been sent compared to the replayed timing. */
+        private volatile long replayLagNs;
+
+        private ReplayPerformanceRunner(final PerformanceRunnerOptions options) throws ArgumentException {
+            super(options);
+        }
+
+        /** Returns the request replaying the logged operation, or {@code null} if it cannot be replayed. */
+        private Request newRequest(final AccessLogRecord record) {
+            final String dn = record.getField("dn");
+            if ("SEARCH".equals(record.getOperation())) {
+                final SearchScope scope = SearchScope.valueOf(String.valueOf(record.getField("scope")));
+                final String filter = record.getField("filter");
+                final String attrs = record.getField("attrs");
+                if (dn == null || scope == null || filter == null) {
+                    return null;
+                }
+                try {
+                    final String[] attributes =
+                            attrs == null || "ALL".equals(attrs) ? new String[0] : attrs.split(",");
+                    return Requests.newSearchRequest(dn, scope, filter, attributes);
+                } catch (final LocalizedIllegalArgumentException e) {
+                    return null;
+                }
+            } else if ("BIND".equals(record.getOperation())) {
+                if ("SIMPLE".equals(record.getField("authType")) && dn != null && replayedBindPassword != null) {
+                    return dn.isEmpty() ? Requests.newSimpleBindRequest()
+                                        : Requests.newSimpleBindRequest(dn, replayedBindPassword);
+                }
+                return toolBindRequest;
+            }
+            return null;
+        }
+
+        private SignatureStatistics getSignatureStatistics(final String signature) {
+            SignatureStatistics statistics = signatureStatistics.get(signature);
+            if (statistics == null) {
+                final SignatureStatistics newStatistics = new SignatureStatistics();
+                statistics = signatureStatistics.putIfAbsent(signature, newStatistics);
+                if (statistics == null) {
+                    statistics = newStatistics;
+                }
+            }
+            return statistics;
+        }
+
+        /**
+         * Prints the logged processing times and the replayed response times of each operation signature,
+         * the most frequent first.
+         */
+        private void printSignatureStatistics() {
+            final List<Map.Entry<String, SignatureStatistics>> entries =
+                    new ArrayList<>(signatureStatistics.entrySet());
+            if (entries.isEmpty()) {
+                return;
+            }
+            Collections.sort(entries, new Comparator<Map.Entry<String, SignatureStatistics>>() {
+                @Override
+                public int compare(final Map.Entry<String, SignatureStatistics> e1,
+                        final Map.Entry<String, SignatureStatistics> e2) {
+                    return Long.compare(e2.getValue().getLoggedCount(), e1.getValue().getLoggedCount());
+                }
+            });
+
+            final boolean isCsv = isScriptFriendly();
+            int signatureWidth = "Operation signature".length();
+            for (final Map.Entry<String, SignatureStatistics> entry : entries) {
+                signatureWidth = Math.max(signatureWidth, entry.getKey().length());
+            }
+            final List<MultiColumnPrinter.Column> columns = Arrays.asList(
+                    column("signature", "Operation signature", isCsv ? 1 : signatureWidth, 0),
+                    column("logged", "Logged", isCsv ? 1 : 10, 0),
+                    column("replayed", "Replayed", isCsv ? 1 : 10, 0),
+                    column("errors", "Errors", isCsv ? 1 : 8, 0),
+                    column("loggedEtime", "Logged etime (ms)", 3),
+                    column("replayedResponseTime", "Replayed response time (ms)", 3));
+            final MultiColumnPrinter printer = isCsv
+                    ? MultiColumnPrinter.builder(getOutputStream(), columns).columnSeparator(",").build()
+                    : MultiColumnPrinter.builder(getOutputStream(), columns).format(true).build();
+            println();
+            printer.printTitleLine();
+            if (!isCsv) {
+                printer.printDashedLine();
+            }
+            for (final Map.Entry<String, SignatureStatistics> entry : entries) {
+                final SignatureStatistics statistics = entry.getValue();
+                printer.printData(isCsv ? "\"" + entry.getKey().replace("\"", "\"\"") + "\"" : entry.getKey());
+                printer.printData(Long.toString(statistics.getLoggedCount()));
+                printer.printData(Long.toString(statistics.getReplayedCount()));
+                printer.printData(Long.toString(statistics.getErrorCount()));
+                printer.printData(statistics.getAverageLoggedEtimeMs());
+                printer.printData(statistics.getAverageReplayedResponseTimeMs());
+            }
+            if (!isCsv) {
+                println();
+                println(LocalizableMessage.raw("The logged etimes are the processing times measured by the server, "
+                        + "the replayed response times are measured by this tool and also include the network "
+                        + "round trip and the client overhead: they are not directly comparable"));
+                if (unparsedLineCount.get() > 0) {
+                    println(LocalizableMessage.raw(
+                            "%d lines of the access log could not be parsed and have been skipped",
+                            unparsedLineCount.get()));
+                }
+            }
+        }
+
+        /** Also stops the reader thread, which may be waiting for a stopped worker thread. */
+        @Override
+        protected void joinAllWorkerThreads() throws InterruptedException {
+            super.joinAllWorkerThreads();
+            readerThread.interrupt();
+            readerThread.join();
+        }
+
+        @Override
+        WorkerThread newWorkerThread(final Connection connection, final ConnectionFactory connectionFactory) {
+            final ReplayWorkerThread worker = new ReplayWorkerThread(connection, connectionFactory);
+            workers.add(worker);
+            if (workers.size() == numConnections) {
+                // The operations of each logged connection are dispatched to worker connectionId % numConnections
+                readerThread.start();
+            }
+            return worker;
+        }
+
+        @Override
+        StatsThread newStatsThread(final PerformanceRunner performanceRunner, final ConsoleApplication app) {
+            return new ReplayStatsThread(performanceRunner, app);
+        }
+    }
+
+    /**
+     * The main method for ReplayRate tool.
+     *
+     * @param args
+     *            The command-line arguments provided to this program.
+     */
+    public static void main(final String[] args) {
+        final int retCode = new ReplayRate().run(args);
+        System.exit(filterExitCode(retCode));
+    }
+
+    private BooleanArgument verbose;
+    private BooleanArgument scriptFriendly;
+
+    private ReplayRate() {
+        // Nothing to do.
+    }
+
+    /**
+     * Constructor to allow tests.
+     *
+     * @param out
+     *            output stream of console application
+     * @param err
+     *            error stream of console application
+     */
+    ReplayRate(PrintStream out, PrintStream err) {
+        super(out, err);
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+
+    @Override
+    public boolean isScriptFriendly() {
+        return scriptFriendly.isPresent();
+    }
+
+    @Override
+    public boolean isVerbose() {
+        return verbose.isPresent();
+    }
+
+    int run(final String[] args) {
+        // Create the command-line argument parser for use with this program.
+        final LocalizableMessage toolDescription = INFO_REPLAYRATE_TOOL_DESCRIPTION.get();
+        final ArgumentParser argParser = LDAPToolArgumentParser.builder(ReplayRate.class.getName())
+                .toolDescription(toolDescription)
+                .trailingArguments(1, "access-log-file-path")
+                .build();
+        argParser.setVersionHandler(newSdkVersionHandler());
+        argParser.setShortToolDescription(REF_SHORT_DESC_REPLAYRATE.get());
+        argParser.setDocToolDescriptionSupplement(SUPPLEMENT_DESCRIPTION_RATE_TOOLS.get());
+
+        ConnectionFactoryProvider connectionFactoryProvider;
+        ReplayPerformanceRunner runner;
+
+        StringArgument speed;
+        BooleanArgument maxRate;
+        StringArgument replayedBindPassword;
+        StringArgument logRecordTimeFormat;
+        MultiChoiceArgument<TimeUnit> etimeUnit;
+        BooleanArgument showUsage;
+        StringArgument propertiesFileArgument;
+        BooleanArgument noPropertiesFileArgument;
+        try {
+            Utils.setDefaultPerfToolProperties();
+            final PerformanceRunnerOptions options = new PerformanceRunnerOptions(argParser, this);
+            options.setSupportsGeneratorArgument(false);
+            options.setSupportsRebind(false);
+            options.setSupportsMultipleThreadsPerConnection(false);
+            // Each worker thread replays the operations dispatched to it on the same connection
+            options.setAlwaysKeepConnectionsOpen(true);
+
+            connectionFactoryProvider = new ConnectionFactoryProvider(argParser, this);
+            runner = new ReplayPerformanceRunner(options);
+
+            speed =
+                    StringArgument.builder("speed")
+                            .description(LocalizableMessage.raw(
+                                    "Replay speed relative to the timing of the access log, for example 2 to "
+                                            + "replay the operations twice as fast as they have been logged"))
+                            .defaultValue("1")
+                            .valuePlaceholder(LocalizableMessage.raw("{factor}"))
+                            .buildAndAddToParser(argParser);
+            maxRate =
+                    BooleanArgument.builder("maxRate")
+                            .description(LocalizableMessage.raw(
+                                    "Replay the operations of each connection as fast as possible, ignoring the "
+                                            + "timing of the access log"))
+                            .buildAndAddToParser(argParser);
+            replayedBindPassword =
+                    StringArgument.builder("replayedBindPassword")
+                            .description(LocalizableMessage.raw(
+                                    "Password of the users whose simple binds are replayed. When it is not "
+                                            + "provided, the logged binds are replaced by binds with the "
+                                            + "credentials of this tool, if any"))
+                            .valuePlaceholder(LocalizableMessage.raw("{password}"))
+                            .buildAndAddToParser(argParser);
+            logRecordTimeFormat =
+                    StringArgument.builder("logRecordTimeFormat")
+                            .description(LocalizableMessage.raw(
+                                    "Format of the time stamps of the text access log records, as configured "
+                                            + "with the log-record-time-format property of the log publisher"))
+                            .defaultValue("dd/MMM/yyyy:HH:mm:ss Z")
+                            .valuePlaceholder(LocalizableMessage.raw("{format}"))
+                            .buildAndAddToParser(argParser);
+            etimeUnit =
+                    MultiChoiceArgument.<TimeUnit>builder("etimeUnit")
+                            .description(LocalizableMessage.raw(
+                                    "Unit of the processing times of the text access log records, which are in "
+                                            + "nanoseconds when the server is configured to log them as such"))
+                            .allowedValues(MILLISECONDS, NANOSECONDS)
+                            .defaultValue(MILLISECONDS)
+                            .valuePlaceholder(LocalizableMessage.raw("{unit}"))
+                            .buildAndAddToParser(argParser);
+
+            propertiesFileArgument = propertiesFileArgument();
+            argParser.addArgument(propertiesFileArgument);
+            argParser.setFilePropertiesArgument(propertiesFileArgument);
+
+            noPropertiesFileArgument = noPropertiesFileArgument();
+            argParser.addArgument(noPropertiesFileArgument);
+            argParser.setNoPropertiesFileArgument(noPropertiesFileArgument);
+
+            showUsage = showUsageArgument();
+            argParser.addArgument(showUsage);
+            argParser.setUsageArgument(showUsage, getOutputStream());
+
+            verbose = verboseArgument();
+            argParser.addArgument(verbose);
+
+            scriptFriendly = scriptFriendlySdkArgument();
+            argParser.addArgument(scriptFriendly);
+        } catch (final ArgumentException ae) {
+            final LocalizableMessage message = ERR_CANNOT_INITIALIZE_ARGS.get(ae.getMessage());
+            errPrintln(message);
+            return ResultCode.CLIENT_SIDE_PARAM_ERROR.intValue();
+        }
+
+        // Parse the command-line arguments provided to this program.
+        ConnectionFactory connectionFactory;
+        try {
+            argParser.parseArguments(args);
+
+            // If we should just display usage or version information,
+            // then print it and exit.
+            if (argParser.usageOrVersionDisplayed()) {
+                return 0;
+            }
+
+            if (speed.isPresent() && maxRate.isPresent()) {
+                throw new ArgumentException(
+                        ERR_TOOL_CONFLICTING_ARGS.get(speed.getLongIdentifier(), maxRate.getLongIdentifier()));
+            }
+            runner.speed = maxRate.isPresent() ? 0 : parseSpeed(speed.getValue());
+            runner.accessLogPath = argParser.getTrailingArguments().get(0);
+            runner.logRecordTimeFormat = logRecordTimeFormat.getValue();
+            runner.etimeUnit = etimeUnit.getTypedValue();
+            if (replayedBindPassword.isPresent()) {
+                runner.replayedBindPassword = replayedBindPassword.getValue().toCharArray();
+            }
+
+            // The replayed connections start anonymous, and are authenticated by the replayed binds
+            connectionFactory = connectionFactoryProvider.getUnauthenticatedConnectionFactory();
+            runner.toolBindRequest = connectionFactoryProvider.getBindRequest();
+            runner.validate();
+        } catch (final ArgumentException ae) {
+            argParser.displayMessageAndUsageReference(getErrStream(), ERR_ERROR_PARSING_ARGS.get(ae.getMessage()));
+            return ResultCode.CLIENT_SIDE_PARAM_ERROR.intValue();
+        }
+
+        final int exitCode = runner.run(connectionFactory);
+        runner.printSignatureStatistics();
+        return exitCode;
+    }
+
+    private static double parseSpeed(final String speed) throws ArgumentException {
+        try {
+            final double value = Double.parseDouble(speed);
+            if (value > 0 && !Double.isInfinite(value)) {
+                return value;
+            }
+        } catch (final NumberFormatException e) {
+            // Reported below
+        }
+        throw new ArgumentException(LocalizableMessage.raw("The replay speed %s must be a strictly positive number",
+                speed));
+    }
+}
@@ -58,6 +58,7 @@ class StatsThread extends Thread {
     private static final String RECENT_RESPONSE_TIME_MS = STAT_ID_PREFIX + "recent_response_time";
     private static final String AVERAGE_RESPONSE_TIME_MS = STAT_ID_PREFIX + "average_response_time";
     private static final String PERCENTILES = STAT_ID_PREFIX + "percentiles";
+    private static final String UNCORRECTED_PERCENTILES = STAT_ID_PREFIX + "uncorrected_percentiles";
     private static final String ERROR_PER_SECOND = STAT_ID_PREFIX + "error_per_second";
 
     public static final double MS_IN_S = TimeUnit.SECONDS.toMillis(1);
@@ -82,6 +83,7 @@ class StatsThread extends Thread {
                            final SortedMap<String, Meter> meters,
                            final SortedMap<String, Timer> timers) {
             int percentileIndex = 0;
+            int uncorrectedPercentileIndex = 0;
             for (final MultiColumnPrinter.Column column : printer.getColumns()) {
                 final String statKey = column.getId();
                 if (gauges.containsKey(statKey)) {
@@ -90,6 +92,10 @@ class StatsThread extends Thread {
                     final double quantile = percentiles[percentileIndex++] / 100.0;
                     printer.printData(
                             histograms.get(PERCENTILES).getSnapshot().getValue(quantile) / MILLISECONDS.toNanos(1));
+                } else if (statKey.startsWith(UNCORRECTED_PERCENTILES)) {
+                    final double quantile = percentiles[uncorrectedPercentileIndex++] / 100.0;
+                    printer.printData(histograms.get(UNCORRECTED_PERCENTILES).getSnapshot().getValue(quantile)
+                            / MILLISECONDS.toNanos(1));
                 } else {
                     printer.printData("-");
                 }
@@ -110,9 +116,15 @@ class StatsThread extends Thread {
             printer.printDashedLine();
             printer.printTitleSection("Throughput", throughputRawSpan);
             printer.printTitleSection("Response Time", responseTimeRawSpan);
+            if (openLoop) {
+                printer.printTitleSection("Uncorrected", percentiles.length);
+            }
             printer.printTitleSection(additionalStatsRawSpan > 1 ? "Additional" : "", additionalStatsRawSpan);
             printer.printTitleSection("(ops/second)", throughputRawSpan);
             printer.printTitleSection("(milliseconds)", responseTimeRawSpan);
+            if (openLoop) {
+                printer.printTitleSection("(milliseconds)", percentiles.length);
+            }
             printer.printTitleSection(additionalStatsRawSpan > 1 ? "Statistics" : "", additionalStatsRawSpan);
             printer.printTitleLine();
             printer.printDashedLine();
@@ -132,6 +144,13 @@ class StatsThread extends Thread {
             for (double percentile : percentiles) {
                 columns.add(column(PERCENTILES + percentile, percentile + "%", STANDARD_WIDTH, 2));
             }
+            // Response Time measured from the actual send times (ms)
+            if (openLoop) {
+                columns.add(separatorColumn());
+                for (double percentile : percentiles) {
+                    columns.add(column(UNCORRECTED_PERCENTILES + percentile, percentile + "%", STANDARD_WIDTH, 2));
+                }
+            }
             // Additional stats
             columns.add(separatorColumn());
             columns.add(column(ERROR_PER_SECOND, "err/sec", STANDARD_WIDTH, 1));
@@ -167,6 +186,12 @@ class StatsThread extends Thread {
                 columns.add(column(
                         PERCENTILES + percentile, percentile + "% response time (milliseconds)", 2));
             }
+            if (openLoop) {
+                for (double percentile : percentiles) {
+                    columns.add(column(UNCORRECTED_PERCENTILES + percentile,
+                            percentile + "% uncorrected response time (milliseconds)", 2));
+                }
+            }
             columns.add(column(ERROR_PER_SECOND, "Errors/second", 1));
             columns.addAll(registerAdditionalColumns());
 
@@ -229,6 +254,8 @@ class StatsThread extends Thread {
 
     final MetricRegistry registry = new MetricRegistry();
     private final Histogram responseTimes = new Histogram(new HdrHistogramReservoir());
+    /** Open-loop mode only: the response times measured from the actual send times rather than the scheduled ones. */
+    private final Histogram uncorrectedResponseTimes = new Histogram(new HdrHistogramReservoir());
 
     private final StatsTimer gcTimerMs = new StatsTimer() {
         private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
@@ -255,10 +282,11 @@ class StatsThread extends Thread {
     IntervalCounter successCount;
     private IntervalCounter operationCount;
     private IntervalCounter errorCount;
-    private IntervalCounter durationMsCount;
+    IntervalCounter durationMsCount;
 
     private final ConsoleApplication app;
     private final double[] percentiles;
+    private final boolean openLoop;
     private final PerformanceRunner performanceRunner;
     private final RateReporter reporter;
     private long startTimeMs;
@@ -270,7 +298,9 @@ class StatsThread extends Thread {
         resetStats();
         this.performanceRunner = performanceRunner;
         this.app = application;
+        this.warmingUp = performanceRunner.getWarmUpDurationMs() > 0;
         this.percentiles = performanceRunner.getPercentiles();
+        this.openLoop = performanceRunner.isOpenLoop();
         this.reporter = app.isScriptFriendly() ? new CsvRateReporter()
                                                : new ConsoleRateReporter();
         registerStats();
@@ -335,6 +365,9 @@ class StatsThread extends Thread {
             }
         });
         registry.register(PERCENTILES, responseTimes);
+        if (openLoop) {
+            registry.register(UNCORRECTED_PERCENTILES, uncorrectedResponseTimes);
+        }
     }
 
     void startReporting() throws InterruptedException {
@@ -356,6 +389,11 @@ class StatsThread extends Thread {
         warmingUp = false;
     }
 
+    /** Returns whether the operations are still warming up the server, hence must not be accounted for. */
+    boolean isWarmingUp() {
+        return warmingUp;
+    }
+
     private void init() {
         reporter.printTitle();
         timerMs.start();
@@ -389,13 +427,25 @@ class StatsThread extends Thread {
         reporter.report();
     }
 
-    void addResponseTime(final long responseTimeNs) {
+    /**
+     * Records the response time of an operation.
+     *
+     * @param responseTimeNs
+     *            the response time measured from the time the request was scheduled, which is the time it
+     *            was sent unless in open-loop mode
+     * @param uncorrectedResponseTimeNs
+     *            the response time measured from the time the request was actually sent
+     */
+    void addResponseTime(final long responseTimeNs, final long uncorrectedResponseTimeNs) {
         // The computed response time might be negative if the difference between the two
         // System.nanoTime() calls (Just before sending the request and right after receiving the response)
         // is incoherent. See OPENDJ-2968 for more details.
         if (!warmingUp && responseTimeNs >= 0) {
             responseTimes.update(responseTimeNs);
             waitDurationNsCount.inc(responseTimeNs);
+            if (openLoop && uncorrectedResponseTimeNs >= 0) {
+                uncorrectedResponseTimes.update(uncorrectedResponseTimeNs);
+            }
         }
     }
 
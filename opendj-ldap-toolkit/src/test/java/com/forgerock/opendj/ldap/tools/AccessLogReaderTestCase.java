@@ -0,0 +1,130 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package com.forgerock.opendj.ldap.tools;
+
+import static java.util.concurrent.TimeUnit.*;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.StringReader;
+
+import org.forgerock.testng.ForgeRockTestCase;
+import org.testng.annotations.Test;
+
+import com.forgerock.opendj.ldap.tools.AccessLogReader.AccessLogRecord;
+
+@SuppressWarnings("javadoc")
+public class AccessLogReaderTestCase extends ForgeRockTestCase {
+    private static final String TIME_FORMAT = "dd/MMM/yyyy:HH:mm:ss Z";
+
+    @Test
+    public void readSeparateRequestAndResponseRecords() throws Exception {
+        final AccessLogReader reader = newReader(
+                "[01/Mar/2016:10:00:00 +0000] CONNECT conn=4 from=127.0.0.1:5000 to=127.0.0.1:1389 protocol=LDAP",
+                "[01/Mar/2016:10:00:01 +0000] SEARCH REQ conn=4 op=0 msgID=1 base=\"ou=people,dc=example,dc=com\" "
+                        + "scope=sub filter=\"(uid=user.1)\" attrs=\"cn,mail\"",
+                "[01/Mar/2016:10:00:01 +0000] SEARCH RES conn=4 op=0 msgID=1 result=0 nentries=1 etime=3",
+                "not an access log record",
+                "[01/Mar/2016:10:00:02 +0000] BIND REQ conn=4 op=1 msgID=2 version=3 type=SIMPLE "
+                        + "dn=\"uid=user.1,ou=people,dc=example,dc=com\"",
+                "[01/Mar/2016:10:00:03 +0000] UNBIND REQ conn=4 op=2 msgID=3");
+
+        final AccessLogRecord connect = reader.readRecord();
+        assertThat(connect.getOperation()).isEqualTo("CONNECT");
+        assertThat(connect.getConnectionId()).isEqualTo(4);
+
+        final AccessLogRecord searchRequest = reader.readRecord();
+        assertThat(searchRequest.getOperation()).isEqualTo("SEARCH");
+        assertThat(searchRequest.isRequest()).isTrue();
+        assertThat(searchRequest.isResponse()).isFalse();
+        assertThat(searchRequest.getRequestTimeMs() - connect.getRequestTimeMs()).isEqualTo(1000);
+        assertThat(searchRequest.getField("dn")).isEqualTo("ou=people,dc=example,dc=com");
+        assertThat(searchRequest.getField("scope")).isEqualTo("sub");
+        assertThat(searchRequest.getField("filter")).isEqualTo("(uid=user.1)");
+        assertThat(searchRequest.getField("attrs")).isEqualTo("cn,mail");
+        assertThat(ReplayRate.getSignature(searchRequest)).isEqualTo("SEARCH sub (uid=?)");
+
+        final AccessLogRecord searchResponse = reader.readRecord();
+        assertThat(searchResponse.isRequest()).isFalse();
+        assertThat(searchResponse.getOperationId()).isEqualTo(searchRequest.getOperationId());
+        assertThat(searchResponse.getEtimeNs()).isEqualTo(MILLISECONDS.toNanos(3));
+
+        final AccessLogRecord bind = reader.readRecord();
+        assertThat(bind.getField("authType")).isEqualTo("SIMPLE");
+        assertThat(bind.getField("dn")).isEqualTo("uid=user.1,ou=people,dc=example,dc=com");
+        assertThat(ReplayRate.getSignature(bind)).isEqualTo("BIND SIMPLE");
+
+        assertThat(reader.readRecord().getOperation()).isEqualTo("UNBIND");
+        assertThat(reader.readRecord()).isNull();
+        assertThat(reader.getSkippedLineCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void readCombinedRecord() throws Exception {
+        final AccessLogReader reader = newReader(
+                "[01/Mar/2016:10:00:01 +0000] SEARCH conn=7 op=3 msgID=4 base=\"dc=example,dc=com\" scope=one "
+                        + "filter=\"(&(objectClass=*)(cn=a b))\" attrs=\"ALL\" result=0 nentries=2 etime=1500");
+
+        final AccessLogRecord record = reader.readRecord();
+        assertThat(record.isRequest()).isTrue();
+        assertThat(record.isResponse()).isTrue();
+        assertThat(record.getEtimeNs()).isEqualTo(MILLISECONDS.toNanos(1500));
+        assertThat(record.getField("filter")).isEqualTo("(&(objectClass=*)(cn=a b))");
+        assertThat(ReplayRate.getSignature(record)).isEqualTo("SEARCH one (&(objectClass=*)(cn=?))");
+    }
+
+    @Test
+    public void readJsonRecord() throws Exception {
+        final AccessLogReader reader = newReader(
+                "{\"eventName\":\"DJ-LDAP\",\"timestamp\":\"2016-03-01T10:00:01.250Z\",\"transactionId\":\"0\","
+                        + "\"client\":{\"ip\":\"127.0.0.1\",\"port\":5000},"
+                        + "\"request\":{\"protocol\":\"LDAP\",\"operation\":\"SEARCH\",\"connId\":12,\"msgId\":2,"
+                        + "\"dn\":\"dc=example,dc=com\",\"scope\":\"sub\",\"filter\":\"(cn=\\\"quoted\\\")\","
+                        + "\"attrs\":[\"cn\",\"sn\"]},"
+                        + "\"response\":{\"status\":\"SUCCESSFUL\",\"statusCode\":\"0\",\"elapsedTime\":2000000,"
+                        + "\"elapsedTimeUnits\":\"NANOSECONDS\",\"nentries\":1}}",
+                "{\"eventName\":\"other\"}");
+
+        final AccessLogRecord record = reader.readRecord();
+        assertThat(record.getOperation()).isEqualTo("SEARCH");
+        assertThat(record.getConnectionId()).isEqualTo(12);
+        assertThat(record.getOperationId()).isEqualTo(2);
+        assertThat(record.isRequest()).isTrue();
+        assertThat(record.getEtimeNs()).isEqualTo(MILLISECONDS.toNanos(2));
+        assertThat(record.getField("filter")).isEqualTo("(cn=\"quoted\")");
+        assertThat(record.getField("attrs")).isEqualTo("cn,sn");
+        assertThat(record.getRequestTimeMs() % 1000).isEqualTo(248);
+
+        assertThat(reader.readRecord()).isNull();
+        assertThat(reader.getSkippedLineCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void readNanosecondEtimes() throws Exception {
+        final AccessLogReader reader = new AccessLogReader(new StringReader(
+                "[01/Mar/2016:10:00:01 +0000] BIND RES conn=1 op=0 msgID=1 result=0 authDN=\"\" etime=12345"),
+                TIME_FORMAT, NANOSECONDS);
+        assertThat(reader.readRecord().getEtimeNs()).isEqualTo(12345);
+    }
+
+    private static AccessLogReader newReader(final String... lines) {
+        final StringBuilder log = new StringBuilder();
+        for (final String line : lines) {
+            log.append(line).append('\n');
+        }
+        return new AccessLogReader(new StringReader(log.toString()), TIME_FORMAT, MILLISECONDS);
+    }
+}
@@ -52,6 +52,14 @@ public class AuthRateITCase extends ToolsITCase {
                      "-g", "rand(0,1000)", "-D", "uid=%d,ou=people,o=test", "-w", "password",
                      "-i", "1", "-c", "1", "-m", "10", "-f", "-S", "-B", "0"),
                 THROUGHPUT_TEXT, "" },
+
+            // Open-loop test case
+            {
+                args("-h", TestCaseUtils.getServerSocketAddress().getHostName(),
+                     "-p", Integer.toString(TestCaseUtils.getServerSocketAddress().getPort()),
+                     "-g", "rand(0,1000)", "-D", "uid=%d,ou=people,o=test", "-w", "password",
+                     "-i", "1", "-c", "1", "-m", "10", "-f", "-S", "-B", "0", "-M", "100", "--openLoop"),
+                "uncorrected response time (milliseconds)", "" },
         };
     }
 
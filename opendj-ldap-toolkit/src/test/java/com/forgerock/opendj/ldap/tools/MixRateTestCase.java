@@ -0,0 +1,165 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package com.forgerock.opendj.ldap.tools;
+
+import static org.fest.assertions.Assertions.assertThat;
+import static org.forgerock.util.Utils.closeSilently;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.testng.ForgeRockTestCase;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.forgerock.opendj.cli.ArgumentException;
+import com.forgerock.opendj.ldap.tools.MixRate.OperationType;
+import com.forgerock.opendj.ldap.tools.MixRate.Scenario;
+import com.forgerock.opendj.ldap.tools.MixRate.ScenarioOperation;
+
+@SuppressWarnings("javadoc")
+public class MixRateTestCase extends ForgeRockTestCase {
+    private ByteStringBuilder out;
+    private ByteStringBuilder err;
+    private PrintStream outStream;
+    private PrintStream errStream;
+
+    @BeforeMethod
+    private void refreshStreams() {
+        out = new ByteStringBuilder();
+        err = new ByteStringBuilder();
+        outStream = new PrintStream(out.asOutputStream());
+        errStream = new PrintStream(err.asOutputStream());
+    }
+
+    @AfterMethod
+    private void closeStreams() {
+        closeSilently(outStream, errStream);
+    }
+
+    @Test
+    public void parseScenario() throws Exception {
+        final Scenario scenario = Scenario.parse(properties(
+                "search.weight", "6",
+                "search.baseDN", "ou=people,dc=example,dc=com",
+                "search.scope", "one",
+                "search.filter", "(uid=user.%d)",
+                "search.attributes", "cn mail",
+                "search.argument.1", "zipf(0,99,1)",
+                "bind.weight", "1",
+                "bind.dn", "uid=user.%d,ou=people,dc=example,dc=com",
+                "bind.password", "password",
+                "bind.argument.1", "rand(0,99)",
+                "modify.weight", "1",
+                "modify.dn", "uid=user.%d,ou=people,dc=example,dc=com",
+                "modify.modification.1", "description:%2$s",
+                "modify.argument.1", "zipf(0,99,1)",
+                "modify.argument.2", "randstr(16)",
+                "add.weight", "1",
+                "add.dn", "uid=mixrate.%d,ou=people,dc=example,dc=com",
+                "add.attribute.1", "objectClass:person",
+                "add.attribute.2", "sn:%d",
+                "delete.weight", "1"));
+
+        assertThat(scenario.getTotalWeight()).isEqualTo(10);
+        final ScenarioOperation search = scenario.getOperation(OperationType.SEARCH);
+        assertThat(search.scope).isEqualTo(SearchScope.SINGLE_LEVEL);
+        assertThat(search.attributes).containsOnly("cn", "mail");
+        assertThat(search.dataSources).hasSize(1);
+        assertThat(scenario.getOperation(OperationType.MODIFY).attributeValues).containsOnly("description:%2$s");
+        assertThat(scenario.getOperation(OperationType.ADD).generateData(new Object[0], 42)).containsOnly(42L);
+    }
+
+    @Test
+    public void selectOperationsAccordingToTheirWeight() throws Exception {
+        final Scenario scenario = Scenario.parse(properties(
+                "search.weight", "3",
+                "search.baseDN", "dc=example,dc=com",
+                "search.filter", "(objectClass=*)",
+                "bind.weight", "1",
+                "bind.dn", "cn=Directory Manager",
+                "bind.password", "password"));
+
+        assertThat(scenario.getTotalWeight()).isEqualTo(4);
+        assertThat(scenario.select(0).type).isEqualTo(OperationType.SEARCH);
+        assertThat(scenario.select(2).type).isEqualTo(OperationType.SEARCH);
+        assertThat(scenario.select(3).type).isEqualTo(OperationType.BIND);
+    }
+
+    @DataProvider
+    public Object[][] invalidScenarios() {
+        return new Object[][] {
+            { properties() },
+            { properties("search.weight", "0", "search.baseDN", "dc=com", "search.filter", "(cn=*)") },
+            { properties("search.weight", "1", "search.baseDN", "dc=com") },
+            { properties("search.weight", "1", "search.baseDN", "dc=com", "search.filter", "(cn=*)",
+                         "search.scope", "everything") },
+            { properties("search.weight", "1", "search.baseDN", "dc=com", "search.filter", "(cn=*)",
+                         "search.password", "password") },
+            { properties("search.weight", "1", "search.baseDN", "dc=com", "search.filter", "(cn=*)",
+                         "modify.dn", "dc=com") },
+            { properties("search.weight", "1", "search.baseDN", "dc=com", "search.filter", "(cn=%d)",
+                         "search.argument.2", "rand(0,9)") },
+            { properties("search.weight", "1", "search.baseDN", "dc=com", "search.filter", "(cn=%d)") },
+            { properties("delete.weight", "1") },
+        };
+    }
+
+    @Test(dataProvider = "invalidScenarios", expectedExceptions = ArgumentException.class)
+    public void parseInvalidScenario(final Properties properties) throws Exception {
+        Scenario.parse(properties);
+    }
+
+    @Test
+    public void zipfDataSourceFavorsLowestValues() throws Exception {
+        final DataSource dataSource = DataSource.parse(Collections.singletonList("zipf(10,19,1)"))[0];
+        final int[] counts = new int[10];
+        for (int i = 0; i < 10000; i++) {
+            final int value = (Integer) dataSource.getData();
+            assertThat(value).isGreaterThanOrEqualTo(10).isLessThanOrEqualTo(19);
+            counts[value - 10]++;
+        }
+        assertThat(counts[0]).isGreaterThan(counts[1]);
+        assertThat(counts[1]).isGreaterThan(counts[9]);
+    }
+
+    @Test
+    public void mixRateDisplaysHelp() throws Exception {
+        assertThat(new MixRate(outStream, errStream).run(new String[] { "-H" })).isEqualTo(0);
+        assertThat(out.toString()).contains("scenario-file-path");
+    }
+
+    @Test
+    public void mixRateRejectsMissingScenarioFile() throws Exception {
+        final int retCode = new MixRate(outStream, errStream).run(new String[] { "no-such-scenario.properties" });
+        assertThat(retCode).isEqualTo(ResultCode.CLIENT_SIDE_PARAM_ERROR.intValue());
+        assertThat(err.toString()).contains("no-such-scenario.properties");
+    }
+
+    private static Properties properties(final String... keyValues) {
+        final Properties properties = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return properties;
+    }
+}
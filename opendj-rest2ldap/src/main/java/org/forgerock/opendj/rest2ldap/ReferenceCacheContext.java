@@ -0,0 +1,76 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.forgerock.opendj.rest2ldap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.forgerock.json.resource.ResourceException;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.services.context.AbstractContext;
+import org.forgerock.services.context.Context;
+import org.forgerock.util.promise.Promise;
+
+/**
+ * A {@link Context} which caches the entries read by {@link ReferencePropertyMapper}s while processing a query, so
+ * that an entry referenced by several resources, such as a user who is a member of several groups, is only read once.
+ * Reads which are still in progress are cached too, so that concurrent resources share them.
+ */
+final class ReferenceCacheContext extends AbstractContext {
+    /** The maximum number of referenced entries cached for each reference property mapper. */
+    private static final int MAX_CACHED_ENTRIES = 10000;
+
+    private final ConcurrentMap<ReferencePropertyMapper,
+                                ConcurrentMap<DN, Promise<SearchResultEntry, ResourceException>>> cachedReads =
+            new ConcurrentHashMap<>();
+
+    ReferenceCacheContext(Context parent) {
+        super(parent, "reference cache context");
+    }
+
+    /**
+     * Returns the read of the referenced entry, which may still be in progress, or {@code null} if it is not cached.
+     * The read completes with {@code null} if the entry does not exist.
+     */
+    Promise<SearchResultEntry, ResourceException> get(final ReferencePropertyMapper mapper, final DN dn) {
+        final ConcurrentMap<DN, Promise<SearchResultEntry, ResourceException>> reads = cachedReads.get(mapper);
+        return reads != null ? reads.get(dn) : null;
+    }
+
+    /**
+     * Caches the provided read of the referenced entry, unless a read of the same entry is already cached.
+     *
+     * @return The cached read, or the provided read if it was cached or if the cache is full.
+     */
+    Promise<SearchResultEntry, ResourceException> putIfAbsent(final ReferencePropertyMapper mapper, final DN dn,
+            final Promise<SearchResultEntry, ResourceException> read) {
+        ConcurrentMap<DN, Promise<SearchResultEntry, ResourceException>> reads = cachedReads.get(mapper);
+        if (reads == null) {
+            final ConcurrentMap<DN, Promise<SearchResultEntry, ResourceException>> newReads =
+                    new ConcurrentHashMap<>();
+            reads = cachedReads.putIfAbsent(mapper, newReads);
+            if (reads == null) {
+                reads = newReads;
+            }
+        }
+        if (reads.size() >= MAX_CACHED_ENTRIES) {
+            return read;
+        }
+        final Promise<SearchResultEntry, ResourceException> cachedRead = reads.putIfAbsent(dn, read);
+        return cachedRead != null ? cachedRead : read;
+    }
+}
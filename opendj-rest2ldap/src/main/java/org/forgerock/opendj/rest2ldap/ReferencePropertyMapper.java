@@ -28,10 +28,16 @@ import static org.forgerock.util.Reject.checkNotNull;
 import static org.forgerock.util.promise.Promises.newResultPromise;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -39,6 +45,7 @@ import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
 import org.forgerock.json.resource.ResourceException;
 import org.forgerock.opendj.ldap.Attribute;
+import org.forgerock.opendj.ldap.AVA;
 import org.forgerock.opendj.ldap.AttributeDescription;
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.DN;
@@ -48,9 +55,11 @@ import org.forgerock.opendj.ldap.Filter;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.opendj.ldap.LinkedAttribute;
 import org.forgerock.opendj.ldap.MultipleEntriesFoundException;
+import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SearchResultHandler;
 import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.Responses;
 import org.forgerock.opendj.ldap.responses.Result;
 import org.forgerock.opendj.ldap.responses.SearchResultEntry;
 import org.forgerock.opendj.ldap.responses.SearchResultReference;
@@ -71,6 +80,10 @@ import org.forgerock.util.promise.ResultHandler;
 public final class ReferencePropertyMapper extends AbstractLdapPropertyMapper<ReferencePropertyMapper> {
     /** The maximum number of candidate references to allow in search filters. */
     private static final int SEARCH_MAX_CANDIDATES = 1000;
+    /** The maximum number of referenced entries read by a single search. */
+    private static final int READ_BATCH_SIZE = 100;
+    /** The maximum number of searches performed concurrently when reading the entries referenced by a resource. */
+    private static final int READ_MAX_CONCURRENT_SEARCHES = 8;
 
     private final DnTemplate baseDnTemplate;
     private final Schema schema;
@@ -285,7 +298,18 @@ public final class ReferencePropertyMapper extends AbstractLdapPropertyMapper<Re
         case 1:
             if (attributeIsSingleValued()) {
                 try {
-                    return readEntry(context, resource, path, dns.iterator().next());
+                    return readEntries(context, path, dns)
+                            .thenAsync(new AsyncFunction<List<SearchResultEntry>, JsonValue, ResourceException>() {
+                                @Override
+                                public Promise<JsonValue, ResourceException> apply(
+                                        final List<SearchResultEntry> entries) {
+                                    if (entries.isEmpty()) {
+                                        // Ignore missing entry since it cannot be mapped.
+                                        return newResultPromise(null);
+                                    }
+                                    return mapper.read(context, resource, path, entries.get(0));
+                                }
+                            });
                 } catch (final Exception ex) {
                     // The LDAP attribute could not be decoded.
                     return Promises.newExceptionPromise(asResourceException(ex));
@@ -294,29 +318,37 @@ public final class ReferencePropertyMapper extends AbstractLdapPropertyMapper<Re
             // Fall-though: unexpectedly got multiple values. It's probably best to just return them.
         default:
             try {
-                final List<Promise<JsonValue, ResourceException>> promises = new ArrayList<>(dns.size());
-                for (final DN dn : dns) {
-                    promises.add(readEntry(context, resource, path, dn));
-                }
-                return Promises.when(promises)
-                               .then(new Function<List<JsonValue>, JsonValue, ResourceException>() {
-                                   @Override
-                                   public JsonValue apply(final List<JsonValue> value) {
-                                       if (value.isEmpty()) {
-                                           // No values, so omit the entire JSON object from the resource.
-                                           return null;
-                                       } else {
-                                           // Combine values into a single JSON array.
-                                           final List<Object> result = new ArrayList<>(value.size());
-                                           for (final JsonValue e : value) {
-                                               if (e != null) {
-                                                   result.add(e.getObject());
-                                               }
-                                           }
-                                           return result.isEmpty() ? null : new JsonValue(result);
-                                       }
-                                   }
-                               });
+                return readEntries(context, path, dns)
+                        .thenAsync(new AsyncFunction<List<SearchResultEntry>, List<JsonValue>, ResourceException>() {
+                            @Override
+                            public Promise<List<JsonValue>, ResourceException> apply(
+                                    final List<SearchResultEntry> entries) {
+                                final List<Promise<JsonValue, ResourceException>> promises =
+                                        new ArrayList<>(entries.size());
+                                for (final SearchResultEntry entry : entries) {
+                                    promises.add(mapper.read(context, resource, path, entry));
+                                }
+                                return Promises.when(promises);
+                            }
+                        })
+                        .then(new Function<List<JsonValue>, JsonValue, ResourceException>() {
+                            @Override
+                            public JsonValue apply(final List<JsonValue> value) {
+                                if (value.isEmpty()) {
+                                    // No values, so omit the entire JSON object from the resource.
+                                    return null;
+                                } else {
+                                    // Combine values into a single JSON array.
+                                    final List<Object> result = new ArrayList<>(value.size());
+                                    for (final JsonValue e : value) {
+                                        if (e != null) {
+                                            result.add(e.getObject());
+                                        }
+                                    }
+                                    return result.isEmpty() ? null : new JsonValue(result);
+                                }
+                            }
+                        });
             } catch (final Exception ex) {
                 // The LDAP attribute could not be decoded.
                 return Promises.newExceptionPromise(asResourceException(ex));
@@ -330,34 +362,190 @@ public final class ReferencePropertyMapper extends AbstractLdapPropertyMapper<Re
         return newSearchRequest(baseDnTemplate.format(context), scope, searchFilter, "1.1");
     }
 
-    private Promise<JsonValue, ResourceException> readEntry(
-            final Context context, final Resource resource, final JsonPointer path, final DN dn) {
+    /**
+     * Reads the referenced entries, in the order of their DNs. Missing entries are ignored since they cannot be mapped.
+     * <p>
+     * Instead of reading each entry with its own search, entries having the same parent are read in batches with a
+     * single search whose filter matches their RDNs, and a bounded number of these searches are performed
+     * concurrently. If the search of a batch fails, other than because the parent does not exist, the entries of the
+     * batch are read one at a time. When processing a query, the entries referenced by several resources are only
+     * read once.
+     */
+    private Promise<List<SearchResultEntry>, ResourceException> readEntries(
+            final Context context, final JsonPointer path, final Set<DN> dns) {
+        final ReferenceCacheContext cache =
+                context.containsContext(ReferenceCacheContext.class)
+                        ? context.asContext(ReferenceCacheContext.class) : null;
+        final List<Promise<SearchResultEntry, ResourceException>> reads = new ArrayList<>(dns.size());
+        final Map<DN, Map<DN, PromiseImpl<SearchResultEntry, ResourceException>>> pendingReadsByParent =
+                new LinkedHashMap<>();
+        for (final DN dn : dns) {
+            final Promise<SearchResultEntry, ResourceException> cachedRead = cache != null ? cache.get(this, dn) : null;
+            if (cachedRead != null) {
+                reads.add(cachedRead);
+                continue;
+            }
+            final PromiseImpl<SearchResultEntry, ResourceException> read = PromiseImpl.create();
+            final Promise<SearchResultEntry, ResourceException> sharedRead =
+                    cache != null ? cache.putIfAbsent(this, dn, read) : read;
+            reads.add(sharedRead);
+            if (sharedRead == read) {
+                final DN parent = dn.size() > 1 ? dn.parent() : dn;
+                Map<DN, PromiseImpl<SearchResultEntry, ResourceException>> pendingReads =
+                        pendingReadsByParent.get(parent);
+                if (pendingReads == null) {
+                    pendingReads = new LinkedHashMap<>();
+                    pendingReadsByParent.put(parent, pendingReads);
+                }
+                pendingReads.put(dn, read);
+            }
+        }
+
+        final Queue<Map<DN, PromiseImpl<SearchResultEntry, ResourceException>>> batches =
+                new ConcurrentLinkedQueue<>();
+        for (final Map<DN, PromiseImpl<SearchResultEntry, ResourceException>> pendingReads
+                : pendingReadsByParent.values()) {
+            Map<DN, PromiseImpl<SearchResultEntry, ResourceException>> batch = new LinkedHashMap<>();
+            for (final Map.Entry<DN, PromiseImpl<SearchResultEntry, ResourceException>> pendingRead
+                    : pendingReads.entrySet()) {
+                if (batch.size() == READ_BATCH_SIZE) {
+                    batches.add(batch);
+                    batch = new LinkedHashMap<>();
+                }
+                batch.put(pendingRead.getKey(), pendingRead.getValue());
+            }
+            batches.add(batch);
+        }
         final Set<String> requestedLDAPAttributes = new LinkedHashSet<>();
         mapper.getLdapAttributes(path, new JsonPointer(), requestedLDAPAttributes);
-
-        final Filter searchFilter = filter != null ? filter : Filter.alwaysTrue();
         final String[] attributes = requestedLDAPAttributes.toArray(new String[requestedLDAPAttributes.size()]);
-        final SearchRequest request = newSearchRequest(dn, SearchScope.BASE_OBJECT, searchFilter, attributes);
+        for (int i = 0; i < READ_MAX_CONCURRENT_SEARCHES; i++) {
+            readNextBatch(context, attributes, batches);
+        }
 
-        return connectionFrom(context)
-                .searchSingleEntryAsync(request)
-                .thenAsync(new AsyncFunction<SearchResultEntry, JsonValue, ResourceException>() {
+        return Promises.when(reads).then(
+                new Function<List<SearchResultEntry>, List<SearchResultEntry>, ResourceException>() {
                     @Override
-                    public Promise<JsonValue, ResourceException> apply(final SearchResultEntry result) {
-                        return mapper.read(context, resource, path, result);
-                    }
-                }, new AsyncFunction<LdapException, JsonValue, ResourceException>() {
-                    @Override
-                    public Promise<JsonValue, ResourceException> apply(final LdapException error) {
-                        if (error instanceof EntryNotFoundException) {
-                            // Ignore missing entry since it cannot be mapped.
-                            return Promises.newResultPromise(null);
+                    public List<SearchResultEntry> apply(final List<SearchResultEntry> entries) {
+                        final List<SearchResultEntry> existingEntries = new ArrayList<>(entries.size());
+                        for (final SearchResultEntry entry : entries) {
+                            if (entry != null) {
+                                existingEntries.add(entry);
+                            }
                         }
-                        return Promises.newExceptionPromise(asResourceException(error));
+                        return existingEntries;
                     }
                 });
     }
 
+    /** Reads the next batch of entries, then the next one, until all the batches have been read. */
+    private void readNextBatch(final Context context, final String[] attributes,
+                               final Queue<Map<DN, PromiseImpl<SearchResultEntry, ResourceException>>> batches) {
+        final Map<DN, PromiseImpl<SearchResultEntry, ResourceException>> batch = batches.poll();
+        if (batch == null) {
+            return;
+        }
+        readBatch(context, attributes, batch).thenFinally(new Runnable() {
+            @Override
+            public void run() {
+                readNextBatch(context, attributes, batches);
+            }
+        });
+    }
+
+    private Promise<Result, LdapException> readBatch(final Context context, final String[] attributes,
+            final Map<DN, PromiseImpl<SearchResultEntry, ResourceException>> batch) {
+        final SearchRequest request;
+        if (batch.size() == 1) {
+            final Filter searchFilter = filter != null ? filter : Filter.alwaysTrue();
+            request = newSearchRequest(batch.keySet().iterator().next(), SearchScope.BASE_OBJECT, searchFilter,
+                                       attributes);
+        } else {
+            // All the entries of a batch have the same parent.
+            DN parent = null;
+            final List<Filter> rdnFilters = new ArrayList<>(batch.size());
+            for (final DN dn : batch.keySet()) {
+                parent = dn.parent();
+                final List<Filter> avaFilters = new ArrayList<>(dn.rdn().size());
+                for (final AVA ava : dn.rdn()) {
+                    avaFilters.add(Filter.equality(ava.getAttributeName(), ava.getAttributeValue()));
+                }
+                rdnFilters.add(avaFilters.size() == 1 ? avaFilters.get(0) : Filter.and(avaFilters));
+            }
+            final Filter searchFilter = filter != null
+                    ? Filter.and(filter, Filter.or(rdnFilters)) : Filter.or(rdnFilters);
+            request = newSearchRequest(parent, SearchScope.SINGLE_LEVEL, searchFilter, attributes);
+        }
+
+        return connectionFrom(context).searchAsync(request, new SearchResultHandler() {
+            @Override
+            public boolean handleEntry(final SearchResultEntry entry) {
+                // The filter may match other entries than the referenced ones.
+                final PromiseImpl<SearchResultEntry, ResourceException> read = batch.get(entry.getName());
+                if (read != null) {
+                    read.tryHandleResult(entry);
+                }
+                return true;
+            }
+
+            @Override
+            public boolean handleReference(final SearchResultReference reference) {
+                // Ignore references.
+                return true;
+            }
+        }).thenOnResult(new ResultHandler<Result>() {
+            @Override
+            public void handleResult(final Result result) {
+                // The entries which have not been returned do not exist or do not match the search filter.
+                for (final PromiseImpl<SearchResultEntry, ResourceException> read : batch.values()) {
+                    read.tryHandleResult(null);
+                }
+            }
+        }).thenAsync(new AsyncFunction<Result, Result, LdapException>() {
+            @Override
+            public Promise<Result, LdapException> apply(final Result result) {
+                return newResultPromise(result);
+            }
+        }, new AsyncFunction<LdapException, Result, LdapException>() {
+            @Override
+            public Promise<Result, LdapException> apply(final LdapException error) {
+                if (error instanceof EntryNotFoundException) {
+                    // The parent is missing, hence the entries too: ignore them since they cannot be mapped.
+                    for (final PromiseImpl<SearchResultEntry, ResourceException> read : batch.values()) {
+                        read.tryHandleResult(null);
+                    }
+                } else if (batch.size() > 1) {
+                    // The search may have been refused because of its filter or of the number of entries under
+                    // the parent: read the entries of the batch one at a time instead.
+                    return readEachEntry(context, attributes, batch.entrySet().iterator());
+                } else {
+                    for (final PromiseImpl<SearchResultEntry, ResourceException> read : batch.values()) {
+                        read.tryHandleException(asResourceException(error));
+                    }
+                }
+                return Promises.newExceptionPromise(error);
+            }
+        });
+    }
+
+    /** Reads the provided entries with a base object search each, one after the other. */
+    private Promise<Result, LdapException> readEachEntry(final Context context, final String[] attributes,
+            final Iterator<Map.Entry<DN, PromiseImpl<SearchResultEntry, ResourceException>>> reads) {
+        if (!reads.hasNext()) {
+            return newResultPromise(Responses.newResult(ResultCode.SUCCESS));
+        }
+        final Map.Entry<DN, PromiseImpl<SearchResultEntry, ResourceException>> read = reads.next();
+        final AsyncFunction<Object, Result, LdapException> readNextEntry =
+                new AsyncFunction<Object, Result, LdapException>() {
+                    @Override
+                    public Promise<Result, LdapException> apply(final Object value) {
+                        return readEachEntry(context, attributes, reads);
+                    }
+                };
+        return readBatch(context, attributes, Collections.singletonMap(read.getKey(), read.getValue()))
+                .thenAsync(readNextEntry, readNextEntry);
+    }
+
     @Override
     JsonValue toJsonSchema() {
         if (mapper.isMultiValued()) {
@@ -128,6 +128,14 @@ public final class Rest2Ldap {
      * default Rest2Ldap will use the subtree delete control and use of the control is strongly recommended.
      */
     public static final Option<Boolean> USE_SUBTREE_DELETE = Option.withDefault(true);
+    /**
+     * Specifies the maximum number of LDAP entries which should be read at a time by queries which do not request
+     * paged results. Larger result sets are read in batches using the LDAP simple paged results control, and the next
+     * batch is only read once the resources of the current batch have been returned, so that the memory used by a
+     * query does not depend on the size of its result set. A value of {@code 0} disables batching. By default
+     * Rest2Ldap will read entries in batches of 1000.
+     */
+    public static final Option<Integer> QUERY_BATCH_SIZE = Option.withDefault(1000);
 
     /**
      * Creates a new {@link Rest2Ldap} instance using the provided options and {@link Resource resources}.
@@ -97,7 +97,8 @@ public final class Rest2LdapJsonConfigurator {
      *      "useSubtreeDelete": true,
      *      "usePermissiveModify": true,
      *      "useMvcc": true
-     *      "mvccAttribute": "etag"
+     *      "mvccAttribute": "etag",
+     *      "queryBatchSize": 1000
      * }
      * </pre>
      * <p>
@@ -123,6 +124,7 @@ public final class Rest2LdapJsonConfigurator {
 
         options.set(USE_MVCC, config.get("useMvcc").defaultTo(true).asBoolean());
         options.set(MVCC_ATTRIBUTE, config.get("mvccAttribute").defaultTo("etag").asString());
+        options.set(QUERY_BATCH_SIZE, config.get("queryBatchSize").defaultTo(1000).asInteger());
 
         return options;
     }
@@ -138,6 +138,7 @@ final class SubResourceImpl {
     private final ReadOnUpdatePolicy readOnUpdatePolicy;
     private final boolean useSubtreeDelete;
     private final boolean usePermissiveModify;
+    private final int queryBatchSize;
     private final Resource resource;
     private final Attribute glueObjectClasses;
     private final boolean flattenSubtree;
@@ -154,6 +155,7 @@ final class SubResourceImpl {
         this.readOnUpdatePolicy = rest2Ldap.getOptions().get(READ_ON_UPDATE_POLICY);
         this.useSubtreeDelete = rest2Ldap.getOptions().get(USE_SUBTREE_DELETE);
         this.usePermissiveModify = rest2Ldap.getOptions().get(USE_PERMISSIVE_MODIFY);
+        this.queryBatchSize = rest2Ldap.getOptions().get(QUERY_BATCH_SIZE);
         this.etagAttribute = rest2Ldap.getOptions().get(USE_MVCC)
                 ? AttributeDescription.valueOf(rest2Ldap.getOptions().get(MVCC_ATTRIBUTE)) : null;
         this.decodeOptions = rest2Ldap.getOptions().get(DECODE_OPTIONS);
@@ -728,6 +730,14 @@ final class SubResourceImpl {
             private int pendingResourceCount;
             private boolean resultSent;
             private int totalResourceCount;
+            /** The cookie of the next batch of entries to read once the pending resources have been returned. */
+            private ByteString nextBatchCookie;
+
+            /** Shares the entries referenced by several resources of the query. */
+            private final Context queryContext = new ReferenceCacheContext(context);
+            private final PromiseImpl<QueryResponse, ResourceException> promise = PromiseImpl.create();
+            private SearchRequest searchRequest;
+            private int pageResultStartIndex;
 
             @Override
             public Promise<QueryResponse, ResourceException> apply(final Filter ldapFilter) {
@@ -735,16 +745,14 @@ final class SubResourceImpl {
                     // Avoid performing a search if the filter could not be mapped or if it will never match.
                     return newQueryResponse().asPromise();
                 }
-                final PromiseImpl<QueryResponse, ResourceException> promise = PromiseImpl.create();
                 // Perform the search.
                 final String[] attributes = getLdapAttributesForUnknownType(request.getFields()).toArray(new String[0]);
                 final Filter searchFilter = ldapFilter == Filter.alwaysTrue() ? Filter.objectClassPresent()
                         : ldapFilter;
-                final SearchRequest searchRequest = createSearchRequest(searchFilter, attributes);
+                searchRequest = createSearchRequest(searchFilter, attributes);
 
                 // Add the page results control. We can support the page offset by reading the next offset pages, or
                 // offset x page size resources.
-                final int pageResultStartIndex;
                 final int pageSize = request.getPageSize();
                 if (request.getPageSize() > 0) {
                     final int pageResultEndIndex;
@@ -760,11 +768,52 @@ final class SubResourceImpl {
                     final SimplePagedResultsControl control =
                             SimplePagedResultsControl.newControl(true, pageResultEndIndex, cookie);
                     searchRequest.addControl(control);
+                    search(searchRequest);
+                } else if (queryBatchSize > 0) {
+                    // Read the entries in batches so that at most one batch of resources is pending at any time,
+                    // whatever the size of the result set. The control is not critical: servers which do not
+                    // support it return all the entries at once.
+                    pageResultStartIndex = 0;
+                    searchNextBatch(ByteString.empty());
                 } else {
                     pageResultStartIndex = 0;
+                    search(searchRequest);
+                }
+                return promise;
+            }
+
+            /**
+             * Reads the next batch of entries, or releases the paged results state that the server keeps for this
+             * search if the query has already failed.
+             */
+            private void searchNextBatch(final ByteString batchCookie) {
+                final boolean queryFailed;
+                synchronized (sequenceLock) {
+                    queryFailed = pendingResult != null;
+                }
+                final SearchRequest batchRequest = copyOfSearchRequest(searchRequest);
+                if (queryFailed) {
+                    // A page size of zero tells the server that no more entries will be read (RFC 2696).
+                    batchRequest.addControl(SimplePagedResultsControl.newControl(false, 0, batchCookie));
+                    connectionFrom(context).searchAsync(batchRequest, new SearchResultHandler() {
+                        @Override
+                        public boolean handleEntry(final SearchResultEntry entry) {
+                            return false;
+                        }
+
+                        @Override
+                        public boolean handleReference(final SearchResultReference reference) {
+                            return false;
+                        }
+                    });
+                } else {
+                    batchRequest.addControl(SimplePagedResultsControl.newControl(false, queryBatchSize, batchCookie));
+                    search(batchRequest);
                 }
+            }
 
-                connectionFrom(context).searchAsync(searchRequest, new SearchResultHandler() {
+            private void search(final SearchRequest ldapRequest) {
+                connectionFrom(context).searchAsync(ldapRequest, new SearchResultHandler() {
                     @Override
                     public boolean handleEntry(final SearchResultEntry entry) {
                         // Search result entries will be returned before the search result/error so the only reason
@@ -785,22 +834,19 @@ final class SubResourceImpl {
                          * may cause the JSON resources to be returned in a different order to the order in which
                          * the primary LDAP search results were received. This is benign at the moment, but will
                          * need resolving when we implement server side sorting. A possible fix will be to use a
-                         * queue of pending resources (promises?). However, the queue cannot be unbounded in case
-                         * it grows very large, but it cannot be bounded either since that could cause a deadlock
-                         * between rest2ldap and the LDAP server (imagine the case where the server has a single
-                         * worker thread which is occupied processing the primary search).
-                         * The best solution is probably to process the primary search results in batches using
-                         * the paged results control.
+                         * queue of pending resources (promises?). Queries which are read in batches only bound
+                         * the number of pending resources, results are still returned in completion order.
                          */
                         final String id = namingStrategy.decodeResourceId(entry);
                         final String revision = getRevisionFromEntry(entry);
                         final Resource subType = resource.resolveSubTypeFromObjectClasses(entry);
-                        final RoutingContext dnAndType = newRoutingContext(context, entry.getName(), subType);
+                        final RoutingContext dnAndType = newRoutingContext(queryContext, entry.getName(), subType);
                         final PropertyMapper propertyMapper = subType.getPropertyMapper();
                         propertyMapper.read(dnAndType, subType, ROOT, entry)
                                       .thenOnResult(new ResultHandler<JsonValue>() {
                                           @Override
                                           public void handleResult(final JsonValue result) {
+                                              final ByteString batchCookie;
                                               synchronized (sequenceLock) {
                                                   pendingResourceCount--;
                                                   if (!resultSent) {
@@ -808,15 +854,24 @@ final class SubResourceImpl {
                                                               newResourceResponse(id, revision, result));
                                                   }
                                                   completeIfNecessary(promise);
+                                                  batchCookie = takeNextBatchCookieIfReady();
+                                              }
+                                              if (batchCookie != null) {
+                                                  searchNextBatch(batchCookie);
                                               }
                                           }
                                       })
                                       .thenOnException(new ExceptionHandler<ResourceException>() {
                                           @Override
                                           public void handleException(ResourceException exception) {
+                                              final ByteString batchCookie;
                                               synchronized (sequenceLock) {
                                                   pendingResourceCount--;
                                                   completeIfNecessary(exception, promise);
+                                                  batchCookie = takeNextBatchCookieIfReady();
+                                              }
+                                              if (batchCookie != null) {
+                                                  searchNextBatch(batchCookie);
                                               }
                                           }
                                       });
@@ -832,19 +887,25 @@ final class SubResourceImpl {
                 }).thenOnResult(new ResultHandler<Result>() {
                     @Override
                     public void handleResult(Result result) {
+                        final ByteString batchCookie;
                         synchronized (sequenceLock) {
+                            final ByteString resultCookie = getPagedResultsCookie(result);
                             if (request.getPageSize() > 0) {
-                                try {
-                                    final SimplePagedResultsControl control =
-                                            result.getControl(SimplePagedResultsControl.DECODER, decodeOptions);
-                                    if (control != null && !control.getCookie().isEmpty()) {
-                                        cookie = control.getCookie().toBase64String();
-                                    }
-                                } catch (final DecodeException e) {
-                                    logger.error(ERR_DECODING_CONTROL.get(e.getLocalizedMessage()), e);
+                                if (!resultCookie.isEmpty()) {
+                                    cookie = resultCookie.toBase64String();
                                 }
+                                completeIfNecessary(SUCCESS, promise);
+                            } else if (!resultCookie.isEmpty()) {
+                                // More entries remain: read them, or release them if the query has failed, once
+                                // the current batch has been returned.
+                                nextBatchCookie = resultCookie;
+                            } else {
+                                completeIfNecessary(SUCCESS, promise);
                             }
-                            completeIfNecessary(SUCCESS, promise);
+                            batchCookie = takeNextBatchCookieIfReady();
+                        }
+                        if (batchCookie != null) {
+                            searchNextBatch(batchCookie);
                         }
                     }
                 }).thenOnException(new ExceptionHandler<LdapException>() {
@@ -860,8 +921,33 @@ final class SubResourceImpl {
                         }
                     }
                 });
+            }
 
-                return promise;
+            private ByteString getPagedResultsCookie(final Result result) {
+                try {
+                    final SimplePagedResultsControl control =
+                            result.getControl(SimplePagedResultsControl.DECODER, decodeOptions);
+                    if (control != null) {
+                        return control.getCookie();
+                    }
+                } catch (final DecodeException e) {
+                    logger.error(ERR_DECODING_CONTROL.get(e.getLocalizedMessage()), e);
+                }
+                return ByteString.empty();
+            }
+
+            /**
+             * Returns the cookie of the next batch of entries if all the resources of the current batch have been
+             * returned, or {@code null} otherwise.
+             * This method must be invoked with the sequenceLock held.
+             */
+            private ByteString takeNextBatchCookieIfReady() {
+                if (pendingResourceCount > 0 || nextBatchCookie == null) {
+                    return null;
+                }
+                final ByteString batchCookie = nextBatchCookie;
+                nextBatchCookie = null;
+                return batchCookie;
             }
 
             /** This method must be invoked with the sequenceLock held. */
@@ -18,6 +18,7 @@ package org.forgerock.opendj.rest2ldap;
 
 import static java.util.Arrays.asList;
 import static org.fest.assertions.Assertions.assertThat;
+import static org.fest.assertions.Fail.fail;
 import static org.forgerock.json.JsonValue.field;
 import static org.forgerock.json.JsonValue.json;
 import static org.forgerock.json.JsonValue.object;
@@ -29,10 +30,13 @@ import static org.forgerock.json.resource.Requests.*;
 import static org.forgerock.json.resource.Resources.newInternalConnection;
 import static org.forgerock.opendj.ldap.Connections.newInternalConnectionFactory;
 import static org.forgerock.opendj.ldap.Functions.byteStringToInteger;
+import static org.forgerock.opendj.ldap.LdapException.newLdapException;
+import static org.forgerock.opendj.rest2ldap.Rest2Ldap.QUERY_BATCH_SIZE;
 import static org.forgerock.opendj.rest2ldap.Rest2Ldap.collectionOf;
 import static org.forgerock.opendj.rest2ldap.Rest2Ldap.constant;
 import static org.forgerock.opendj.rest2ldap.Rest2Ldap.rest2Ldap;
 import static org.forgerock.opendj.rest2ldap.Rest2Ldap.object;
+import static org.forgerock.opendj.rest2ldap.Rest2Ldap.reference;
 import static org.forgerock.opendj.rest2ldap.Rest2Ldap.resource;
 import static org.forgerock.opendj.rest2ldap.Rest2Ldap.simple;
 import static org.forgerock.opendj.rest2ldap.TestUtils.asResource;
@@ -44,8 +48,10 @@ import static org.forgerock.util.Options.defaultOptions;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
@@ -55,14 +61,20 @@ import org.forgerock.json.resource.NotFoundException;
 import org.forgerock.json.resource.NotSupportedException;
 import org.forgerock.json.resource.PreconditionFailedException;
 import org.forgerock.json.resource.QueryResponse;
+import org.forgerock.json.resource.ResourceException;
 import org.forgerock.json.resource.ResourceResponse;
 import org.forgerock.opendj.ldap.ConnectionFactory;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.DecodeOptions;
 import org.forgerock.opendj.ldap.IntermediateResponseHandler;
 import org.forgerock.opendj.ldap.LdapResultHandler;
 import org.forgerock.opendj.ldap.MemoryBackend;
 import org.forgerock.opendj.ldap.RequestContext;
 import org.forgerock.opendj.ldap.RequestHandler;
+import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SearchResultHandler;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.controls.SimplePagedResultsControl;
 import org.forgerock.opendj.ldap.requests.AddRequest;
 import org.forgerock.opendj.ldap.requests.BindRequest;
 import org.forgerock.opendj.ldap.requests.CompareRequest;
@@ -79,6 +91,7 @@ import org.forgerock.opendj.ldap.responses.Result;
 import org.forgerock.opendj.ldif.LDIFEntryReader;
 import org.forgerock.services.context.Context;
 import org.forgerock.testng.ForgeRockTestCase;
+import org.forgerock.util.Options;
 import org.forgerock.util.query.QueryFilter;
 import org.testng.annotations.Test;
 
@@ -91,6 +104,10 @@ public final class BasicRequestsTest extends ForgeRockTestCase {
     // FIXME: factor out test for re-use as common test suite (e.g. for InMemoryBackend).
 
     private static final QueryFilter<JsonPointer> NO_FILTER = QueryFilter.alwaysTrue();
+    private static final DN PEOPLE_DN = DN.valueOf("ou=people,dc=test");
+    private static final DN ADMINS_DN = DN.valueOf("ou=admins,dc=test");
+    /** More people than the referenced entries read with a single search. */
+    private static final int PEOPLE_COUNT = 150;
 
     @Test
     public void testQueryAllWithNoSubtreeFlatteningAndNoSearchFilter() throws Exception {
@@ -118,6 +135,73 @@ public final class BasicRequestsTest extends ForgeRockTestCase {
         );
     }
 
+    @Test
+    public void testQueryAllInBatches() throws Exception {
+        final Connection connection = newConnection(defaultOptions().set(QUERY_BATCH_SIZE, 2));
+        final List<ResourceResponse> resources = new LinkedList<>();
+        final QueryResponse result =
+            connection.query(
+                newAuthConnectionContext(),
+                newQueryRequest("").setQueryFilter(NO_FILTER),
+                resources);
+
+        assertThat(resources).hasSize(7);
+        assertThat(result.getPagedResultsCookie()).isNull();
+        assertThat(result.getTotalPagedResults()).isEqualTo(-1);
+
+        checkThatOrgUnitsExist(resources, "level1");
+
+        checkThatUsersExist(resources, 1,
+          "test1",
+          "test2",
+          "test3",
+          "test4",
+          "test5",
+          "test6"
+        );
+    }
+
+    @Test
+    public void testQueryInBatchesReleasesPagedResultsWhenMappingFails() throws Exception {
+        final Connection connection = newConnection(defaultOptions().set(QUERY_BATCH_SIZE, 2));
+        final List<String> ldif = new ArrayList<>(asList(
+                "dn: dc=test",
+                "objectClass: domain",
+                "objectClass: top",
+                "dc: test"));
+        for (int i = 1; i <= 5; i++) {
+            ldif.addAll(asList(
+                    "",
+                    "dn: uid=test" + i + ",dc=test",
+                    "objectClass: top",
+                    "objectClass: person",
+                    "uid: test" + i,
+                    "cn: test user " + i,
+                    "sn: user " + i,
+                    "etag: " + i,
+                    // The last resource of the first batch cannot be mapped.
+                    "singleNumber: " + (i == 2 ? "not a number" : String.valueOf(i))));
+        }
+        final List<Request> requests = new ArrayList<>();
+        final ConnectionFactory factory = newInternalConnectionFactory(
+                recordRequests(new MemoryBackend(new LDIFEntryReader(ldif)), requests));
+
+        try {
+            connection.query(new AuthenticatedConnectionContext(ctx(), factory.getConnection()),
+                    newQueryRequest("").setQueryFilter(NO_FILTER), new LinkedList<ResourceResponse>());
+            fail("The query should fail since a resource cannot be mapped");
+        } catch (final ResourceException expected) {
+            // Expected.
+        }
+
+        // The next batch is not read, but the server is told that it can discard the remaining entries.
+        assertThat(requests).hasSize(2);
+        final SimplePagedResultsControl control = ((SearchRequest) requests.get(1))
+                .getControl(SimplePagedResultsControl.DECODER, new DecodeOptions());
+        assertThat(control.getSize()).isEqualTo(0);
+        assertThat(control.getCookie().isEmpty()).isFalse();
+    }
+
     @Test
     public void testQueryAllWithSearchFilterAndNoSubtreeFlattening() throws Exception {
         final Connection connection = newConnection();
@@ -985,13 +1069,73 @@ public final class BasicRequestsTest extends ForgeRockTestCase {
         connection.update(newAuthConnectionContext(), newUpdateRequest("/test1", newContent));
     }
 
+    @Test
+    public void testReadMultiValuedReferenceInBatches() throws Exception {
+        final List<Request> requests = new ArrayList<>();
+        final ResourceResponse group = newGroupsConnection().read(
+                newGroupsConnectionContext(requests, false), newReadRequest("/groups/big"));
+
+        final Set<String> expectedMembers = new HashSet<>();
+        for (int i = 0; i < PEOPLE_COUNT; i++) {
+            expectedMembers.add("person" + i);
+        }
+        expectedMembers.add("admin0");
+        expectedMembers.add("admin1");
+        assertThat(getMembers(group)).isEqualTo(expectedMembers);
+        // The missing entry under ou=people is read along with the others, in two batches
+        assertThat(countSearches(requests, PEOPLE_DN, SearchScope.SINGLE_LEVEL)).isEqualTo(2);
+        assertThat(countSearches(requests, ADMINS_DN, SearchScope.SINGLE_LEVEL)).isEqualTo(1);
+    }
+
+    @Test
+    public void testReadReferenceToMissingEntries() throws Exception {
+        final ResourceResponse group = newGroupsConnection().read(
+                newGroupsConnectionContext(new ArrayList<Request>(), false), newReadRequest("/groups/missing"));
+
+        assertThat(group.getContent().get("members").isNull()).isTrue();
+    }
+
+    @Test
+    public void testQueryReadsSharedReferencesOnce() throws Exception {
+        final List<Request> requests = new ArrayList<>();
+        final List<ResourceResponse> resources = new ArrayList<>();
+        newGroupsConnection().query(newGroupsConnectionContext(requests, false),
+                newQueryRequest("shared-groups").setQueryFilter(NO_FILTER), resources);
+
+        assertThat(resources).hasSize(2);
+        final Set<String> expectedMembers = new HashSet<>(asList("person0", "person1", "admin0"));
+        for (final ResourceResponse resource : resources) {
+            assertThat(getMembers(resource)).isEqualTo(expectedMembers);
+        }
+        assertThat(countSearches(requests, PEOPLE_DN, SearchScope.SINGLE_LEVEL)).isEqualTo(1);
+        assertThat(countSearches(requests, ADMINS_DN.child("uid", "admin0"), SearchScope.BASE_OBJECT)).isEqualTo(1);
+    }
+
+    @Test
+    public void testReadReferenceFallsBackToBaseSearchesWhenBatchFails() throws Exception {
+        final List<Request> requests = new ArrayList<>();
+        final ResourceResponse group = newGroupsConnection().read(
+                newGroupsConnectionContext(requests, true), newReadRequest("/shared-groups/shared1"));
+
+        assertThat(getMembers(group)).isEqualTo(new HashSet<>(asList("person0", "person1", "admin0")));
+        assertThat(countSearches(requests, PEOPLE_DN, SearchScope.SINGLE_LEVEL)).isEqualTo(1);
+        assertThat(countSearches(requests, PEOPLE_DN.child("uid", "person0"), SearchScope.BASE_OBJECT))
+                .isEqualTo(1);
+        assertThat(countSearches(requests, PEOPLE_DN.child("uid", "person1"), SearchScope.BASE_OBJECT))
+                .isEqualTo(1);
+    }
+
     private Connection newConnection() throws IOException {
-        return newInternalConnection(usersApi().newRequestHandlerFor("api"));
+        return newConnection(defaultOptions());
     }
 
-    private Rest2Ldap usersApi() throws IOException {
+    private Connection newConnection(final Options options) throws IOException {
+        return newInternalConnection(usersApi(options).newRequestHandlerFor("api"));
+    }
+
+    private Rest2Ldap usersApi(final Options options) throws IOException {
         return rest2Ldap(
-            defaultOptions(),
+            options,
             resource("api")
                 .subResource(
                     collectionOf("user")
@@ -1201,8 +1345,133 @@ public final class BasicRequestsTest extends ForgeRockTestCase {
         return newInternalConnectionFactory(recordRequests(backend, requests));
     }
 
+    private Connection newGroupsConnection() throws IOException {
+        return newInternalConnection(rest2Ldap(
+            defaultOptions(),
+            resource("api")
+                .subResource(
+                    collectionOf("group")
+                        .urlTemplate("groups")
+                        .dnTemplate("ou=groups,dc=test")
+                        .useClientDnNaming("cn"))
+                .subResource(
+                    collectionOf("group")
+                        .urlTemplate("shared-groups")
+                        .dnTemplate("ou=shared-groups,dc=test")
+                        .useClientDnNaming("cn")),
+            resource("group")
+                .objectClasses("top", "groupOfNames")
+                .property(
+                    "_id",
+                    simple("cn").isRequired(true).writability(CREATE_ONLY))
+                .property(
+                    "members",
+                    reference("member", "dc=test", "uid", simple("uid")).isMultiValued(true))
+        ).newRequestHandlerFor("api"));
+    }
+
+    private Set<String> getMembers(final ResourceResponse group) {
+        return new HashSet<>(group.getContent().get("members").asList(String.class));
+    }
+
+    private int countSearches(final List<Request> requests, final DN baseDN, final SearchScope scope) {
+        int count = 0;
+        for (final Request request : requests) {
+            if (request instanceof SearchRequest
+                    && ((SearchRequest) request).getName().equals(baseDN)
+                    && ((SearchRequest) request).getScope().equals(scope)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a context connected to a backend with groups referencing people and admins, whose single level
+     * searches under ou=people fail if {@code rejectPeopleBatches} is {@code true}.
+     */
+    private AuthenticatedConnectionContext newGroupsConnectionContext(final List<Request> requests,
+            final boolean rejectPeopleBatches) throws IOException {
+        final List<String> ldif = new ArrayList<>(asList(
+                "dn: dc=test",
+                "objectClass: domain",
+                "objectClass: top",
+                "dc: test",
+                "",
+                "dn: ou=people,dc=test",
+                "objectClass: top",
+                "objectClass: organizationalUnit",
+                "ou: people",
+                "",
+                "dn: ou=admins,dc=test",
+                "objectClass: top",
+                "objectClass: organizationalUnit",
+                "ou: admins",
+                "",
+                "dn: ou=groups,dc=test",
+                "objectClass: top",
+                "objectClass: organizationalUnit",
+                "ou: groups",
+                "",
+                "dn: ou=shared-groups,dc=test",
+                "objectClass: top",
+                "objectClass: organizationalUnit",
+                "ou: shared-groups"));
+        for (int i = 0; i < PEOPLE_COUNT; i++) {
+            addPerson(ldif, PEOPLE_DN, "person" + i);
+        }
+        addPerson(ldif, ADMINS_DN, "admin0");
+        addPerson(ldif, ADMINS_DN, "admin1");
+
+        ldif.addAll(asList("", "dn: cn=big,ou=groups,dc=test", "objectClass: top", "objectClass: groupOfNames",
+                           "cn: big"));
+        for (int i = 0; i < PEOPLE_COUNT; i++) {
+            ldif.add("member: uid=person" + i + "," + PEOPLE_DN);
+        }
+        ldif.add("member: uid=missing," + PEOPLE_DN);
+        ldif.add("member: uid=admin0," + ADMINS_DN);
+        ldif.add("member: uid=admin1," + ADMINS_DN);
+
+        ldif.addAll(asList("", "dn: cn=missing,ou=groups,dc=test", "objectClass: top", "objectClass: groupOfNames",
+                           "cn: missing",
+                           "member: uid=missing," + PEOPLE_DN,
+                           "member: uid=missing,ou=nowhere,dc=test"));
+
+        for (final String group : asList("shared1", "shared2")) {
+            ldif.addAll(asList("", "dn: cn=" + group + ",ou=shared-groups,dc=test", "objectClass: top",
+                               "objectClass: groupOfNames",
+                               "cn: " + group,
+                               "member: uid=person0," + PEOPLE_DN,
+                               "member: uid=person1," + PEOPLE_DN,
+                               "member: uid=admin0," + ADMINS_DN));
+        }
+
+        final DN rejectedBatchBaseDN = rejectPeopleBatches ? PEOPLE_DN : null;
+        final ConnectionFactory factory = newInternalConnectionFactory(
+                recordRequests(new MemoryBackend(new LDIFEntryReader(ldif)), requests, rejectedBatchBaseDN));
+        return new AuthenticatedConnectionContext(ctx(), factory.getConnection());
+    }
+
+    private void addPerson(final List<String> ldif, final DN parent, final String uid) {
+        ldif.addAll(asList(
+                "",
+                "dn: uid=" + uid + "," + parent,
+                "objectClass: top",
+                "objectClass: person",
+                "uid: " + uid,
+                "cn: " + uid,
+                "sn: " + uid));
+    }
+
     private RequestHandler<RequestContext> recordRequests(
             final RequestHandler<RequestContext> handler, final List<Request> requests) {
+        return recordRequests(handler, requests, null);
+    }
+
+    /** Also fails the single level searches under the provided base DN, unless it is {@code null}. */
+    private RequestHandler<RequestContext> recordRequests(
+            final RequestHandler<RequestContext> handler, final List<Request> requests,
+            final DN rejectedSingleLevelSearchBaseDN) {
         return new RequestHandler<RequestContext>() {
             @Override
             public void handleAdd(RequestContext requestContext, AddRequest request,
@@ -1274,6 +1543,11 @@ public final class BasicRequestsTest extends ForgeRockTestCase {
                 SearchResultHandler entryHandler,
                 LdapResultHandler<Result> resultHandler) {
                 requests.add(request);
+                if (request.getScope().equals(SearchScope.SINGLE_LEVEL)
+                        && request.getName().equals(rejectedSingleLevelSearchBaseDN)) {
+                    resultHandler.handleException(newLdapException(ResultCode.UNWILLING_TO_PERFORM));
+                    return;
+                }
                 handler.handleSearch(
                     requestContext,
                     request,
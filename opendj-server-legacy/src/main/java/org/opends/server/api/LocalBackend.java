@@ -40,6 +40,7 @@ import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.PersistentSearch;
 import org.opends.server.core.PersistentSearch.CancellationCallback;
+import org.opends.server.core.PersistentSearchDispatcher;
 import org.opends.server.core.SearchOperation;
 import org.opends.server.core.ServerContext;
 import org.opends.server.monitors.LocalBackendMonitor;
@@ -80,6 +81,9 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
   /** The set of persistent searches registered with this backend. */
   private final ConcurrentLinkedQueue<PersistentSearch> persistentSearches = new ConcurrentLinkedQueue<>();
 
+  /** Notifies the persistent searches of the changes made to this backend, created on first use. */
+  private PersistentSearchDispatcher persistentSearchDispatcher;
+
   /** The backend monitor associated with this backend. */
   private LocalBackendMonitor backendMonitor;
 
@@ -105,6 +109,14 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
       psearch.cancel();
     }
     persistentSearches.clear();
+    synchronized (persistentSearches)
+    {
+      if (persistentSearchDispatcher != null)
+      {
+        persistentSearchDispatcher.shutdown();
+        persistentSearchDispatcher = null;
+      }
+    }
     closeBackend();
   }
 
@@ -667,6 +679,8 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
    */
   public void registerPersistentSearch(PersistentSearch persistentSearch) throws DirectoryException
   {
+    final PersistentSearchDispatcher dispatcher = getPersistentSearchDispatcher();
+    dispatcher.register(persistentSearch);
     persistentSearches.add(persistentSearch);
 
     persistentSearch.registerCancellationCallback(new CancellationCallback()
@@ -675,10 +689,46 @@ public abstract class LocalBackend<C extends Configuration> extends Backend<C>
       public void persistentSearchCancelled(PersistentSearch psearch)
       {
         persistentSearches.remove(psearch);
+        dispatcher.deregister(psearch);
       }
     });
   }
 
+  /**
+   * Returns the dispatcher which notifies the persistent searches registered
+   * with this local backend of the changes made to its entries.
+   *
+   * @return the persistent search dispatcher of this local backend
+   */
+  public PersistentSearchDispatcher getPersistentSearchDispatcher()
+  {
+    synchronized (persistentSearches)
+    {
+      if (persistentSearchDispatcher == null)
+      {
+        persistentSearchDispatcher = new PersistentSearchDispatcher(getBackendID());
+      }
+      return persistentSearchDispatcher;
+    }
+  }
+
+  /**
+   * Returns the dispatcher which notifies the persistent searches registered
+   * with this local backend of the changes made to its entries, without
+   * creating it.
+   *
+   * @return the persistent search dispatcher of this local backend, or
+   *         {@code null} if no change has been dispatched or no persistent
+   *         search registered since this backend has been opened
+   */
+  public PersistentSearchDispatcher getPersistentSearchDispatcherIfCreated()
+  {
+    synchronized (persistentSearches)
+    {
+      return persistentSearchDispatcher;
+    }
+  }
+
   /**
    * Returns the persistent searches currently active against this local
    * backend.
@@ -339,5 +339,24 @@ public abstract class
    *          reveal the corresponding plain-text value.
    */
   public abstract boolean isStorageSchemeSecure();
+
+
+
+  /**
+   * Indicates whether this password storage scheme deliberately
+   * spends a significant amount of CPU to encode or verify a
+   * password, e.g. by iterating a hash function many times.
+   * <BR><BR>
+   * The server runs such schemes in a dedicated, size-limited pool of
+   * threads so that they cannot starve the other operations.
+   *
+   * @return  {@code true} if encoding or verifying a password with
+   *          this scheme is computationally expensive, or
+   *          {@code false} if it is not.
+   */
+  public boolean isComputationallyExpensive()
+  {
+    return false;
+  }
 }
 
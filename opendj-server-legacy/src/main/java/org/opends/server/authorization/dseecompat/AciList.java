@@ -20,6 +20,7 @@ import static org.opends.messages.AccessControlMessages.*;
 import static org.opends.server.authorization.dseecompat.AciHandler.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -47,10 +48,17 @@ public class AciList {
 
 
   /**
-   * A map containing all the ACIs.
-   * We use the copy-on-write technique to avoid locking when reading.
+   * A map containing all the ACIs. It is only accessed while holding the
+   * lock, readers use the {@link #candidateIndex} instead.
    */
-  private volatile DITCacheMap<List<Aci>> aciList = new DITCacheMap<>();
+  private final DITCacheMap<List<Aci>> aciList = new DITCacheMap<>();
+
+  /**
+   * Immutable index of the candidate ACIs, rebuilt from {@link #aciList}
+   * each time it changes. We use the copy-on-write technique to avoid
+   * locking when reading.
+   */
+  private volatile CandidateAciIndex candidateIndex = CandidateAciIndex.EMPTY;
 
   /**
    * Lock to protect internal data structures.
@@ -76,57 +84,20 @@ public class AciList {
    * and are included in the candidate set only if they have no
    * "target" keyword rules, or if the target keyword rule matches for
    * the specified base DN.
+   * <p>
+   * The ancestor chains are precomputed each time the ACI list changes, so
+   * this method does not take any lock and, unless a global ACI applies to
+   * the base DN, returns a shared list without allocating.
    *
    * @param baseDN  The DN to check.
-   * @return A list of candidate ACIs that might be applicable.
+   * @return A read-only list of candidate ACIs that might be applicable.
    */
   public List<Aci> getCandidateAcis(DN baseDN) {
-    List<Aci> candidates = new LinkedList<>();
     if(baseDN == null)
     {
-      return candidates;
-    }
-
-    lock.readLock().lock();
-    try
-    {
-      //Save the baseDN in case we need to evaluate a global ACI.
-      DN entryDN=baseDN;
-      while (baseDN != null) {
-        List<Aci> acis = aciList.get(baseDN);
-        if (acis != null) {
-          //Check if there are global ACIs. Global ACI has a NULL DN.
-          if (baseDN.isRootDN()) {
-            for (Aci aci : acis) {
-              AciTargets targets = aci.getTargets();
-              //If there is a target, evaluate it to see if this ACI should
-              //be included in the candidate set.
-              if (targets != null
-                  && AciTargets.isTargetApplicable(aci, targets, entryDN))
-              {
-                  candidates.add(aci);  //Add this ACI to the candidates.
-              }
-            }
-          } else {
-            candidates.addAll(acis);
-          }
-        }
-        if(baseDN.isRootDN()) {
-          break;
-        }
-        DN parentDN=baseDN.parent();
-        if(parentDN == null) {
-          baseDN=DN.rootDN();
-        } else {
-          baseDN=parentDN;
-        }
-      }
-      return candidates;
-    }
-    finally
-    {
-      lock.readLock().unlock();
+      return Collections.emptyList();
     }
+    return candidateIndex.getCandidateAcis(baseDN);
   }
 
   /**
@@ -156,6 +127,7 @@ public class AciList {
     }
     finally
     {
+      rebuildCandidateIndex();
       lock.writeLock().unlock();
     }
   }
@@ -177,6 +149,7 @@ public class AciList {
     }
     finally
     {
+      rebuildCandidateIndex();
       lock.writeLock().unlock();
     }
   }
@@ -217,6 +190,7 @@ public class AciList {
     }
     finally
     {
+      rebuildCandidateIndex();
       lock.writeLock().unlock();
     }
   }
@@ -306,6 +280,7 @@ public class AciList {
     }
     finally
     {
+      rebuildCandidateIndex();
       lock.writeLock().unlock();
     }
   }
@@ -360,6 +335,7 @@ public class AciList {
     }
     finally
     {
+      rebuildCandidateIndex();
       lock.writeLock().unlock();
     }
   }
@@ -387,6 +363,7 @@ public class AciList {
     }
     finally
     {
+      rebuildCandidateIndex();
       lock.writeLock().unlock();
     }
   }
@@ -431,7 +408,135 @@ public class AciList {
     }
     finally
     {
+      rebuildCandidateIndex();
       lock.writeLock().unlock();
     }
   }
+
+  /**
+   * Publishes a new candidate ACI index reflecting the current content of the
+   * ACI list. Must be called while holding the write lock.
+   */
+  private void rebuildCandidateIndex()
+  {
+    candidateIndex = new CandidateAciIndex(aciList);
+  }
+
+  /**
+   * Immutable, precomputed view of the ACI list. For each DN holding ACIs, the
+   * ACIs of that DN and of all its ancestors are flattened into a single
+   * read-only list (nearest ACIs first), so that finding the candidates of a
+   * DN only requires looking up its nearest ancestor holding ACIs. Global ACIs
+   * are kept apart because their targets must be evaluated against the
+   * target DN.
+   */
+  private static final class CandidateAciIndex
+  {
+    private static final CandidateAciIndex EMPTY = new CandidateAciIndex(new DITCacheMap<List<Aci>>());
+
+    /** The flattened ancestor chains, keyed by the DN holding the nearest ACIs. */
+    private final Map<DN, List<Aci>> chains;
+    /** The global ACIs having a target, the only ones which may apply. */
+    private final List<Aci> targetedGlobalAcis;
+
+    private CandidateAciIndex(DITCacheMap<List<Aci>> aciList)
+    {
+      Map<DN, List<Aci>> flattened = new HashMap<>(aciList.size() * 2);
+      for (DN dn : aciList.keySet())
+      {
+        if (!dn.isRootDN())
+        {
+          flatten(dn, aciList, flattened);
+        }
+      }
+      this.chains = flattened;
+
+      List<Aci> globals = new ArrayList<>();
+      List<Aci> rootAcis = aciList.get(DN.rootDN());
+      if (rootAcis != null)
+      {
+        for (Aci aci : rootAcis)
+        {
+          if (aci.getTargets() != null)
+          {
+            globals.add(aci);
+          }
+        }
+      }
+      this.targetedGlobalAcis = globals;
+    }
+
+    /**
+     * Computes the flattened chain of the provided DN, reusing the chains of
+     * its ancestors which have already been computed.
+     */
+    private static List<Aci> flatten(DN dn, DITCacheMap<List<Aci>> aciList, Map<DN, List<Aci>> flattened)
+    {
+      List<Aci> chain = flattened.get(dn);
+      if (chain != null)
+      {
+        return chain;
+      }
+
+      List<Aci> parentChain = Collections.emptyList();
+      for (DN parentDN = dn.parent(); parentDN != null && !parentDN.isRootDN(); parentDN = parentDN.parent())
+      {
+        if (aciList.containsKey(parentDN))
+        {
+          parentChain = flatten(parentDN, aciList, flattened);
+          break;
+        }
+      }
+
+      List<Aci> acis = aciList.get(dn);
+      if (acis.isEmpty())
+      {
+        chain = parentChain;
+      }
+      else
+      {
+        List<Aci> newChain = new ArrayList<>(acis.size() + parentChain.size());
+        newChain.addAll(acis);
+        newChain.addAll(parentChain);
+        chain = Collections.unmodifiableList(newChain);
+      }
+      flattened.put(dn, chain);
+      return chain;
+    }
+
+    private List<Aci> getCandidateAcis(DN entryDN)
+    {
+      List<Aci> chain = Collections.emptyList();
+      for (DN dn = entryDN; dn != null && !dn.isRootDN(); dn = dn.parent())
+      {
+        List<Aci> acis = chains.get(dn);
+        if (acis != null)
+        {
+          chain = acis;
+          break;
+        }
+      }
+      if (targetedGlobalAcis.isEmpty())
+      {
+        return chain;
+      }
+
+      List<Aci> candidates = null;
+      for (Aci aci : targetedGlobalAcis)
+      {
+        //If there is a target, evaluate it to see if this ACI should
+        //be included in the candidate set.
+        if (AciTargets.isTargetApplicable(aci, aci.getTargets(), entryDN))
+        {
+          if (candidates == null)
+          {
+            candidates = new ArrayList<>(chain.size() + targetedGlobalAcis.size());
+            candidates.addAll(chain);
+          }
+          candidates.add(aci);
+        }
+      }
+      return candidates != null ? candidates : chain;
+    }
+  }
 }
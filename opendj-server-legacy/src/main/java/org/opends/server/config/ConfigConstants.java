@@ -4269,6 +4269,25 @@ public final class ConfigConstants
    */
   public static final String ATTR_TASK_BACKUP_SIGN_HASH =
        NAME_PREFIX_TASK + "backup-sign-hash";
+
+
+
+  /**
+   * The name of the attribute in a backup task definition that specifies
+   * the maximum rate, in kilobytes per second, at which the files should be
+   * read, in order to limit the impact of the backup on the live traffic.
+   */
+  public static final String ATTR_TASK_BACKUP_MAX_THROUGHPUT =
+       NAME_PREFIX_TASK + "backup-max-throughput";
+
+
+
+  /**
+   * The name of the attribute in a backup task definition that specifies
+   * the number of archive files written in parallel for the backup.
+   */
+  public static final String ATTR_TASK_BACKUP_STREAM_COUNT =
+       NAME_PREFIX_TASK + "backup-stream-count";
   /**
    * The name of the attribute in the add schema file task definition that
    * specifies the name of the schema file to be added.
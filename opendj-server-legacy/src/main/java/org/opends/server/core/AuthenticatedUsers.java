@@ -16,18 +16,21 @@
  */
 package org.opends.server.core;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.opends.server.api.ClientConnection;
-import org.opends.server.api.DITCacheMap;
 import org.opends.server.api.plugin.InternalDirectoryServerPlugin;
 import org.opends.server.api.plugin.PluginResult.PostResponse;
 import org.opends.server.types.DisconnectReason;
@@ -48,19 +51,38 @@ import static org.opends.server.api.plugin.PluginType.*;
  * This class also provides a mechanism for detecting changes to authenticated
  * user entries and notifying the corresponding client connections so that they
  * can update their cached versions.
+ * <BR><BR>
+ * Binds and unbinds are frequent, so there is no global lock: the user DNs are
+ * spread over shards according to their hash code, each shard having its own
+ * lock. The number of registered user DNs at or below each DN is also counted,
+ * without locking, so that the operations on entries which are neither an
+ * authenticated user nor one of its superiors are quickly discarded.
  */
 public class AuthenticatedUsers extends InternalDirectoryServerPlugin
 {
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  /** The number of shards, must be a power of two. */
+  private static final int SHARD_COUNT = 64;
+
+  /** A subset of the registered user DNs, with their own lock. */
+  private static final class Shard
+  {
+    /**
+     * The mapping between the authenticated user DNs of this shard and the
+     * associated client connection objects. Guarded by itself.
+     */
+    private final Map<DN, CopyOnWriteArraySet<ClientConnection>> userMap = new HashMap<>();
+  }
+
+  private final Shard[] shards;
+
   /**
-   * The mapping between authenticated user DNs and the associated client
-   * connection objects.
+   * The number of registered user DNs at or below each DN, except the root DN,
+   * DNs without any being absent. Updated without locking since the DNs close
+   * to the root are shared by most users.
    */
-  private final DITCacheMap<CopyOnWriteArraySet<ClientConnection>> userMap;
-
-  /** Lock to protect internal data structures. */
-  private final ReentrantReadWriteLock lock;
+  private final ConcurrentMap<DN, Integer> subtreeUserCounts = new ConcurrentHashMap<>();
 
   /** Dummy configuration DN. */
   private static final String CONFIG_DN = "cn=Authenticated Users,cn=config";
@@ -75,12 +97,21 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
         // can not be authenticated as a user that does not exist yet.
         POST_RESPONSE_MODIFY, POST_RESPONSE_MODIFY_DN, POST_RESPONSE_DELETE),
         true);
-    userMap = new DITCacheMap<>();
-    lock = new ReentrantReadWriteLock();
+    shards = new Shard[SHARD_COUNT];
+    for (int i = 0; i < shards.length; i++)
+    {
+      shards[i] = new Shard();
+    }
 
     DirectoryServer.registerInternalPlugin(this);
   }
 
+  private Shard shard(DN dn)
+  {
+    int h = dn.hashCode();
+    return shards[(h ^ (h >>> 16)) & (SHARD_COUNT - 1)];
+  }
+
   /**
    * Registers the provided user DN and client connection with this object.
    *
@@ -91,25 +122,27 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
    */
   public void put(DN userDN, ClientConnection clientConnection)
   {
-    lock.writeLock().lock();
-    try
+    CopyOnWriteArraySet<ClientConnection> connectionSet = new CopyOnWriteArraySet<>();
+    connectionSet.add(clientConnection);
+    putAll(userDN, connectionSet);
+  }
+
+  private void putAll(DN userDN, CopyOnWriteArraySet<ClientConnection> connections)
+  {
+    final Map<DN, CopyOnWriteArraySet<ClientConnection>> userMap = shard(userDN).userMap;
+    synchronized (userMap)
     {
       CopyOnWriteArraySet<ClientConnection> connectionSet = userMap.get(userDN);
       if (connectionSet == null)
       {
-        connectionSet = new CopyOnWriteArraySet<>();
-        connectionSet.add(clientConnection);
-        userMap.put(userDN, connectionSet);
+        userMap.put(userDN, connections);
+        updateSubtreeUserCounts(userDN, 1);
       }
       else
       {
-        connectionSet.add(clientConnection);
+        connectionSet.addAll(connections);
       }
     }
-    finally
-    {
-      lock.writeLock().unlock();
-    }
   }
 
 
@@ -124,8 +157,8 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
    */
   public void remove(DN userDN, ClientConnection clientConnection)
   {
-    lock.writeLock().lock();
-    try
+    final Map<DN, CopyOnWriteArraySet<ClientConnection>> userMap = shard(userDN).userMap;
+    synchronized (userMap)
     {
       CopyOnWriteArraySet<ClientConnection> connectionSet = userMap.get(userDN);
       if (connectionSet != null)
@@ -134,15 +167,57 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
         if (connectionSet.isEmpty())
         {
           userMap.remove(userDN);
+          updateSubtreeUserCounts(userDN, -1);
         }
       }
     }
-    finally
+  }
+
+
+
+  /**
+   * Must be called while holding the lock of the shard of the user DN, after
+   * adding or removing it.
+   */
+  private void updateSubtreeUserCounts(DN userDN, int delta)
+  {
+    for (DN dn = userDN; dn != null && !dn.isRootDN(); dn = dn.parent())
+    {
+      updateSubtreeUserCount(dn, delta);
+    }
+  }
+
+  private void updateSubtreeUserCount(DN dn, int delta)
+  {
+    while (true)
     {
-      lock.writeLock().unlock();
+      final Integer count = subtreeUserCounts.get(dn);
+      if (count == null)
+      {
+        if (delta <= 0 || subtreeUserCounts.putIfAbsent(dn, delta) == null)
+        {
+          return;
+        }
+      }
+      else
+      {
+        final int newCount = count + delta;
+        if (newCount > 0 ? subtreeUserCounts.replace(dn, count, newCount)
+                         : subtreeUserCounts.remove(dn, count))
+        {
+          return;
+        }
+      }
+      // another user below the same DN has been added or removed concurrently
     }
   }
 
+  private int getSubtreeUserCount(DN dn)
+  {
+    final Integer count = subtreeUserCounts.get(dn);
+    return count != null ? count : 0;
+  }
+
 
 
   /**
@@ -158,14 +233,68 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
    */
   public CopyOnWriteArraySet<ClientConnection> get(DN userDN)
   {
-    lock.readLock().lock();
-    try
+    final Map<DN, CopyOnWriteArraySet<ClientConnection>> userMap = shard(userDN).userMap;
+    synchronized (userMap)
     {
       return userMap.get(userDN);
     }
-    finally
+  }
+
+  /**
+   * Deregisters the user DNs at or below the provided DN.
+   *
+   * @param  baseDN  The base DN of the subtree to deregister.
+   *
+   * @return  The sets of client connections which were authenticated as the
+   *          deregistered user DNs.
+   */
+  private List<CopyOnWriteArraySet<ClientConnection>> removeSubtree(DN baseDN)
+  {
+    final List<CopyOnWriteArraySet<ClientConnection>> removed = new ArrayList<>();
+    final int subtreeUserCount = getSubtreeUserCount(baseDN);
+    if (subtreeUserCount == 0)
     {
-      lock.readLock().unlock();
+      return removed;
+    }
+    if (subtreeUserCount == 1 && removeUser(baseDN, removed))
+    {
+      // Fast path: the subtree only contains the base DN.
+      return removed;
+    }
+
+    for (Shard shard : shards)
+    {
+      synchronized (shard.userMap)
+      {
+        Iterator<Map.Entry<DN, CopyOnWriteArraySet<ClientConnection>>> it = shard.userMap.entrySet().iterator();
+        while (it.hasNext())
+        {
+          Map.Entry<DN, CopyOnWriteArraySet<ClientConnection>> mapEntry = it.next();
+          if (mapEntry.getKey().isSubordinateOrEqualTo(baseDN))
+          {
+            it.remove();
+            updateSubtreeUserCounts(mapEntry.getKey(), -1);
+            removed.add(mapEntry.getValue());
+          }
+        }
+      }
+    }
+    return removed;
+  }
+
+  private boolean removeUser(DN userDN, List<CopyOnWriteArraySet<ClientConnection>> removed)
+  {
+    final Map<DN, CopyOnWriteArraySet<ClientConnection>> userMap = shard(userDN).userMap;
+    synchronized (userMap)
+    {
+      CopyOnWriteArraySet<ClientConnection> connectionSet = userMap.remove(userDN);
+      if (connectionSet == null)
+      {
+        return false;
+      }
+      updateSubtreeUserCounts(userDN, -1);
+      removed.add(connectionSet);
+      return true;
     }
   }
 
@@ -180,18 +309,7 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
 
     // Identify any client connections that may be authenticated
     // or authorized as the user whose entry has been deleted and terminate them
-    Set<CopyOnWriteArraySet<ClientConnection>> arraySet = new HashSet<>();
-    lock.writeLock().lock();
-    try
-    {
-      userMap.removeSubtree(entryDN, arraySet);
-    }
-    finally
-    {
-      lock.writeLock().unlock();
-    }
-
-    for (CopyOnWriteArraySet<ClientConnection> connectionSet : arraySet)
+    for (CopyOnWriteArraySet<ClientConnection> connectionSet : removeSubtree(entryDN))
     {
       for (ClientConnection conn : connectionSet)
       {
@@ -204,15 +322,7 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
 
   private boolean operationDoesNotTargetAuthenticatedUser(final DN entryDN)
   {
-    lock.readLock().lock();
-    try
-    {
-      return !userMap.containsSubtree(entryDN);
-    }
-    finally
-    {
-      lock.readLock().unlock();
-    }
+    return getSubtreeUserCount(entryDN) == 0;
   }
 
   @Override
@@ -229,27 +339,19 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
     // or authorized as the user whose entry has been modified
     // and update them with the latest version of the entry
     // including any virtual attributes.
-    lock.writeLock().lock();
-    try
+    CopyOnWriteArraySet<ClientConnection> connectionSet = get(oldEntry.getName());
+    if (connectionSet != null)
     {
-      CopyOnWriteArraySet<ClientConnection> connectionSet = userMap.get(oldEntry.getName());
-      if (connectionSet != null)
+      Entry newEntry = null;
+      for (ClientConnection conn : connectionSet)
       {
-        Entry newEntry = null;
-        for (ClientConnection conn : connectionSet)
+        if (newEntry == null)
         {
-          if (newEntry == null)
-          {
-            newEntry = op.getModifiedEntry().duplicate(true);
-          }
-          conn.updateAuthenticationInfo(oldEntry, newEntry);
+          newEntry = op.getModifiedEntry().duplicate(true);
         }
+        conn.updateAuthenticationInfo(oldEntry, newEntry);
       }
     }
-    finally
-    {
-      lock.writeLock().unlock();
-    }
     return PostResponse.continueOperationProcessing();
   }
 
@@ -270,79 +372,69 @@ public class AuthenticatedUsers extends InternalDirectoryServerPlugin
     // Identify any client connections that may be authenticated
     // or authorized as the user whose entry has been modified
     // and update them with the latest version of the entry.
-    lock.writeLock().lock();
-    try
+    for (CopyOnWriteArraySet<ClientConnection> connectionSet : removeSubtree(oldDN))
     {
-      final Set<CopyOnWriteArraySet<ClientConnection>> arraySet = new HashSet<>();
-      userMap.removeSubtree(oldEntry.getName(), arraySet);
-      for (CopyOnWriteArraySet<ClientConnection> connectionSet : arraySet)
+      DN authNDN = null;
+      DN authZDN = null;
+      DN newAuthNDN = null;
+      DN newAuthZDN = null;
+      CopyOnWriteArraySet<ClientConnection> newAuthNSet = null;
+      CopyOnWriteArraySet<ClientConnection> newAuthZSet = null;
+      for (ClientConnection conn : connectionSet)
       {
-        DN authNDN = null;
-        DN authZDN = null;
-        DN newAuthNDN = null;
-        DN newAuthZDN = null;
-        CopyOnWriteArraySet<ClientConnection> newAuthNSet = null;
-        CopyOnWriteArraySet<ClientConnection> newAuthZSet = null;
-        for (ClientConnection conn : connectionSet)
+        if (authNDN == null)
         {
-          if (authNDN == null)
+          authNDN = conn.getAuthenticationInfo().getAuthenticationDN();
+          try
           {
-            authNDN = conn.getAuthenticationInfo().getAuthenticationDN();
-            try
-            {
-              newAuthNDN = authNDN.rename(oldDN, newDN);
-            }
-            catch (Exception e)
-            {
-              // Should not happen.
-              logger.traceException(e);
-            }
+            newAuthNDN = authNDN.rename(oldDN, newDN);
           }
-          if (authZDN == null)
+          catch (Exception e)
           {
-            authZDN = conn.getAuthenticationInfo().getAuthorizationDN();
-            try
-            {
-              newAuthZDN = authZDN.rename(oldDN, newDN);
-            }
-            catch (Exception e)
-            {
-              // Should not happen.
-              logger.traceException(e);
-            }
+            // Should not happen.
+            logger.traceException(e);
           }
-          if (newAuthNDN != null && authNDN != null && authNDN.isSubordinateOrEqualTo(oldEntry.getName()))
+        }
+        if (authZDN == null)
+        {
+          authZDN = conn.getAuthenticationInfo().getAuthorizationDN();
+          try
           {
-            if (newAuthNSet == null)
-            {
-              newAuthNSet = new CopyOnWriteArraySet<>();
-            }
-            conn.getAuthenticationInfo().setAuthenticationDN(newAuthNDN);
-            newAuthNSet.add(conn);
+            newAuthZDN = authZDN.rename(oldDN, newDN);
           }
-          if (newAuthZDN != null && authZDN != null && authZDN.isSubordinateOrEqualTo(oldEntry.getName()))
+          catch (Exception e)
           {
-            if (newAuthZSet == null)
-            {
-              newAuthZSet = new CopyOnWriteArraySet<>();
-            }
-            conn.getAuthenticationInfo().setAuthorizationDN(newAuthZDN);
-            newAuthZSet.add(conn);
+            // Should not happen.
+            logger.traceException(e);
           }
         }
-        if (newAuthNDN != null && newAuthNSet != null)
+        if (newAuthNDN != null && authNDN != null && authNDN.isSubordinateOrEqualTo(oldEntry.getName()))
         {
-          userMap.put(newAuthNDN, newAuthNSet);
+          if (newAuthNSet == null)
+          {
+            newAuthNSet = new CopyOnWriteArraySet<>();
+          }
+          conn.getAuthenticationInfo().setAuthenticationDN(newAuthNDN);
+          newAuthNSet.add(conn);
         }
-        if (newAuthZDN != null && newAuthZSet != null)
+        if (newAuthZDN != null && authZDN != null && authZDN.isSubordinateOrEqualTo(oldEntry.getName()))
         {
-          userMap.put(newAuthZDN, newAuthZSet);
+          if (newAuthZSet == null)
+          {
+            newAuthZSet = new CopyOnWriteArraySet<>();
+          }
+          conn.getAuthenticationInfo().setAuthorizationDN(newAuthZDN);
+          newAuthZSet.add(conn);
         }
       }
-    }
-    finally
-    {
-      lock.writeLock().unlock();
+      if (newAuthNDN != null && newAuthNSet != null)
+      {
+        putAll(newAuthNDN, newAuthNSet);
+      }
+      if (newAuthZDN != null && newAuthZSet != null)
+      {
+        putAll(newAuthZDN, newAuthZSet);
+      }
     }
     return PostResponse.continueOperationProcessing();
   }
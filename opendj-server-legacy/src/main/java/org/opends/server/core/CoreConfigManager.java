@@ -136,6 +136,18 @@ public class CoreConfigManager implements ConfigurationChangeListener<GlobalCfg>
     private long maxAllowedConnections;
     /** The maximum number of concurrent persistent searches. */
     private int maxPSearches;
+    /** The maximum number of change notifications waiting to be sent to a persistent search client. */
+    private int psearchQueueSize;
+    /** What to do when a persistent search client has too many change notifications waiting. */
+    private GlobalCfgDefn.PsearchQueueOverflowBehavior psearchQueueOverflowBehavior;
+    /** The number of threads hashing passwords with expensive storage schemes. */
+    private int passwordHashingThreads;
+    /** The maximum number of password hashings waiting for a thread. */
+    private int passwordHashingQueueSize;
+    /** The maximum number of users in the verified credential cache, 0 when the cache is disabled. */
+    private int verifiedCredentialCacheSize;
+    /** How long, in milliseconds, a verified credential is cached. */
+    private long verifiedCredentialCacheTTL;
     /** The maximum size that internal buffers will be allowed to grow to until they are trimmed. */
     private int maxInternalBufferSize = DEFAULT_MAX_INTERNAL_BUFFER_SIZE;
   }
@@ -218,6 +230,14 @@ public class CoreConfigManager implements ConfigurationChangeListener<GlobalCfg>
     long maxAllowedConnections = globalConfig.getMaxAllowedClientConnections();
     core.maxAllowedConnections = (maxAllowedConnections > 0) ? maxAllowedConnections : -1;
     core.maxPSearches = globalConfig.getMaxPsearches();
+    core.psearchQueueSize = globalConfig.getPsearchQueueSize();
+    core.psearchQueueOverflowBehavior = globalConfig.getPsearchQueueOverflowBehavior();
+    Integer passwordHashingThreads = globalConfig.getPasswordHashingThreads();
+    core.passwordHashingThreads = passwordHashingThreads != null
+        ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+    core.passwordHashingQueueSize = globalConfig.getPasswordHashingQueueSize();
+    core.verifiedCredentialCacheSize = globalConfig.getVerifiedCredentialCacheSize();
+    core.verifiedCredentialCacheTTL = globalConfig.getVerifiedCredentialCacheTTL();
     core.maxInternalBufferSize = (int) globalConfig.getMaxInternalBufferSize();
 
     // For tools, common audit may not be available
@@ -624,6 +644,72 @@ public class CoreConfigManager implements ConfigurationChangeListener<GlobalCfg>
     return coreAttributes.maxPSearches;
   }
 
+  /**
+   * Retrieves the maximum number of change notifications which may be waiting
+   * to be sent to the client of a persistent search.
+   *
+   * @return the maximum number of change notifications waiting to be sent
+   */
+  public int getPSearchQueueSize()
+  {
+    return coreAttributes.psearchQueueSize;
+  }
+
+  /**
+   * Retrieves what to do when the client of a persistent search has more change
+   * notifications waiting to be sent than allowed.
+   *
+   * @return the persistent search queue overflow behavior
+   */
+  public GlobalCfgDefn.PsearchQueueOverflowBehavior getPSearchQueueOverflowBehavior()
+  {
+    return coreAttributes.psearchQueueOverflowBehavior;
+  }
+
+  /**
+   * Retrieves the number of threads dedicated to hashing passwords with
+   * computationally expensive storage schemes.
+   *
+   * @return the number of password hashing threads
+   */
+  public int getPasswordHashingThreads()
+  {
+    return coreAttributes.passwordHashingThreads;
+  }
+
+  /**
+   * Retrieves the maximum number of password hashings which may be waiting for
+   * a password hashing thread.
+   *
+   * @return the maximum number of waiting password hashings
+   */
+  public int getPasswordHashingQueueSize()
+  {
+    return coreAttributes.passwordHashingQueueSize;
+  }
+
+  /**
+   * Retrieves the maximum number of users whose last verified password is
+   * cached.
+   *
+   * @return the maximum size of the verified credential cache, 0 when the cache
+   *         is disabled
+   */
+  public int getVerifiedCredentialCacheSize()
+  {
+    return coreAttributes.verifiedCredentialCacheSize;
+  }
+
+  /**
+   * Retrieves how long a verified password is cached.
+   *
+   * @return the time to live of the verified credentials, in milliseconds
+   */
+  public long getVerifiedCredentialCacheTTL()
+  {
+    return coreAttributes.verifiedCredentialCacheTTL;
+  }
+
   /**
    * Retrieves the DN of the configuration entry for the identity mapper that
    * should be used in conjunction with proxied authorization V2 controls.
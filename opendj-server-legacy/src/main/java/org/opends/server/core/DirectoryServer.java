@@ -130,6 +130,7 @@ import org.opends.server.loggers.RotationPolicy;
 import org.opends.server.loggers.TextErrorLogPublisher;
 import org.opends.server.loggers.TextWriter;
 import org.opends.server.monitors.ConnectionHandlerMonitor;
+import org.opends.server.monitors.PasswordHashingMonitor;
 import org.opends.server.protocols.internal.InternalClientConnection;
 import org.opends.server.protocols.internal.InternalConnectionHandler;
 import org.opends.server.schema.SchemaHandler;
@@ -223,6 +224,10 @@ public final class DirectoryServer
   private AuthenticatedUsers authenticatedUsers;
   /** The configuration manager that will handle the server backends. */
   private BackendConfigManager backendConfigManager;
+  /** The pool hashing the passwords of the computationally expensive password storage schemes. */
+  private final PasswordHashingPool passwordHashingPool = new PasswordHashingPool();
+  /** The cache of the passwords recently verified with computationally expensive storage schemes. */
+  private final VerifiedCredentialCache verifiedCredentialCache = new VerifiedCredentialCache();
 
   /** Indicates whether the server has been bootstrapped. */
   private boolean isBootstrapped;
@@ -1811,6 +1816,32 @@ public final class DirectoryServer
 
     authenticationPolicyConfigManager = new PasswordPolicyConfigManager(serverContext);
     authenticationPolicyConfigManager.initializeAuthenticationPolicies();
+
+    PasswordHashingMonitor monitor = new PasswordHashingMonitor(passwordHashingPool);
+    monitor.initializeMonitorProvider(null);
+    registerMonitorProvider(monitor);
+  }
+
+  /**
+   * Retrieves the pool hashing the passwords of the computationally expensive password storage
+   * schemes.
+   *
+   * @return  The password hashing pool for the Directory Server.
+   */
+  public static PasswordHashingPool getPasswordHashingPool()
+  {
+    return directoryServer.passwordHashingPool;
+  }
+
+  /**
+   * Retrieves the cache of the passwords recently verified with computationally
+   * expensive password storage schemes.
+   *
+   * @return  The verified credential cache for the Directory Server.
+   */
+  public static VerifiedCredentialCache getVerifiedCredentialCache()
+  {
+    return directoryServer.verifiedCredentialCache;
   }
 
   /**
@@ -2477,6 +2508,7 @@ public final class DirectoryServer
         oldPolicy.finalizeAuthenticationPolicy();
       }
     }
+    directoryServer.verifiedCredentialCache.clear();
   }
 
   /**
@@ -2506,6 +2538,7 @@ public final class DirectoryServer
         oldPolicy.finalizeAuthenticationPolicy();
       }
     }
+    directoryServer.verifiedCredentialCache.clear();
   }
 
   /**
@@ -4108,6 +4141,8 @@ public final class DirectoryServer
       directoryServer.workQueue.finalizeWorkQueue(reason);
       directoryServer.workQueue.waitUntilIdle(ServerShutdownMonitor.WAIT_TIME);
     }
+    directoryServer.passwordHashingPool.shutdown();
+    directoryServer.verifiedCredentialCache.clear();
 
     // shutdown replication
     for (SynchronizationProvider<?> provider : directoryServer.synchronizationProviders)
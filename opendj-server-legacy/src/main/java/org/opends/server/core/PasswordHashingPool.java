@@ -0,0 +1,335 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import static org.opends.messages.CoreMessages.*;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.forgerock.opendj.ldap.ResultCode;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.api.PasswordStorageScheme;
+import org.opends.server.api.WorkQueue;
+import org.opends.server.types.DirectoryException;
+
+/**
+ * Runs the password verifications and encodings of the computationally expensive password storage
+ * schemes on a dedicated, size-limited pool of threads.
+ * <p>
+ * The calling thread waits for the result, but at most {@code password-hashing-threads} passwords
+ * are hashed concurrently, so that a burst of binds cannot use all the CPU of the server. Waiting
+ * hashings are served in arrival order, and when more than {@code password-hashing-queue-size} are
+ * waiting, new ones are rejected with a {@link ResultCode#BUSY} result instead of queuing
+ * indefinitely.
+ * <p>
+ * Since each running or waiting hashing holds the worker thread which requested it, they may
+ * never hold more than half of the worker threads, whatever the configured queue size, so that a
+ * burst of binds cannot starve the other operations.
+ * <p>
+ * The latency of the hashings which were not rejected, including the time spent waiting for a
+ * thread, is recorded per password storage scheme, whether the scheme is expensive or not.
+ */
+public final class PasswordHashingPool
+{
+  /** Upper bounds, in milliseconds, of the latency histogram buckets, the last bucket being unbounded. */
+  private static final long[] LATENCY_BUCKET_BOUNDS_MS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000 };
+
+  /** The hashing statistics of a password storage scheme. */
+  public static final class SchemeStatistics
+  {
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_MS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private void record(long nanos)
+    {
+      count.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+      int bucket = 0;
+      while (bucket < LATENCY_BUCKET_BOUNDS_MS.length && millis >= LATENCY_BUCKET_BOUNDS_MS[bucket])
+      {
+        bucket++;
+      }
+      latencyBuckets.incrementAndGet(bucket);
+    }
+
+    /**
+     * Returns the number of passwords hashed with the scheme.
+     *
+     * @return the number of passwords hashed with the scheme
+     */
+    public long getCount()
+    {
+      return count.get();
+    }
+
+    /**
+     * Returns the total time spent hashing passwords with the scheme, in milliseconds.
+     *
+     * @return the total time spent hashing passwords with the scheme, in milliseconds
+     */
+    public long getTotalTimeMillis()
+    {
+      return TimeUnit.NANOSECONDS.toMillis(totalNanos.get());
+    }
+
+    /**
+     * Returns the latency histogram of the scheme, as a string per bucket in the form
+     * {@code <upper bound>ms:<count>}, the last bucket being {@code inf:<count>}.
+     *
+     * @return the latency histogram of the scheme
+     */
+    public String[] getLatencyHistogram()
+    {
+      final String[] histogram = new String[latencyBuckets.length()];
+      for (int i = 0; i < histogram.length; i++)
+      {
+        final String bound = i < LATENCY_BUCKET_BOUNDS_MS.length ? LATENCY_BUCKET_BOUNDS_MS[i] + "ms" : "inf";
+        histogram[i] = bound + ":" + latencyBuckets.get(i);
+      }
+      return histogram;
+    }
+  }
+
+  private final Map<String, SchemeStatistics> statistics = new ConcurrentHashMap<>();
+  /** The number of hashings running or waiting for a thread. */
+  private final AtomicInteger pendingHashings = new AtomicInteger();
+  private final AtomicLong rejectedHashings = new AtomicLong();
+  /** Created on first use, guarded by this. */
+  private ThreadPoolExecutor executor;
+  private boolean isShutdown;
+
+  /**
+   * Verifies or encodes a password with the provided task, which runs on a password hashing thread
+   * if the scheme is computationally expensive, and on the calling thread otherwise.
+   *
+   * @param scheme
+   *          the password storage scheme verifying or encoding the password
+   * @param task
+   *          the verification or encoding of the password
+   * @param <T>
+   *          the type of the result of the task
+   * @return the result of the task
+   * @throws DirectoryException
+   *           if the server is too busy to hash the password, or if the task failed
+   */
+  public <T> T execute(PasswordStorageScheme<?> scheme, Callable<T> task) throws DirectoryException
+  {
+    if (!scheme.isComputationallyExpensive())
+    {
+      final long startTime = System.nanoTime();
+      try
+      {
+        return call(task);
+      }
+      finally
+      {
+        getStatistics(scheme.getStorageSchemeName()).record(System.nanoTime() - startTime);
+      }
+    }
+    return executeOnPool(scheme, task);
+  }
+
+  private <T> T executeOnPool(PasswordStorageScheme<?> scheme, Callable<T> task) throws DirectoryException
+  {
+    final int threads = Math.max(1, DirectoryServer.getCoreConfigManager().getPasswordHashingThreads());
+    final int maxPendingHashings = getMaxPendingHashingCount();
+    if (pendingHashings.incrementAndGet() > maxPendingHashings)
+    {
+      pendingHashings.decrementAndGet();
+      rejectedHashings.incrementAndGet();
+      throw new DirectoryException(ResultCode.BUSY,
+          ERR_PASSWORD_HASHING_BUSY.get(scheme.getStorageSchemeName(), maxPendingHashings));
+    }
+    final long startTime = System.nanoTime();
+    try
+    {
+      final ThreadPoolExecutor pool = getExecutor(threads);
+      if (pool == null)
+      {
+        // the server is shutting down
+        return call(task);
+      }
+      final Future<T> future = pool.submit(task);
+      try
+      {
+        return future.get();
+      }
+      catch (InterruptedException e)
+      {
+        future.cancel(false);
+        Thread.currentThread().interrupt();
+        throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+            ERR_PASSWORD_HASHING_INTERRUPTED.get(scheme.getStorageSchemeName()), e);
+      }
+      catch (ExecutionException e)
+      {
+        throw rethrow(e.getCause());
+      }
+    }
+    finally
+    {
+      pendingHashings.decrementAndGet();
+      getStatistics(scheme.getStorageSchemeName()).record(System.nanoTime() - startTime);
+    }
+  }
+
+  private static <T> T call(Callable<T> task) throws DirectoryException
+  {
+    try
+    {
+      return task.call();
+    }
+    catch (Exception e)
+    {
+      throw rethrow(e);
+    }
+  }
+
+  private static DirectoryException rethrow(Throwable t) throws DirectoryException
+  {
+    if (t instanceof DirectoryException)
+    {
+      throw (DirectoryException) t;
+    }
+    else if (t instanceof RuntimeException)
+    {
+      throw (RuntimeException) t;
+    }
+    else if (t instanceof Error)
+    {
+      throw (Error) t;
+    }
+    throw new IllegalStateException(t);
+  }
+
+  private synchronized ThreadPoolExecutor getExecutor(int threads)
+  {
+    if (isShutdown)
+    {
+      return null;
+    }
+    if (executor == null)
+    {
+      executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new DirectoryThread.Factory("Password Hashing Thread"));
+      executor.allowCoreThreadTimeOut(true);
+    }
+    else if (executor.getMaximumPoolSize() != threads)
+    {
+      // the core pool size may never exceed the maximum pool size
+      if (threads > executor.getMaximumPoolSize())
+      {
+        executor.setMaximumPoolSize(threads);
+        executor.setCorePoolSize(threads);
+      }
+      else
+      {
+        executor.setCorePoolSize(threads);
+        executor.setMaximumPoolSize(threads);
+      }
+    }
+    return executor;
+  }
+
+  private SchemeStatistics getStatistics(String schemeName)
+  {
+    SchemeStatistics schemeStatistics = statistics.get(schemeName);
+    if (schemeStatistics == null)
+    {
+      final SchemeStatistics newStatistics = new SchemeStatistics();
+      schemeStatistics = statistics.putIfAbsent(schemeName, newStatistics);
+      if (schemeStatistics == null)
+      {
+        schemeStatistics = newStatistics;
+      }
+    }
+    return schemeStatistics;
+  }
+
+  /**
+   * Returns the hashing statistics of the password storage schemes which have been used so far,
+   * indexed by scheme name.
+   *
+   * @return the hashing statistics of the password storage schemes
+   */
+  public Map<String, SchemeStatistics> getStatistics()
+  {
+    return statistics;
+  }
+
+  /**
+   * Returns the number of hashings running on a password hashing thread or waiting for one.
+   *
+   * @return the number of hashings running or waiting
+   */
+  public int getPendingHashingCount()
+  {
+    return pendingHashings.get();
+  }
+
+  /**
+   * Returns the maximum number of hashings which may be running on a password hashing thread or
+   * waiting for one, beyond which new ones are rejected.
+   *
+   * @return the maximum number of hashings running or waiting
+   */
+  public int getMaxPendingHashingCount()
+  {
+    final CoreConfigManager config = DirectoryServer.getCoreConfigManager();
+    final int maxPendingHashings =
+        Math.max(1, config.getPasswordHashingThreads()) + config.getPasswordHashingQueueSize();
+    final WorkQueue<?> workQueue = DirectoryServer.getWorkQueue();
+    if (workQueue == null)
+    {
+      return maxPendingHashings;
+    }
+    // leave at least half of the worker threads to the operations which do not hash passwords
+    return Math.min(maxPendingHashings, Math.max(1, workQueue.getNumWorkerThreads() / 2));
+  }
+
+  /**
+   * Returns the number of hashings rejected because too many were already waiting.
+   *
+   * @return the number of rejected hashings
+   */
+  public long getRejectedHashingCount()
+  {
+    return rejectedHashings.get();
+  }
+
+  /** Terminates the password hashing threads. Subsequent hashings run on the calling thread. */
+  public synchronized void shutdown()
+  {
+    isShutdown = true;
+    if (executor != null)
+    {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+}
@@ -111,6 +111,7 @@ public final class PasswordPolicyFactory implements
       try
       {
         updateConfiguration(configuration, true);
+        DirectoryServer.getVerifiedCredentialCache().clear();
       }
       catch (ConfigException ce)
       {
@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.LocalizableMessageBuilder;
@@ -1949,7 +1950,7 @@ public final class PasswordPolicyState extends AuthenticationPolicyState
   }
 
   @Override
-  public boolean passwordMatches(ByteString password)
+  public boolean passwordMatches(ByteString password) throws DirectoryException
   {
     List<Attribute> attrList = userEntry.getAllAttributes(passwordPolicy.getPasswordAttribute());
     if (attrList.isEmpty())
@@ -1983,6 +1984,19 @@ public final class PasswordPolicyState extends AuthenticationPolicyState
             continue;
           }
 
+          final boolean isCacheable = scheme.isComputationallyExpensive();
+          final VerifiedCredentialCache cache = DirectoryServer.getVerifiedCredentialCache();
+          if (isCacheable && cache.isVerified(userEntry.getName(), v, password))
+          {
+            if (logger.isTraceEnabled())
+            {
+              logger.trace("Returning true for user %s because the provided password was recently verified " +
+                      "against a value encoded with scheme %s", userDNString, schemeName);
+            }
+
+            return true;
+          }
+
           if (passwordMatches(password, pwComponents, scheme))
           {
             if (logger.isTraceEnabled())
@@ -1991,9 +2005,23 @@ public final class PasswordPolicyState extends AuthenticationPolicyState
                       "encoded with scheme %s", userDNString, schemeName);
             }
 
+            if (isCacheable)
+            {
+              cache.put(userEntry.getName(), v, password);
+            }
             return true;
           }
         }
+        catch (DirectoryException e)
+        {
+          if (e.getResultCode() == ResultCode.BUSY)
+          {
+            // the password hashing pool is full, so do not try the other password values
+            throw e;
+          }
+          logger.traceException(e, "An error occurred while attempting to process a password value for user %s",
+              userDNString);
+        }
         catch (Exception e)
         {
           logger.traceException(e, "An error occurred while attempting to process a password value for user %s",
@@ -2053,22 +2081,10 @@ public final class PasswordPolicyState extends AuthenticationPolicyState
   {
     List<PasswordStorageScheme<?>> schemes = passwordPolicy.getDefaultPasswordStorageSchemes();
     List<ByteString> encodedPasswords = new ArrayList<>(schemes.size());
-
-    if (passwordPolicy.isAuthPasswordSyntax())
+    for (PasswordStorageScheme<?> s : schemes)
     {
-      for (PasswordStorageScheme<?> s : schemes)
-      {
-        encodedPasswords.add(s.encodeAuthPassword(password));
-      }
+      encodedPasswords.add(encodePassword(password, s));
     }
-    else
-    {
-      for (PasswordStorageScheme<?> s : schemes)
-      {
-        encodedPasswords.add(s.encodePasswordWithScheme(password));
-      }
-    }
-
     return encodedPasswords;
   }
 
@@ -2232,18 +2248,34 @@ public final class PasswordPolicyState extends AuthenticationPolicyState
         : DirectoryServer.getPasswordStorageScheme(schemeName);
   }
 
-  private boolean passwordMatches(ByteString password, String[] pwComponents, PasswordStorageScheme<?> scheme)
+  private boolean passwordMatches(final ByteString password, final String[] pwComponents,
+      final PasswordStorageScheme<?> scheme) throws DirectoryException
   {
-    return passwordPolicy.isAuthPasswordSyntax()
-        ? scheme.authPasswordMatches(password, pwComponents[1], pwComponents[2])
-        : scheme.passwordMatches(password, ByteString.valueOfUtf8(pwComponents[1]));
+    return DirectoryServer.getPasswordHashingPool().execute(scheme, new Callable<Boolean>()
+    {
+      @Override
+      public Boolean call()
+      {
+        return passwordPolicy.isAuthPasswordSyntax()
+            ? scheme.authPasswordMatches(password, pwComponents[1], pwComponents[2])
+            : scheme.passwordMatches(password, ByteString.valueOfUtf8(pwComponents[1]));
+      }
+    });
   }
 
-  private ByteString encodePassword(ByteString password, PasswordStorageScheme<?> s) throws DirectoryException
+  private ByteString encodePassword(final ByteString password, final PasswordStorageScheme<?> s)
+      throws DirectoryException
   {
-    return passwordPolicy.isAuthPasswordSyntax()
-        ? s.encodeAuthPassword(password)
-        : s.encodePasswordWithScheme(password);
+    return DirectoryServer.getPasswordHashingPool().execute(s, new Callable<ByteString>()
+    {
+      @Override
+      public ByteString call() throws DirectoryException
+      {
+        return passwordPolicy.isAuthPasswordSyntax()
+            ? s.encodeAuthPassword(password)
+            : s.encodePasswordWithScheme(password);
+      }
+    });
   }
 
   /**
@@ -2265,8 +2297,11 @@ public final class PasswordPolicyState extends AuthenticationPolicyState
    *
    * @return  {@code true} if the provided password is equal to any of the current passwords or any of the passwords
    *          in the history, or {@code false} if not.
+   *
+   * @throws  DirectoryException  If the server is too busy to compare the provided password with the current
+   *                              passwords.
    */
-  public boolean isPasswordInHistory(ByteString password)
+  public boolean isPasswordInHistory(ByteString password) throws DirectoryException
   {
     if (! maintainHistory())
     {
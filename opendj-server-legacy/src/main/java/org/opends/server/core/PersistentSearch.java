@@ -21,6 +21,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.opends.server.controls.EntryChangeNotificationControl;
@@ -118,8 +119,12 @@ public final class PersistentSearch
   /** The set of change types to send to the client. */
   private final Set<PersistentSearchChangeType> changeTypes;
 
-  /** Indicates whether this persistent search has already been aborted. */
-  private boolean isCancelled;
+  /**
+   * Indicates whether this persistent search has already been aborted. Only
+   * updated while holding the class lock, but read without it by the threads
+   * sending the change notifications.
+   */
+  private volatile boolean isCancelled;
 
   /** Indicates whether entries returned should include the entry change notification control. */
   private final boolean returnECs;
@@ -228,12 +233,35 @@ public final class PersistentSearch
    *          The entry that was added.
    */
   public void processAdd(Entry entry)
+  {
+    sendEntryIfMatched(entry, matchAdd(entry));
+  }
+
+  /**
+   * Returns the controls to send with the added entry if the client must be
+   * notified of its addition.
+   *
+   * @param entry
+   *          The entry that was added.
+   * @return the controls to send with the entry, or {@code null} if the client
+   *         must not be notified
+   */
+  List<Control> matchAdd(Entry entry)
   {
     if (changeTypes.contains(ADD)
         && isInScope(entry.getName())
         && matchesFilter(entry))
     {
-      sendEntry(entry, createControls(ADD, null));
+      return createControls(ADD, null);
+    }
+    return null;
+  }
+
+  private void sendEntryIfMatched(Entry entry, List<Control> entryControls)
+  {
+    if (entryControls != null)
+    {
+      sendEntry(entry, entryControls);
     }
   }
 
@@ -283,13 +311,28 @@ public final class PersistentSearch
    *          The entry that was deleted.
    */
   public void processDelete(Entry entry)
+  {
+    sendEntryIfMatched(entry, matchDelete(entry));
+  }
+
+  /**
+   * Returns the controls to send with the deleted entry if the client must be
+   * notified of its deletion.
+   *
+   * @param entry
+   *          The entry that was deleted.
+   * @return the controls to send with the entry, or {@code null} if the client
+   *         must not be notified
+   */
+  List<Control> matchDelete(Entry entry)
   {
     if (changeTypes.contains(DELETE)
         && isInScope(entry.getName())
         && matchesFilter(entry))
     {
-      sendEntry(entry, createControls(DELETE, null));
+      return createControls(DELETE, null);
     }
+    return null;
   }
 
   /**
@@ -312,13 +355,30 @@ public final class PersistentSearch
    *          The entry before it was modified.
    */
   public void processModify(Entry entry, Entry oldEntry)
+  {
+    sendEntryIfMatched(entry, matchModify(entry, oldEntry));
+  }
+
+  /**
+   * Returns the controls to send with the modified entry if the client must be
+   * notified of its modification.
+   *
+   * @param entry
+   *          The entry after it was modified.
+   * @param oldEntry
+   *          The entry before it was modified.
+   * @return the controls to send with the entry, or {@code null} if the client
+   *         must not be notified
+   */
+  List<Control> matchModify(Entry entry, Entry oldEntry)
   {
     if (changeTypes.contains(MODIFY)
         && isInScopeForModify(oldEntry.getName())
         && anyMatchesFilter(entry, oldEntry))
     {
-      sendEntry(entry, createControls(MODIFY, null));
+      return createControls(MODIFY, null);
     }
+    return null;
   }
 
   private boolean isInScopeForModify(final DN dn)
@@ -353,13 +413,30 @@ public final class PersistentSearch
    *          The DN of the entry before it was renamed.
    */
   public void processModifyDN(Entry entry, DN oldDN)
+  {
+    sendEntryIfMatched(entry, matchModifyDN(entry, oldDN));
+  }
+
+  /**
+   * Returns the controls to send with the renamed entry if the client must be
+   * notified of its renaming.
+   *
+   * @param entry
+   *          The entry after it was renamed.
+   * @param oldDN
+   *          The DN of the entry before it was renamed.
+   * @return the controls to send with the entry, or {@code null} if the client
+   *         must not be notified
+   */
+  List<Control> matchModifyDN(Entry entry, DN oldDN)
   {
     if (changeTypes.contains(MODIFY_DN)
         && isAnyInScopeForModify(entry, oldDN)
         && matchesFilter(entry))
     {
-      sendEntry(entry, createControls(MODIFY_DN, oldDN));
+      return createControls(MODIFY_DN, oldDN);
     }
+    return null;
   }
 
   private boolean isAnyInScopeForModify(Entry entry, DN oldDN)
@@ -384,7 +461,16 @@ public final class PersistentSearch
     return Collections.emptyList();
   }
 
-  private void sendEntry(Entry entry, List<Control> entryControls)
+  /**
+   * Sends the provided entry to the client, cancelling this persistent search
+   * if it cannot be sent.
+   *
+   * @param entry
+   *          The entry to send.
+   * @param entryControls
+   *          The controls to send with the entry.
+   */
+  void sendEntry(Entry entry, List<Control> entryControls)
   {
     try
     {
@@ -411,6 +497,39 @@ public final class PersistentSearch
     }
   }
 
+  /**
+   * Cancels this persistent search and sends the provided result to its client.
+   *
+   * @param resultCode
+   *          The result code to send to the client.
+   * @param message
+   *          The error message to send to the client.
+   */
+  void terminate(ResultCode resultCode, LocalizableMessage message)
+  {
+    cancel();
+    try
+    {
+      searchOperation.setResultCode(resultCode);
+      searchOperation.appendErrorMessage(message);
+      searchOperation.sendSearchResultDone();
+    }
+    catch (Exception e)
+    {
+      logger.traceException(e);
+    }
+  }
+
+  /**
+   * Indicates whether this persistent search has been cancelled.
+   *
+   * @return {@code true} if this persistent search has been cancelled
+   */
+  boolean isCancelled()
+  {
+    return isCancelled;
+  }
+
   /**
    * Registers a cancellation callback with this persistent search.
    * The cancellation callback will be notified when this persistent
@@ -0,0 +1,550 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import static org.opends.messages.CoreMessages.*;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.server.config.meta.GlobalCfgDefn.PsearchQueueOverflowBehavior;
+import org.opends.server.api.DirectoryThread;
+import org.opends.server.types.Control;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+
+/**
+ * Notifies the persistent searches registered with a backend of the changes made to its entries.
+ * <p>
+ * The persistent searches are indexed by their base DN, so that a change is only evaluated against
+ * the persistent searches whose base DN is the changed entry or one of its superiors. The evaluation
+ * is done by a dedicated thread rather than by the thread which performed the change, and the
+ * matching entries are queued for each persistent search in a bounded queue. The queues are drained
+ * by a small pool of delivery threads, each queue being drained by at most one thread at a time so
+ * that a client receives the changes in the order they were made. Hence a slow client delays neither
+ * the write operations nor the other clients: when its queue is full, its persistent search is
+ * either terminated or the change notification is dropped, depending on the
+ * {@code psearch-queue-overflow-behavior} global configuration property.
+ * <p>
+ * The changes waiting to be matched are queued in a bounded queue as well. When it is full, a new
+ * change is not matched, and the same behavior applies to all the persistent searches whose base DN
+ * is the changed entry or one of its superiors, as if their queue was full.
+ */
+public final class PersistentSearchDispatcher
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+
+  /** The maximum number of threads sending change notifications to the clients. */
+  private static final int MAX_DELIVERY_THREADS = 4;
+  /** The default maximum number of changes waiting to be matched against the persistent searches. */
+  private static final int DEFAULT_MAX_PENDING_CHANGES = 10000;
+
+  /** A change notification waiting to be sent to a client. */
+  private static final class Notification
+  {
+    private final Entry entry;
+    private final List<Control> controls;
+
+    private Notification(Entry entry, List<Control> controls)
+    {
+      this.entry = entry;
+      this.controls = controls;
+    }
+  }
+
+  /** The change notifications waiting to be sent to the client of one persistent search. */
+  private final class NotificationQueue implements Runnable
+  {
+    private final PersistentSearch psearch;
+    private final ArrayBlockingQueue<Notification> notifications;
+    private final int capacity;
+    private final PsearchQueueOverflowBehavior overflowBehavior;
+    /** Whether this queue is currently scheduled for, or being drained by, a delivery thread. */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+
+    private NotificationQueue(PersistentSearch psearch, int capacity,
+        PsearchQueueOverflowBehavior overflowBehavior)
+    {
+      this.psearch = psearch;
+      this.notifications = new ArrayBlockingQueue<>(capacity);
+      this.capacity = capacity;
+      this.overflowBehavior = overflowBehavior;
+    }
+
+    /** Only called by the matching thread. */
+    private void offer(Entry entry, List<Control> controls)
+    {
+      if (overflowed.get())
+      {
+        return;
+      }
+      if (!notifications.offer(new Notification(entry, controls)))
+      {
+        overflow();
+        return;
+      }
+      schedule();
+    }
+
+    /** Applies the overflow behavior to a change notification which cannot be queued. */
+    private void overflow()
+    {
+      if (overflowBehavior == PsearchQueueOverflowBehavior.DROP)
+      {
+        droppedNotifications.incrementAndGet();
+      }
+      else if (overflowed.compareAndSet(false, true))
+      {
+        overflowCancellations.incrementAndGet();
+        schedule();
+      }
+    }
+
+    private void schedule()
+    {
+      if (scheduled.compareAndSet(false, true))
+      {
+        try
+        {
+          getDeliveryExecutor().execute(this);
+        }
+        catch (RejectedExecutionException e)
+        {
+          // the dispatcher has been shut down
+          logger.traceException(e);
+        }
+      }
+    }
+
+    @Override
+    public void run()
+    {
+      try
+      {
+        if (overflowed.get())
+        {
+          notifications.clear();
+          psearch.terminate(ResultCode.ADMIN_LIMIT_EXCEEDED,
+              ERR_PSEARCH_NOTIFICATION_QUEUE_FULL.get(capacity));
+          return;
+        }
+        Notification notification;
+        while (!psearch.isCancelled() && (notification = notifications.poll()) != null)
+        {
+          psearch.sendEntry(notification.entry, notification.controls);
+        }
+      }
+      finally
+      {
+        scheduled.set(false);
+        // a notification may have been queued after the last poll but before resetting the flag
+        if (!notifications.isEmpty() && !psearch.isCancelled())
+        {
+          schedule();
+        }
+      }
+    }
+  }
+
+  private final String name;
+  private final int maxPendingChanges;
+  /** The persistent searches indexed by their base DN. Updates are guarded by this. */
+  private final Map<DN, Set<PersistentSearch>> persistentSearchesByBaseDN = new ConcurrentHashMap<>();
+  private final Map<PersistentSearch, NotificationQueue> queues = new ConcurrentHashMap<>();
+  private final AtomicInteger pendingChanges = new AtomicInteger();
+  private final AtomicLong droppedNotifications = new AtomicLong();
+  private final AtomicLong overflowCancellations = new AtomicLong();
+  private final AtomicLong unmatchedChanges = new AtomicLong();
+  /** Created along with the delivery executor when the first change is dispatched, guarded by this. */
+  private ExecutorService matchingExecutor;
+  private ExecutorService deliveryExecutor;
+  private boolean isShutdown;
+
+  /**
+   * Creates a new dispatcher.
+   *
+   * @param name
+   *          the name of the dispatcher, used to name its threads
+   */
+  public PersistentSearchDispatcher(String name)
+  {
+    this(name, DEFAULT_MAX_PENDING_CHANGES);
+  }
+
+  /** Creates a new dispatcher which matches at most the provided number of changes at a time, for testing. */
+  PersistentSearchDispatcher(String name, int maxPendingChanges)
+  {
+    this.name = name;
+    this.maxPendingChanges = maxPendingChanges;
+  }
+
+  /**
+   * Registers the provided persistent search, so that it is notified of the subsequent changes.
+   *
+   * @param psearch
+   *          the persistent search to register
+   * @throws DirectoryException
+   *           if this dispatcher has been shut down along with its backend
+   */
+  public synchronized void register(PersistentSearch psearch) throws DirectoryException
+  {
+    if (isShutdown)
+    {
+      throw new DirectoryException(ResultCode.UNAVAILABLE, ERR_PSEARCH_DISPATCHER_SHUT_DOWN.get(name));
+    }
+    final CoreConfigManager config = DirectoryServer.getCoreConfigManager();
+    queues.put(psearch, new NotificationQueue(
+        psearch, config.getPSearchQueueSize(), config.getPSearchQueueOverflowBehavior()));
+
+    final DN baseDN = psearch.getSearchOperation().getBaseDN();
+    Set<PersistentSearch> psearches = persistentSearchesByBaseDN.get(baseDN);
+    if (psearches == null)
+    {
+      psearches = Collections.newSetFromMap(new ConcurrentHashMap<PersistentSearch, Boolean>());
+      persistentSearchesByBaseDN.put(baseDN, psearches);
+    }
+    psearches.add(psearch);
+  }
+
+  /**
+   * Deregisters the provided persistent search, so that it is no longer notified of the changes.
+   *
+   * @param psearch
+   *          the persistent search to deregister
+   */
+  public synchronized void deregister(PersistentSearch psearch)
+  {
+    queues.remove(psearch);
+    final DN baseDN = psearch.getSearchOperation().getBaseDN();
+    final Set<PersistentSearch> psearches = persistentSearchesByBaseDN.get(baseDN);
+    if (psearches != null)
+    {
+      psearches.remove(psearch);
+      if (psearches.isEmpty())
+      {
+        persistentSearchesByBaseDN.remove(baseDN);
+      }
+    }
+  }
+
+  private void startThreads()
+  {
+    if (matchingExecutor == null)
+    {
+      // a single thread, so that the changes are matched in the order they were made
+      matchingExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(maxPendingChanges),
+          new DirectoryThread.Factory("Persistent Search Matcher " + name));
+      deliveryExecutor = Executors.newFixedThreadPool(
+          Math.min(MAX_DELIVERY_THREADS, Runtime.getRuntime().availableProcessors()),
+          new DirectoryThread.Factory("Persistent Search Notifier " + name));
+    }
+  }
+
+  private synchronized ExecutorService getDeliveryExecutor()
+  {
+    return deliveryExecutor;
+  }
+
+  /**
+   * Terminates the threads of this dispatcher. Pending change notifications are discarded.
+   */
+  public synchronized void shutdown()
+  {
+    isShutdown = true;
+    if (matchingExecutor != null)
+    {
+      matchingExecutor.shutdownNow();
+      deliveryExecutor.shutdownNow();
+    }
+    queues.clear();
+    persistentSearchesByBaseDN.clear();
+  }
+
+  /**
+   * Notifies the registered persistent searches that an entry has been added.
+   *
+   * @param entry
+   *          the entry that was added
+   */
+  public void notifyAdd(final Entry entry)
+  {
+    dispatch(entry.getName(), null, new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        for (PersistentSearch psearch : candidates(entry.getName(), null))
+        {
+          enqueue(psearch, entry, psearch.matchAdd(entry));
+        }
+      }
+    });
+  }
+
+  /**
+   * Notifies the registered persistent searches that an entry has been deleted.
+   *
+   * @param entry
+   *          the entry that was deleted
+   */
+  public void notifyDelete(final Entry entry)
+  {
+    dispatch(entry.getName(), null, new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        for (PersistentSearch psearch : candidates(entry.getName(), null))
+        {
+          enqueue(psearch, entry, psearch.matchDelete(entry));
+        }
+      }
+    });
+  }
+
+  /**
+   * Notifies the registered persistent searches that an entry has been modified.
+   *
+   * @param entry
+   *          the entry after it was modified
+   * @param oldEntry
+   *          the entry before it was modified
+   */
+  public void notifyModify(final Entry entry, final Entry oldEntry)
+  {
+    dispatch(oldEntry.getName(), null, new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        for (PersistentSearch psearch : candidates(oldEntry.getName(), null))
+        {
+          enqueue(psearch, entry, psearch.matchModify(entry, oldEntry));
+        }
+      }
+    });
+  }
+
+  /**
+   * Notifies the registered persistent searches that an entry has been renamed.
+   *
+   * @param entry
+   *          the entry after it was renamed
+   * @param oldDN
+   *          the DN of the entry before it was renamed
+   */
+  public void notifyModifyDN(final Entry entry, final DN oldDN)
+  {
+    dispatch(entry.getName(), oldDN, new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        for (PersistentSearch psearch : candidates(entry.getName(), oldDN))
+        {
+          enqueue(psearch, entry, psearch.matchModifyDN(entry, oldDN));
+        }
+      }
+    });
+  }
+
+  /**
+   * Queues the provided matcher of a change of the entry with the provided DN, and possibly the other
+   * provided DN.
+   */
+  private void dispatch(DN dn, DN otherDN, final Runnable matcher)
+  {
+    if (queues.isEmpty())
+    {
+      return;
+    }
+    final ExecutorService executor;
+    synchronized (this)
+    {
+      if (isShutdown)
+      {
+        return;
+      }
+      startThreads();
+      executor = matchingExecutor;
+    }
+    pendingChanges.incrementAndGet();
+    try
+    {
+      executor.execute(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            matcher.run();
+          }
+          catch (RuntimeException e)
+          {
+            logger.traceException(e);
+          }
+          finally
+          {
+            pendingChanges.decrementAndGet();
+          }
+        }
+      });
+    }
+    catch (RejectedExecutionException e)
+    {
+      pendingChanges.decrementAndGet();
+      logger.traceException(e);
+      if (!executor.isShutdown())
+      {
+        // too many changes are waiting to be matched
+        unmatchedChanges.incrementAndGet();
+        for (PersistentSearch psearch : candidates(dn, otherDN))
+        {
+          final NotificationQueue queue = queues.get(psearch);
+          if (queue != null)
+          {
+            queue.overflow();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the persistent searches whose base DN is the provided DN or one of its superiors, or one
+   * of the other provided DN or its superiors.
+   */
+  private Collection<PersistentSearch> candidates(DN dn, DN otherDN)
+  {
+    final Set<PersistentSearch> candidates = new LinkedHashSet<>();
+    addCandidates(dn, candidates);
+    if (otherDN != null)
+    {
+      addCandidates(otherDN, candidates);
+    }
+    return candidates;
+  }
+
+  private void addCandidates(DN dn, Set<PersistentSearch> candidates)
+  {
+    for (DN ancestor = dn; ancestor != null; ancestor = ancestor.parent())
+    {
+      final Set<PersistentSearch> psearches = persistentSearchesByBaseDN.get(ancestor);
+      if (psearches != null)
+      {
+        candidates.addAll(psearches);
+      }
+    }
+  }
+
+  private void enqueue(PersistentSearch psearch, Entry entry, List<Control> controls)
+  {
+    if (controls != null)
+    {
+      final NotificationQueue queue = queues.get(psearch);
+      if (queue != null)
+      {
+        queue.offer(entry, controls);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of persistent searches registered with this dispatcher.
+   *
+   * @return the number of registered persistent searches
+   */
+  public int getPersistentSearchCount()
+  {
+    return queues.size();
+  }
+
+  /**
+   * Returns the number of changes waiting to be matched against the registered persistent searches.
+   *
+   * @return the number of changes waiting to be matched
+   */
+  public int getPendingChangeCount()
+  {
+    return pendingChanges.get();
+  }
+
+  /**
+   * Returns the number of changes which were not matched against the registered persistent searches,
+   * because too many changes were already waiting to be matched.
+   *
+   * @return the number of changes which were not matched
+   */
+  public long getUnmatchedChangeCount()
+  {
+    return unmatchedChanges.get();
+  }
+
+  /**
+   * Returns the number of change notifications waiting to be sent to the clients.
+   *
+   * @return the number of change notifications waiting to be sent
+   */
+  public long getQueuedNotificationCount()
+  {
+    long count = 0;
+    for (NotificationQueue queue : queues.values())
+    {
+      count += queue.notifications.size();
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of change notifications dropped because the queue of their client was full.
+   *
+   * @return the number of dropped change notifications
+   */
+  public long getDroppedNotificationCount()
+  {
+    return droppedNotifications.get();
+  }
+
+  /**
+   * Returns the number of persistent searches terminated because the queue of their client was full.
+   *
+   * @return the number of persistent searches terminated because their queue was full
+   */
+  public long getOverflowCancellationCount()
+  {
+    return overflowCancellations.get();
+  }
+}
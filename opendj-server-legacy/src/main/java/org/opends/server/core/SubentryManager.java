@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -92,6 +93,8 @@ public class SubentryManager extends InternalDirectoryServerPlugin
 
   /** Dummy configuration DN for Subentry Manager. */
   private static final String CONFIG_DN = "cn=Subentry Manager,cn=config";
+  /** Maximum number of parent DNs for which the candidate subentries are cached. */
+  private static final int MAX_CACHED_PARENT_DNS = 10000;
 
   /** A mapping between the DNs and applicable subentries. */
   private final Map<DN, List<SubEntry>> dn2SubEntry = new HashMap<>();
@@ -99,6 +102,14 @@ public class SubentryManager extends InternalDirectoryServerPlugin
   private final Map<DN, List<SubEntry>> dn2CollectiveSubEntry = new HashMap<>();
   /** A mapping between subentry DNs and subentry objects. */
   private final DITCacheMap<SubEntry> dit2SubEntry = new DITCacheMap<>();
+  /**
+   * A mapping between parent DNs and the subentries which may apply to their
+   * immediate subordinates, whose DN only has to be checked against chop before
+   * exclusions. Populated under the read lock, cleared under the write lock.
+   */
+  private final Map<DN, List<SubEntry>> parentDN2SubEntry = new ConcurrentHashMap<>();
+  /** Same as {@link #parentDN2SubEntry} for the collective subentries. */
+  private final Map<DN, List<SubEntry>> parentDN2CollectiveSubEntry = new ConcurrentHashMap<>();
   /** Internal search all operational attributes. */
   private final Set<String> requestAttrs = newLinkedHashSet("*", "+");
   /** Lock to protect internal data structures. */
@@ -195,6 +206,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
       }
       dit2SubEntry.put(entry.getName(), subEntry);
       subList.add(subEntry);
+      clearParentDNCaches();
     }
     finally
     {
@@ -222,6 +234,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
       {
         removeSubEntry(dn2CollectiveSubEntry, entry);
       }
+      clearParentDNCaches();
     }
     finally
     {
@@ -425,7 +438,34 @@ public class SubentryManager extends InternalDirectoryServerPlugin
 
   private List<SubEntry> getSubentries(Map<DN, List<SubEntry>> subEntryMap, DN dn)
   {
-    if (subEntryMap.isEmpty())
+    return getSubentries(subEntryMap, dn, null);
+  }
+
+  /**
+   * Return subentries applicable to specific entry.
+   * Note that this getter will skip any collective subentries,
+   * returning only applicable regular subentries.
+   * @param  entry for which to retrieve applicable
+   *         subentries.
+   * @return applicable subentries.
+   */
+  public List<SubEntry> getSubentries(Entry entry)
+  {
+    return getSubentries(dn2SubEntry, entry);
+  }
+
+  private List<SubEntry> getSubentries(Map<DN, List<SubEntry>> subEntryMap, Entry entry)
+  {
+    return getSubentries(subEntryMap, entry.getName(), entry);
+  }
+
+  /**
+   * Returns the subentries applicable to the provided DN, also checking their
+   * refinements against the provided entry if it is not null.
+   */
+  private List<SubEntry> getSubentries(Map<DN, List<SubEntry>> subEntryMap, DN dn, Entry entry)
+  {
+    if (subEntryMap.isEmpty() || dn.isRootDN())
     {
       return Collections.emptyList();
     }
@@ -434,21 +474,26 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     try
     {
       List<SubEntry> subentries = new ArrayList<>();
-      for (DN subDN = dn; subDN != null && !subDN.isRootDN(); subDN = subDN.parent())
+      List<SubEntry> subList = subEntryMap.get(dn);
+      if (subList != null)
       {
-        List<SubEntry> subList = subEntryMap.get(subDN);
-        if (subList != null)
+        for (SubEntry subEntry : subList)
         {
-          for (SubEntry subEntry : subList)
+          SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
+          if (subSpec.isDNWithinScope(dn) && (entry == null || subSpec.matchesRefinements(entry)))
           {
-            SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
-            if (subSpec.isDNWithinScope(dn))
-            {
-              subentries.add(subEntry);
-            }
+            subentries.add(subEntry);
           }
         }
       }
+      for (SubEntry subEntry : getParentDNSubentries(subEntryMap, dn.parent()))
+      {
+        SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
+        if (!subSpec.isChopBeforeDN(dn) && (entry == null || subSpec.matchesRefinements(entry)))
+        {
+          subentries.add(subEntry);
+        }
+      }
       return subentries;
     }
     finally
@@ -458,50 +503,46 @@ public class SubentryManager extends InternalDirectoryServerPlugin
   }
 
   /**
-   * Return subentries applicable to specific entry.
-   * Note that this getter will skip any collective subentries,
-   * returning only applicable regular subentries.
-   * @param  entry for which to retrieve applicable
-   *         subentries.
-   * @return applicable subentries.
+   * Returns the subentries based at the provided parent DN or one of its
+   * superiors which may apply to the immediate subordinates of the parent DN,
+   * computing them on first use. Must be called with the read lock held.
    */
-  public List<SubEntry> getSubentries(Entry entry)
-  {
-    return getSubentries(dn2SubEntry, entry);
-  }
-
-  private List<SubEntry> getSubentries(Map<DN, List<SubEntry>> subEntryMap, Entry entry)
+  private List<SubEntry> getParentDNSubentries(Map<DN, List<SubEntry>> subEntryMap, DN parentDN)
   {
-    if (subEntryMap.isEmpty())
-    {
-      return Collections.emptyList();
-    }
-
-    lock.readLock().lock();
-    try
+    final Map<DN, List<SubEntry>> cache =
+        subEntryMap == dn2SubEntry ? parentDN2SubEntry : parentDN2CollectiveSubEntry;
+    List<SubEntry> subentries = cache.get(parentDN);
+    if (subentries == null)
     {
-      List<SubEntry> subentries = new ArrayList<>();
-      for (DN subDN = entry.getName(); subDN != null && !subDN.isRootDN(); subDN = subDN.parent())
+      subentries = new ArrayList<>();
+      for (DN subDN = parentDN; !subDN.isRootDN(); subDN = subDN.parent())
       {
         List<SubEntry> subList = subEntryMap.get(subDN);
         if (subList != null)
         {
           for (SubEntry subEntry : subList)
           {
-            SubtreeSpecification subSpec = subEntry.getSubTreeSpecification();
-            if (subSpec.isWithinScope(entry))
+            if (subEntry.getSubTreeSpecification().areChildrenOfDNWithinScope(parentDN))
             {
               subentries.add(subEntry);
             }
           }
         }
       }
-      return subentries;
-    }
-    finally
-    {
-      lock.readLock().unlock();
+      if (cache.size() >= MAX_CACHED_PARENT_DNS)
+      {
+        cache.clear();
+      }
+      cache.put(parentDN, subentries);
     }
+    return subentries;
+  }
+
+  /** Must be called with the write lock held whenever the registered subentries change. */
+  private void clearParentDNCaches()
+  {
+    parentDN2SubEntry.clear();
+    parentDN2CollectiveSubEntry.clear();
   }
 
   /**
@@ -542,6 +583,7 @@ public class SubentryManager extends InternalDirectoryServerPlugin
     {
       performBackendPostFinalizationProcessing(dn2SubEntry, backend);
       performBackendPostFinalizationProcessing(dn2CollectiveSubEntry, backend);
+      clearParentDNCaches();
     }
     finally
     {
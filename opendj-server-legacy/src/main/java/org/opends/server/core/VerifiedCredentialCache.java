@@ -0,0 +1,223 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.forgerock.i18n.slf4j.LocalizedLogger;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+
+/**
+ * Remembers, for a short time, the last password successfully verified for each user, so that the
+ * repeated binds of a user do not run a computationally expensive password storage scheme every
+ * time.
+ * <p>
+ * The cache is only held in memory, and never contains the passwords themselves: a verified
+ * password is remembered as a MAC computed with a random key generated when the server starts,
+ * together with the stored password value it was verified against. A cached credential therefore
+ * only matches as long as the entry of the user still contains the same stored password value.
+ * <p>
+ * Only successful verifications are cached, hence a wrong password always goes through the
+ * password storage scheme. The cache is emptied whenever an authentication policy is added,
+ * changed or removed, and the credential of a user is forgotten when the user's password changes.
+ */
+public final class VerifiedCredentialCache
+{
+  private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+
+  /** A password verified for a user. */
+  private static final class VerifiedCredential
+  {
+    private final ByteString storedPassword;
+    private final byte[] passwordMac;
+    private final long expirationTime;
+
+    private VerifiedCredential(ByteString storedPassword, byte[] passwordMac, long expirationTime)
+    {
+      this.storedPassword = storedPassword;
+      this.passwordMac = passwordMac;
+      this.expirationTime = expirationTime;
+    }
+  }
+
+  private final SecretKeySpec macKey;
+  /** The MAC instances, which are not thread safe. */
+  private final ThreadLocal<Mac> macs = new ThreadLocal<Mac>()
+  {
+    @Override
+    protected Mac initialValue()
+    {
+      try
+      {
+        final Mac mac = Mac.getInstance(MAC_ALGORITHM);
+        mac.init(macKey);
+        return mac;
+      }
+      catch (GeneralSecurityException e)
+      {
+        throw new IllegalStateException(e);
+      }
+    }
+  };
+  /** Verified credentials in least recently used order, guarded by itself. */
+  private final LinkedHashMap<DN, VerifiedCredential> credentials = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Creates a new verified credential cache, with a new random MAC key. */
+  public VerifiedCredentialCache()
+  {
+    final byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    macKey = new SecretKeySpec(key, MAC_ALGORITHM);
+  }
+
+  /**
+   * Indicates whether the provided password has recently been verified against the provided stored
+   * password value of the user.
+   *
+   * @param userDN
+   *          the DN of the user
+   * @param storedPassword
+   *          the stored password value of the user
+   * @param password
+   *          the password provided by the client
+   * @return {@code true} if the password has recently been verified, {@code false} if it must be
+   *         verified by the password storage scheme
+   */
+  public boolean isVerified(DN userDN, ByteString storedPassword, ByteString password)
+  {
+    if (getMaxSize() == 0)
+    {
+      return false;
+    }
+    final VerifiedCredential credential;
+    synchronized (credentials)
+    {
+      credential = credentials.get(userDN);
+    }
+    if (credential == null
+        || credential.expirationTime <= System.currentTimeMillis()
+        || !credential.storedPassword.equals(storedPassword))
+    {
+      return false;
+    }
+    final byte[] passwordMac = mac(password);
+    return passwordMac != null && MessageDigest.isEqual(passwordMac, credential.passwordMac);
+  }
+
+  /**
+   * Remembers that the provided password has successfully been verified against the provided
+   * stored password value of the user.
+   *
+   * @param userDN
+   *          the DN of the user
+   * @param storedPassword
+   *          the stored password value of the user
+   * @param password
+   *          the password provided by the client
+   */
+  public void put(DN userDN, ByteString storedPassword, ByteString password)
+  {
+    final int maxSize = getMaxSize();
+    if (maxSize == 0)
+    {
+      return;
+    }
+    final byte[] passwordMac = mac(password);
+    if (passwordMac == null)
+    {
+      return;
+    }
+    final long expirationTime = System.currentTimeMillis() + DirectoryServer.getCoreConfigManager()
+        .getVerifiedCredentialCacheTTL();
+    final VerifiedCredential credential = new VerifiedCredential(storedPassword, passwordMac, expirationTime);
+    synchronized (credentials)
+    {
+      credentials.put(userDN, credential);
+      // the maximum size may have been lowered since the last insertion
+      final Iterator<VerifiedCredential> it = credentials.values().iterator();
+      while (credentials.size() > maxSize && it.hasNext())
+      {
+        it.next();
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Forgets the verified credential of the provided user.
+   *
+   * @param userDN
+   *          the DN of the user
+   */
+  public void invalidate(DN userDN)
+  {
+    synchronized (credentials)
+    {
+      credentials.remove(userDN);
+    }
+  }
+
+  /** Forgets all the verified credentials. */
+  public void clear()
+  {
+    synchronized (credentials)
+    {
+      credentials.clear();
+    }
+  }
+
+  /**
+   * Returns the number of users whose verified credential is cached.
+   *
+   * @return the number of cached credentials
+   */
+  public int size()
+  {
+    synchronized (credentials)
+    {
+      return credentials.size();
+    }
+  }
+
+  private static int getMaxSize()
+  {
+    final CoreConfigManager config = DirectoryServer.getCoreConfigManager();
+    return config != null ? config.getVerifiedCredentialCacheSize() : 0;
+  }
+
+  private byte[] mac(ByteString password)
+  {
+    try
+    {
+      return macs.get().doFinal(password.toByteArray());
+    }
+    catch (IllegalStateException e)
+    {
+      logger.traceException(e);
+      return null;
+    }
+  }
+}
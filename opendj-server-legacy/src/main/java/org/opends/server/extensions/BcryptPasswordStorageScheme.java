@@ -178,6 +178,13 @@ public class BcryptPasswordStorageScheme
   }
 
 
+  @Override
+  public boolean isComputationallyExpensive()
+  {
+    return true;
+  }
+
+
   @Override
   public boolean isStorageSchemeSecure()
   {
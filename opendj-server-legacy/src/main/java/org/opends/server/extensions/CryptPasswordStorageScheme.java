@@ -424,6 +424,14 @@ public class CryptPasswordStorageScheme
     throw new DirectoryException(ResultCode.UNWILLING_TO_PERFORM, message);
   }
 
+  @Override
+  public boolean isComputationallyExpensive()
+  {
+    // Unix crypt is cheap, but the MD5 and SHA-2 based algorithms iterate
+    // many times and any of them may be used by the stored passwords.
+    return true;
+  }
+
   @Override
   public boolean isStorageSchemeSecure()
   {
@@ -247,6 +247,12 @@ public class PBKDF2PasswordStorageScheme
     throw new DirectoryException(ResultCode.CONSTRAINT_VIOLATION, message);
   }
 
+  @Override
+  public boolean isComputationallyExpensive()
+  {
+    return true;
+  }
+
   @Override
   public boolean isStorageSchemeSecure()
   {
@@ -216,6 +216,12 @@ public class PKCS5S2PasswordStorageScheme
     throw new DirectoryException(ResultCode.CONSTRAINT_VIOLATION, message);
   }
 
+  @Override
+  public boolean isComputationallyExpensive()
+  {
+    return true;
+  }
+
   @Override
   public boolean isStorageSchemeSecure()
   {
@@ -769,6 +769,13 @@ public class PasswordModifyExtendedOperation
 
       generateAccountStatusNotification(oldPassword, newPassword, userEntry, pwPolicyState, selfChange);
     }
+    catch (DirectoryException de)
+    {
+      // the password could not be hashed, for example because the server is too busy
+      logger.traceException(de);
+      operation.setResultCode(de.getResultCode());
+      operation.appendErrorMessage(de.getMessageObject());
+    }
     finally
     {
       if (userLock != null)
@@ -422,6 +422,24 @@ public class PlainSASLMechanismHandler
         return;
       }
     }
+    catch (DirectoryException e)
+    {
+      logger.traceException(e);
+
+      if (e.getResultCode() == ResultCode.BUSY)
+      {
+        // The password hashing pool is full: the password has not been checked
+        bindOperation.setResultCode(ResultCode.BUSY);
+        bindOperation.setAuthFailureReason(e.getMessageObject());
+        return;
+      }
+
+      bindOperation.setResultCode(ResultCode.INVALID_CREDENTIALS);
+
+      LocalizableMessage message = ERR_SASLPLAIN_CANNOT_CHECK_PASSWORD_VALIDITY.get(userEntry.getName(), e);
+      bindOperation.setAuthFailureReason(message);
+      return;
+    }
     catch (Exception e)
     {
       logger.traceException(e);
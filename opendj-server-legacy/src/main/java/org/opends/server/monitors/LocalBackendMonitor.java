@@ -30,6 +30,7 @@ import org.opends.server.api.LocalBackend;
 import org.opends.server.api.MonitorData;
 import org.opends.server.api.MonitorProvider;
 import org.opends.server.core.DirectoryServer;
+import org.opends.server.core.PersistentSearchDispatcher;
 
 /**
  * This class implements a monitor provider that will report generic information
@@ -88,13 +89,28 @@ public class LocalBackendMonitor
   {
     Set<DN> baseDNs = backend.getBaseDNs();
 
-    MonitorData attrs = new MonitorData(6);
+    // Monitoring must not create the dispatcher of a backend being finalized
+    PersistentSearchDispatcher dispatcher = backend.getPersistentSearchDispatcherIfCreated();
+
+    MonitorData attrs = new MonitorData(12);
     attrs.add(ATTR_MONITOR_BACKEND_ID, backend.getBackendID());
     attrs.add(ATTR_MONITOR_BACKEND_BASE_DN, baseDNs);
     attrs.add(ATTR_MONITOR_BACKEND_IS_PRIVATE, backend.isPrivateBackend());
     attrs.add(ATTR_MONITOR_BACKEND_ENTRY_COUNT, backend.getEntryCount());
     attrs.add(ATTR_MONITOR_BASE_DN_ENTRY_COUNT, getBackendEntryCounts(baseDNs));
     attrs.add(ATTR_MONITOR_BACKEND_WRITABILITY_MODE, backend.getWritabilityMode());
+    attrs.add(ATTR_MONITOR_BACKEND_PSEARCH_COUNT,
+        dispatcher != null ? dispatcher.getPersistentSearchCount() : 0);
+    attrs.add(ATTR_MONITOR_BACKEND_PSEARCH_PENDING_CHANGES,
+        dispatcher != null ? dispatcher.getPendingChangeCount() : 0);
+    attrs.add(ATTR_MONITOR_BACKEND_PSEARCH_QUEUED_NOTIFICATIONS,
+        dispatcher != null ? dispatcher.getQueuedNotificationCount() : 0L);
+    attrs.add(ATTR_MONITOR_BACKEND_PSEARCH_DROPPED_NOTIFICATIONS,
+        dispatcher != null ? dispatcher.getDroppedNotificationCount() : 0L);
+    attrs.add(ATTR_MONITOR_BACKEND_PSEARCH_OVERFLOW_CANCELLATIONS,
+        dispatcher != null ? dispatcher.getOverflowCancellationCount() : 0L);
+    attrs.add(ATTR_MONITOR_BACKEND_PSEARCH_UNMATCHED_CHANGES,
+        dispatcher != null ? dispatcher.getUnmatchedChangeCount() : 0L);
     return attrs;
   }
 
@@ -0,0 +1,95 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.monitors;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.forgerock.opendj.config.server.ConfigException;
+import org.forgerock.opendj.server.config.server.MonitorProviderCfg;
+import org.opends.server.api.MonitorData;
+import org.opends.server.api.MonitorProvider;
+import org.opends.server.core.PasswordHashingPool;
+import org.opends.server.core.PasswordHashingPool.SchemeStatistics;
+import org.opends.server.types.InitializationException;
+
+/**
+ * This class defines a Directory Server monitor that provides the number and latency of the
+ * password hashings performed with each password storage scheme, and the state of the password
+ * hashing pool.
+ */
+public class PasswordHashingMonitor extends MonitorProvider<MonitorProviderCfg>
+{
+  /** The name of the monitor attribute that provides the number of hashings running or waiting. */
+  public static final String ATTR_PENDING_HASHINGS = "pendingHashings";
+  /** The name of the monitor attribute that provides the number of hashings beyond which new ones are rejected. */
+  public static final String ATTR_MAX_PENDING_HASHINGS = "maxPendingHashings";
+  /** The name of the monitor attribute that provides the number of hashings rejected because the pool was full. */
+  public static final String ATTR_REJECTED_HASHINGS = "rejectedHashings";
+  /** The suffix of the per scheme monitor attribute that provides the number of hashings. */
+  private static final String ATTR_SUFFIX_HASH_COUNT = "-hashCount";
+  /** The suffix of the per scheme monitor attribute that provides the total hashing time. */
+  private static final String ATTR_SUFFIX_HASH_TOTAL_TIME = "-hashTotalTimeMillis";
+  /** The suffix of the per scheme monitor attribute that provides the hashing latency histogram. */
+  private static final String ATTR_SUFFIX_HASH_LATENCY_HISTOGRAM = "-hashLatencyHistogram";
+
+  /** The password hashing pool with which this monitor is associated. */
+  private final PasswordHashingPool pool;
+
+  /**
+   * Creates a new password hashing monitor.
+   *
+   * @param pool
+   *          The password hashing pool with which this monitor is associated.
+   */
+  public PasswordHashingMonitor(PasswordHashingPool pool)
+  {
+    this.pool = pool;
+  }
+
+  @Override
+  public void initializeMonitorProvider(MonitorProviderCfg configuration)
+      throws ConfigException, InitializationException
+  {
+    // No initialization is required.
+  }
+
+  @Override
+  public String getMonitorInstanceName()
+  {
+    return "Password Hashing";
+  }
+
+  @Override
+  public MonitorData getMonitorData()
+  {
+    final Map<String, SchemeStatistics> statistics = pool.getStatistics();
+    final MonitorData monitorAttrs = new MonitorData(3 + 3 * statistics.size());
+    monitorAttrs.add(ATTR_PENDING_HASHINGS, pool.getPendingHashingCount());
+    monitorAttrs.add(ATTR_MAX_PENDING_HASHINGS, pool.getMaxPendingHashingCount());
+    monitorAttrs.add(ATTR_REJECTED_HASHINGS, pool.getRejectedHashingCount());
+    for (Map.Entry<String, SchemeStatistics> entry : statistics.entrySet())
+    {
+      final String schemeName = entry.getKey();
+      final SchemeStatistics schemeStatistics = entry.getValue();
+      monitorAttrs.add(schemeName + ATTR_SUFFIX_HASH_COUNT, schemeStatistics.getCount());
+      monitorAttrs.add(schemeName + ATTR_SUFFIX_HASH_TOTAL_TIME, schemeStatistics.getTotalTimeMillis());
+      monitorAttrs.add(schemeName + ATTR_SUFFIX_HASH_LATENCY_HISTOGRAM,
+          Arrays.asList(schemeStatistics.getLatencyHistogram()));
+    }
+    return monitorAttrs;
+  }
+}
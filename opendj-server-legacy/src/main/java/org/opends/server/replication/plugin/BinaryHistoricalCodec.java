@@ -0,0 +1,389 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.plugin;
+
+import static org.opends.server.replication.plugin.HistAttrModificationKey.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.forgerock.opendj.ldap.AttributeDescription;
+import org.forgerock.opendj.ldap.ByteSequence;
+import org.forgerock.opendj.ldap.ByteSequenceReader;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.replication.common.CSN;
+import org.opends.server.types.Attribute;
+
+/**
+ * Encodes the historical information of one attribute description into a single binary
+ * {@code ds-sync-hist} value, and decodes such values.
+ * <p>
+ * A binary value is stored in the form:
+ * <pre>
+ * &lt;0x00&gt;&lt;version&gt;&lt;attribute description&gt;&lt;oldest CSN&gt;&lt;newest CSN&gt;&lt;record count&gt;&lt;records&gt;
+ * </pre>
+ * where the records keep the order they must be applied in, and each record is stored as:
+ * <pre>
+ * &lt;kind&gt;&lt;time delta&gt;&lt;server id&gt;&lt;sequence number&gt;[&lt;value&gt;]
+ * </pre>
+ * The time of each record is stored as a delta from the time of the oldest CSN, which the purge
+ * keeps small, and all the numbers use the compact unsigned encoding. The value is either stored inline, prefixed with its length, or, when the value is
+ * present in the entry the historical information is stored in, referenced by a 64 bits hash of the
+ * value. Values whose hash collides with the one of another value of the entry are always stored
+ * inline, so that a reference is never ambiguous.
+ * <p>
+ * Text values always start with an attribute name, hence never with a zero byte: both encodings
+ * can be told apart from the first byte of the value.
+ */
+final class BinaryHistoricalCodec
+{
+  private static final byte MAGIC = 0x00;
+  private static final byte VERSION = 0x01;
+
+  /** Kinds of the records, stored in the low bits of the first byte of each record. */
+  private static final int KIND_ADD = 0;
+  private static final int KIND_DEL = 1;
+  private static final int KIND_REPL = 2;
+  private static final int KIND_ATTRDEL = 3;
+  private static final int KIND_ENTRY_ADD = 4;
+  private static final int KIND_ENTRY_MODDN = 5;
+  private static final int KIND_MASK = 0x0f;
+  /** Flag set when the record value is stored inline. */
+  private static final int FLAG_INLINE_VALUE = 0x10;
+  /** Flag set when the record value is referenced by its hash. */
+  private static final int FLAG_VALUE_REFERENCE = 0x20;
+
+  private BinaryHistoricalCodec()
+  {
+    // utility class
+  }
+
+  /**
+   * Returns whether the provided {@code ds-sync-hist} value is binary encoded.
+   *
+   * @param value
+   *          the historical value
+   * @return true if the value is binary encoded, false if it is text encoded
+   */
+  static boolean isBinary(ByteSequence value)
+  {
+    return value.length() > 0 && value.byteAt(0) == MAGIC;
+  }
+
+  /**
+   * Encodes the provided records of a same attribute description.
+   *
+   * @param attrDesc
+   *          the attribute description, "dn" for the records of the entry itself
+   * @param records
+   *          the records to encode, in the order they must be applied, which is kept
+   * @param presentValues
+   *          the values of the attribute in the entry the historical information is stored in, which
+   *          are only referenced, or {@code null} to store all the values inline
+   * @return the binary historical value
+   */
+  static ByteString encode(String attrDesc, List<HistoricalAttributeValue> records, Attribute presentValues)
+  {
+    final Map<Long, ByteString> referenceableValues = referenceableValues(presentValues);
+    CSN oldest = null;
+    CSN newest = null;
+    for (HistoricalAttributeValue record : records)
+    {
+      final CSN csn = record.getCSN();
+      if (oldest == null || csn.isOlderThan(oldest))
+      {
+        oldest = csn;
+      }
+      if (newest == null || csn.isNewerThan(newest))
+      {
+        newest = csn;
+      }
+    }
+
+    final ByteStringBuilder builder = new ByteStringBuilder();
+    builder.appendByte(MAGIC);
+    builder.appendByte(VERSION);
+    final ByteString attrDescBytes = ByteString.valueOfUtf8(attrDesc);
+    builder.appendCompactUnsigned(attrDescBytes.length());
+    builder.appendBytes(attrDescBytes);
+    oldest.toByteString(builder);
+    newest.toByteString(builder);
+    builder.appendCompactUnsigned(records.size());
+
+    for (HistoricalAttributeValue record : records)
+    {
+      final CSN csn = record.getCSN();
+      final ByteString value = record.getAttributeValue();
+      int kind = getKind(record);
+      Long hash = null;
+      if (value != null)
+      {
+        hash = hash(value);
+        if (value.equals(referenceableValues.get(hash)))
+        {
+          kind |= FLAG_VALUE_REFERENCE;
+        }
+        else
+        {
+          kind |= FLAG_INLINE_VALUE;
+        }
+      }
+      builder.appendByte(kind);
+      builder.appendCompactUnsigned(csn.getTime() - oldest.getTime());
+      builder.appendCompactUnsigned(csn.getServerId());
+      builder.appendCompactUnsigned(csn.getSeqnum() & 0xffffffffL);
+      if ((kind & FLAG_VALUE_REFERENCE) != 0)
+      {
+        builder.appendLong(hash);
+      }
+      else if ((kind & FLAG_INLINE_VALUE) != 0)
+      {
+        builder.appendCompactUnsigned(value.length());
+        builder.appendBytes(value);
+      }
+    }
+    return builder.toByteString();
+  }
+
+  private static int getKind(HistoricalAttributeValue record)
+  {
+    if (record.isADDOperation())
+    {
+      return KIND_ENTRY_ADD;
+    }
+    else if (record.isMODDNOperation())
+    {
+      return KIND_ENTRY_MODDN;
+    }
+    switch (record.getHistKey())
+    {
+    case ADD:
+      return KIND_ADD;
+    case DEL:
+      return KIND_DEL;
+    case REPL:
+      return KIND_REPL;
+    case ATTRDEL:
+      return KIND_ATTRDEL;
+    default:
+      throw new IllegalArgumentException("Unknown historical record " + record);
+    }
+  }
+
+  /**
+   * Returns the values which can be referenced by their hash, the values whose hash collides with
+   * the one of another value being excluded.
+   */
+  private static Map<Long, ByteString> referenceableValues(Attribute values)
+  {
+    if (values == null || values.isEmpty())
+    {
+      return Collections.emptyMap();
+    }
+    final Map<Long, ByteString> results = new HashMap<>();
+    final List<Long> collisions = new ArrayList<>(0);
+    for (ByteString value : values)
+    {
+      final Long hash = hash(value);
+      if (results.put(hash, value) != null)
+      {
+        collisions.add(hash);
+      }
+    }
+    results.keySet().removeAll(collisions);
+    return results;
+  }
+
+  /**
+   * Returns the attribute description of the provided binary historical value, "dn" for the records
+   * of the entry itself.
+   *
+   * @param value
+   *          the binary historical value
+   * @return the attribute description of the value
+   */
+  static String getAttributeDescription(ByteSequence value)
+  {
+    final ByteSequenceReader reader = readHeader(value);
+    final int length = reader.readCompactUnsignedInt();
+    return reader.readStringUtf8(length);
+  }
+
+  /**
+   * Returns the oldest CSN of the provided binary historical value.
+   *
+   * @param value
+   *          the binary historical value
+   * @return the oldest CSN of the value
+   */
+  static CSN getOldestCSN(ByteSequence value)
+  {
+    final ByteSequenceReader reader = skipAttributeDescription(value);
+    return CSN.valueOf(reader.readByteSequence(CSN.BYTE_ENCODING_LENGTH));
+  }
+
+  /**
+   * Appends all the CSNs of the provided binary historical value to the provided collection.
+   *
+   * @param value
+   *          the binary historical value
+   * @param csns
+   *          where to append the CSNs
+   */
+  static void getCSNs(ByteSequence value, Collection<CSN> csns)
+  {
+    final ByteSequenceReader reader = skipAttributeDescription(value);
+    final CSN oldest = CSN.valueOf(reader.readByteSequence(CSN.BYTE_ENCODING_LENGTH));
+    reader.skip(CSN.BYTE_ENCODING_LENGTH);
+    final int count = reader.readCompactUnsignedInt();
+    for (int i = 0; i < count; i++)
+    {
+      final int kind = reader.readByte();
+      final long time = oldest.getTime() + reader.readCompactUnsignedLong();
+      final int serverId = reader.readCompactUnsignedInt();
+      final int seqnum = (int) reader.readCompactUnsignedLong();
+      csns.add(new CSN(time, seqnum, serverId));
+      skipValue(reader, kind);
+    }
+  }
+
+  /**
+   * Decodes the records of the provided binary historical value.
+   *
+   * @param value
+   *          the binary historical value
+   * @param presentValues
+   *          the values of the attribute in the entry the historical information was read from,
+   *          used to resolve the referenced values, or {@code null} if the entry has no such
+   *          attribute
+   * @return the decoded records, in the order they must be applied. The records referencing a value which is no longer
+   *         present in the entry are skipped.
+   */
+  static List<HistoricalAttributeValue> decode(ByteSequence value, Attribute presentValues)
+  {
+    final ByteSequenceReader reader = readHeader(value);
+    final String attrDescString = reader.readStringUtf8(reader.readCompactUnsignedInt());
+    final AttributeDescription attrDesc = AttributeDescription.valueOf(attrDescString);
+    final CSN oldest = CSN.valueOf(reader.readByteSequence(CSN.BYTE_ENCODING_LENGTH));
+    reader.skip(CSN.BYTE_ENCODING_LENGTH);
+    final int count = reader.readCompactUnsignedInt();
+
+    final List<HistoricalAttributeValue> records = new ArrayList<>(count);
+    Map<Long, ByteString> referenceableValues = null;
+    for (int i = 0; i < count; i++)
+    {
+      final int kind = reader.readByte();
+      final long time = oldest.getTime() + reader.readCompactUnsignedLong();
+      final int serverId = reader.readCompactUnsignedInt();
+      final int seqnum = (int) reader.readCompactUnsignedLong();
+      final CSN csn = new CSN(time, seqnum, serverId);
+
+      ByteString recordValue = null;
+      if ((kind & FLAG_INLINE_VALUE) != 0)
+      {
+        recordValue = reader.readByteString(reader.readCompactUnsignedInt());
+      }
+      else if ((kind & FLAG_VALUE_REFERENCE) != 0)
+      {
+        if (referenceableValues == null)
+        {
+          referenceableValues = referenceableValues(presentValues);
+        }
+        recordValue = referenceableValues.get(reader.readLong());
+        if (recordValue == null)
+        {
+          // the value has been removed from the entry since the historical was encoded
+          continue;
+        }
+      }
+      records.add(newRecord(attrDesc, csn, kind & KIND_MASK, recordValue));
+    }
+    return records;
+  }
+
+  private static HistoricalAttributeValue newRecord(AttributeDescription attrDesc, CSN csn, int kind,
+      ByteString value)
+  {
+    switch (kind)
+    {
+    case KIND_ADD:
+      return new HistoricalAttributeValue(attrDesc, csn, ADD, value);
+    case KIND_DEL:
+      return new HistoricalAttributeValue(attrDesc, csn, DEL, value);
+    case KIND_REPL:
+      return new HistoricalAttributeValue(attrDesc, csn, REPL, value);
+    case KIND_ATTRDEL:
+      return new HistoricalAttributeValue(attrDesc, csn, ATTRDEL, null);
+    case KIND_ENTRY_ADD:
+      return HistoricalAttributeValue.newEntryRecord(csn, false);
+    case KIND_ENTRY_MODDN:
+      return HistoricalAttributeValue.newEntryRecord(csn, true);
+    default:
+      throw new IllegalArgumentException("Unknown historical record kind " + kind);
+    }
+  }
+
+  private static ByteSequenceReader readHeader(ByteSequence value)
+  {
+    final ByteSequenceReader reader = value.asReader();
+    if (reader.readByte() != MAGIC)
+    {
+      throw new IllegalArgumentException("Not a binary historical value");
+    }
+    final byte version = reader.readByte();
+    if (version != VERSION)
+    {
+      throw new IllegalArgumentException("Unsupported binary historical version " + version);
+    }
+    return reader;
+  }
+
+  private static ByteSequenceReader skipAttributeDescription(ByteSequence value)
+  {
+    final ByteSequenceReader reader = readHeader(value);
+    reader.skip(reader.readCompactUnsignedInt());
+    return reader;
+  }
+
+  private static void skipValue(ByteSequenceReader reader, int kind)
+  {
+    if ((kind & FLAG_INLINE_VALUE) != 0)
+    {
+      reader.skip(reader.readCompactUnsignedInt());
+    }
+    else if ((kind & FLAG_VALUE_REFERENCE) != 0)
+    {
+      reader.skip(8);
+    }
+  }
+
+  /** Returns the 64 bits FNV-1a hash of the provided value. */
+  private static long hash(ByteSequence value)
+  {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++)
+    {
+      hash ^= value.byteAt(i) & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+}
@@ -21,10 +21,14 @@ import static org.opends.messages.ReplicationMessages.*;
 import static org.opends.server.replication.plugin.HistAttrModificationKey.*;
 import static org.opends.server.util.CollectionUtils.*;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TreeMap;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -111,6 +115,35 @@ public class EntryHistorical
 
   /** Contains Historical information for each attribute description. */
   private final Map<AttributeDescription, AttrHistorical> attributesHistorical = new HashMap<>();
+  /**
+   * Contains the binary encoded historical information of each attribute description which has
+   * not been decoded yet: it is only decoded when the attribute is modified or when it is purged.
+   */
+  private final Map<AttributeDescription, EncodedAttrHistorical> encodedAttributesHistorical = new HashMap<>();
+
+  /** Whether the historical information is stored in the binary encoding rather than the text one. */
+  private boolean binaryEncoding;
+  /** The entry this historical information was read from, {@code null} if it was not read from an entry. */
+  private Entry entry;
+  /** The number of text and binary historical values read from the entry. */
+  private int textValuesCount;
+  private int binaryValuesCount;
+
+  /** The binary encoded historical information of an attribute description, as read from the entry. */
+  private static final class EncodedAttrHistorical
+  {
+    private final ByteString value;
+    private final CSN oldestCSN;
+    /** The values of the attribute in the entry when it was read, resolving the referenced values. */
+    private final Attribute presentValues;
+
+    private EncodedAttrHistorical(ByteString value, CSN oldestCSN, Attribute presentValues)
+    {
+      this.value = value;
+      this.oldestCSN = oldestCSN;
+      this.presentValues = presentValues;
+    }
+  }
 
   @Override
   public String toString()
@@ -200,7 +233,7 @@ public class EntryHistorical
     //
     // - add the modification of the ds-sync-hist attribute,
     // to the current modifications of the MOD operation
-    Attribute attr = encodeAndPurge();
+    Attribute attr = encodeAndPurge(modifiedEntry);
     mods.add(new Modification(ModificationType.REPLACE, attr));
     // - update the already modified entry
     modifiedEntry.replaceAttribute(attr);
@@ -225,7 +258,7 @@ public class EntryHistorical
     Entry modifiedEntry = modifyDNOperation.getUpdatedEntry();
     List<Modification> mods = modifyDNOperation.getModifications();
 
-    Attribute attr = encodeAndPurge();
+    Attribute attr = encodeAndPurge(modifiedEntry);
 
     // Now do the 2 updates required by the core to be consistent:
     //
@@ -257,13 +290,24 @@ public class EntryHistorical
    *   required here or before(in the HandleConflictResolution phase)
    *
    * @param addOperation The Operation to which the historical attribute will be added.
+   * @param binaryEncoding Whether the historical attribute must use the binary encoding.
    */
-  public static void setHistoricalAttrToOperation(PreOperationAddOperation addOperation)
+  public static void setHistoricalAttrToOperation(PreOperationAddOperation addOperation, boolean binaryEncoding)
   {
     Schema schema = DirectoryServer.getInstance().getServerContext().getSchema();
     AttributeType attrType = schema.getAttributeType(HISTORICAL_ATTRIBUTE_NAME);
-    String attrValue = encodeHistorical(OperationContext.getCSN(addOperation), "add");
-    List<Attribute> attrs = Attributes.createAsList(attrType, attrValue);
+    CSN csn = OperationContext.getCSN(addOperation);
+    List<Attribute> attrs;
+    if (binaryEncoding)
+    {
+      ByteString attrValue = BinaryHistoricalCodec.encode(
+          "dn", Collections.singletonList(HistoricalAttributeValue.newEntryRecord(csn, false)), null);
+      attrs = Attributes.createAsList(attrType, attrValue);
+    }
+    else
+    {
+      attrs = Attributes.createAsList(attrType, encodeHistorical(csn, "add"));
+    }
     addOperation.setAttribute(attrType, attrs);
   }
 
@@ -308,16 +352,53 @@ public class EntryHistorical
 
     // Read from this entryHistorical,
     // Create one empty if none was existing in this entryHistorical.
-    AttributeDescription attrDesc = modAttr.getAttributeDescription();
+    return getOrCreateAttrHistorical(modAttr.getAttributeDescription());
+  }
+
+  private AttrHistorical getOrCreateAttrHistorical(AttributeDescription attrDesc)
+  {
+    decodeAttrHistorical(attrDesc);
     AttrHistorical attrHist = attributesHistorical.get(attrDesc);
     if (attrHist == null)
     {
-      attrHist = AttrHistorical.createAttributeHistorical(modAttr.getAttributeDescription().getAttributeType());
+      attrHist = AttrHistorical.createAttributeHistorical(attrDesc.getAttributeType());
       attributesHistorical.put(attrDesc, attrHist);
     }
     return attrHist;
   }
 
+  /** Decodes the binary encoded historical information of the provided attribute, if not done yet. */
+  private void decodeAttrHistorical(AttributeDescription attrDesc)
+  {
+    final EncodedAttrHistorical encoded = encodedAttributesHistorical.remove(attrDesc);
+    if (encoded == null)
+    {
+      return;
+    }
+    try
+    {
+      for (HistoricalAttributeValue histVal : BinaryHistoricalCodec.decode(encoded.value, encoded.presentValues))
+      {
+        assign(histVal);
+      }
+    }
+    catch (Exception e)
+    {
+      // Any exception happening here means that the coding of the historical
+      // information was wrong: continue without the historical of this attribute.
+      logger.error(ERR_BAD_HISTORICAL, entry.getName());
+    }
+  }
+
+  /** Decodes all the binary encoded historical information not decoded yet. */
+  private void decodeAllAttrHistorical()
+  {
+    for (AttributeDescription attrDesc : new ArrayList<>(encodedAttributesHistorical.keySet()))
+    {
+      decodeAttrHistorical(attrDesc);
+    }
+  }
+
   /**
    * For stats/monitoring purpose, returns the number of historical values
    * purged the last time a purge has been applied on this entry historical.
@@ -338,6 +419,20 @@ public class EntryHistorical
    *      operation in HistoricalAttributeValue
    */
   public Attribute encodeAndPurge()
+  {
+    return encodeAndPurge(entry);
+  }
+
+  /**
+   * Encode this historical information object in an operational attribute and
+   * purge it from the values older than the purge delay.
+   *
+   * @param targetEntry
+   *          the entry the historical information will be stored in, whose values are referenced
+   *          by the binary encoding, or {@code null} if unknown
+   * @return The historical information encoded in an operational attribute.
+   */
+  private Attribute encodeAndPurge(Entry targetEntry)
   {
     long purgeDate = 0;
 
@@ -351,11 +446,41 @@ public class EntryHistorical
 
     AttributeBuilder builder = new AttributeBuilder(HISTORICAL_ATTRIBUTE_NAME);
 
+    if (binaryEncoding)
+    {
+      // Keep the binary encoded historical of the attributes which have not been decoded
+      // as long as it cannot be purged and the values it references are unchanged,
+      // otherwise decode it so that it gets purged and encoded again below
+      List<AttributeDescription> toDecode = new ArrayList<>();
+      for (Map.Entry<AttributeDescription, EncodedAttrHistorical> mapEntry : encodedAttributesHistorical.entrySet())
+      {
+        EncodedAttrHistorical encoded = mapEntry.getValue();
+        Attribute targetValues = targetEntry != null ? targetEntry.getAttribute(mapEntry.getKey()) : null;
+        if ((purgeDelayInMillisec <= 0 || encoded.oldestCSN.getTime() > purgeDate)
+            && Objects.equals(targetValues, encoded.presentValues))
+        {
+          builder.add(encoded.value);
+        }
+        else
+        {
+          toDecode.add(mapEntry.getKey());
+        }
+      }
+      for (AttributeDescription attrDesc : toDecode)
+      {
+        decodeAttrHistorical(attrDesc);
+      }
+    }
+    else
+    {
+      decodeAllAttrHistorical();
+    }
+
     for (Map.Entry<AttributeDescription, AttrHistorical> mapEntry : attributesHistorical.entrySet())
     {
       AttributeDescription attrDesc = mapEntry.getKey();
-      String options = attrDesc.toString();
       AttrHistorical attrHist = mapEntry.getValue();
+      List<HistoricalAttributeValue> records = new ArrayList<>();
 
       CSN deleteTime = attrHist.getDeleteTime();
       /* generate the historical information for deleted attributes */
@@ -373,8 +498,7 @@ public class EntryHistorical
             // this hist must be purged now, so skip its encoding
             continue;
           }
-          String strValue = encode(DEL, options, attrValHist.getValueDeleteTime(), value);
-          builder.add(strValue);
+          records.add(new HistoricalAttributeValue(attrDesc, attrValHist.getValueDeleteTime(), DEL, value));
         }
         else if (attrValHist.getValueUpdateTime() != null)
         {
@@ -384,58 +508,70 @@ public class EntryHistorical
             continue;
           }
 
-          String strValue;
           final CSN updateTime = attrValHist.getValueUpdateTime();
           // FIXME very suspicious use of == in the next if statement,
           // unit tests do not like changing it
           if (attrDel && updateTime == deleteTime && value != null)
           {
-            strValue = encode(REPL, options, updateTime, value);
+            records.add(new HistoricalAttributeValue(attrDesc, updateTime, REPL, value));
             attrDel = false;
           }
-          else if (value != null)
-          {
-            strValue = encode(ADD, options, updateTime, value);
-          }
           else
           {
             // "add" without any value is suspicious. Tests never go there.
             // Is this used to encode "add" with an empty string?
-            strValue = encode(ADD, options, updateTime);
+            records.add(new HistoricalAttributeValue(attrDesc, updateTime, ADD, value));
           }
-
-          builder.add(strValue);
         }
       }
 
-      if (attrDel)
+      if (attrDel && !needsPurge(deleteTime, purgeDate))
       {
-        if (needsPurge(deleteTime, purgeDate))
-        {
-          // this hist must be purged now, so skip its encoding
-          continue;
-        }
-        builder.add(encode(ATTRDEL, options, deleteTime));
+        records.add(new HistoricalAttributeValue(attrDesc, deleteTime, ATTRDEL, null));
       }
+      addRecords(builder, attrDesc.toString(), records, targetEntry != null ? targetEntry.getAttribute(attrDesc) : null);
     }
 
+    List<HistoricalAttributeValue> entryRecords = new ArrayList<>(2);
     if (entryADDDate != null && !needsPurge(entryADDDate, purgeDate))
     {
       // Encode the historical information for the ADD Operation.
       // Stores the ADDDate when not older than the purge delay
-      builder.add(encodeHistorical(entryADDDate, "add"));
+      entryRecords.add(HistoricalAttributeValue.newEntryRecord(entryADDDate, false));
     }
 
     if (entryMODDNDate != null && !needsPurge(entryMODDNDate, purgeDate))
     {
       // Encode the historical information for the MODDN Operation.
       // Stores the MODDNDate when not older than the purge delay
-      builder.add(encodeHistorical(entryMODDNDate, "moddn"));
+      entryRecords.add(HistoricalAttributeValue.newEntryRecord(entryMODDNDate, true));
     }
+    addRecords(builder, "dn", entryRecords, null);
 
     return builder.toAttribute();
   }
 
+  /** Adds the historical records of an attribute description to the provided builder, in the configured encoding. */
+  private void addRecords(AttributeBuilder builder, String attrDesc, List<HistoricalAttributeValue> records,
+      Attribute presentValues)
+  {
+    if (records.isEmpty())
+    {
+      return;
+    }
+    if (binaryEncoding)
+    {
+      builder.add(BinaryHistoricalCodec.encode(attrDesc, records, presentValues));
+    }
+    else
+    {
+      for (HistoricalAttributeValue record : records)
+      {
+        builder.add(record.toString());
+      }
+    }
+  }
+
   private boolean needsPurge(CSN csn, long purgeDate)
   {
     boolean needsPurge = purgeDelayInMillisec > 0 && csn.getTime() <= purgeDate;
@@ -447,25 +583,37 @@ public class EntryHistorical
     return needsPurge;
   }
 
-  private String encode(HistAttrModificationKey modKey, String options, CSN changeTime)
+  /**
+   * Set the delay to purge the historical information. The purge is applied
+   * only when historical attribute is updated (write operations).
+   *
+   * @param purgeDelay the purge delay in ms
+   */
+  public void setPurgeDelay(long purgeDelay)
   {
-    return options + ":" + changeTime + ":" + modKey;
+    this.purgeDelayInMillisec = purgeDelay;
   }
 
-  private String encode(HistAttrModificationKey modKey, String options, CSN changeTime, ByteString value)
+  /**
+   * Set whether the historical information must be stored in the binary encoding rather than in
+   * the text one the next time it is encoded. Both encodings are always readable.
+   *
+   * @param binaryEncoding true to store the historical information in the binary encoding
+   */
+  public void setBinaryEncoding(boolean binaryEncoding)
   {
-    return options + ":" + changeTime + ":" + modKey + ":" + value;
+    this.binaryEncoding = binaryEncoding;
   }
 
   /**
-   * Set the delay to purge the historical information. The purge is applied
-   * only when historical attribute is updated (write operations).
+   * Indicates whether the historical information read from the entry contains values in the
+   * encoding which is not the configured one, in which case the entry should be rewritten.
    *
-   * @param purgeDelay the purge delay in ms
+   * @return true if the historical information read from the entry must be encoded again
    */
-  public void setPurgeDelay(long purgeDelay)
+  public boolean hasValuesInOtherEncoding()
   {
-    this.purgeDelayInMillisec = purgeDelay;
+    return binaryEncoding ? textValuesCount > 0 : binaryValuesCount > 0;
   }
 
   /**
@@ -522,6 +670,7 @@ public class EntryHistorical
 
     // Now we'll build the Historical object we want to construct
     final EntryHistorical newHistorical = new EntryHistorical();
+    newHistorical.entry = entry;
     if (isEmpty(histAttrWithOptionsFromEntry))
     {
       // No historical attribute in the entry, return empty object
@@ -540,50 +689,16 @@ public class EntryHistorical
         // For each Attribute (option), traverse the values
         for (ByteString histAttrValueFromEntry : histAttrFromEntry)
         {
-          // From each value of the hist attr, create an object
-          final HistoricalAttributeValue histVal = new HistoricalAttributeValue(histAttrValueFromEntry.toString());
-          final CSN csn = histVal.getCSN();
-
-          // update the oldest CSN stored in the new entry historical
-          newHistorical.updateOldestCSN(csn);
-
-          if (histVal.isADDOperation())
+          if (BinaryHistoricalCodec.isBinary(histAttrValueFromEntry))
           {
-            newHistorical.entryADDDate = csn;
-          }
-          else if (histVal.isMODDNOperation())
-          {
-            newHistorical.entryMODDNDate = csn;
+            newHistorical.binaryValuesCount++;
+            newHistorical.readBinaryValue(histAttrValueFromEntry);
           }
           else
           {
-            final AttributeDescription attrDesc = histVal.getAttributeDescription();
-            if (attrDesc == null)
-            {
-              /*
-               * This attribute is unknown from the schema
-               * Just skip it, the modification will be processed but no
-               * historical information is going to be kept.
-               * Log information for the repair tool.
-               */
-              logger.error(ERR_UNKNOWN_ATTRIBUTE_IN_HISTORICAL, entry.getName(), histVal.getAttrString());
-              continue;
-            }
-
-            /* if attribute type does not match we create new
-             *   AttrInfoWithOptions and AttrInfo
-             *   we also add old AttrInfoWithOptions into histObj.attributesInfo
-             * if attribute type match but options does not match we create new
-             *   AttrInfo that we add to AttrInfoWithOptions
-             * if both match we keep everything
-             */
-            AttrHistorical attrInfo = newHistorical.attributesHistorical.get(attrDesc);
-            if (attrInfo == null)
-            {
-              attrInfo = AttrHistorical.createAttributeHistorical(attrDesc.getAttributeType());
-              newHistorical.attributesHistorical.put(attrDesc, attrInfo);
-            }
-            attrInfo.assign(histVal);
+            // From each value of the hist attr, create an object
+            newHistorical.textValuesCount++;
+            newHistorical.assign(new HistoricalAttributeValue(histAttrValueFromEntry.toString()));
           }
         }
       }
@@ -599,6 +714,84 @@ public class EntryHistorical
     return newHistorical;
   }
 
+  /** Adds the provided historical value read from the entry to this historical information. */
+  private void assign(HistoricalAttributeValue histVal)
+  {
+    final CSN csn = histVal.getCSN();
+
+    // update the oldest CSN stored in the new entry historical
+    updateOldestCSN(csn);
+
+    if (histVal.isADDOperation())
+    {
+      entryADDDate = csn;
+    }
+    else if (histVal.isMODDNOperation())
+    {
+      entryMODDNDate = csn;
+    }
+    else
+    {
+      final AttributeDescription attrDesc = histVal.getAttributeDescription();
+      if (attrDesc == null)
+      {
+        /*
+         * This attribute is unknown from the schema
+         * Just skip it, the modification will be processed but no
+         * historical information is going to be kept.
+         * Log information for the repair tool.
+         */
+        logger.error(ERR_UNKNOWN_ATTRIBUTE_IN_HISTORICAL, entry.getName(), histVal.getAttrString());
+        return;
+      }
+
+      /* if attribute type does not match we create new
+       *   AttrInfoWithOptions and AttrInfo
+       *   we also add old AttrInfoWithOptions into histObj.attributesInfo
+       * if attribute type match but options does not match we create new
+       *   AttrInfo that we add to AttrInfoWithOptions
+       * if both match we keep everything
+       */
+      getOrCreateAttrHistorical(attrDesc).assign(histVal);
+    }
+  }
+
+  /**
+   * Adds the provided binary historical value read from the entry to this historical information.
+   * The historical of the entry itself is decoded immediately, the one of an attribute only when
+   * it is needed.
+   */
+  private void readBinaryValue(ByteString value)
+  {
+    final CSN oldest = BinaryHistoricalCodec.getOldestCSN(value);
+    updateOldestCSN(oldest);
+
+    final String attrDescString = BinaryHistoricalCodec.getAttributeDescription(value);
+    if ("dn".equalsIgnoreCase(attrDescString))
+    {
+      for (HistoricalAttributeValue histVal : BinaryHistoricalCodec.decode(value, null))
+      {
+        assign(histVal);
+      }
+    }
+    else
+    {
+      final AttributeDescription attrDesc = AttributeDescription.valueOf(attrDescString);
+      if (attributesHistorical.containsKey(attrDesc))
+      {
+        // text values were already read for this attribute: keep them all together
+        for (HistoricalAttributeValue histVal : BinaryHistoricalCodec.decode(value, entry.getAttribute(attrDesc)))
+        {
+          assign(histVal);
+        }
+      }
+      else
+      {
+        encodedAttributesHistorical.put(attrDesc, new EncodedAttrHistorical(value, oldest, entry.getAttribute(attrDesc)));
+      }
+    }
+  }
+
   /**
    * Use this historical information to generate fake operations that would
    * result in this historical information.
@@ -613,9 +806,8 @@ public class EntryHistorical
     TreeMap<CSN, FakeOperation> operations = new TreeMap<>();
     for (Attribute attr : getHistoricalAttr(entry))
     {
-      for (ByteString val : attr)
+      for (HistoricalAttributeValue histVal : decodeAll(entry, attr))
       {
-        HistoricalAttributeValue histVal = new HistoricalAttributeValue(val.toString());
         if (histVal.isADDOperation())
         {
           // Found some historical information indicating that this entry was just added.
@@ -655,6 +847,48 @@ public class EntryHistorical
     return operations.values();
   }
 
+  /** Decodes all the values of the provided historical attribute, whatever their encoding. */
+  private static List<HistoricalAttributeValue> decodeAll(Entry entry, Attribute historicalAttr)
+  {
+    List<HistoricalAttributeValue> histVals = new ArrayList<>();
+    for (ByteString value : historicalAttr)
+    {
+      if (BinaryHistoricalCodec.isBinary(value))
+      {
+        String attrDesc = BinaryHistoricalCodec.getAttributeDescription(value);
+        Attribute presentValues =
+            "dn".equalsIgnoreCase(attrDesc) ? null : entry.getAttribute(AttributeDescription.valueOf(attrDesc));
+        histVals.addAll(BinaryHistoricalCodec.decode(value, presentValues));
+      }
+      else
+      {
+        histVals.add(new HistoricalAttributeValue(value.toString()));
+      }
+    }
+    return histVals;
+  }
+
+  /**
+   * Appends the CSNs of the provided historical attribute value to the provided collection, whatever
+   * the encoding of the value.
+   *
+   * @param value
+   *          a value of the historical attribute
+   * @param csns
+   *          where to append the CSNs
+   */
+  static void getCSNs(ByteString value, Collection<CSN> csns)
+  {
+    if (BinaryHistoricalCodec.isBinary(value))
+    {
+      BinaryHistoricalCodec.getCSNs(value, csns);
+    }
+    else
+    {
+      csns.add(new HistoricalAttributeValue(value.toString()).getCSN());
+    }
+  }
+
   /**
    * Get the attribute used to store the historical information from the provided Entry.
    *
@@ -116,6 +116,52 @@ class HistoricalAttributeValue
     }
   }
 
+  /**
+   * Create a new object from its components, as decoded from the binary encoded form.
+   *
+   * @param attrDesc
+   *          the attribute description
+   * @param csn
+   *          the CSN of the change
+   * @param histKey
+   *          the type of historical information
+   * @param value
+   *          the attribute value, or {@code null} if there is none
+   * @see BinaryHistoricalCodec
+   */
+  HistoricalAttributeValue(AttributeDescription attrDesc, CSN csn, HistAttrModificationKey histKey, ByteString value)
+  {
+    this(attrDesc, csn, histKey, value, false);
+  }
+
+  private HistoricalAttributeValue(AttributeDescription attrDesc, CSN csn, HistAttrModificationKey histKey,
+      ByteString value, boolean isModDN)
+  {
+    this.attrDesc = attrDesc;
+    this.attrString = toLowerCase(attrDesc.getNameOrOID());
+    this.attrTypeIsNull = attrString.equalsIgnoreCase("dn");
+    this.isModDN = isModDN;
+    this.csn = csn;
+    this.histKey = histKey;
+    this.attributeValue = histKey != ATTRDEL ? value : null;
+    this.stringValue = attributeValue != null ? attributeValue.toString() : null;
+  }
+
+  /**
+   * Creates the historical information of the ADD or MODDN operation which created or last renamed
+   * the entry.
+   *
+   * @param csn
+   *          the CSN of the operation
+   * @param isModDN
+   *          true for a MODDN operation, false for an ADD operation
+   * @return the historical information of the operation
+   */
+  static HistoricalAttributeValue newEntryRecord(CSN csn, boolean isModDN)
+  {
+    return new HistoricalAttributeValue(AttributeDescription.valueOf("dn"), csn, isModDN ? null : ADD, null, isModDN);
+  }
+
   /**
    * Get the String form of the attribute type.
    *
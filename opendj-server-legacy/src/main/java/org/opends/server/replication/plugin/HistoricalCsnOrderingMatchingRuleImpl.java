@@ -16,6 +16,7 @@
  */
 package org.opends.server.replication.plugin;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -37,10 +38,18 @@ import static org.forgerock.opendj.ldap.Assertion.*;
 import static org.opends.messages.ReplicationMessages.*;
 import static org.opends.server.util.StaticUtils.*;
 
-/** Matching rule used to establish an order between historical information and index them. */
+/**
+ * Matching rule used to establish an order between historical information and index them.
+ * <p>
+ * A text historical value holds a single CSN, and is normalized to the key of this CSN. A binary
+ * historical value holds several CSNs: it is indexed with the key of each of them, and normalized
+ * to the smallest key followed by the greatest key, so that it matches an ordering assertion as
+ * soon as one of its CSNs does.
+ */
 public final class HistoricalCsnOrderingMatchingRuleImpl implements MatchingRuleImpl
 {
   private static final String ORDERING_ID = "changeSequenceNumberOrderingMatch";
+  private static final int KEY_LENGTH = CSN.BYTE_ENCODING_LENGTH;
 
   private final Collection<? extends Indexer> indexers = Collections.singleton(new HistoricalIndexer());
 
@@ -50,7 +59,17 @@ public final class HistoricalCsnOrderingMatchingRuleImpl implements MatchingRule
     @Override
     public void createKeys(Schema schema, ByteSequence value, Collection<ByteString> keys) throws DecodeException
     {
-      keys.add(normalizeAttributeValue(schema, value));
+      if (BinaryHistoricalCodec.isBinary(value))
+      {
+        for (CSN csn : getCSNs(value))
+        {
+          keys.add(toKey(csn));
+        }
+      }
+      else
+      {
+        keys.add(normalizeAttributeValue(schema, value));
+      }
     }
 
     @Override
@@ -79,6 +98,28 @@ public final class HistoricalCsnOrderingMatchingRuleImpl implements MatchingRule
      * that manner, the search response time is optimized for a particular
      * serverId. The format of the key is now : serverId + timestamp + seqNum
      */
+    if (BinaryHistoricalCodec.isBinary(value))
+    {
+      ByteString minKey = null;
+      ByteString maxKey = null;
+      for (CSN csn : getCSNs(value))
+      {
+        final ByteString key = toKey(csn);
+        if (minKey == null || key.compareTo(minKey) < 0)
+        {
+          minKey = key;
+        }
+        if (maxKey == null || key.compareTo(maxKey) > 0)
+        {
+          maxKey = key;
+        }
+      }
+      if (minKey == null)
+      {
+        throw DecodeException.error(WARN_INVALID_SYNC_HIST_VALUE.get(value));
+      }
+      return new ByteStringBuilder(2 * KEY_LENGTH).appendBytes(minKey).appendBytes(maxKey).toByteString();
+    }
     try
     {
       int csnIndex = value.toString().indexOf(':') + 1;
@@ -96,6 +137,45 @@ public final class HistoricalCsnOrderingMatchingRuleImpl implements MatchingRule
     }
   }
 
+  private static List<CSN> getCSNs(ByteSequence value) throws DecodeException
+  {
+    try
+    {
+      final List<CSN> csns = new ArrayList<>();
+      BinaryHistoricalCodec.getCSNs(value, csns);
+      return csns;
+    }
+    catch (Exception e)
+    {
+      // This should never occur in practice since these attributes are managed internally.
+      throw DecodeException.error(WARN_INVALID_SYNC_HIST_VALUE.get(value), e);
+    }
+  }
+
+  /** Returns the key of the provided CSN: serverId + timestamp + seqNum. */
+  private static ByteString toKey(CSN csn)
+  {
+    final ByteString bytes = csn.toByteString();
+    return new ByteStringBuilder(KEY_LENGTH)
+        .appendBytes(bytes.subSequence(8, 10))
+        .appendBytes(bytes.subSequence(0, 8))
+        .appendBytes(bytes.subSequence(10, 14))
+        .toByteString();
+  }
+
+  /** Returns the smallest key of a normalized value. */
+  private static ByteSequence minKey(ByteSequence normalizedValue)
+  {
+    return normalizedValue.length() > KEY_LENGTH ? normalizedValue.subSequence(0, KEY_LENGTH) : normalizedValue;
+  }
+
+  /** Returns the greatest key of a normalized value. */
+  private static ByteSequence maxKey(ByteSequence normalizedValue)
+  {
+    final int length = normalizedValue.length();
+    return length > KEY_LENGTH ? normalizedValue.subSequence(length - KEY_LENGTH, length) : normalizedValue;
+  }
+
   @Override
   public Assertion getAssertion(final Schema schema, final ByteSequence value) throws DecodeException
   {
@@ -105,7 +185,7 @@ public final class HistoricalCsnOrderingMatchingRuleImpl implements MatchingRule
       @Override
       public ConditionResult matches(final ByteSequence attributeValue)
       {
-        return ConditionResult.valueOf(attributeValue.compareTo(normAssertion) < 0);
+        return ConditionResult.valueOf(minKey(attributeValue).compareTo(normAssertion) < 0);
       }
 
       @Override
@@ -132,7 +212,7 @@ public final class HistoricalCsnOrderingMatchingRuleImpl implements MatchingRule
       @Override
       public ConditionResult matches(final ByteSequence normalizedAttributeValue)
       {
-        return ConditionResult.valueOf(normalizedAttributeValue.compareTo(normAssertion) >= 0);
+        return ConditionResult.valueOf(maxKey(normalizedAttributeValue).compareTo(normAssertion) >= 0);
       }
 
       @Override
@@ -152,7 +232,7 @@ public final class HistoricalCsnOrderingMatchingRuleImpl implements MatchingRule
       @Override
       public ConditionResult matches(final ByteSequence normalizedAttributeValue)
       {
-        return ConditionResult.valueOf(normalizedAttributeValue.compareTo(normAssertion) <= 0);
+        return ConditionResult.valueOf(minKey(normalizedAttributeValue).compareTo(normAssertion) <= 0);
       }
 
       @Override
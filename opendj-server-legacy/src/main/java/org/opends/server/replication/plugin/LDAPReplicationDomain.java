@@ -75,6 +75,7 @@ import org.forgerock.opendj.ldap.SearchScope;
 import org.forgerock.opendj.ldap.schema.AttributeType;
 import org.forgerock.opendj.ldap.schema.ObjectClass;
 import org.forgerock.opendj.ldap.schema.Schema;
+import org.forgerock.opendj.server.config.meta.ReplicationDomainCfgDefn.ConflictsHistoricalEncoding;
 import org.forgerock.opendj.server.config.meta.ReplicationDomainCfgDefn.IsolationPolicy;
 import org.forgerock.opendj.server.config.server.ExternalChangelogDomainCfg;
 import org.forgerock.opendj.server.config.server.ReplicationDomainCfg;
@@ -309,6 +310,11 @@ public final class LDAPReplicationDomain extends ReplicationDomain
       new AtomicInteger();
   /** The number of updates replayed successfully by the replication. */
   private final AtomicInteger numReplayedPostOpCalled = new AtomicInteger();
+  /**
+   * The delay in milliseconds between the creation of the last replayed update
+   * on its originating server and the end of its replay on this server.
+   */
+  private volatile long lastReplayLag;
 
   private final PersistentServerState state;
   private volatile boolean generationIdSavedStatus;
@@ -348,6 +354,7 @@ public final class LDAPReplicationDomain extends ReplicationDomain
   private volatile boolean done = true;
 
   private final ServerStateFlush flushThread;
+  private final HistoricalPurger historicalPurgerThread;
 
   /** The attribute name used to store the generation id in the backend. */
   private static final String REPLICATION_GENERATION_ID = "ds-sync-generation-id";
@@ -390,7 +397,7 @@ public final class LDAPReplicationDomain extends ReplicationDomain
    * The message id to be used when an import is stopped with error by
    * the fractional replication ldif import plugin.
    */
-  private int importErrorMessageId = -1;
+  private volatile int importErrorMessageId = -1;
   /** LocalizableMessage type for ERR_FULL_UPDATE_IMPORT_FRACTIONAL_BAD_REMOTE. */
   static final int IMPORT_ERROR_MESSAGE_BAD_REMOTE = 1;
   /** LocalizableMessage type for ERR_FULL_UPDATE_IMPORT_FRACTIONAL_REMOTE_IS_FRACTIONAL. */
@@ -420,6 +427,8 @@ public final class LDAPReplicationDomain extends ReplicationDomain
    * the server starts.
    */
   private CSN lastCSNPurgedFromHist = new CSN(0,0,0);
+  /** Prevents the purge conflicts historical task and the background purge from running concurrently. */
+  private final Object purgeHistoricalLock = new Object();
 
   /**
    * The thread that periodically saves the ServerState of this
@@ -462,6 +471,60 @@ public final class LDAPReplicationDomain extends ReplicationDomain
     }
   }
 
+  /**
+   * The thread that periodically purges the conflicts historical information
+   * of all the entries of this LDAPReplicationDomain, when configured to.
+   */
+  private class HistoricalPurger extends DirectoryThread
+  {
+    private long lastPurgeTime = TimeThread.getTime();
+
+    protected HistoricalPurger()
+    {
+      super("Replica DS(" + getServerId() + ") historical purger for domain \"" + getBaseDN() + "\"");
+    }
+
+    @Override
+    public void run()
+    {
+      while (!isShutdownInitiated())
+      {
+        try
+        {
+          synchronized (this)
+          {
+            wait(1000);
+          }
+          final long interval = getHistoricalPurgeInterval();
+          final long now = TimeThread.getTime();
+          if (interval > 0 && now - lastPurgeTime >= interval && !disabled && !ieRunning())
+          {
+            lastPurgeTime = now;
+            purgeConflictsHistorical(null, now + PurgeConflictsHistoricalTask.DEFAULT_MAX_DURATION * 1000L);
+          }
+        }
+        catch (InterruptedException e)
+        {
+          // Thread interrupted: check for shutdown.
+          Thread.currentThread().interrupt();
+        }
+        catch (DirectoryException e)
+        {
+          if (e.getResultCode() == ResultCode.ADMIN_LIMIT_EXCEEDED)
+          {
+            // end date reached: the next purge will resume where this one stopped
+            logger.traceException(e);
+          }
+          else
+          {
+            logger.error(ERR_BACKGROUND_PURGE_CONFLICTS_HISTORICAL_FAILED, getBaseDN(),
+                stackTraceToSingleLineString(e));
+          }
+        }
+      }
+    }
+  }
+
   /**
    * The thread that is responsible to update the RS to which this domain is
    * connected in case it is late and there is no RS which is up to date.
@@ -578,6 +641,7 @@ public final class LDAPReplicationDomain extends ReplicationDomain
     state = new PersistentServerState(getBaseDN(), getServerId(),
         getServerState());
     flushThread = new ServerStateFlush();
+    historicalPurgerThread = new HistoricalPurger();
 
     /*
      * CSNGenerator is used to create new unique CSNs for each operation done on
@@ -1486,6 +1550,11 @@ public final class LDAPReplicationDomain extends ReplicationDomain
     // This is an error termination during the import
     // The error is stored and the import is ended by returning null
     final ImportExportContext ieCtx = getImportExportContext();
+    if (ieCtx == null)
+    {
+      // the import has already ended
+      return null;
+    }
     LocalizableMessage msg = null;
     switch (importErrorMessageId)
     {
@@ -2242,6 +2311,14 @@ public final class LDAPReplicationDomain extends ReplicationDomain
           flushThread.notify();
         }
       }
+      if (historicalPurgerThread != null)
+      {
+        historicalPurgerThread.initiateShutdown();
+        synchronized (historicalPurgerThread)
+        {
+          historicalPurgerThread.notify();
+        }
+      }
 
       DirectoryServer.deregisterAlertGenerator(this);
       getServerContext().getBackendConfigManager()
@@ -2266,7 +2343,10 @@ public final class LDAPReplicationDomain extends ReplicationDomain
   }
 
   /**
-   * Marks the specified message as the one currently processed by a replay thread.
+   * Marks the specified message as in progress, i.e. queued for replay or
+   * currently processed by a replay thread. Updates are marked in progress as
+   * soon as they are queued so that the dependencies between updates replayed
+   * concurrently by different replay lanes are always detected.
    * @param msg the message being processed
    */
   void markInProgress(LDAPUpdateMsg msg)
@@ -2458,6 +2538,7 @@ public final class LDAPReplicationDomain extends ReplicationDomain
       {
         if (!dependency)
         {
+          lastReplayLag = Math.max(0, TimeThread.getTime() - msg.getCSN().getTime());
           processUpdateDone(msg, replayErrorMsg);
         }
       }
@@ -3866,6 +3947,7 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
   {
     // Create the ServerStateFlush thread
     flushThread.start();
+    historicalPurgerThread.start();
 
     startListenService();
   }
@@ -4266,20 +4348,19 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
         }
         return true;
       }
+      // Mark the update before queueing it, a replay thread may commit it as soon as it is queued
+      markInProgress(msg);
 
       // Put update message into the replay queue
       // (block until some place in the queue is available)
       final UpdateToReplay updateToReplay = new UpdateToReplay(msg, this);
-      while (!isListenerShuttingDown())
+      boolean queued = false;
+      while (!queued && !isListenerShuttingDown())
       {
         // loop until we can offer to the queue or shutdown was initiated
         try
         {
-          if (updateToReplayQueue.offer(updateToReplay, 1, TimeUnit.SECONDS))
-          {
-            // successful offer to the queue, let's exit the loop
-            break;
-          }
+          queued = updateToReplayQueue.offer(updateToReplay, 1, TimeUnit.SECONDS);
         }
         catch (InterruptedException e)
         {
@@ -4287,6 +4368,11 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
           Thread.currentThread().interrupt();
         }
       }
+      if (!queued)
+      {
+        // shutdown was initiated: the update will never be replayed, do not report it as in progress
+        remotePendingChanges.unmarkInProgress(msg);
+      }
 
       return false;
     }
@@ -4306,6 +4392,13 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
     attributes.add("remote-pending-changes-size", remotePendingChanges.getQueueSize());
     attributes.add("dependent-changes-size", remotePendingChanges.getDependentChangesSize());
     attributes.add("changes-in-progress-size", remotePendingChanges.changesInProgressSize());
+    attributes.add("replay-lag", lastReplayLag);
+    if (updateToReplayQueue instanceof ReplayLanes)
+    {
+      final ReplayLanes replayLanes = (ReplayLanes) updateToReplayQueue;
+      attributes.add("replay-lanes", replayLanes.getLaneCount());
+      attributes.add("replay-lane-occupancy", replayLanes.getLaneOccupancy());
+    }
   }
 
   /**
@@ -4901,6 +4994,28 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
     return config.getConflictsHistoricalPurgeDelay() * 60 * 1000;
   }
 
+  /**
+   * Return the interval (in ms) between two background purges of the
+   * historical information necessary to solve conflicts.
+   *
+   * @return the purge interval, 0 when the background purge is disabled.
+   */
+  long getHistoricalPurgeInterval()
+  {
+    return config.getConflictsHistoricalPurgeInterval() * 60 * 1000;
+  }
+
+  /**
+   * Specifies whether the historical information necessary to solve conflicts
+   * is stored in the binary encoding rather than in the text one.
+   *
+   * @return true if the historical information is stored in the binary encoding.
+   */
+  boolean isHistoricalBinaryEncoding()
+  {
+    return config.getConflictsHistoricalEncoding() == ConflictsHistoricalEncoding.BINARY;
+  }
+
   /**
    * Check and purge the historical attribute on all eligible entries under this domain.
    *
@@ -4908,7 +5023,8 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
    * task may be useful in scenarios where a large number of changes are made as a one-off occurrence.
    * Running a purge-historical after the 'ds-cfg-conflicts-historical-purge-delay' period has elapsed
    * would clear out obsolete historical data from all the modified entries reducing the overall
-   * database size.
+   * database size. The historical data stored in the encoding which is not the configured
+   * 'ds-cfg-conflicts-historical-encoding' is rewritten at the same time.
    *
    * @param task
    *          the task raising this purge.
@@ -4919,6 +5035,15 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
    */
   public void purgeConflictsHistorical(PurgeConflictsHistoricalTask task,
       long endDate) throws DirectoryException
+  {
+    synchronized (purgeHistoricalLock)
+    {
+      purgeConflictsHistorical0(task, endDate);
+    }
+  }
+
+  private void purgeConflictsHistorical0(PurgeConflictsHistoricalTask task,
+      long endDate) throws DirectoryException
   {
     logger.trace("[PURGE] purgeConflictsHistorical "
          + "on domain: " + getBaseDN()
@@ -4976,14 +5101,19 @@ private boolean solveNamingConflict(ModifyDNOperation op, LDAPUpdateMsg msg)
           throw new DirectoryException(ResultCode.ADMIN_LIMIT_EXCEEDED,
               LocalizableMessage.raw(" end date reached"));
         }
+        if (shutdown.get()) {
+          throw new DirectoryException(ResultCode.ADMIN_LIMIT_EXCEEDED,
+              LocalizableMessage.raw(" domain shut down"));
+        }
 
         EntryHistorical entryHist = EntryHistorical.newInstanceFromEntry(entry);
 
         CSN latestOldCSN = entryHist.getOldestCSN();
         entryHist.setPurgeDelay(getHistoricalPurgeDelay());
+        entryHist.setBinaryEncoding(isHistoricalBinaryEncoding());
         Attribute attr = entryHist.encodeAndPurge();
 
-        if(entryHist.getLastPurgedValuesCount() > 0)
+        if (entryHist.getLastPurgedValuesCount() > 0 || entryHist.hasValuesInOtherEncoding())
         {
           lastCSNPurgedFromHist = latestOldCSN;
           List<Modification> mods = newArrayList(new Modification(ModificationType.REPLACE, attr));
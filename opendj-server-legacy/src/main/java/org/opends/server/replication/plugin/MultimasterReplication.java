@@ -29,9 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.forgerock.i18n.LocalizableMessage;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -98,12 +96,15 @@ public class MultimasterReplication
   private ReplicationServerListener replicationServerListener;
   private static final Map<DN, LDAPReplicationDomain> domains = new ConcurrentHashMap<>(4);
   private static final DSRSShutdownSync dsrsShutdownSync = new DSRSShutdownSync();
-  /** The queue of received update messages, to be treated by the ReplayThread threads. */
-  private static final BlockingQueue<UpdateToReplay> updateToReplayQueue = new LinkedBlockingQueue<>(10000);
-  /** The list of ReplayThread threads. */
-  private static final List<ReplayThread> replayThreads = new ArrayList<>();
   /** The configurable number of replay threads. */
   private static int replayThreadNumber = 10;
+  /**
+   * The queue of received update messages, to be treated by the ReplayThread threads.
+   * It has one lane per replay thread.
+   */
+  private static final ReplayLanes updateToReplayQueue = new ReplayLanes(10000, replayThreadNumber);
+  /** The list of ReplayThread threads. */
+  private static final List<ReplayThread> replayThreads = new ArrayList<>();
 
   /** Enum that symbolizes the state of the multimaster replication. */
   private enum State
@@ -301,10 +302,10 @@ public class MultimasterReplication
   {
     replayThreads.clear();
 
-    ReentrantLock switchQueueLock = new ReentrantLock();
+    updateToReplayQueue.setLaneCount(replayThreadNumber);
     for (int i = 0; i < replayThreadNumber; i++)
     {
-      ReplayThread replayThread = new ReplayThread(updateToReplayQueue, switchQueueLock);
+      ReplayThread replayThread = new ReplayThread(updateToReplayQueue, i);
       replayThread.start();
       replayThreads.add(replayThread);
     }
@@ -463,6 +464,7 @@ public class MultimasterReplication
           historicalInformation);
     }
     historicalInformation.setPurgeDelay(domain.getHistoricalPurgeDelay());
+    historicalInformation.setBinaryEncoding(domain.isHistoricalBinaryEncoding());
     historicalInformation.setHistoricalAttrToOperation(modifyOperation);
 
     if (modifyOperation.getModifications().isEmpty())
@@ -512,6 +514,7 @@ public class MultimasterReplication
           historicalInformation);
     }
     historicalInformation.setPurgeDelay(domain.getHistoricalPurgeDelay());
+    historicalInformation.setBinaryEncoding(domain.isHistoricalBinaryEncoding());
 
     // Add to the operation the historical attribute : "dn:changeNumber:moddn"
     historicalInformation.setHistoricalAttrToOperation(modifyDNOperation);
@@ -538,7 +541,7 @@ public class MultimasterReplication
     }
 
     // Add to the operation the historical attribute : "dn:changeNumber:add"
-    EntryHistorical.setHistoricalAttrToOperation(addOperation);
+    EntryHistorical.setHistoricalAttrToOperation(addOperation, domain.isHistoricalBinaryEncoding());
 
     return new SynchronizationProviderResult.ContinueProcessing();
   }
@@ -21,9 +21,11 @@ import static org.opends.server.protocols.internal.InternalClientConnection.*;
 import static org.opends.server.protocols.internal.Requests.*;
 import static org.opends.server.replication.plugin.EntryHistorical.*;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.ByteString;
@@ -339,11 +341,13 @@ class PersistentServerState
       CSN dbMaxCSN = serverStateMaxCSN;
       for (SearchResultEntry resEntry : op.getSearchEntries())
       {
+        List<CSN> csns = new ArrayList<>();
         for (ByteString attrValue : resEntry.getAllAttributes(HISTORICAL_ATTRIBUTE_NAME).iterator().next())
         {
-          HistoricalAttributeValue histVal =
-              new HistoricalAttributeValue(attrValue.toString());
-          CSN csn = histVal.getCSN();
+          EntryHistorical.getCSNs(attrValue, csns);
+        }
+        for (CSN csn : csns)
+        {
           if (csn != null
               && csn.getServerId() == serverId
               && dbMaxCSN.isOlderThan(csn))
@@ -211,6 +211,29 @@ final class RemotePendingChanges
       pendingChangesReadLock.unlock();
     }
   }
+
+  /**
+   * Reverts {@link #markInProgress(LDAPUpdateMsg)} for an update which could not be queued for replay.
+   *
+   * @param msg
+   *          the update which is not in progress anymore
+   */
+  public void unmarkInProgress(LDAPUpdateMsg msg)
+  {
+    pendingChangesReadLock.lock();
+    try
+    {
+      final PendingChange pendingChange = pendingChanges.get(msg.getCSN());
+      if (pendingChange != null)
+      {
+        activeAndDependentChanges.remove(pendingChange);
+      }
+    }
+    finally
+    {
+      pendingChangesReadLock.unlock();
+    }
+  }
   /**
    * Get the first update in the list that have some dependencies cleared.
    *
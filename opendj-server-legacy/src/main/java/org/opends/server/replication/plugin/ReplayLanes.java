@@ -0,0 +1,370 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.plugin;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.util.Reject;
+
+/**
+ * The queue of updates to be replayed, partitioned into independent lanes.
+ * <p>
+ * Each update is assigned to a lane according to the DN of the entry it targets, and each lane is
+ * consumed by exactly one {@link ReplayThread}. Hence all the updates targeting the same entry are
+ * replayed one after the other, in the order they were received (i.e. in CSN order), while updates
+ * targeting different entries are replayed concurrently.
+ * <p>
+ * Dependencies between updates targeting different entries (e.g. adding a child entry while its
+ * parent is still being added) are not handled here: they are still detected by
+ * {@link RemotePendingChanges} which defers the dependent updates until their dependencies have been
+ * replayed.
+ * <p>
+ * The total number of queued updates is bounded across all the lanes.
+ */
+final class ReplayLanes extends AbstractQueue<UpdateToReplay> implements BlockingQueue<UpdateToReplay>
+{
+  /** Bounds the total number of updates queued in all the lanes. */
+  private final Semaphore freeSlots;
+  private final int capacity;
+  /** Guards replacing the lanes, offering to the lanes only needs the read lock. */
+  private final ReentrantReadWriteLock lanesLock = new ReentrantReadWriteLock();
+  private volatile List<LinkedBlockingQueue<UpdateToReplay>> lanes;
+  /** Wakes up the consumers waiting for an update in any lane, see {@link #take()}. */
+  private final ReentrantLock updateAddedLock = new ReentrantLock();
+  private final Condition updateAdded = updateAddedLock.newCondition();
+  /** Number of consumers waiting on {@link #updateAdded}, producers only signal when there are some. */
+  private final AtomicInteger waitingConsumers = new AtomicInteger();
+
+  /**
+   * Creates new replay lanes.
+   *
+   * @param capacity
+   *          the maximum number of updates queued across all the lanes
+   * @param laneCount
+   *          the initial number of lanes
+   */
+  ReplayLanes(int capacity, int laneCount)
+  {
+    this.capacity = capacity;
+    this.freeSlots = new Semaphore(capacity, true);
+    this.lanes = newLanes(laneCount);
+  }
+
+  private static List<LinkedBlockingQueue<UpdateToReplay>> newLanes(int laneCount)
+  {
+    Reject.ifTrue(laneCount < 1, "laneCount must be positive");
+    List<LinkedBlockingQueue<UpdateToReplay>> newLanes = new ArrayList<>(laneCount);
+    for (int i = 0; i < laneCount; i++)
+    {
+      newLanes.add(new LinkedBlockingQueue<UpdateToReplay>());
+    }
+    return newLanes;
+  }
+
+  /**
+   * Changes the number of lanes, redistributing the updates already queued while preserving their
+   * relative order for a given entry.
+   * <p>
+   * This must only be called while no {@link ReplayThread} is polling the lanes.
+   *
+   * @param laneCount
+   *          the new number of lanes
+   */
+  void setLaneCount(int laneCount)
+  {
+    lanesLock.writeLock().lock();
+    try
+    {
+      final List<LinkedBlockingQueue<UpdateToReplay>> oldLanes = lanes;
+      if (oldLanes.size() == laneCount)
+      {
+        return;
+      }
+      final List<LinkedBlockingQueue<UpdateToReplay>> newLanes = newLanes(laneCount);
+      for (LinkedBlockingQueue<UpdateToReplay> oldLane : oldLanes)
+      {
+        for (UpdateToReplay update : oldLane)
+        {
+          newLanes.get(laneIndex(update, laneCount)).add(update);
+        }
+      }
+      lanes = newLanes;
+    }
+    finally
+    {
+      lanesLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Returns the number of lanes.
+   *
+   * @return the number of lanes
+   */
+  int getLaneCount()
+  {
+    return lanes.size();
+  }
+
+  /**
+   * Returns the number of updates queued in each lane.
+   *
+   * @return the number of updates queued in each lane
+   */
+  List<Integer> getLaneOccupancy()
+  {
+    final List<LinkedBlockingQueue<UpdateToReplay>> currentLanes = lanes;
+    final List<Integer> occupancy = new ArrayList<>(currentLanes.size());
+    for (LinkedBlockingQueue<UpdateToReplay> lane : currentLanes)
+    {
+      occupancy.add(lane.size());
+    }
+    return occupancy;
+  }
+
+  /**
+   * Retrieves and removes the head of the provided lane, waiting up to the specified wait time if
+   * necessary for an update to become available.
+   *
+   * @param laneIndex
+   *          the index of the lane to poll
+   * @param timeout
+   *          how long to wait before giving up, in units of {@code unit}
+   * @param unit
+   *          the time unit of the timeout
+   * @return the head of the lane, or {@code null} if the lane does not exist anymore or if the
+   *         specified waiting time elapses before an update is available
+   * @throws InterruptedException
+   *           if interrupted while waiting
+   */
+  UpdateToReplay poll(int laneIndex, long timeout, TimeUnit unit) throws InterruptedException
+  {
+    final List<LinkedBlockingQueue<UpdateToReplay>> currentLanes = lanes;
+    if (laneIndex >= currentLanes.size())
+    {
+      return null;
+    }
+    return released(currentLanes.get(laneIndex).poll(timeout, unit));
+  }
+
+  private static int laneIndex(UpdateToReplay update, int laneCount)
+  {
+    final DN dn = update.getUpdateMessage().getDN();
+    return dn != null ? Math.floorMod(dn.hashCode(), laneCount) : 0;
+  }
+
+  private UpdateToReplay released(UpdateToReplay update)
+  {
+    if (update != null)
+    {
+      freeSlots.release();
+    }
+    return update;
+  }
+
+  private void addToLane(UpdateToReplay update)
+  {
+    lanesLock.readLock().lock();
+    try
+    {
+      final List<LinkedBlockingQueue<UpdateToReplay>> currentLanes = lanes;
+      currentLanes.get(laneIndex(update, currentLanes.size())).add(update);
+    }
+    finally
+    {
+      lanesLock.readLock().unlock();
+    }
+    // consumers register as waiting before polling the lanes, so they either see this update or get signalled
+    if (waitingConsumers.get() > 0)
+    {
+      updateAddedLock.lock();
+      try
+      {
+        updateAdded.signalAll();
+      }
+      finally
+      {
+        updateAddedLock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public boolean offer(UpdateToReplay update)
+  {
+    Reject.ifNull(update);
+    if (!freeSlots.tryAcquire())
+    {
+      return false;
+    }
+    addToLane(update);
+    return true;
+  }
+
+  @Override
+  public boolean offer(UpdateToReplay update, long timeout, TimeUnit unit) throws InterruptedException
+  {
+    Reject.ifNull(update);
+    if (!freeSlots.tryAcquire(timeout, unit))
+    {
+      return false;
+    }
+    addToLane(update);
+    return true;
+  }
+
+  @Override
+  public void put(UpdateToReplay update) throws InterruptedException
+  {
+    Reject.ifNull(update);
+    freeSlots.acquire();
+    addToLane(update);
+  }
+
+  @Override
+  public UpdateToReplay poll()
+  {
+    for (LinkedBlockingQueue<UpdateToReplay> lane : lanes)
+    {
+      final UpdateToReplay update = lane.poll();
+      if (update != null)
+      {
+        return released(update);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public UpdateToReplay poll(long timeout, TimeUnit unit) throws InterruptedException
+  {
+    UpdateToReplay update = poll();
+    if (update != null)
+    {
+      return update;
+    }
+    long nanos = unit.toNanos(timeout);
+    updateAddedLock.lockInterruptibly();
+    waitingConsumers.incrementAndGet();
+    try
+    {
+      while ((update = poll()) == null && nanos > 0)
+      {
+        nanos = updateAdded.awaitNanos(nanos);
+      }
+      return update;
+    }
+    finally
+    {
+      waitingConsumers.decrementAndGet();
+      updateAddedLock.unlock();
+    }
+  }
+
+  @Override
+  public UpdateToReplay take() throws InterruptedException
+  {
+    UpdateToReplay update = poll();
+    if (update != null)
+    {
+      return update;
+    }
+    updateAddedLock.lockInterruptibly();
+    waitingConsumers.incrementAndGet();
+    try
+    {
+      while ((update = poll()) == null)
+      {
+        updateAdded.await();
+      }
+      return update;
+    }
+    finally
+    {
+      waitingConsumers.decrementAndGet();
+      updateAddedLock.unlock();
+    }
+  }
+
+  @Override
+  public UpdateToReplay peek()
+  {
+    for (LinkedBlockingQueue<UpdateToReplay> lane : lanes)
+    {
+      final UpdateToReplay update = lane.peek();
+      if (update != null)
+      {
+        return update;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int remainingCapacity()
+  {
+    return freeSlots.availablePermits();
+  }
+
+  @Override
+  public int drainTo(Collection<? super UpdateToReplay> c)
+  {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super UpdateToReplay> c, int maxElements)
+  {
+    int count = 0;
+    UpdateToReplay update;
+    while (count < maxElements && (update = poll()) != null)
+    {
+      c.add(update);
+      count++;
+    }
+    return count;
+  }
+
+  @Override
+  public Iterator<UpdateToReplay> iterator()
+  {
+    final List<UpdateToReplay> snapshot = new ArrayList<>();
+    for (LinkedBlockingQueue<UpdateToReplay> lane : lanes)
+    {
+      snapshot.addAll(lane);
+    }
+    return snapshot.iterator();
+  }
+
+  @Override
+  public int size()
+  {
+    return capacity - freeSlots.availablePermits();
+  }
+}
@@ -19,10 +19,8 @@ package org.opends.server.replication.plugin;
 import static org.opends.messages.ReplicationMessages.*;
 import static org.opends.server.util.StaticUtils.*;
 
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.opends.server.api.DirectoryThread;
 import org.forgerock.i18n.slf4j.LocalizedLogger;
@@ -33,28 +31,31 @@ import org.opends.server.replication.protocol.LDAPUpdateMsg;
  * in the updates queue) and replay them in the current server. A configurable
  * number of this thread is created for the whole MultimasterReplication object
  * (i.e: these threads are shared across the ReplicationDomain objects for
- * replaying the updates they receive)
+ * replaying the updates they receive).
+ * <p>
+ * Each thread consumes a single lane of the {@link ReplayLanes}, so the updates
+ * targeting the same entry are replayed in order by the same thread.
  */
 public class ReplayThread extends DirectoryThread
 {
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
-  private final BlockingQueue<UpdateToReplay> updateToReplayQueue;
-  private final ReentrantLock switchQueueLock;
+  private final ReplayLanes replayLanes;
+  private final int laneIndex;
   private AtomicBoolean shutdown = new AtomicBoolean(false);
   private static int count;
 
   /**
    * Constructor for the ReplayThread.
    *
-   * @param updateToReplayQueue The queue of update messages we have to replay
-   * @param switchQueueLock lock to ensure moving updates from one queue to another is atomic
+   * @param replayLanes The lanes of update messages we have to replay
+   * @param laneIndex The index of the lane replayed by this thread
    */
-  public ReplayThread(BlockingQueue<UpdateToReplay> updateToReplayQueue, ReentrantLock switchQueueLock)
+  ReplayThread(ReplayLanes replayLanes, int laneIndex)
   {
     super("Replica replay thread " + count++);
-    this.updateToReplayQueue = updateToReplayQueue;
-    this.switchQueueLock = switchQueueLock;
+    this.replayLanes = replayLanes;
+    this.laneIndex = laneIndex;
   }
 
   /**
@@ -80,32 +81,12 @@ public class ReplayThread extends DirectoryThread
     {
       try
       {
-        if (switchQueueLock.tryLock(1L, TimeUnit.SECONDS))
+        UpdateToReplay updateToReplay = replayLanes.poll(laneIndex, 1L, TimeUnit.SECONDS);
+        if (updateToReplay == null)
         {
-          LDAPReplicationDomain domain;
-          LDAPUpdateMsg updateMsg;
-          try
-          {
-            if (shutdown.get())
-            {
-              break;
-            }
-            UpdateToReplay updateToreplay = updateToReplayQueue.poll(1L, TimeUnit.SECONDS);
-            if (updateToreplay == null)
-            {
-              continue;
-            }
-            // Find replication domain for that update message and mark it as "in progress"
-            updateMsg = updateToreplay.getUpdateMessage();
-            domain = updateToreplay.getReplicationDomain();
-            domain.markInProgress(updateMsg);
-          }
-          finally
-          {
-            switchQueueLock.unlock();
-          }
-          domain.replay(updateMsg, shutdown);
+          continue;
         }
+        updateToReplay.getReplicationDomain().replay(updateToReplay.getUpdateMessage(), shutdown);
       }
       catch (Exception e)
       {
@@ -94,10 +94,21 @@ public class ProtocolVersion
    */
   public static final short REPLICATION_PROTOCOL_V8 = 8;
 
+  /**
+   * The constant for the 9th version of the replication protocol.
+   * <ul>
+   * <li>Several update messages can be sent in a single, optionally
+   * compressed, frame.</li>
+   * <li>StartSessionMsg carries the update batching settings requested by the
+   * DS.</li>
+   * </ul>
+   */
+  public static final short REPLICATION_PROTOCOL_V9 = 9;
+
   /**
    * The replication protocol version used by the instance of RS/DS in this VM.
    */
-  private static final short CURRENT_VERSION = REPLICATION_PROTOCOL_V8;
+  private static final short CURRENT_VERSION = REPLICATION_PROTOCOL_V9;
 
   /**
    * Gets the current version of the replication protocol.
@@ -26,6 +26,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -100,6 +104,20 @@ public final class Session extends DirectoryThread implements Closeable
   private AtomicBoolean isRunning = new AtomicBoolean(false);
   private final CountDownLatch latch = new CountDownLatch(1);
 
+  /** Maximum number of updates sent in a single batch frame. */
+  private static final int MAX_BATCH_COUNT = 256;
+  /** Maximum number of bytes of updates sent in a single batch frame. */
+  private static final int MAX_BATCH_BYTES = 256 * 1024;
+  /** How long the session thread waits for more updates before sending a batch, in milliseconds. */
+  private volatile long batchLingerTime;
+  /** Whether the update batches sent by the session thread are compressed. */
+  private volatile boolean batchCompression;
+  /** Whether the session thread sends the queued updates in batch frames. */
+  private volatile boolean batchingEnabled;
+  private final UpdateBatchCodec batchCodec = new UpdateBatchCodec();
+  /** Messages unpacked from the last received batch frame and not returned yet by {@link #receive()}. */
+  private final Deque<byte[]> receivedBatch = new ArrayDeque<>();
+
   /**
    * Creates a new Session.
    *
@@ -393,6 +411,12 @@ public final class Session extends DirectoryThread implements Closeable
   {
     try
     {
+      if (!receivedBatch.isEmpty())
+      {
+        lastReceiveTime = 0;
+        return ReplicationMsg.generateMsg(receivedBatch.poll(), protocolVersion);
+      }
+
       /*
        * Let's start the stop-watch before waiting on read for the heartbeat
        * check to be operational.
@@ -413,6 +437,15 @@ public final class Session extends DirectoryThread implements Closeable
          * processing a message even a time consuming one.
          */
         lastReceiveTime = 0;
+        if (UpdateBatchCodec.isBatch(buffer))
+        {
+          batchCodec.decode(buffer, receivedBatch);
+          if (receivedBatch.isEmpty())
+          {
+            throw new DataFormatException("Received an empty update batch");
+          }
+          return ReplicationMsg.generateMsg(receivedBatch.poll(), protocolVersion);
+        }
         return ReplicationMsg.generateMsg(buffer, protocolVersion);
       }
       catch (final OutOfMemoryError e)
@@ -456,6 +489,27 @@ public final class Session extends DirectoryThread implements Closeable
   }
 
 
+  /**
+   * Requests the session thread to send the queued updates in batch frames.
+   * <p>
+   * Batching only takes effect when the protocol version used on this session supports it, and when
+   * the session thread is running, i.e. when {@link #publish(ReplicationMsg)} queues the messages.
+   * Whatever the settings used here, batch frames sent by the peer are always decoded.
+   *
+   * @param lingerTime
+   *          how long to wait for more updates before sending a batch, in milliseconds. 0 means
+   *          only the updates already queued are batched together.
+   * @param compression
+   *          whether the batches must be compressed
+   */
+  public void enableUpdateBatching(final long lingerTime, final boolean compression)
+  {
+    batchLingerTime = Math.max(0, lingerTime);
+    batchCompression = compression;
+    batchingEnabled = protocolVersion >= ProtocolVersion.REPLICATION_PROTOCOL_V9
+        && (lingerTime > 0 || compression);
+  }
+
   /**
    * Returns the version of the protocol that is currently used.
    *
@@ -533,12 +587,22 @@ public final class Session extends DirectoryThread implements Closeable
       logger.trace(getName() + " starting.");
     }
     boolean needClosing = false;
+    final List<byte[]> batch = new ArrayList<>();
+    byte[] next = null;
     while (!closeInitiated)
     {
       byte[] buffer;
       try
       {
-        buffer = sendQueue.take();
+        buffer = next != null ? next : sendQueue.take();
+        next = null;
+        if (batchingEnabled && UpdateBatchCodec.isBatchable(buffer))
+        {
+          batch.add(buffer);
+          next = fillBatch(batch, buffer.length);
+          buffer = batch.size() > 1 || batchCompression ? batchCodec.encode(batch, batchCompression) : buffer;
+          batch.clear();
+        }
       }
       catch (InterruptedException ie)
       {
@@ -565,6 +629,48 @@ public final class Session extends DirectoryThread implements Closeable
     }
   }
 
+  /**
+   * Adds to the batch the updates queued, or queued before the linger time expires, until the batch
+   * is full or a message which cannot be batched is dequeued.
+   *
+   * @param batch
+   *          the batch to fill, already containing its first update
+   * @param batchBytes
+   *          the number of bytes already in the batch
+   * @return the dequeued message which could not be batched and must be sent after the batch, or
+   *         null if there is none
+   * @throws InterruptedException
+   *           if interrupted while waiting for more updates
+   */
+  private byte[] fillBatch(final List<byte[]> batch, int batchBytes) throws InterruptedException
+  {
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchLingerTime);
+    while (batch.size() < MAX_BATCH_COUNT && batchBytes < MAX_BATCH_BYTES && !closeInitiated)
+    {
+      byte[] buffer = sendQueue.poll();
+      if (buffer == null)
+      {
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0)
+        {
+          return null;
+        }
+        buffer = sendQueue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (buffer == null)
+        {
+          return null;
+        }
+      }
+      if (!UpdateBatchCodec.isBatchable(buffer))
+      {
+        return buffer;
+      }
+      batch.add(buffer);
+      batchBytes += buffer.length;
+    }
+    return null;
+  }
+
   /**
    * This method can be called to wait until the session thread is
    * properly started.
@@ -59,6 +59,11 @@ public class StartSessionMsg extends ReplicationMsg
   private Set<String> eclIncludes = new HashSet<>();
   private Set<String> eclIncludesForDeletes = new HashSet<>();
 
+  /** How long the RS may wait to batch updates sent to the DS, in milliseconds. */
+  private long updateBatchLingerTime;
+  /** Whether the RS should compress the update batches sent to the DS. */
+  private boolean updateBatchCompression;
+
   /**
    * Creates a new StartSessionMsg message from its encoded form.
    *
@@ -152,6 +157,12 @@ public class StartSessionMsg extends ReplicationMsg
         writer.writeEndSequence();
       }
 
+      if (version >= ProtocolVersion.REPLICATION_PROTOCOL_V9)
+      {
+        writer.writeInteger(updateBatchLingerTime);
+        writer.writeBoolean(updateBatchCompression);
+      }
+
       return byteBuilder.toByteArray();
     }
     catch (Exception e)
@@ -243,6 +254,12 @@ public class StartSessionMsg extends ReplicationMsg
         // Default to using the same set of attributes for deletes.
         this.eclIncludesForDeletes.addAll(eclIncludes);
       }
+
+      if (version >= ProtocolVersion.REPLICATION_PROTOCOL_V9)
+      {
+        updateBatchLingerTime = asn1Reader.readInteger();
+        updateBatchCompression = asn1Reader.readBoolean();
+      }
     }
     catch (Exception e)
     {
@@ -307,7 +324,9 @@ public class StartSessionMsg extends ReplicationMsg
       "\nsafeDataLevel: " + safeDataLevel +
       "\nreferralsURLs: " + urls +
       "\nEclIncludes " + eclIncludes +
-      "\nEclIncludeForDeletes: " + eclIncludesForDeletes;
+      "\nEclIncludeForDeletes: " + eclIncludesForDeletes +
+      "\nupdateBatchLingerTime: " + updateBatchLingerTime +
+      "\nupdateBatchCompression: " + updateBatchCompression;
   }
 
   /**
@@ -382,4 +401,37 @@ public class StartSessionMsg extends ReplicationMsg
     return eclIncludesForDeletes;
   }
 
+  /**
+   * Set how the RS should batch the updates it sends to the DS.
+   *
+   * @param lingerTime
+   *          how long the RS may wait to batch updates, in milliseconds
+   * @param compression
+   *          whether the RS should compress the update batches
+   */
+  public void setUpdateBatching(long lingerTime, boolean compression)
+  {
+    this.updateBatchLingerTime = lingerTime;
+    this.updateBatchCompression = compression;
+  }
+
+  /**
+   * Get how long the RS may wait to batch the updates it sends to the DS.
+   *
+   * @return the update batch linger time, in milliseconds.
+   */
+  public long getUpdateBatchLingerTime()
+  {
+    return updateBatchLingerTime;
+  }
+
+  /**
+   * Returns whether the RS should compress the update batches it sends to the DS.
+   *
+   * @return true if the update batches must be compressed.
+   */
+  public boolean isUpdateBatchCompression()
+  {
+    return updateBatchCompression;
+  }
 }
@@ -0,0 +1,214 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.protocol;
+
+import static org.opends.server.replication.protocol.ReplicationMsg.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes several update messages into a single frame, and decodes such frames.
+ * <p>
+ * A batch frame is stored in the form:
+ * <pre>
+ * &lt;MSG_TYPE_UPDATE_BATCH&gt;&lt;flags&gt;&lt;message count&gt;&lt;uncompressed payload length&gt;&lt;payload&gt;
+ * </pre>
+ * where the payload is the sequence of the encoded messages, each one prefixed with its length. When
+ * the {@link #FLAG_COMPRESSED} flag is set, the payload is compressed with a deflate stream which
+ * lasts for the whole session and is flushed at the end of each frame: hence frames must be decoded
+ * in the order they were encoded, which the session guarantees.
+ * <p>
+ * Batch frames are self-describing, so a peer may decode them whatever batching settings it uses
+ * itself.
+ * <p>
+ * Each session owns one codec, whose encoding side is only used by the session thread and whose
+ * decoding side is only used by the thread receiving messages.
+ */
+final class UpdateBatchCodec
+{
+  /** Flag set when the payload of the batch frame is compressed. */
+  static final byte FLAG_COMPRESSED = 0x01;
+  private static final int HEADER_LENGTH = ByteArrayBuilder.bytes(2) + ByteArrayBuilder.ints(2);
+
+  private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+  private final Inflater inflater = new Inflater(true);
+  private final byte[] deflateBuffer = new byte[8192];
+  private final byte[] inflateScratch = new byte[1];
+
+  /**
+   * Returns whether the provided encoded message can be sent in a batch frame.
+   *
+   * @param buffer
+   *          the encoded message
+   * @return true if the message is an update which can be batched
+   */
+  static boolean isBatchable(byte[] buffer)
+  {
+    switch (buffer[0])
+    {
+    case MSG_TYPE_MODIFY:
+    case MSG_TYPE_ADD:
+    case MSG_TYPE_DELETE:
+    case MSG_TYPE_MODIFYDN:
+    case MSG_TYPE_GENERIC_UPDATE:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * Returns whether the provided received frame is a batch frame.
+   *
+   * @param buffer
+   *          the received frame
+   * @return true if the frame is a batch frame
+   */
+  static boolean isBatch(byte[] buffer)
+  {
+    return buffer.length > 0 && buffer[0] == MSG_TYPE_UPDATE_BATCH;
+  }
+
+  /**
+   * Encodes the provided messages into a single batch frame.
+   *
+   * @param buffers
+   *          the encoded messages to send
+   * @param compress
+   *          whether the payload must be compressed
+   * @return the batch frame
+   */
+  byte[] encode(List<byte[]> buffers, boolean compress)
+  {
+    final ByteArrayBuilder payload = new ByteArrayBuilder(payloadLength(buffers));
+    for (byte[] buffer : buffers)
+    {
+      payload.appendInt(buffer.length);
+      payload.appendByteArray(buffer);
+    }
+    final byte[] uncompressed = payload.toByteArray();
+    final byte[] body = compress ? deflate(uncompressed) : uncompressed;
+
+    final ByteArrayBuilder frame = new ByteArrayBuilder(HEADER_LENGTH + body.length);
+    frame.appendByte(MSG_TYPE_UPDATE_BATCH);
+    frame.appendByte(compress ? FLAG_COMPRESSED : 0);
+    frame.appendInt(buffers.size());
+    frame.appendInt(uncompressed.length);
+    frame.appendByteArray(body);
+    return frame.toByteArray();
+  }
+
+  private static int payloadLength(List<byte[]> buffers)
+  {
+    int length = 0;
+    for (byte[] buffer : buffers)
+    {
+      length += ByteArrayBuilder.ints(1) + buffer.length;
+    }
+    return length;
+  }
+
+  private byte[] deflate(byte[] uncompressed)
+  {
+    deflater.setInput(uncompressed);
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream(uncompressed.length / 2 + 16);
+    int length;
+    do
+    {
+      // a full buffer means the flush may not be complete yet
+      length = deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.SYNC_FLUSH);
+      compressed.write(deflateBuffer, 0, length);
+    }
+    while (length == deflateBuffer.length);
+    return compressed.toByteArray();
+  }
+
+  /**
+   * Decodes the provided batch frame, appending the encoded messages it contains to the provided
+   * deque in the order they were sent.
+   *
+   * @param frame
+   *          the batch frame
+   * @param output
+   *          where to append the encoded messages
+   * @throws DataFormatException
+   *           if the frame is not a valid batch frame
+   */
+  void decode(byte[] frame, Deque<byte[]> output) throws DataFormatException
+  {
+    final ByteArrayScanner scanner = new ByteArrayScanner(frame);
+    if (scanner.nextByte() != MSG_TYPE_UPDATE_BATCH)
+    {
+      throw new DataFormatException("Input is not a valid update batch");
+    }
+    final byte flags = scanner.nextByte();
+    final int count = scanner.nextInt();
+    final int uncompressedLength = scanner.nextInt();
+    final byte[] body = scanner.remainingBytes();
+    final byte[] payload = (flags & FLAG_COMPRESSED) != 0 ? inflate(body, uncompressedLength) : body;
+    if (payload.length != uncompressedLength)
+    {
+      throw new DataFormatException("Invalid update batch length " + payload.length
+          + ", expected " + uncompressedLength);
+    }
+
+    final ByteArrayScanner payloadScanner = new ByteArrayScanner(payload);
+    for (int i = 0; i < count; i++)
+    {
+      final int length = payloadScanner.nextInt();
+      if (length < 0 || length > payload.length)
+      {
+        throw new DataFormatException("Invalid message length " + length + " in update batch");
+      }
+      output.add(payloadScanner.nextByteArray(length));
+    }
+    if (!payloadScanner.isEmpty())
+    {
+      throw new DataFormatException("Unexpected trailing bytes in update batch");
+    }
+  }
+
+  private byte[] inflate(byte[] compressed, int uncompressedLength) throws DataFormatException
+  {
+    final byte[] uncompressed = new byte[uncompressedLength];
+    inflater.setInput(compressed);
+    int length = 0;
+    while (length < uncompressedLength)
+    {
+      final int inflated = inflater.inflate(uncompressed, length, uncompressedLength - length);
+      if (inflated == 0 && (inflater.needsInput() || inflater.finished()))
+      {
+        throw new DataFormatException("Truncated compressed update batch");
+      }
+      length += inflated;
+    }
+    // consume the empty block ending the flushed frame so the next frame starts on a fresh input
+    while (!inflater.needsInput())
+    {
+      final int remaining = inflater.getRemaining();
+      if (inflater.inflate(inflateScratch) != 0 || inflater.getRemaining() == remaining)
+      {
+        throw new DataFormatException("Unexpected trailing bytes in compressed update batch");
+      }
+    }
+    return uncompressed;
+  }
+}
@@ -565,6 +565,8 @@ public class DataServerHandler extends ServerHandler
     this.safeDataLevel = startSessionMsg.getSafeDataLevel();
     this.eclIncludes = startSessionMsg.getEclIncludes();
     this.eclIncludesForDeletes = startSessionMsg.getEclIncludesForDeletes();
+    session.enableUpdateBatching(startSessionMsg.getUpdateBatchLingerTime(),
+        startSessionMsg.isUpdateBatchCompression());
 
     /*
      * If we have already a generationID set for the domain
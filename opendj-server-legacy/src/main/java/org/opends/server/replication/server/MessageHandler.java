@@ -57,12 +57,17 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
 
   private static final int MINIMUM_TRESHOLD_MSG_QUEUE_SIZE = 5;
 
-  /** UpdateMsg queue. */
+  /**
+   * UpdateMsg queue. Producers add updates without locking. Removals from the
+   * queue and changes of the following flag are done while holding the
+   * msgQueue monitor, which producers only take in order to trim the queue or
+   * to wake up a waiting consumer. Monitoring methods never take it.
+   */
   private final MsgQueue msgQueue = new MsgQueue();
   /**
    * Late queue. All access to the lateQueue in getNextMessage() is
-   * single-threaded. However, reads from threads calling getOlderUpdateCN()
-   * need protecting against removals performed using getNextMessage().
+   * single-threaded. Threads calling getOlderUpdateCSN() only read its first
+   * update, which the MsgQueue allows concurrently with removals.
    */
   private final MsgQueue lateQueue = new MsgQueue();
   /** Local hosting RS. */
@@ -77,8 +82,13 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
   protected final int maxQueueSize;
   /** Specifies the max queue size in bytes for this handler. */
   private final int maxQueueBytesSize;
-  /** Specifies whether the consumer is following the producer (is not late). */
-  private boolean following;
+  /**
+   * Specifies whether the consumer is following the producer (is not late).
+   * Only changed while holding the msgQueue monitor.
+   */
+  private volatile boolean following;
+  /** Whether the consumer is waiting on the msgQueue monitor for updates. */
+  private volatile boolean consumerWaiting;
   /** Specifies the current serverState of this handler. */
   private ServerState serverState;
   /** Specifies the baseDN of the domain. */
@@ -88,7 +98,7 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
    * If not active, the handler will not return any message.
    * Called at the beginning of shutdown process.
    */
-  private boolean activeConsumer = true;
+  private volatile boolean activeConsumer = true;
   /** Set when ServerHandler is stopping. */
   private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
 
@@ -114,26 +124,37 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
    */
   void add(UpdateMsg update)
   {
-    synchronized (msgQueue)
+    final long startTime = System.nanoTime();
+    msgQueue.add(update);
+
+    // TODO : size should be configurable and larger than max-receive-queue-size
+    if (isMsgQueueAboveThreshold())
     {
-      /*
-       * If queue was empty the writer thread was probably asleep
-       * waiting for some changes, wake it up
-       */
-      if (msgQueue.isEmpty())
+      synchronized (msgQueue)
       {
-        msgQueue.notify();
+        while (isMsgQueueAboveThreshold())
+        {
+          following = false;
+          if (msgQueue.pollFirst() == null)
+          {
+            break;
+          }
+        }
       }
-
-      msgQueue.add(update);
-
-      // TODO : size should be configurable and larger than max-receive-queue-size
-      while (isMsgQueueAboveThreshold())
+    }
+    /*
+     * If the writer thread is asleep waiting for some changes, wake it up.
+     * The writer checks the queue again after raising the flag, so the
+     * update cannot be missed.
+     */
+    if (consumerWaiting)
+    {
+      synchronized (msgQueue)
       {
-        following = false;
-        msgQueue.removeFirst();
+        msgQueue.notify();
       }
     }
+    msgQueue.recordEnqueueWaitTime(System.nanoTime() - startTime);
   }
 
   private boolean isMsgQueueAboveThreshold()
@@ -198,10 +219,12 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
   @Override
   public MonitorData getMonitorData()
   {
-    MonitorData attributes = new MonitorData(4);
+    MonitorData attributes = new MonitorData(6);
     attributes.add("handler", getMonitorInstanceName());
     attributes.add("queue-size", msgQueue.count());
     attributes.add("queue-size-bytes", msgQueue.bytesCount());
+    attributes.add("queue-enqueue-wait-time", msgQueue.getEnqueueWaitTime());
+    attributes.add("queue-max-enqueue-wait-time", msgQueue.getMaxEnqueueWaitTime());
     attributes.add("following", following);
     return attributes;
   }
@@ -301,7 +324,8 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
         {
           // get the next change from the lateQueue
           UpdateMsg msg;
-          synchronized (msgQueue) // TODO JNR why synchronize(msgQueue) here?
+          // the msgQueue must not be trimmed between the check and the change of the following flag
+          synchronized (msgQueue)
           {
             msg = lateQueue.removeFirst();
             // By default a server is always not following. A weird case where messages not representing
@@ -328,7 +352,12 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
           {
             while (msgQueue.isEmpty() && following)
             {
-              msgQueue.wait(500);
+              consumerWaiting = true;
+              if (msgQueue.isEmpty())
+              {
+                msgQueue.wait(500);
+              }
+              consumerWaiting = false;
               if (!activeConsumer)
               {
                 return null;
@@ -336,10 +365,11 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
             }
           } catch (InterruptedException e)
           {
+            consumerWaiting = false;
             return null;
           }
-          UpdateMsg msg = msgQueue.removeFirst();
-          if (updateServerState(msg))
+          UpdateMsg msg = msgQueue.pollFirst();
+          if (msg != null && updateServerState(msg))
           {
             /*
              * Only push the message if it has not yet been seen
@@ -386,35 +416,25 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
    */
   public CSN getOlderUpdateCSN()
   {
-    synchronized (msgQueue)
+    if (following)
     {
-      if (following)
-      {
-        if (!msgQueue.isEmpty())
-        {
-          return msgQueue.first().getCSN();
-        }
-      }
-      else
-      {
-        if (!lateQueue.isEmpty())
-        {
-          return lateQueue.first().getCSN();
-        }
-        else
-        {
-          /*
-          following is false AND lateQueue is empty
-          We may be at the very moment when the writer has emptied the
-          lateQueue when it sent the last update. The writer will fill again
-          the lateQueue when it will send the next update but we are not yet
-          there. So let's take the last change not sent directly from the db.
-          */
-          return findOldestCSNFromReplicaDBs();
-        }
-      }
+      final UpdateMsg first = msgQueue.peekFirst();
+      return first != null ? first.getCSN() : null;
     }
-    return null;
+
+    final UpdateMsg first = lateQueue.peekFirst();
+    if (first != null)
+    {
+      return first.getCSN();
+    }
+    /*
+    following is false AND lateQueue is empty
+    We may be at the very moment when the writer has emptied the
+    lateQueue when it sent the last update. The writer will fill again
+    the lateQueue when it will send the next update but we are not yet
+    there. So let's take the last change not sent directly from the db.
+    */
+    return findOldestCSNFromReplicaDBs();
   }
 
   private CSN findOldestCSNFromReplicaDBs()
@@ -437,6 +457,15 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
     }
   }
 
+  /**
+   * Returns the queue of updates waiting to be sent to this server.
+   * @return the queue of updates waiting to be sent to this server.
+   */
+  MsgQueue getMsgQueue()
+  {
+    return msgQueue;
+  }
+
   /**
    * Get the count of updates sent to this server.
    * @return  The count of update sent to this server.
@@ -452,27 +481,24 @@ class MessageHandler extends MonitorProvider<MonitorProviderCfg>
    */
   public int getRcvMsgQueueSize()
   {
-    synchronized (msgQueue)
+    /*
+     * When the server is up to date or close to be up to date,
+     * the number of updates to be sent is the size of the receive queue.
+     */
+    if (following)
     {
-      /*
-       * When the server is up to date or close to be up to date,
-       * the number of updates to be sent is the size of the receive queue.
-       */
-      if (following)
-      {
-        return msgQueue.count();
-      }
-
-      /*
-       * When the server is not able to follow, the msgQueue may become too
-       * large and therefore won't contain all the changes. Some changes may
-       * only be stored in the backing DB of the servers.
-       * The total size of the receive queue is calculated by doing the sum of
-       * the number of missing changes for every replicaDB.
-       */
-      ServerState latestState = replicationServerDomain.getLatestServerState();
-      return ServerState.diffChanges(latestState, serverState);
+      return msgQueue.count();
     }
+
+    /*
+     * When the server is not able to follow, the msgQueue may become too
+     * large and therefore won't contain all the changes. Some changes may
+     * only be stored in the backing DB of the servers.
+     * The total size of the receive queue is calculated by doing the sum of
+     * the number of missing changes for every replicaDB.
+     */
+    ServerState latestState = replicationServerDomain.getLatestServerState();
+    return ServerState.diffChanges(latestState, serverState);
   }
 
   /**
@@ -18,7 +18,13 @@ package org.opends.server.replication.server;
 
 import static org.opends.messages.ReplicationMessages.*;
 
-import java.util.TreeMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import net.jcip.annotations.ThreadSafe;
 
@@ -29,36 +35,59 @@ import org.opends.server.replication.protocol.UpdateMsg;
 /**
  * This class is used to build ordered lists of UpdateMsg.
  * The order is defined by the order of the CSN of the UpdateMsg.
+ * <p>
+ * The queue is backed by a concurrent skip list so that producers, consumers
+ * and monitoring threads never block each other: the messages from every
+ * replica are merged by CSN as they are inserted, and the number of messages
+ * and bytes are maintained alongside with atomic counters.
  */
 @ThreadSafe
 public class MsgQueue
 {
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
-  private TreeMap<CSN, UpdateMsg> map = new TreeMap<>();
+  private final ConcurrentSkipListMap<CSN, UpdateMsg> map = new ConcurrentSkipListMap<>();
+  /** The number of messages in the queue, {@link ConcurrentSkipListMap#size()} is not constant time. */
+  private final AtomicInteger count = new AtomicInteger();
+  /** The total number of bytes for all the message in the queue. */
+  private final AtomicInteger bytesCount = new AtomicInteger();
   /**
-   * FIXME JNR to be investigated:
-   * I strongly suspect that we could replace this field
-   * by using the synchronized keyword on each method.
-   * However, MessageHandler is weirdly synchronizing on msgQueue field
-   * even though it is touching the lateQueue field (?!?).
+   * The cumulated time spent by producers to enqueue messages, including trimming the queue and waking up the
+   * consumer, in nanoseconds.
    */
-  private final Object lock = new Object();
-
-  /** The total number of bytes for all the message in the queue. */
-  private int bytesCount;
+  private final LongAdder enqueueWaitTime = new LongAdder();
+  /** The longest time spent by a producer to enqueue a message, in nanoseconds. */
+  private final AtomicLong maxEnqueueWaitTime = new AtomicLong();
 
   /**
    * Return the first UpdateMsg in the MsgQueue.
    *
    * @return The first UpdateMsg in the MsgQueue.
+   * @throws NoSuchElementException
+   *           if this MsgQueue is empty
    */
   public UpdateMsg first()
   {
-    synchronized (lock)
+    final Map.Entry<CSN, UpdateMsg> first = map.firstEntry();
+    if (first == null)
     {
-      return map.get(map.firstKey());
+      throw new NoSuchElementException();
     }
+    return first.getValue();
+  }
+
+  /**
+   * Return the first UpdateMsg in the MsgQueue, or {@code null} if it is
+   * empty. Unlike {@link #first()}, it can be called while other threads are
+   * removing messages.
+   *
+   * @return The first UpdateMsg in the MsgQueue, or {@code null} if it is
+   *         empty.
+   */
+  public UpdateMsg peekFirst()
+  {
+    final Map.Entry<CSN, UpdateMsg> first = map.firstEntry();
+    return first != null ? first.getValue() : null;
   }
 
   /**
@@ -68,10 +97,7 @@ public class MsgQueue
    */
   public int count()
   {
-    synchronized (lock)
-    {
-      return map.size();
-    }
+    return count.get();
   }
 
   /**
@@ -81,10 +107,7 @@ public class MsgQueue
    */
   public int bytesCount()
   {
-    synchronized (lock)
-    {
-      return bytesCount;
-    }
+    return bytesCount.get();
   }
 
   /**
@@ -94,10 +117,7 @@ public class MsgQueue
    */
   public boolean isEmpty()
   {
-    synchronized (lock)
-    {
-      return map.isEmpty();
-    }
+    return map.isEmpty();
   }
 
   /**
@@ -107,57 +127,80 @@ public class MsgQueue
    */
   public void add(UpdateMsg update)
   {
-    synchronized (lock)
+    final UpdateMsg msgSameCSN = map.put(update.getCSN(), update);
+    if (msgSameCSN != null)
     {
-      final UpdateMsg msgSameCSN = map.put(update.getCSN(), update);
-      if (msgSameCSN != null)
+      try
       {
-        try
+        if (msgSameCSN.getBytes().length != update.getBytes().length
+            || msgSameCSN.isAssured() != update.isAssured()
+            || msgSameCSN.getVersion() != update.getVersion())
         {
-          if (msgSameCSN.getBytes().length != update.getBytes().length
-              || msgSameCSN.isAssured() != update.isAssured()
-              || msgSameCSN.getVersion() != update.getVersion())
-          {
-            // Adding 2 msgs with the same CSN is ok only when the 2 msgs are the same
-            bytesCount += update.size() - msgSameCSN.size();
-            logger.error(ERR_RSQUEUE_DIFFERENT_MSGS_WITH_SAME_CSN, msgSameCSN.getCSN(), msgSameCSN, update);
-          }
-        }
-        catch (Exception e)
-        {
-          logger.traceException(e);
+          // Adding 2 msgs with the same CSN is ok only when the 2 msgs are the same
+          bytesCount.addAndGet(update.size() - msgSameCSN.size());
+          logger.error(ERR_RSQUEUE_DIFFERENT_MSGS_WITH_SAME_CSN, msgSameCSN.getCSN(), msgSameCSN, update);
         }
       }
-      else
+      catch (Exception e)
       {
-        // it is really an ADD
-        bytesCount += update.size();
+        logger.traceException(e);
       }
     }
+    else
+    {
+      // it is really an ADD
+      count.incrementAndGet();
+      bytesCount.addAndGet(update.size());
+    }
   }
 
   /**
    * Get and remove the first UpdateMsg in this MessageQueue.
    *
    * @return The first UpdateMsg in this MessageQueue.
+   * @throws NoSuchElementException
+   *           if this MsgQueue is empty
    */
   public UpdateMsg removeFirst()
   {
-    synchronized (lock)
+    final Map.Entry<CSN, UpdateMsg> first = map.pollFirstEntry();
+    if (first == null)
     {
-      // FIXME JNR replace next 2 lines with just that one:
-      // final UpdateMsg update = map.pollFirstEntry().getValue();
-      final UpdateMsg update = map.get(map.firstKey());
-      map.remove(update.getCSN());
-      bytesCount -= update.size();
-      if (map.isEmpty() && bytesCount != 0)
-      {
-        // should never happen
-        logger.error(ERR_BYTE_COUNT, bytesCount);
-        bytesCount = 0;
-      }
-      return update;
+      throw new NoSuchElementException();
     }
+    final UpdateMsg update = first.getValue();
+    removed(update);
+    return update;
+  }
+
+  /**
+   * Get and remove the first UpdateMsg in this MessageQueue, or return
+   * {@code null} if it is empty.
+   *
+   * @return The first UpdateMsg in this MessageQueue, or {@code null} if it is
+   *         empty.
+   */
+  public UpdateMsg pollFirst()
+  {
+    final Map.Entry<CSN, UpdateMsg> first = map.pollFirstEntry();
+    if (first == null)
+    {
+      return null;
+    }
+    final UpdateMsg update = first.getValue();
+    removed(update);
+    return update;
+  }
+
+  /**
+   * Updates the counters after a message was removed from the map. The
+   * counters may be transiently off while concurrent adds are in progress, but
+   * always converge since each message is accounted for exactly once.
+   */
+  private void removed(UpdateMsg update)
+  {
+    count.decrementAndGet();
+    bytesCount.addAndGet(-update.size());
   }
 
   /**
@@ -171,19 +214,16 @@ public class MsgQueue
    */
   public boolean contains(UpdateMsg msg)
   {
-    synchronized (lock)
-    {
-      return map.containsKey(msg.getCSN());
-    }
+    return map.containsKey(msg.getCSN());
   }
 
   /** Removes all UpdateMsg form this queue. */
   public void clear()
   {
-    synchronized (lock)
+    Map.Entry<CSN, UpdateMsg> first;
+    while ((first = map.pollFirstEntry()) != null)
     {
-      map.clear();
-      bytesCount = 0;
+      removed(first.getValue());
     }
   }
 
@@ -197,21 +237,54 @@ public class MsgQueue
    */
   public void consumeUpTo(UpdateMsg finalMsg)
   {
-    // FIXME this code could be more efficient if the msgQueue could call the
-    // following code (to be tested):
-    // if (!map.containsKey(finalMsg.getCSN())) {
-    // map.clear();
-    // } else {
-    // map.headMap(finalMsg.getCSN(), true).clear();
-    // }
-
     final CSN finalCSN = finalMsg.getCSN();
-    UpdateMsg msg;
-    do
+    Map.Entry<CSN, UpdateMsg> first;
+    while ((first = map.pollFirstEntry()) != null)
     {
-      msg = removeFirst();
+      removed(first.getValue());
+      if (finalCSN.equals(first.getKey()))
+      {
+        return;
+      }
     }
-    while (!finalCSN.equals(msg.getCSN()));
+  }
+
+  /**
+   * Records the time a producer spent to enqueue a message, including the time
+   * waiting for the consumer lock in order to trim the queue or to wake up the
+   * consumer.
+   *
+   * @param waitTimeNanos
+   *          the time waited, in nanoseconds
+   */
+  void recordEnqueueWaitTime(long waitTimeNanos)
+  {
+    enqueueWaitTime.add(waitTimeNanos);
+    long max = maxEnqueueWaitTime.get();
+    while (waitTimeNanos > max && !maxEnqueueWaitTime.compareAndSet(max, waitTimeNanos))
+    {
+      max = maxEnqueueWaitTime.get();
+    }
+  }
+
+  /**
+   * Returns the cumulated time spent by producers to enqueue messages.
+   *
+   * @return the cumulated enqueue wait time, in milliseconds
+   */
+  long getEnqueueWaitTime()
+  {
+    return TimeUnit.NANOSECONDS.toMillis(enqueueWaitTime.sum());
+  }
+
+  /**
+   * Returns the longest time spent by a producer to enqueue a message.
+   *
+   * @return the maximum enqueue wait time, in milliseconds
+   */
+  long getMaxEnqueueWaitTime()
+  {
+    return TimeUnit.NANOSECONDS.toMillis(maxEnqueueWaitTime.get());
   }
 
   @Override
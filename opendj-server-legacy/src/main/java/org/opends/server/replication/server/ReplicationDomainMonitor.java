@@ -17,13 +17,16 @@
 package org.opends.server.replication.server;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.ldap.DN;
+import org.opends.server.api.MonitorData;
 import org.opends.server.replication.common.CSN;
 import org.opends.server.replication.common.ServerState;
 import org.opends.server.replication.protocol.MonitorMsg;
@@ -219,6 +222,36 @@ class ReplicationDomainMonitor
     return monitorData;
   }
 
+  /**
+   * Adds to the provided monitor data the state of the queues of updates
+   * waiting to be sent to the servers directly connected to this replication
+   * server, cumulated over all these servers.
+   *
+   * @param attributes
+   *          the monitor data where to add the queue counters
+   */
+  void addMsgQueueMonitorData(MonitorData attributes)
+  {
+    long queueSize = 0;
+    long queueSizeBytes = 0;
+    long enqueueWaitTime = 0;
+    long maxEnqueueWaitTime = 0;
+    final List<ServerHandler> handlers = new ArrayList<>(domain.getConnectedDSs().values());
+    handlers.addAll(domain.getConnectedRSs().values());
+    for (ServerHandler handler : handlers)
+    {
+      final MsgQueue msgQueue = handler.getMsgQueue();
+      queueSize += msgQueue.count();
+      queueSizeBytes += msgQueue.bytesCount();
+      enqueueWaitTime += msgQueue.getEnqueueWaitTime();
+      maxEnqueueWaitTime = Math.max(maxEnqueueWaitTime, msgQueue.getMaxEnqueueWaitTime());
+    }
+    attributes.add("queue-size", queueSize);
+    attributes.add("queue-size-bytes", queueSizeBytes);
+    attributes.add("queue-enqueue-wait-time", enqueueWaitTime);
+    attributes.add("queue-max-enqueue-wait-time", maxEnqueueWaitTime);
+  }
+
   /** Start collecting global monitoring information for the replication domain. */
   private void initializePendingMonitorData()
   {
@@ -1068,6 +1068,28 @@ public class ReplicationServer
     return this.config.getAssuredTimeout();
   }
 
+  /**
+   * Get how long to wait for more updates before sending a batch of updates
+   * to another replication server.
+   *
+   * @return The update batch linger time, in milliseconds.
+   */
+  public long getUpdateBatchLingerTime()
+  {
+    return this.config.getUpdateBatchLingerTime();
+  }
+
+  /**
+   * Returns whether the batches of updates sent to other replication servers
+   * are compressed.
+   *
+   * @return true if the update batches are compressed.
+   */
+  public boolean isUpdateBatchCompression()
+  {
+    return this.config.isUpdateBatchCompression();
+  }
+
   /**
    * Get The replication server group id.
    * @return The replication server group id.
@@ -2245,12 +2245,13 @@ public class ReplicationServerDomain extends MonitorProvider<MonitorProviderCfg>
   {
     int serverId = localReplicationServer.getServerId();
 
-    final MonitorData attributes = new MonitorData(5);
+    final MonitorData attributes = new MonitorData(9);
     attributes.add("replication-server-id", serverId);
     attributes.add("replication-server-port", localReplicationServer.getReplicationPort());
     attributes.add("domain-name", baseDN);
     attributes.add("generation-id", baseDN + " " + generationId);
     attributes.add("missing-changes", getDomainMonitorData().getMissingChangesRS(serverId));
+    domainMonitor.addMsgQueueMonitorData(attributes);
     return attributes;
   }
 
@@ -74,6 +74,8 @@ public class ReplicationServerHandler extends ServerHandler
       short protocolVersion = getCompatibleVersion(inReplServerStartMsg
           .getVersion());
       session.setProtocolVersion(protocolVersion);
+      session.enableUpdateBatching(replicationServer.getUpdateBatchLingerTime(),
+          replicationServer.isUpdateBatchCompression());
       generationId = inReplServerStartMsg.getGenerationId();
       serverId = inReplServerStartMsg.getServerId();
       serverURL = inReplServerStartMsg.getServerURL();
@@ -15,9 +15,12 @@
  */
 package org.opends.server.replication.server.changelog.file;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.opends.server.api.DirectoryThread;
@@ -49,6 +52,10 @@ import static org.opends.server.util.StaticUtils.*;
  * CNIndexDB. As a consequence this class is also responsible for maintaining
  * the medium consistency point (indirectly through an
  * {@link ECLMultiDomainDBCursor}).
+ * <p>
+ * The changes are read ahead from the cursor as long as they are older than
+ * the medium consistency point, and inserted in the CNIndexDB in batches of
+ * consecutive change numbers with a single write.
  */
 public class ChangeNumberIndexer extends DirectoryThread
 {
@@ -98,6 +105,14 @@ public class ChangeNumberIndexer extends DirectoryThread
   private ECLMultiDomainDBCursor nextChangeForInsertDBCursor;
   private MultiDomainServerState cookie = new MultiDomainServerState();
 
+  /** The maximum number of changes inserted in the CNIndexDB with a single write. */
+  private static final int MAX_BATCH_SIZE = 256;
+
+  /** The time of the newest change published to this indexer. */
+  private final AtomicLong newestPublishedChangeTime = new AtomicLong();
+  /** The time of the newest change inserted in the CNIndexDB. */
+  private volatile long newestIndexedChangeTime;
+
   /**
    * Builds a ChangeNumberIndexer object.
    *  @param changelogDB
@@ -182,9 +197,38 @@ public class ChangeNumberIndexer extends DirectoryThread
 
     final CSN oldestCSNBefore = getOldestLastAliveCSN();
     lastAliveCSNs.update(baseDN, updateMsg.getCSN());
+    updateNewestPublishedChangeTime(updateMsg.getCSN().getTime());
     tryNotify(oldestCSNBefore);
   }
 
+  private void updateNewestPublishedChangeTime(long changeTime)
+  {
+    long newestTime;
+    do
+    {
+      newestTime = newestPublishedChangeTime.get();
+    }
+    while (changeTime > newestTime && !newestPublishedChangeTime.compareAndSet(newestTime, changeTime));
+  }
+
+  /**
+   * Returns how late the CNIndexDB is behind the changes published to this
+   * indexer, that is the time between the newest change published and the
+   * newest change inserted in the CNIndexDB.
+   *
+   * @return the indexing lag in milliseconds
+   */
+  public long getIndexingLag()
+  {
+    final long newestIndexedTime = newestIndexedChangeTime;
+    if (newestIndexedTime == 0)
+    {
+      // nothing indexed since startup
+      return 0;
+    }
+    return Math.max(0, newestPublishedChangeTime.get() - newestIndexedTime);
+  }
+
   /**
    * Signals a replica went offline.
    *
@@ -310,6 +354,10 @@ public class ChangeNumberIndexer extends DirectoryThread
 
     nextChangeForInsertDBCursor = new ECLMultiDomainDBCursor(predicate, cursorInitializedToMediumConsistencyPoint);
     ChangelogBackend.updateCookieToMediumConsistencyPoint(cookie, nextChangeForInsertDBCursor, newestRecord);
+    if (newestCsn != null)
+    {
+      newestIndexedChangeTime = newestCsn.getTime();
+    }
   }
 
   private void initializeLastAliveCSNs(final ReplicationDomainDB domainDB)
@@ -422,7 +470,6 @@ public class ChangeNumberIndexer extends DirectoryThread
           }
 
           final CSN csn = msg.getCSN();
-          final DN baseDN = nextChangeForInsertDBCursor.getData();
           // FIXME problem: what if the serverId is not part of the ServerState?
           // right now, change number will be blocked
           if (!canMoveForwardMediumConsistencyPoint(csn))
@@ -447,16 +494,8 @@ public class ChangeNumberIndexer extends DirectoryThread
           }
 
           // OK, the oldest change is older than the medium consistency point
-          // let's publish it to the CNIndexDB.
-          final long changeNumber = changelogDB.getChangeNumberIndexDB()
-              .addRecord(new ChangeNumberIndexRecord(baseDN, csn));
-          if (!cookie.update(baseDN, csn))
-          {
-            throw new IllegalStateException("It was expected that change (baseDN=" + baseDN + ", csn=" + csn
-                + ") would have updated the cookie=" + cookie + ", but it did not");
-          }
-          notifyEntryAddedToChangelog(baseDN, changeNumber, cookie, msg);
-          moveForwardMediumConsistencyPoint(csn, baseDN);
+          // let's publish it and the following ones to the CNIndexDB.
+          indexChanges();
         }
         catch (InterruptedException ignored)
         {
@@ -484,6 +523,58 @@ public class ChangeNumberIndexer extends DirectoryThread
     }
   }
 
+  /**
+   * Reads ahead the changes older than the medium consistency point, starting
+   * with the current one, then inserts them in the CNIndexDB in a single write,
+   * and finally notifies the {@link ChangelogBackend} about each of them.
+   */
+  private void indexChanges() throws ChangelogException
+  {
+    // the cookie after each change is kept for the notifications
+    final List<ChangeNumberIndexRecord> batchRecords = new ArrayList<>();
+    final List<UpdateMsg> batchMsgs = new ArrayList<>();
+    final List<MultiDomainServerState> batchCookies = new ArrayList<>();
+    UpdateMsg msg = nextChangeForInsertDBCursor.getRecord();
+    while (msg != null && batchRecords.size() < MAX_BATCH_SIZE && domainsToClear.isEmpty())
+    {
+      if (msg instanceof ReplicaOfflineMsg)
+      {
+        moveToNextChange();
+      }
+      else
+      {
+        final CSN csn = msg.getCSN();
+        final DN baseDN = nextChangeForInsertDBCursor.getData();
+        if (!canMoveForwardMediumConsistencyPoint(csn))
+        {
+          break;
+        }
+        if (!cookie.update(baseDN, csn))
+        {
+          throw new IllegalStateException("It was expected that change (baseDN=" + baseDN + ", csn=" + csn
+              + ") would have updated the cookie=" + cookie + ", but it did not");
+        }
+        batchRecords.add(new ChangeNumberIndexRecord(baseDN, csn));
+        batchMsgs.add(msg);
+        batchCookies.add(new MultiDomainServerState(cookie));
+        moveForwardMediumConsistencyPoint(csn, baseDN);
+      }
+      msg = nextChangeForInsertDBCursor.getRecord();
+    }
+    if (batchRecords.isEmpty())
+    {
+      return;
+    }
+
+    final long firstChangeNumber = changelogDB.getChangeNumberIndexDB().addRecords(batchRecords);
+    newestIndexedChangeTime = batchRecords.get(batchRecords.size() - 1).getCSN().getTime();
+    for (int i = 0; i < batchRecords.size(); i++)
+    {
+      notifyEntryAddedToChangelog(
+          batchRecords.get(i).getBaseDN(), firstChangeNumber + i, batchCookies.get(i), batchMsgs.get(i));
+    }
+  }
+
   private void moveToNextChange() throws ChangelogException
   {
     try
@@ -15,12 +15,12 @@
  */
 package org.opends.server.replication.server.changelog.file;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeMap;
 
 import net.jcip.annotations.NotThreadSafe;
 
@@ -34,6 +34,10 @@ import org.opends.server.util.StaticUtils;
  * {@link DBCursor} implementation that iterates across a Collection of
  * {@link DBCursor}s, advancing from the oldest to the newest change cross all
  * cursors.
+ * <p>
+ * The cursors are kept in a binary min-heap ordered on the CSN of their
+ * current change, which is cached in the heap so that moving to the next
+ * change only costs one sift down of the heap, without any allocation.
  *
  * @param <T>
  *          The type of data associated with each cursor
@@ -45,6 +49,27 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
   private static final byte READY = 1;
   private static final byte CLOSED = 2;
 
+  /** A cursor in the heap, along with its associated data and the CSN of its current change. */
+  private static final class HeapNode<T>
+  {
+    private final DBCursor<UpdateMsg> cursor;
+    private final T data;
+    private CSN csn;
+
+    private HeapNode(DBCursor<UpdateMsg> cursor, T data)
+    {
+      this.cursor = cursor;
+      this.data = data;
+      this.csn = cursor.getRecord().getCSN();
+    }
+
+    @Override
+    public String toString()
+    {
+      return cursor + "=" + data;
+    }
+  }
+
   /** The state of this cursor. One of {@link #UNINITIALIZED}, {@link #READY} or {@link #CLOSED} */
   private byte state = UNINITIALIZED;
 
@@ -55,38 +80,16 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
    */
   private final Map<DBCursor<UpdateMsg>, T> exhaustedCursors = new HashMap<>();
   /**
-   * The cursors are sorted based on the current change of each cursor to
-   * consider the next change across all available cursors.
+   * The cursors are kept in a min-heap based on the current change of each
+   * cursor to consider the next change across all available cursors: the
+   * cursor with the oldest change is always the first one.
    * <p>
-   * New cursors for this Map must be created from the same thread that will
+   * New cursors for this heap must be created from the same thread that will
    * make use of them. When this rule is not obeyed, a JE exception will be
    * thrown about
    * "Non-transactional Cursors may not be used in multiple threads;".
    */
-  private final TreeMap<DBCursor<UpdateMsg>, T> cursors = new TreeMap<>(
-          new Comparator<DBCursor<UpdateMsg>>()
-          {
-            @Override
-            public int compare(DBCursor<UpdateMsg> o1, DBCursor<UpdateMsg> o2)
-            {
-              final CSN csn1 = o1.getRecord().getCSN();
-              final CSN csn2 = o2.getRecord().getCSN();
-              int cmpCsn = CSN.compare(csn1, csn2);
-              if (cmpCsn == 0
-                  && o1 instanceof CompositeDBCursor
-                  && o2 instanceof CompositeDBCursor)
-              {
-                // Ensures a consistent order when the CSNs are equal (rare in practice)
-                T data1 = ((CompositeDBCursor<T>) o1).getData();
-                T data2 = ((CompositeDBCursor<T>) o1).getData();
-                if (data1 instanceof Comparable && data2 instanceof Comparable)
-                {
-                  return ((Comparable<T>) data1).compareTo(data2);
-                }
-              }
-              return cmpCsn;
-            }
-          });
+  private final List<HeapNode<T>> cursors = new ArrayList<>();
 
   /** {@inheritDoc} */
   @Override
@@ -98,22 +101,41 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
     }
 
     // If previous state was ready, then we must advance the first cursor
-    // (which UpdateMsg has been consumed).
-    // To keep consistent the cursors' order in the SortedSet, it is necessary
-    // to remove the first cursor, then add it again after moving it forward.
-    final Entry<DBCursor<UpdateMsg>, T> cursorToAdvance =
-        state != UNINITIALIZED ? cursors.pollFirstEntry() : null;
+    // (which UpdateMsg has been consumed), then restore the heap order.
+    // This must be done before recycling the exhausted cursors,
+    // which could otherwise take the first place in the heap.
+    // A cursor exhausted now is only recycled by the next call.
+    final HeapNode<T> exhaustedCursor =
+        state != UNINITIALIZED && !cursors.isEmpty() ? advanceFirstCursor() : null;
     state = READY;
     recycleExhaustedCursors();
-    if (cursorToAdvance != null)
+    if (exhaustedCursor != null)
     {
-      addCursor(cursorToAdvance.getKey(), cursorToAdvance.getValue());
+      exhaustedCursors.put(exhaustedCursor.cursor, exhaustedCursor.data);
     }
 
     incorporateNewCursors();
     return !cursors.isEmpty();
   }
 
+  /**
+   * Advances the first cursor and restores the heap order.
+   *
+   * @return the first cursor if it is exhausted and has been removed from the heap, null otherwise
+   */
+  private HeapNode<T> advanceFirstCursor() throws ChangelogException
+  {
+    final HeapNode<T> first = cursors.get(0);
+    if (first.cursor.next())
+    {
+      first.csn = first.cursor.getRecord().getCSN();
+      siftDown(0);
+      return null;
+    }
+    removeAt(0);
+    return first;
+  }
+
   private void recycleExhaustedCursors() throws ChangelogException
   {
     if (!exhaustedCursors.isEmpty())
@@ -136,14 +158,17 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
    */
   protected void removeCursor(final T dataToFind)
   {
-    removeCursor(this.cursors, dataToFind);
-    removeCursor(this.exhaustedCursors, dataToFind);
-  }
-
-  private void removeCursor(Map<DBCursor<UpdateMsg>, T> cursors, T dataToFind)
-  {
+    for (int i = cursors.size() - 1; i >= 0; i--)
+    {
+      final HeapNode<T> node = cursors.get(i);
+      if (dataToFind.equals(node.data))
+      {
+        node.cursor.close();
+        removeAt(i);
+      }
+    }
     for (Iterator<Entry<DBCursor<UpdateMsg>, T>> cursorIter =
-        cursors.entrySet().iterator(); cursorIter.hasNext();)
+        exhaustedCursors.entrySet().iterator(); cursorIter.hasNext();)
     {
       final Entry<DBCursor<UpdateMsg>, T> entry = cursorIter.next();
       if (dataToFind.equals(entry.getValue()))
@@ -169,7 +194,8 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
   {
     if (cursor.next())
     {
-      this.cursors.put(cursor, data);
+      cursors.add(new HeapNode<>(cursor, data));
+      siftUp(cursors.size() - 1);
     }
     else
     {
@@ -177,16 +203,81 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
     }
   }
 
+  /** Removes the node at the provided index of the heap, keeping the heap order. */
+  private void removeAt(int index)
+  {
+    final int lastIndex = cursors.size() - 1;
+    final HeapNode<T> last = cursors.remove(lastIndex);
+    if (index < lastIndex)
+    {
+      cursors.set(index, last);
+      siftDown(index);
+      siftUp(index);
+    }
+  }
+
+  private void siftUp(int index)
+  {
+    final HeapNode<T> node = cursors.get(index);
+    while (index > 0)
+    {
+      final int parentIndex = (index - 1) >>> 1;
+      final HeapNode<T> parent = cursors.get(parentIndex);
+      if (compare(node, parent) >= 0)
+      {
+        break;
+      }
+      cursors.set(index, parent);
+      index = parentIndex;
+    }
+    cursors.set(index, node);
+  }
+
+  private void siftDown(int index)
+  {
+    final int size = cursors.size();
+    final HeapNode<T> node = cursors.get(index);
+    int childIndex;
+    while ((childIndex = 2 * index + 1) < size)
+    {
+      HeapNode<T> child = cursors.get(childIndex);
+      final int rightIndex = childIndex + 1;
+      if (rightIndex < size && compare(cursors.get(rightIndex), child) < 0)
+      {
+        childIndex = rightIndex;
+        child = cursors.get(rightIndex);
+      }
+      if (compare(node, child) <= 0)
+      {
+        break;
+      }
+      cursors.set(index, child);
+      index = childIndex;
+    }
+    cursors.set(index, node);
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(HeapNode<T> node1, HeapNode<T> node2)
+  {
+    final int cmpCsn = CSN.compare(node1.csn, node2.csn);
+    if (cmpCsn == 0 && node1.data instanceof Comparable && node2.data instanceof Comparable)
+    {
+      // Ensures a consistent order when the CSNs are equal (rare in practice)
+      return ((Comparable<T>) node1.data).compareTo(node2.data);
+    }
+    return cmpCsn;
+  }
+
   /** {@inheritDoc} */
   @Override
   public UpdateMsg getRecord()
   {
     // Cannot call incorporateNewCursors() here because
     // somebody might have already called DBCursor.getRecord() and read the record
-    final Entry<DBCursor<UpdateMsg>, T> entry = cursors.firstEntry();
-    if (entry != null)
+    if (!cursors.isEmpty())
     {
-      return entry.getKey().getRecord();
+      return cursors.get(0).cursor.getRecord();
     }
     return null;
   }
@@ -208,10 +299,9 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
    */
   public T getData()
   {
-    final Entry<DBCursor<UpdateMsg>, T> entry = cursors.firstEntry();
-    if (entry != null)
+    if (!cursors.isEmpty())
     {
-      return entry.getValue();
+      return cursors.get(0).data;
     }
     return null;
   }
@@ -220,7 +310,10 @@ abstract class CompositeDBCursor<T> implements DBCursor<UpdateMsg>
   public void close()
   {
     state = CLOSED;
-    StaticUtils.close(cursors.keySet());
+    for (HeapNode<T> node : cursors)
+    {
+      StaticUtils.close(node.cursor);
+    }
     StaticUtils.close(exhaustedCursors.keySet());
     cursors.clear();
     exhaustedCursors.clear();
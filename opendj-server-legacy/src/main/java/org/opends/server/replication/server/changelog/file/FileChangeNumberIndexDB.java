@@ -18,6 +18,8 @@ package org.opends.server.replication.server.changelog.file;
 import static org.opends.messages.ReplicationMessages.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -170,6 +172,30 @@ class FileChangeNumberIndexDB implements ChangeNumberIndexDB
     return changeNumber;
   }
 
+  @Override
+  public long addRecords(final List<ChangeNumberIndexRecord> records) throws ChangelogException
+  {
+    final long firstChangeNumber = nextChangeNumbers(records.size());
+    final List<Record<Long, ChangeNumberIndexRecord>> newRecords = new ArrayList<>(records.size());
+    long changeNumber = firstChangeNumber;
+    for (ChangeNumberIndexRecord record : records)
+    {
+      final ChangeNumberIndexRecord newRecord =
+          new ChangeNumberIndexRecord(changeNumber, record.getBaseDN(), record.getCSN());
+      newRecords.add(Record.from(newRecord.getChangeNumber(), newRecord));
+      changeNumber++;
+    }
+    log.append(newRecords);
+    newestChangeNumber = changeNumber - 1;
+
+    if (logger.isTraceEnabled())
+    {
+      logger.trace("In FileChangeNumberIndexDB.addRecords, added %s records from change number %s",
+          records.size(), firstChangeNumber);
+    }
+    return firstChangeNumber;
+  }
+
   /** {@inheritDoc} */
   @Override
   public ChangeNumberIndexRecord getOldestRecord() throws ChangelogException
@@ -185,11 +211,17 @@ class FileChangeNumberIndexDB implements ChangeNumberIndexDB
   }
 
   private long nextChangeNumber()
+  {
+    return nextChangeNumbers(1);
+  }
+
+  /** Generates the provided number of consecutive change numbers and returns the first one. */
+  private long nextChangeNumbers(int count)
   {
     resetCNisRunningLock.readLock().lock();
     try {
-      long lgcn = lastGeneratedChangeNumber.incrementAndGet();
-      return lgcn;
+      long lgcn = lastGeneratedChangeNumber.addAndGet(count);
+      return lgcn - count + 1;
     }
     finally
     {
@@ -292,10 +324,11 @@ class FileChangeNumberIndexDB implements ChangeNumberIndexDB
       long lastCN = readChangeNumber(ChangeNumberType.LAST);
       long numberOfChanges = lastCN == NO_KEY ? 0 : lastCN - firstCN + 1;
 
-      final MonitorData attributes = new MonitorData(3);
+      final MonitorData attributes = new MonitorData(4);
       attributes.add(ChangeNumberType.FIRST.getAttributeName(), firstCN);
       attributes.add(ChangeNumberType.LAST.getAttributeName(), lastCN);
       attributes.add("count", numberOfChanges);
+      attributes.add("indexing-lag-millis", changelogDB.getChangeNumberIndexingLag());
       return attributes;
     }
 
@@ -653,6 +653,18 @@ public class FileChangelogDB implements ChangelogDB, ReplicationDomainDB
     }
   }
 
+  /**
+   * Returns how late the change number indexing is behind the changes received
+   * by this replication server.
+   *
+   * @return the change number indexing lag in milliseconds, 0 if the indexer is not running
+   */
+  long getChangeNumberIndexingLag()
+  {
+    final ChangeNumberIndexer indexer = cnIndexer.get();
+    return indexer != null ? indexer.getIndexingLag() : 0;
+  }
+
   @Override
   public ChangeNumberIndexDB getChangeNumberIndexDB()
   {
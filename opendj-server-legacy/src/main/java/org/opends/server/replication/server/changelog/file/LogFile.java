@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -264,6 +265,36 @@ final class LogFile<K extends Comparable<K>, V> implements Closeable
     }
   }
 
+  /**
+   * Add the provided records at the end of this log, in a single write.
+   *
+   * @param records
+   *          The records to add, with strictly increasing keys.
+   * @throws ChangelogException
+   *           If the records can't be added to the log.
+   * @see #append(Record)
+   */
+  void append(final List<Record<K, V>> records) throws ChangelogException
+  {
+    checkLogIsEnabledForWrite();
+    exclusiveLock.lock();
+    try
+    {
+      for (Record<K, V> record : records)
+      {
+        if (!appendWouldBreakKeyOrdering(record))
+        {
+          writer.write(record);
+          newestRecord = record;
+        }
+      }
+    }
+    finally
+    {
+      exclusiveLock.unlock();
+    }
+  }
+
   /** Indicates if the provided record has a key that would break the key ordering if appended in this file log. */
   boolean appendWouldBreakKeyOrdering(final Record<K, V> record)
   {
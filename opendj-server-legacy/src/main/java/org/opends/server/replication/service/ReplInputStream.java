@@ -18,19 +18,37 @@ package org.opends.server.replication.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.opends.server.api.DirectoryThread;
 
 /**
  * This class creates an input stream that can be used to read entries generated
  * by SynchroLDIF as if they were being read from another source like a file.
+ * <p>
+ * The entries are received from the replication server by a dedicated thread
+ * and prefetched into a bounded queue, so that receiving the next entries from
+ * the network overlaps with importing the previous ones.
  */
 class ReplInputStream extends InputStream
 {
+  /** Marks the end of the received entries in the prefetch queue. */
+  private static final byte[] END_OF_ENTRIES = new byte[0];
+
   /** Indicates whether this input stream has been closed. */
-  private boolean closed;
+  private volatile boolean closed;
 
   /** The domain associated to this import. */
   private final ReplicationDomain domain;
 
+  /** The entry bytes received but not yet read. */
+  private final BlockingQueue<byte[]> prefetched;
+  private final Thread receiver;
+  private boolean receiverStarted;
+
   private byte[] bytes;
   private int index;
 
@@ -39,20 +57,69 @@ class ReplInputStream extends InputStream
    * for a synchronization domain.
    *
    * @param domain The replication domain
+   * @param prefetchCount The maximum number of received messages waiting to be read
    */
-  ReplInputStream(ReplicationDomain domain)
+  ReplInputStream(ReplicationDomain domain, int prefetchCount)
   {
     this.domain = domain;
-    closed      = false;
+    this.prefetched = new ArrayBlockingQueue<>(Math.max(1, prefetchCount));
+    this.receiver = new DirectoryThread(new Runnable()
+    {
+      @Override
+      public void run()
+      {
+        receiveEntries();
+      }
+    }, "Replication initialization receiver for " + domain.getBaseDN());
+  }
+
+  private void receiveEntries()
+  {
+    try
+    {
+      byte[] received;
+      do
+      {
+        received = domain.receiveEntryBytes();
+        if (received == null)
+        {
+          received = END_OF_ENTRIES;
+        }
+        while (!closed && !prefetched.offer(received, 100, TimeUnit.MILLISECONDS))
+        {
+          // wait for the import to catch up
+        }
+      }
+      while (received != END_OF_ENTRIES && !closed);
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
   }
 
   /**
    * Closes this input stream so that no more data may be read from it.
+   * The receiving thread is interrupted and this method waits for it to end,
+   * so that it no longer competes with the listener thread for the messages
+   * received by the broker.
    */
   @Override
   public void close()
   {
-    closed      = true;
+    closed = true;
+    if (receiverStarted)
+    {
+      receiver.interrupt();
+      try
+      {
+        receiver.join();
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+      }
+    }
   }
 
   /**
@@ -85,10 +152,11 @@ class ReplInputStream extends InputStream
     {
       // First time this method is called or the previous entry was
       // finished. Read a new entry and return it.
-      bytes = domain.receiveEntryBytes();
+      bytes = nextPrefetched();
 
-      if (bytes==null)
+      if (bytes == END_OF_ENTRIES)
       {
+        bytes = null;
         closed = true;
         return -1;
       }
@@ -123,6 +191,35 @@ class ReplInputStream extends InputStream
     return copiedLength;
   }
 
+  private byte[] nextPrefetched() throws IOException
+  {
+    if (!receiverStarted)
+    {
+      receiverStarted = true;
+      receiver.start();
+    }
+    try
+    {
+      byte[] next = prefetched.poll(100, TimeUnit.MILLISECONDS);
+      while (next == null)
+      {
+        if (!receiver.isAlive())
+        {
+          // the receiver may have queued its last message before ending
+          next = prefetched.poll();
+          return next != null ? next : END_OF_ENTRIES;
+        }
+        next = prefetched.poll(100, TimeUnit.MILLISECONDS);
+      }
+      return next;
+    }
+    catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(e.getMessage());
+    }
+  }
+
   /**
    * Reads a single byte of data from this input stream.
    *
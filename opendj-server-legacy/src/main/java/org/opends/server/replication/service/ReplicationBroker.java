@@ -1202,6 +1202,8 @@ public class ReplicationBroker
       startSessionMsg.setEclIncludes(
           domain.getEclIncludes(domain.getServerId()),
           domain.getEclIncludesForDeletes(domain.getServerId()));
+      startSessionMsg.setUpdateBatching(
+          config.getUpdateBatchLingerTime(), config.isUpdateBatchCompression());
       final Session session = electedRS.session;
       session.publish(startSessionMsg);
 
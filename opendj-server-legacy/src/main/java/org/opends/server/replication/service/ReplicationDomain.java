@@ -231,6 +231,12 @@ public abstract class ReplicationDomain
   private ServerStatus status = ServerStatus.NOT_CONNECTED_STATUS;
   private static final LocalizedLogger logger = LocalizedLogger.getLoggerForThisClass();
 
+  /**
+   * Size of the LDIF chunks sent in each EntryMsg during a total update. Large
+   * chunks reduce the number of messages, hence of flow control round trips.
+   */
+  private static final int EXPORT_CHUNK_SIZE = 64 * 1024;
+
   /** The configuration of the replication domain. */
   protected volatile ReplicationDomainCfg config;
   /**
@@ -1310,7 +1316,7 @@ public abstract class ReplicationDomain
      * @param serverId serverId of the acknowledger/receiver/importer server.
      * @param numAck   id of the message received.
      */
-    private void setAckVal(int serverId, int numAck)
+    private synchronized void setAckVal(int serverId, int numAck)
     {
       if (logger.isTraceEnabled())
       {
@@ -1331,6 +1337,35 @@ public abstract class ReplicationDomain
           minMsgReceived = nbMsgReceived;
         }
       }
+      notifyAll();
+    }
+
+    /**
+     * Returns the id of the last EntryMsg acknowledged by a receiver server.
+     * @param serverId serverId of the receiver server.
+     * @return id of the last message acknowledged by the receiver server.
+     */
+    private synchronized int getAckVal(int serverId)
+    {
+      return ackVals.get(serverId);
+    }
+
+    /**
+     * Waits until a receiver server acknowledges EntryMsgs, or until the
+     * provided timeout expires.
+     *
+     * @param timeoutMillis the maximum time to wait, in milliseconds.
+     */
+    private synchronized void awaitAck(long timeoutMillis)
+    {
+      try
+      {
+        wait(timeoutMillis);
+      }
+      catch (InterruptedException e)
+      {
+        // do nothing, the caller checks the export state again
+      }
     }
 
     /**
@@ -1513,7 +1548,7 @@ public abstract class ReplicationDomain
               ERR_INIT_NO_SUCCESS_START_FROM_SERVERS.get(getBaseDN(), ieCtx.failureList));
         }
 
-        exportBackend(new BufferedOutputStream(new ReplOutputStream(this)));
+        exportBackend(new BufferedOutputStream(new ReplOutputStream(this), EXPORT_CHUNK_SIZE));
 
         // Notify the peer of the success
         broker.publish(
@@ -1865,7 +1900,8 @@ public abstract class ReplicationDomain
    * Receives bytes related to an entry in the context of an import to
    * initialize the domain (called by ReplLDIFInputStream).
    *
-   * @return The bytes. Null when the Done or Err message has been received
+   * @return The bytes. Null when the Done or Err message has been received,
+   *         when the import has ended or when its input stream has been closed
    */
   protected byte[] receiveEntryBytes()
   {
@@ -1873,6 +1909,12 @@ public abstract class ReplicationDomain
     while (true)
     {
       ImportExportContext ieCtx = importExportContext.get();
+      if (ieCtx == null || Thread.currentThread().isInterrupted())
+      {
+        // The import has ended or its input stream has been closed:
+        // leave the remaining messages to the listener thread
+        return null;
+      }
       try
       {
         // In the context of the total update, we don't want any automatic
@@ -2072,7 +2114,7 @@ public abstract class ReplicationDomain
       }
 
       int ourLastExportedCnt = ieCtx.msgCnt;
-      int slowestCnt = ieCtx.ackVals.get(slowestServerId);
+      int slowestCnt = ieCtx.getAckVal(slowestServerId);
 
       if (logger.isTraceEnabled())
       {
@@ -2088,8 +2130,7 @@ public abstract class ReplicationDomain
         }
 
         // our export is too far beyond the slowest importer - let's wait
-        try { Thread.sleep(100); }
-        catch(Exception e) { /* do nothing */ }
+        ieCtx.awaitAck(100);
 
         // process any connection error
         if (broker.hasConnectionError()
@@ -2282,7 +2323,7 @@ public abstract class ReplicationDomain
       initFromTask = (InitializeTask) ieCtx.initializeTask;
 
       // Launch the import
-      importBackend(new ReplInputStream(this));
+      importBackend(new ReplInputStream(this, ieCtx.initWindow));
     }
     catch (DirectoryException e)
     {
@@ -77,6 +77,8 @@ public class BackupTask extends Task
     argDisplayMap.put(ATTR_BACKUP_ID, INFO_BACKUP_ARG_BACKUP_ID.get());
     argDisplayMap.put(ATTR_BACKUP_DIRECTORY_PATH, INFO_BACKUP_ARG_BACKUP_DIR.get());
     argDisplayMap.put(ATTR_TASK_BACKUP_INCREMENTAL_BASE_ID, INFO_BACKUP_ARG_INC_BASE_ID.get());
+    argDisplayMap.put(ATTR_TASK_BACKUP_MAX_THROUGHPUT, INFO_BACKUP_ARG_MAX_THROUGHPUT.get());
+    argDisplayMap.put(ATTR_TASK_BACKUP_STREAM_COUNT, INFO_BACKUP_ARG_STREAM_COUNT.get());
   }
 
 
@@ -91,6 +93,8 @@ public class BackupTask extends Task
   private String  backupID;
   private File    backupDirectory;
   private String  incrementalBase;
+  private int     maxThroughput;
+  private int     streamCount;
 
   private BackupConfig backupConfig;
 
@@ -152,6 +156,8 @@ public class BackupTask extends Task
     }
 
     incrementalBase = TaskUtils.getSingleValueString(taskEntry.getAllAttributes(ATTR_TASK_BACKUP_INCREMENTAL_BASE_ID));
+    maxThroughput = TaskUtils.getSingleValueInteger(taskEntry.getAllAttributes(ATTR_TASK_BACKUP_MAX_THROUGHPUT), 0);
+    streamCount = TaskUtils.getSingleValueInteger(taskEntry.getAllAttributes(ATTR_TASK_BACKUP_STREAM_COUNT), 1);
 
     configEntries = TaskUtils.getBackendConfigEntries();
   }
@@ -367,6 +373,8 @@ public class BackupTask extends Task
     backupConfig.setHashData(hash);
     backupConfig.setSignHash(signHash);
     backupConfig.setIncrementalBaseID(incrementalBase);
+    backupConfig.setMaxThroughput(maxThroughput);
+    backupConfig.setStreamCount(streamCount);
 
 
     // Perform the backup.
@@ -61,6 +61,7 @@ import com.forgerock.opendj.cli.Argument;
 import com.forgerock.opendj.cli.ArgumentException;
 import com.forgerock.opendj.cli.BooleanArgument;
 import com.forgerock.opendj.cli.ClientException;
+import com.forgerock.opendj.cli.IntegerArgument;
 import com.forgerock.opendj.cli.StringArgument;
 
 /**
@@ -122,6 +123,8 @@ public class BackUpDB extends TaskTool
   private StringArgument  configFile;
   private StringArgument  backupDirectory;
   private StringArgument  incrementalBaseID;
+  private IntegerArgument maxThroughput;
+  private IntegerArgument streamCount;
 
   private int process(String[] args, boolean initializeServer,
                       OutputStream outStream, OutputStream errStream)
@@ -203,6 +206,20 @@ public class BackUpDB extends TaskTool
                       .shortIdentifier('s')
                       .description(INFO_BACKUPDB_DESCRIPTION_SIGN_HASH.get())
                       .buildAndAddToParser(argParser);
+      maxThroughput =
+              IntegerArgument.builder("maxThroughput")
+                      .description(INFO_BACKUPDB_DESCRIPTION_MAX_THROUGHPUT.get())
+                      .lowerBound(0)
+                      .defaultValue(0)
+                      .valuePlaceholder(INFO_BACKUPDB_MAX_THROUGHPUT_PLACEHOLDER.get())
+                      .buildAndAddToParser(argParser);
+      streamCount =
+              IntegerArgument.builder("streamCount")
+                      .description(INFO_BACKUPDB_DESCRIPTION_STREAM_COUNT.get())
+                      .lowerBound(1)
+                      .defaultValue(1)
+                      .valuePlaceholder(INFO_BACKUPDB_STREAM_COUNT_PLACEHOLDER.get())
+                      .buildAndAddToParser(argParser);
 
       final BooleanArgument displayUsage = showUsageArgument();
       argParser.addArgument(displayUsage);
@@ -340,6 +357,8 @@ public class BackUpDB extends TaskTool
     addIfHasValue(attributes, ATTR_BACKUP_ID, backupIDString);
     addIfHasValue(attributes, ATTR_BACKUP_DIRECTORY_PATH, backupDirectory);
     addIfHasValue(attributes, ATTR_TASK_BACKUP_INCREMENTAL_BASE_ID, incrementalBaseID);
+    addIfHasValue(attributes, ATTR_TASK_BACKUP_MAX_THROUGHPUT, maxThroughput);
+    addIfHasValue(attributes, ATTR_TASK_BACKUP_STREAM_COUNT, streamCount);
   }
 
   private void addIfHasValue(List<RawAttribute> attributes, String attrName, Argument arg)
@@ -410,6 +429,28 @@ public class BackUpDB extends TaskTool
       incrementalBase = null;
     }
 
+    int maxThroughputValue;
+    try
+    {
+      maxThroughputValue = maxThroughput.getIntValue();
+    }
+    catch (ArgumentException e)
+    {
+      printWrappedText(err, ERR_BACKUPDB_CANNOT_PARSE_MAX_THROUGHPUT.get(maxThroughput.getValue(), e.getMessage()));
+      return 1;
+    }
+
+    int streamCountValue;
+    try
+    {
+      streamCountValue = streamCount.getIntValue();
+    }
+    catch (ArgumentException e)
+    {
+      printWrappedText(err, ERR_BACKUPDB_CANNOT_PARSE_STREAM_COUNT.get(streamCount.getValue(), e.getMessage()));
+      return 1;
+    }
+
     if (initializeServer)
     {
       try
@@ -588,6 +629,8 @@ public class BackUpDB extends TaskTool
       backupConfig.setHashData(hash.isPresent());
       backupConfig.setSignHash(signHash.isPresent());
       backupConfig.setIncrementalBaseID(incrementalBase);
+      backupConfig.setMaxThroughput(maxThroughputValue);
+      backupConfig.setStreamCount(streamCountValue);
 
       if (!b.supports(BackendOperation.BACKUP))
       {
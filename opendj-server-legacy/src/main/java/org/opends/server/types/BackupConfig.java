@@ -80,6 +80,17 @@ public final class BackupConfig extends OperationConfig
    */
   private String incrementalBaseID;
 
+  /**
+   * The maximum rate, in kilobytes per second, at which the files should
+   * be read, or 0 if the rate is not limited.
+   */
+  private int maxThroughput;
+
+  /**
+   * The number of archive files written in parallel for the backup.
+   */
+  private int streamCount = 1;
+
 
   /**
    * Creates a new backup configuration that will create a full or
@@ -297,5 +308,61 @@ public final class BackupConfig extends OperationConfig
   {
     this.signHash = signHash;
   }
-}
 
+
+
+  /**
+   * Retrieves the maximum rate, in kilobytes per second, at which the
+   * backup process should read the files to archive.  Limiting the rate
+   * reduces the impact of the backup on the live traffic.
+   *
+   * @return  The maximum rate in kilobytes per second, or 0 if the rate
+   *          is not limited.
+   */
+  public int getMaxThroughput()
+  {
+    return maxThroughput;
+  }
+
+
+
+  /**
+   * Specifies the maximum rate, in kilobytes per second, at which the
+   * backup process should read the files to archive.
+   *
+   * @param  maxThroughput  The maximum rate in kilobytes per second, or
+   *                        0 if the rate should not be limited.
+   */
+  public void setMaxThroughput(int maxThroughput)
+  {
+    this.maxThroughput = maxThroughput;
+  }
+
+
+
+  /**
+   * Retrieves the number of archive files which should be written in
+   * parallel for the backup, each file of the backend being written to
+   * a single archive file.
+   *
+   * @return  The number of archive files written in parallel.
+   */
+  public int getStreamCount()
+  {
+    return streamCount;
+  }
+
+
+
+  /**
+   * Specifies the number of archive files which should be written in
+   * parallel for the backup.
+   *
+   * @param  streamCount  The number of archive files written in
+   *                      parallel, 1 to write a single archive file.
+   */
+  public void setStreamCount(int streamCount)
+  {
+    this.streamCount = streamCount;
+  }
+}
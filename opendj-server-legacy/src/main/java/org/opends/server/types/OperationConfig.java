@@ -16,6 +16,8 @@
  */
 package org.opends.server.types;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /** Base for data structures that define configuration for operations. */
 @org.opends.server.types.PublicAPI(
      stability=org.opends.server.types.StabilityLevel.VOLATILE,
@@ -25,7 +27,10 @@ package org.opends.server.types;
 public abstract class OperationConfig {
 
   /** When true indicates that the operation should stop as soon as possible. */
-  private boolean cancelled;
+  private volatile boolean cancelled;
+
+  /** The number of bytes processed so far by the operation. */
+  private final AtomicLong processedBytes = new AtomicLong();
 
   /**
    * Indicates that this operation has been cancelled and the
@@ -47,4 +52,26 @@ public abstract class OperationConfig {
   {
     return this.cancelled;
   }
+
+  /**
+   * Adds to the number of bytes processed so far by this operation.
+   *
+   * @param bytes
+   *          the number of bytes just processed
+   */
+  public void addProcessedBytes(long bytes)
+  {
+    processedBytes.addAndGet(bytes);
+  }
+
+  /**
+   * Returns the number of bytes processed so far by this operation, which
+   * allows to compute its throughput while it is running.
+   *
+   * @return the number of bytes processed so far by this operation
+   */
+  public long getProcessedBytes()
+  {
+    return processedBytes.get();
+  }
 }
@@ -1333,8 +1333,85 @@ public final class SubtreeSpecification
    */
   public boolean isWithinScope(final Entry entry)
   {
-    return isDNWithinScope(entry.getName())
-        && (refinements == null || refinements.matches(entry));
+    return isDNWithinScope(entry.getName()) && matchesRefinements(entry);
+  }
+
+  /**
+   * Determines whether the immediate subordinates of the specified DN
+   * are within the scope of this subtree specification, as far as
+   * their DN is concerned. The specific exclusions which chop one of
+   * these immediate subordinates must be checked separately with
+   * {@link #isChopBeforeDN(DN)}.
+   *
+   * @param parentDN
+   *          The parent DN of the entries.
+   * @return Returns <code>true</code> if the immediate subordinates of
+   *         the parent DN are within the scope of this subtree
+   *         specification, except those excluded by a chop before
+   *         specific exclusion.
+   */
+  public boolean areChildrenOfDNWithinScope(final DN parentDN)
+  {
+    if (!parentDN.isSubordinateOrEqualTo(baseDN))
+    {
+      return false;
+    }
+
+    // Check minimum and maximum depths.
+    final int childDepth = parentDN.size() + 1 - baseDN.size();
+    if ((minimumDepth > 0 && childDepth < minimumDepth)
+        || (maximumDepth >= 0 && childDepth > maximumDepth))
+    {
+      return false;
+    }
+
+    // Check exclusions: a child is a subordinate of an excluded DN if
+    // its parent is, unless it is the excluded DN itself.
+    for (final DN chopBeforeDN : chopBefore.keySet())
+    {
+      if (parentDN.isSubordinateOrEqualTo(chopBeforeDN))
+      {
+        return false;
+      }
+    }
+
+    for (final DN chopAfterDN : chopAfter.keySet())
+    {
+      if (parentDN.isSubordinateOrEqualTo(chopAfterDN))
+      {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Determines whether the specified DN is excluded, along with its
+   * subordinates, by a chop before specific exclusion.
+   *
+   * @param dn
+   *          The DN to check.
+   * @return Returns <code>true</code> if the DN is a chop before
+   *         specific exclusion.
+   */
+  public boolean isChopBeforeDN(final DN dn)
+  {
+    return chopBefore.containsKey(dn);
+  }
+
+  /**
+   * Determines whether the specified entry matches the refinements of
+   * this subtree specification, regardless of its DN.
+   *
+   * @param entry
+   *          The entry to check.
+   * @return Returns <code>true</code> if this subtree specification has
+   *         no refinements or if the entry matches them.
+   */
+  public boolean matchesRefinements(final Entry entry)
+  {
+    return refinements == null || refinements.matches(entry);
   }
 
   /**
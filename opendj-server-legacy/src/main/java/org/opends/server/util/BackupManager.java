@@ -33,6 +33,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
@@ -50,6 +51,16 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
@@ -63,6 +74,7 @@ import org.forgerock.i18n.slf4j.LocalizedLogger;
 import org.forgerock.opendj.config.server.ConfigException;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.util.Pair;
+import org.forgerock.util.Utils;
 import org.opends.server.api.Backupable;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.types.BackupConfig;
@@ -97,6 +109,25 @@ public class BackupManager
    */
   private static final String PROPERTY_LAST_LOGFILE_SIZE = "last_logfile_size";
 
+  /**
+   * The prefix of the properties that hold, for each backed up file, its
+   * size and last modification time when the backup was created.
+   */
+  private static final String PROPERTY_FILE_STATE_PREFIX = "file.";
+
+  /**
+   * The minimum age of the last modification time of a file for it to be
+   * recorded, as more recent modifications may not be detected given the
+   * resolution of the file system timestamps.
+   */
+  private static final long FILE_STATE_MIN_AGE_MS = 2000;
+
+  /**
+   * The name of the property that holds the number of archive files written
+   * in parallel, when there are more than one.
+   */
+  private static final String PROPERTY_STREAM_COUNT = "stream_count";
+
   /**
    * The name of the entry in an incremental backup archive file
    * containing a list of log files that are unchanged since the
@@ -195,6 +226,15 @@ public class BackupManager
     /** Update the hash with the provided buffer. */
     abstract void updateHashWith(byte[] buffer, int offset, int len);
 
+    /** Update the hash with the provided hash of a stream, if any. */
+    final void updateHashWith(byte[] streamHash)
+    {
+      if (streamHash != null)
+      {
+        updateHashWith(streamHash, 0, streamHash.length);
+      }
+    }
+
     /** Generates the hash bytes. */
     abstract byte[] generateBytes();
 
@@ -448,6 +488,7 @@ public class BackupManager
     final HashMap<String,String> backupProperties;
 
     final boolean shouldCompress;
+    final int streamCount;
 
     final boolean isIncremental;
     final String incrementalBaseID;
@@ -459,6 +500,7 @@ public class BackupManager
       backupDir = backupConfig.getBackupDirectory();
       backupProperties = new HashMap<>();
       shouldCompress = backupConfig.compressData();
+      streamCount = Math.max(1, backupConfig.getStreamCount());
 
       incrementalBaseID = retrieveIncrementalBaseID(backupConfig);
       isIncremental = incrementalBaseID != null;
@@ -510,6 +552,12 @@ public class BackupManager
 
     private final HashSet<String> dependencies;
 
+    /** The state of the files in the base backup, indexed by relative path, empty for a full backup. */
+    private final Map<String, String> baseFileStates;
+    /** The state of the files in this backup, indexed by relative path. */
+    private final Map<String, String> fileStates = new ConcurrentHashMap<>();
+    private final long creationTime = System.currentTimeMillis();
+
     private final String backendID;
     private final NewBackupParams newBackupParams;
     private final CryptoEngine cryptoEngine;
@@ -525,6 +573,11 @@ public class BackupManager
         Map<String, String> properties = backupParams.baseBackupInfo.getBackupProperties();
         latestFileName = properties.get(PROPERTY_LAST_LOGFILE_NAME);
         latestFileSize = Long.parseLong(properties.get(PROPERTY_LAST_LOGFILE_SIZE));
+        baseFileStates = getFileStates(properties);
+      }
+      else
+      {
+        baseFileStates = Collections.emptyMap();
       }
       archiveFilename = BACKUP_BASE_FILENAME + backendID + "-" +  backupParams.backupID;
     }
@@ -534,6 +587,18 @@ public class BackupManager
       return archiveFilename;
     }
 
+    /** Returns the name of the archive file of the provided stream, the first stream using the archive name. */
+    String getArchiveFilename(int stream)
+    {
+      return stream == 0 ? archiveFilename : archiveFilename + "-stream-" + stream;
+    }
+
+    synchronized void fileArchived(String relativePath, long size)
+    {
+      latestFileName = relativePath;
+      latestFileSize = size;
+    }
+
     String getBackendID()
     {
       return backendID;
@@ -552,6 +617,39 @@ public class BackupManager
       dependencies.add(newBackupParams.baseBackupInfo.getBackupID());
     }
 
+    /**
+     * Returns the size and last modification time of the provided file, or {@code null} if the file
+     * was modified too recently for a later modification to be reliably detected.
+     */
+    String getFileState(Path file)
+    {
+      final File f = file.toFile();
+      final long lastModified = f.lastModified();
+      if (lastModified == 0 || creationTime - lastModified < FILE_STATE_MIN_AGE_MS)
+      {
+        return null;
+      }
+      return f.length() + ":" + lastModified;
+    }
+
+    /** Indicates whether the file is unchanged since the base backup, given its current state. */
+    boolean isUnchanged(String relativePath, String fileState)
+    {
+      return fileState != null && fileState.equals(baseFileStates.get(relativePath));
+    }
+
+    void recordFileState(String relativePath, String fileState)
+    {
+      if (fileState != null)
+      {
+        fileStates.put(relativePath, fileState);
+      }
+      else
+      {
+        fileStates.remove(relativePath);
+      }
+    }
+
     void updateBackupDirectory() throws DirectoryException
     {
       BackupInfo backupInfo = createDescriptorForBackup();
@@ -571,13 +669,21 @@ public class BackupManager
     }
 
     /** Create a descriptor for the backup. */
-    private BackupInfo createDescriptorForBackup()
+    private synchronized BackupInfo createDescriptorForBackup()
     {
       byte[] bytes = cryptoEngine.generateBytes();
       byte[] digestBytes = cryptoEngine.hasSignedHash() ? null : bytes;
       byte[] macBytes = cryptoEngine.hasSignedHash() ? bytes : null;
       newBackupParams.putProperty(PROPERTY_LAST_LOGFILE_NAME, latestFileName);
       newBackupParams.putProperty(PROPERTY_LAST_LOGFILE_SIZE, String.valueOf(latestFileSize));
+      for (Map.Entry<String, String> fileState : fileStates.entrySet())
+      {
+        newBackupParams.putProperty(PROPERTY_FILE_STATE_PREFIX + fileState.getKey(), fileState.getValue());
+      }
+      if (newBackupParams.streamCount > 1)
+      {
+        newBackupParams.putProperty(PROPERTY_STREAM_COUNT, String.valueOf(newBackupParams.streamCount));
+      }
       return new BackupInfo(
           newBackupParams.backupDir, newBackupParams.backupID, new Date(), newBackupParams.isIncremental,
           newBackupParams.shouldCompress, cryptoEngine.shouldEncrypt(), digestBytes, macBytes,
@@ -592,6 +698,65 @@ public class BackupManager
     }
   }
 
+  /** Returns the state of the backed up files recorded in the provided backup properties. */
+  private static Map<String, String> getFileStates(Map<String, String> backupProperties)
+  {
+    final Map<String, String> fileStates = new HashMap<>();
+    for (Map.Entry<String, String> property : backupProperties.entrySet())
+    {
+      if (property.getKey().startsWith(PROPERTY_FILE_STATE_PREFIX))
+      {
+        fileStates.put(property.getKey().substring(PROPERTY_FILE_STATE_PREFIX.length()), property.getValue());
+      }
+    }
+    return fileStates;
+  }
+
+  /**
+   * Limits the rate at which the files are read during a backup, to protect the live traffic.
+   * It is shared by all the streams of the backup.
+   */
+  private static final class Throttle
+  {
+    /** The maximum rate in bytes per second, or 0 if unlimited. */
+    private final long maxBytesPerSecond;
+    private final long startTime = System.nanoTime();
+    private long totalBytes;
+
+    Throttle(long maxBytesPerSecond)
+    {
+      this.maxBytesPerSecond = maxBytesPerSecond;
+    }
+
+    /** Records that the provided number of bytes have been read, and waits if they were read too fast. */
+    void acquire(int bytes) throws InterruptedIOException
+    {
+      if (maxBytesPerSecond <= 0)
+      {
+        return;
+      }
+      final long expectedMillis;
+      synchronized (this)
+      {
+        totalBytes += bytes;
+        expectedMillis = totalBytes * 1000 / maxBytesPerSecond;
+      }
+      final long sleepMillis = expectedMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+      if (sleepMillis > 0)
+      {
+        try
+        {
+          Thread.sleep(sleepMillis);
+        }
+        catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException(e.getMessage());
+        }
+      }
+    }
+  }
+
   /** Represents an existing backup archive. */
   private static final class ExistingBackupArchive {
     private final String backupID;
@@ -609,6 +774,7 @@ public class BackupManager
       this.archiveFile = BackupManager.retrieveArchiveFile(backupInfo, backupDir.getPath());
     }
 
+    /** Returns the archive file of the first stream, the only one unless the backup was written in parallel. */
     File getArchiveFile()
     {
       return archiveFile;
@@ -674,21 +840,34 @@ public class BackupManager
         throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), message, e);
       }
 
-      return archiveFile.delete();
+      boolean deleted = true;
+      for (File file : retrieveArchiveFiles(backupInfo, backupDir.getPath()))
+      {
+        deleted &= file.delete();
+      }
+      return deleted;
     }
   }
 
-  /** Represents a writer of a backup archive. */
+  /** Represents a writer of a stream of a backup archive. */
   private static final class BackupArchiveWriter implements Closeable {
     private final ZipOutputStream zipOutputStream;
     private final NewBackupArchive archive;
+    private final int stream;
     private final CryptoEngine cryptoEngine;
+    private final Throttle throttle;
+    /** The number of bytes of the files waiting to be written by this stream. */
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private int entryCount;
 
-    BackupArchiveWriter(NewBackupArchive archive) throws DirectoryException
+    BackupArchiveWriter(NewBackupArchive archive, int stream, CryptoEngine cryptoEngine, Throttle throttle)
+        throws DirectoryException
     {
       this.archive = archive;
-      this.cryptoEngine = archive.cryptoEngine;
-      this.zipOutputStream = open(archive.getBackupPath(), archive.getArchiveFilename());
+      this.stream = stream;
+      this.cryptoEngine = cryptoEngine;
+      this.throttle = throttle;
+      this.zipOutputStream = open(archive.getBackupPath(), archive.getArchiveFilename(stream));
     }
 
     @Override
@@ -714,13 +893,16 @@ public class BackupManager
     long writeFile(Path file, String relativePath, CryptoEngine cryptoMethod, BackupConfig backupConfig)
          throws IOException, FileNotFoundException
     {
-      ZipEntry zipEntry = new ZipEntry(relativePath);
-      zipOutputStream.putNextEntry(zipEntry);
+      long totalBytesRead = 0;
+      // the file is opened first, so that a file deleted in the meantime leaves no empty entry in the archive
+      try (InputStream inputStream = new FileInputStream(file.toFile()))
+      {
+        ZipEntry zipEntry = new ZipEntry(relativePath);
+        zipOutputStream.putNextEntry(zipEntry);
+        entryCount++;
 
-      cryptoMethod.updateHashWith(relativePath);
+        cryptoMethod.updateHashWith(relativePath);
 
-      long totalBytesRead = 0;
-      try (InputStream inputStream = new FileInputStream(file.toFile())) {
         byte[] buffer = new byte[8192];
         int bytesRead = inputStream.read(buffer);
         while (bytesRead > 0 && !backupConfig.isCancelled())
@@ -728,12 +910,14 @@ public class BackupManager
           cryptoMethod.updateHashWith(buffer, 0, bytesRead);
           zipOutputStream.write(buffer, 0, bytesRead);
           totalBytesRead += bytesRead;
+          backupConfig.addProcessedBytes(bytesRead);
+          throttle.acquire(bytesRead);
           bytesRead = inputStream.read(buffer);
         }
-      }
 
-      zipOutputStream.closeEntry();
-      logger.info(NOTE_BACKUP_ARCHIVED_FILE, zipEntry.getName());
+        zipOutputStream.closeEntry();
+        logger.info(NOTE_BACKUP_ARCHIVED_FILE, zipEntry.getName());
+      }
       return totalBytesRead;
     }
 
@@ -755,6 +939,7 @@ public class BackupManager
     {
       ZipEntry zipEntry = new ZipEntry(fileName);
       zipOutputStream.putNextEntry(zipEntry);
+      entryCount++;
 
       cryptoMethod.updateHashWith(fileName);
 
@@ -776,6 +961,7 @@ public class BackupManager
       {
         ZipEntry emptyPlaceholder = new ZipEntry(ZIPENTRY_EMPTY_PLACEHOLDER);
         zipOutputStream.putNextEntry(emptyPlaceholder);
+        entryCount++;
       }
       catch (IOException e)
       {
@@ -787,44 +973,13 @@ public class BackupManager
       }
     }
 
-    /**
-     * Writes the files that are unchanged from the base backup (for an
-     * incremental backup only).
-     * <p>
-     * The unchanged files names are listed in the "unchanged.txt" file, which
-     * is put in the archive.
-     */
-    void writeUnchangedFiles(Path rootDirectory, ListIterator<Path> files, BackupConfig backupConfig)
-        throws DirectoryException
-    {
-      List<String> unchangedFilenames = new ArrayList<>();
-      while (files.hasNext() && !backupConfig.isCancelled())
-      {
-        Path file = files.next();
-        String relativePath = rootDirectory.relativize(file).toString();
-        int cmp = relativePath.compareTo(archive.latestFileName);
-        if (cmp > 0 || (cmp == 0 && file.toFile().length() != archive.latestFileSize))
-        {
-          files.previous();
-          break;
-        }
-        logger.info(NOTE_BACKUP_FILE_UNCHANGED, relativePath);
-        unchangedFilenames.add(relativePath);
-      }
-
-      if (!unchangedFilenames.isEmpty())
-      {
-        writeUnchangedFilenames(unchangedFilenames);
-      }
-    }
-
     /** Writes the list of unchanged files names in a file as new entry in the archive. */
-    private void writeUnchangedFilenames(List<String> unchangedList) throws DirectoryException
+    void writeUnchangedFilenames(List<String> unchangedList) throws DirectoryException
     {
       String zipEntryName = ZIPENTRY_UNCHANGED_LOGFILES;
       try
       {
-        writeStrings(unchangedList, zipEntryName, archive.cryptoEngine);
+        writeStrings(unchangedList, zipEntryName, cryptoEngine);
       }
       catch (IOException e)
       {
@@ -837,33 +992,43 @@ public class BackupManager
       archive.addBaseBackupAsDependency();
     }
 
-    /** Writes the new files in the archive. */
-    void writeChangedFiles(Path rootDirectory, ListIterator<Path> files, BackupConfig backupConfig)
+    /**
+     * Writes the provided file in the archive, and records its state.
+     *
+     * @param fileState
+     *          The state of the file read before its content, or {@code null} if it is not reliable.
+     */
+    void archiveFile(Path file, String relativePath, String fileState, BackupConfig backupConfig)
         throws DirectoryException
     {
-        while (files.hasNext() && !backupConfig.isCancelled())
-        {
-          Path file = files.next();
-          String relativePath = rootDirectory.relativize(file).toString();
-          try
-          {
-            archive.latestFileSize = writeFile(file, relativePath, archive.cryptoEngine, backupConfig);
-            archive.latestFileName = relativePath;
-          }
-          catch (FileNotFoundException e)
-          {
-            // The file may have been deleted by a cleaner (i.e. for JE storage) since we started.
-            // The backupable entity is responsible for handling the changes through the files list iterator
-            logger.traceException(e);
-          }
-          catch (IOException e)
-          {
-            logger.traceException(e);
-            throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
-                 ERR_BACKUP_CANNOT_WRITE_ARCHIVE_FILE.get(relativePath, archive.getBackupID(),
-                     stackTraceToSingleLineString(e)), e);
-          }
-        }
+      try
+      {
+        archive.fileArchived(relativePath, writeFile(file, relativePath, cryptoEngine, backupConfig));
+        archive.recordFileState(relativePath, fileState);
+      }
+      catch (FileNotFoundException e)
+      {
+        // The file may have been deleted by a cleaner (i.e. for JE storage) since we started.
+        // The backupable entity is responsible for handling the changes through the files list iterator
+        logger.traceException(e);
+        archive.recordFileState(relativePath, null);
+      }
+      catch (IOException e)
+      {
+        logger.traceException(e);
+        throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+             ERR_BACKUP_CANNOT_WRITE_ARCHIVE_FILE.get(relativePath, archive.getBackupID(),
+                 stackTraceToSingleLineString(e)), e);
+      }
+    }
+
+    /** Writes an empty placeholder entry if nothing was written, as a zip file must have at least one entry. */
+    void ensureNotEmpty() throws DirectoryException
+    {
+      if (entryCount == 0)
+      {
+        writeEmptyPlaceHolder();
+      }
     }
 
     private ZipOutputStream open(String backupPath, String archiveFilename) throws DirectoryException
@@ -885,7 +1050,7 @@ public class BackupManager
           i++;
         }
         output = new FileOutputStream(archiveFile, false);
-        archive.newBackupParams.putProperty(BACKUP_PROPERTY_ARCHIVE_FILENAME, archiveFilename);
+        archive.newBackupParams.putProperty(getArchiveFilenameProperty(stream), archiveFilename);
         return output;
       }
       catch (Exception e)
@@ -920,11 +1085,241 @@ public class BackupManager
     @Override
     public String toString()
     {
-      return "BackupArchiveWriter [archive file=" + archive.getArchiveFilename() + ", backendId="
+      return "BackupArchiveWriter [archive file=" + archive.getArchiveFilename(stream) + ", backendId="
           + archive.getBackendID() + "]";
     }
   }
 
+  /**
+   * Writes the files to backup in one or several streams of a backup archive.
+   * <p>
+   * With several streams, each stream is written by its own thread, with its own compression,
+   * cipher and hash, while the calling thread iterates on the files to backup and hands each of them
+   * to the stream with the fewest pending bytes. A file returned again by the iterator is handed to
+   * the same stream, so that its latest content is restored last. The hash of the backup is then
+   * computed over the hashes of the streams, in stream order.
+   */
+  private static final class ArchiveStreams implements Closeable
+  {
+    private final NewBackupArchive archive;
+    private final BackupConfig backupConfig;
+    private final List<BackupArchiveWriter> writers = new ArrayList<>();
+    /** The threads writing the streams, empty when a single stream is written by the calling thread. */
+    private final List<ExecutorService> executors = new ArrayList<>();
+    /** Limits the number of files handed to the streams and not written yet. */
+    private final Semaphore filesInProgress;
+    private final Map<String, BackupArchiveWriter> writerByFile = new HashMap<>();
+    private final AtomicReference<DirectoryException> failure = new AtomicReference<>();
+
+    ArchiveStreams(NewBackupArchive archive, BackupConfig backupConfig) throws DirectoryException
+    {
+      this.archive = archive;
+      this.backupConfig = backupConfig;
+      final int streamCount = archive.newBackupParams.streamCount;
+      final Throttle throttle = new Throttle(backupConfig.getMaxThroughput() * 1024L);
+      this.filesInProgress = new Semaphore(streamCount);
+      try
+      {
+        if (streamCount == 1)
+        {
+          writers.add(new BackupArchiveWriter(archive, 0, archive.cryptoEngine, throttle));
+          return;
+        }
+        for (int i = 0; i < streamCount; i++)
+        {
+          final CryptoEngine streamCryptoEngine = CryptoEngine.forCreation(backupConfig, archive.newBackupParams);
+          writers.add(new BackupArchiveWriter(archive, i, streamCryptoEngine, throttle));
+          executors.add(Executors.newSingleThreadExecutor(
+              Utils.newThreadFactory(null, "Backup " + archive.getBackupID() + " stream " + i, true)));
+        }
+      }
+      catch (DirectoryException e)
+      {
+        close();
+        throw e;
+      }
+    }
+
+    /**
+     * Writes the files in the archive streams.
+     * <p>
+     * For an incremental backup, the files whose size and last modification time
+     * are the same as in the base backup are not written: their names are listed
+     * in the "unchanged.txt" file, which is the first entry of the first stream,
+     * so that restoring an increment of a chain only reads the beginning of it.
+     * The states of all the files are therefore read before any file is written.
+     */
+    void writeFiles(Path rootDirectory, ListIterator<Path> files) throws DirectoryException
+    {
+      List<String> unchangedFilenames = new ArrayList<>();
+      List<Path> changedFiles = new ArrayList<>();
+      List<String> changedFileStates = new ArrayList<>();
+      while (files.hasNext() && !backupConfig.isCancelled())
+      {
+        Path file = files.next();
+        String relativePath = rootDirectory.relativize(file).toString();
+        // the state is read before the content, so that it never describes a more recent content
+        String fileState = archive.getFileState(file);
+        if (archive.isUnchanged(relativePath, fileState))
+        {
+          logger.info(NOTE_BACKUP_FILE_UNCHANGED, relativePath);
+          unchangedFilenames.add(relativePath);
+          archive.recordFileState(relativePath, fileState);
+        }
+        else
+        {
+          changedFiles.add(file);
+          changedFileStates.add(fileState);
+        }
+      }
+      if (!unchangedFilenames.isEmpty())
+      {
+        writers.get(0).writeUnchangedFilenames(unchangedFilenames);
+      }
+
+      for (int i = 0; i < changedFiles.size() && !backupConfig.isCancelled() && failure.get() == null; i++)
+      {
+        Path file = changedFiles.get(i);
+        archiveFile(file, rootDirectory.relativize(file).toString(), changedFileStates.get(i));
+      }
+      // the iterator may return the files replacing those deleted while the last ones were written,
+      // which can only be archived since the list of unchanged files is already written
+      awaitFilesInProgress();
+      while (failure.get() == null && !backupConfig.isCancelled() && files.hasNext())
+      {
+        while (files.hasNext() && !backupConfig.isCancelled() && failure.get() == null)
+        {
+          Path file = files.next();
+          archiveFile(file, rootDirectory.relativize(file).toString(), archive.getFileState(file));
+        }
+        awaitFilesInProgress();
+      }
+      if (failure.get() != null)
+      {
+        throw failure.get();
+      }
+
+      for (BackupArchiveWriter writer : writers)
+      {
+        writer.ensureNotEmpty();
+        if (!executors.isEmpty())
+        {
+          archive.cryptoEngine.updateHashWith(writer.cryptoEngine.generateBytes());
+        }
+      }
+    }
+
+    private void archiveFile(final Path file, final String relativePath, final String fileState)
+        throws DirectoryException
+    {
+      if (executors.isEmpty())
+      {
+        writers.get(0).archiveFile(file, relativePath, fileState, backupConfig);
+        return;
+      }
+
+      final BackupArchiveWriter writer = selectWriter(relativePath);
+      final long size = file.toFile().length();
+      acquire(1, relativePath);
+      writer.pendingBytes.addAndGet(size);
+      executors.get(writer.stream).execute(new Runnable()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            if (failure.get() == null && !backupConfig.isCancelled())
+            {
+              writer.archiveFile(file, relativePath, fileState, backupConfig);
+            }
+          }
+          catch (DirectoryException e)
+          {
+            failure.compareAndSet(null, e);
+          }
+          catch (RuntimeException e)
+          {
+            logger.traceException(e);
+            failure.compareAndSet(null, new DirectoryException(
+                DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+                ERR_BACKUP_CANNOT_WRITE_ARCHIVE_FILE.get(relativePath, archive.getBackupID(),
+                    stackTraceToSingleLineString(e)), e));
+          }
+          finally
+          {
+            writer.pendingBytes.addAndGet(-size);
+            filesInProgress.release();
+          }
+        }
+      });
+    }
+
+    /** Returns the stream which already got the file if any, otherwise the stream with the fewest pending bytes. */
+    private BackupArchiveWriter selectWriter(String relativePath)
+    {
+      BackupArchiveWriter writer = writerByFile.get(relativePath);
+      if (writer == null)
+      {
+        for (BackupArchiveWriter candidate : writers)
+        {
+          if (writer == null || candidate.pendingBytes.get() < writer.pendingBytes.get())
+          {
+            writer = candidate;
+          }
+        }
+        writerByFile.put(relativePath, writer);
+      }
+      return writer;
+    }
+
+    private void awaitFilesInProgress() throws DirectoryException
+    {
+      if (!executors.isEmpty())
+      {
+        acquire(writers.size(), archive.getArchiveFilename());
+        filesInProgress.release(writers.size());
+      }
+    }
+
+    private void acquire(int permits, String filename) throws DirectoryException
+    {
+      try
+      {
+        filesInProgress.acquire(permits);
+      }
+      catch (InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+            ERR_BACKUP_CANNOT_WRITE_ARCHIVE_FILE.get(filename, archive.getBackupID(),
+                stackTraceToSingleLineString(e)), e);
+      }
+    }
+
+    @Override
+    public void close()
+    {
+      for (ExecutorService executor : executors)
+      {
+        executor.shutdownNow();
+      }
+      // a stream must not be closed while its thread is still writing to it
+      for (ExecutorService executor : executors)
+      {
+        try
+        {
+          executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+      StaticUtils.close(writers);
+    }
+  }
+
   /** Represents a reader of a backup archive. */
   private static final class BackupArchiveReader {
     private final CryptoEngine cryptoEngine;
@@ -941,10 +1336,16 @@ public class BackupManager
     }
 
     BackupArchiveReader(String identifier, BackupInfo backupInfo, String backupDirectoryPath) throws DirectoryException
+    {
+      this(identifier, backupInfo, BackupManager.retrieveArchiveFile(backupInfo, backupDirectoryPath));
+    }
+
+    /** Creates a reader of the provided archive file, which may be any stream of the backup. */
+    BackupArchiveReader(String identifier, BackupInfo backupInfo, File archiveFile) throws DirectoryException
     {
       this.identifier = identifier;
       this.backupInfo = backupInfo;
-      this.archiveFile = BackupManager.retrieveArchiveFile(backupInfo, backupDirectoryPath);
+      this.archiveFile = archiveFile;
       this.cryptoEngine = CryptoEngine.forRestore(backupInfo);
     }
 
@@ -1003,6 +1404,16 @@ public class BackupManager
      */
     void restoreArchive(Path restoreDir, Set<String> filesToRestore, RestoreConfig restoreConfig, Backupable backupable)
         throws DirectoryException
+    {
+      restoreFiles(restoreDir, filesToRestore, restoreConfig);
+
+      // check the hash
+      cryptoEngine.check(getHash(backupInfo), backupInfo.getBackupID());
+    }
+
+    /** Restores the files of the archive without checking the hash, which is then available from the crypto engine. */
+    void restoreFiles(Path restoreDir, Set<String> filesToRestore, RestoreConfig restoreConfig)
+        throws DirectoryException
     {
       try
       {
@@ -1014,10 +1425,6 @@ public class BackupManager
         throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
             ERR_BACKUP_CANNOT_RESTORE.get(identifier, stackTraceToSingleLineString(e)), e);
       }
-
-      // check the hash
-      byte[] hash = backupInfo.getUnsignedHash() != null ? backupInfo.getUnsignedHash() : backupInfo.getSignedHash();
-      cryptoEngine.check(hash, backupInfo.getBackupID());
     }
 
     private void restoreArchive0(Path restoreDir, Set<String> filesToRestore, RestoreConfig restoreConfig)
@@ -1141,6 +1548,7 @@ public class BackupManager
       while (bytesRead > 0 && !restoreConfig.isCancelled())
       {
         totalBytesRead += bytesRead;
+        restoreConfig.addProcessedBytes(bytesRead);
 
         cryptoEngine.updateHashWith(buffer, 0, bytesRead);
 
@@ -1190,12 +1598,18 @@ public class BackupManager
   /**
    * Creates a backup of the provided backupable entity.
    * <p>
-   * The backup is stored in a single zip file in the backup directory.
+   * The backup is stored in a single zip file in the backup directory, or in one
+   * zip file per stream when the backup configuration requests several streams.
+   * The streams are written in parallel, each file being written to a single
+   * stream.
    * <p>
-   * If the backup is incremental, then the first entry in the zip is a text
-   * file containing a list of all the log files that are unchanged since the
-   * previous backup. The remaining zip entries are the log files themselves,
-   * which, for an incremental, only include those files that have changed.
+   * The zip entries are the files to backup, which, for an incremental, only
+   * include those files whose size or last modification time have changed since
+   * the base backup. The state of every file is recorded in the backup
+   * descriptor, for use as the base of a later incremental backup. If the backup
+   * is incremental, then the first entry in the zip of the first stream is a
+   * text file containing a list of all the files that are unchanged since the
+   * base backup.
    *
    * @param backupable
    *          The underlying entity (storage, backend) to be backed up.
@@ -1212,28 +1626,16 @@ public class BackupManager
 
     final ListIterator<Path> files = backupable.getFilesToBackup();
     final Path rootDirectory = backupable.getDirectory().toPath();
-    try (BackupArchiveWriter archiveWriter = new BackupArchiveWriter(newArchive))
-    {
-      if (files.hasNext())
-      {
-        if (backupParams.isIncremental) {
-          archiveWriter.writeUnchangedFiles(rootDirectory, files, backupConfig);
-        }
-        archiveWriter.writeChangedFiles(rootDirectory, files, backupConfig);
-      }
-      else {
-        archiveWriter.writeEmptyPlaceHolder();
-      }
-    }
-    catch (IOException e)
+    final long startTime = System.nanoTime();
+    try (ArchiveStreams archiveStreams = new ArchiveStreams(newArchive, backupConfig))
     {
-      logger.traceException(e);
-      throw new DirectoryException(
-          DirectoryServer.getCoreConfigManager().getServerErrorResultCode(), ERR_BACKUP_CANNOT_CLOSE_ZIP_STREAM.get(
-          newArchive.getArchiveFilename(), backupParams.backupDir.getPath(), stackTraceToSingleLineString(e)), e);
+      archiveStreams.writeFiles(rootDirectory, files);
     }
 
     newArchive.updateBackupDirectory();
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    logger.info(NOTE_BACKUP_ARCHIVE_THROUGHPUT, backupParams.backupID, backendID, backupConfig.getProcessedBytes(),
+        elapsedMillis, getThroughput(backupConfig.getProcessedBytes(), elapsedMillis), backupParams.streamCount);
 
     if (backupConfig.isCancelled())
     {
@@ -1259,6 +1661,7 @@ public class BackupManager
     {
       saveDirectory = backupable.beforeRestore();
     }
+    final long startTime = System.nanoTime();
 
     final String backupID = restoreConfig.getBackupID();
     final ExistingBackupArchive existingArchive =
@@ -1279,6 +1682,9 @@ public class BackupManager
     // Restore the final archive file.
     Set<String> filesToRestore = emptySet();
     restoreArchive(restoreDirectory, filesToRestore, restoreConfig, backupable, existingArchive.getBackupInfo());
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    logger.info(NOTE_BACKUP_RESTORE_THROUGHPUT, backupID, restoreConfig.getProcessedBytes(), elapsedMillis,
+        getThroughput(restoreConfig.getProcessedBytes(), elapsedMillis));
 
     if (!restoreConfig.verifyOnly())
     {
@@ -1366,8 +1772,80 @@ public class BackupManager
     String backupID = backupInfo.getBackupID();
     String backupDirectoryPath = restoreConfig.getBackupDirectory().getPath();
 
-    BackupArchiveReader zipArchiveReader = new BackupArchiveReader(backupID, backupInfo, backupDirectoryPath);
-    zipArchiveReader.restoreArchive(restoreDir, filesToRestore, restoreConfig, backupable);
+    List<File> archiveFiles = retrieveArchiveFiles(backupInfo, backupDirectoryPath);
+    if (archiveFiles.size() == 1)
+    {
+      BackupArchiveReader zipArchiveReader = new BackupArchiveReader(backupID, backupInfo, backupDirectoryPath);
+      zipArchiveReader.restoreArchive(restoreDir, filesToRestore, restoreConfig, backupable);
+      return;
+    }
+
+    // each stream is restored by its own thread, a file never being in several streams of a backup
+    final List<BackupArchiveReader> readers = new ArrayList<>();
+    for (File archiveFile : archiveFiles)
+    {
+      readers.add(new BackupArchiveReader(backupID, backupInfo, archiveFile));
+    }
+    restoreStreams(readers, restoreDir, filesToRestore, restoreConfig);
+
+    // the hash of the backup is computed over the hashes of the streams
+    CryptoEngine cryptoEngine = CryptoEngine.forRestore(backupInfo);
+    for (BackupArchiveReader reader : readers)
+    {
+      cryptoEngine.updateHashWith(reader.cryptoEngine.generateBytes());
+    }
+    cryptoEngine.check(getHash(backupInfo), backupID);
+  }
+
+  private static void restoreStreams(List<BackupArchiveReader> readers, final Path restoreDir,
+      final Set<String> filesToRestore, final RestoreConfig restoreConfig) throws DirectoryException
+  {
+    final String backupID = readers.get(0).backupInfo.getBackupID();
+    final ExecutorService executor = Executors.newFixedThreadPool(
+        readers.size(), Utils.newThreadFactory(null, "Restore " + backupID + " stream %d", true));
+    try
+    {
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (final BackupArchiveReader reader : readers)
+      {
+        futures.add(executor.submit(new Callable<Void>()
+        {
+          @Override
+          public Void call() throws DirectoryException
+          {
+            reader.restoreFiles(restoreDir, filesToRestore, restoreConfig);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures)
+      {
+        future.get();
+      }
+    }
+    catch (ExecutionException e)
+    {
+      // stop the other streams on their next read
+      restoreConfig.cancel();
+      if (e.getCause() instanceof DirectoryException)
+      {
+        throw (DirectoryException) e.getCause();
+      }
+      logger.traceException(e);
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          ERR_BACKUP_CANNOT_RESTORE.get(backupID, stackTraceToSingleLineString(e.getCause())), e.getCause());
+    }
+    catch (InterruptedException e)
+    {
+      restoreConfig.cancel();
+      Thread.currentThread().interrupt();
+      throw new DirectoryException(DirectoryServer.getCoreConfigManager().getServerErrorResultCode(),
+          ERR_BACKUP_CANNOT_RESTORE.get(backupID, stackTraceToSingleLineString(e)), e);
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
   }
 
   /** Retrieves the full path of the archive file. */
@@ -1378,6 +1856,36 @@ public class BackupManager
     return new File(backupDirectoryPath, archiveFilename);
   }
 
+  /** Retrieves the full path of the archive files, one per stream. */
+  private static List<File> retrieveArchiveFiles(BackupInfo backupInfo, String backupDirectoryPath)
+  {
+    Map<String,String> backupProperties = backupInfo.getBackupProperties();
+    String streamCount = backupProperties.get(PROPERTY_STREAM_COUNT);
+    List<File> archiveFiles = new ArrayList<>();
+    for (int i = 0; i < (streamCount != null ? Integer.parseInt(streamCount) : 1); i++)
+    {
+      archiveFiles.add(new File(backupDirectoryPath, backupProperties.get(getArchiveFilenameProperty(i))));
+    }
+    return archiveFiles;
+  }
+
+  /** Returns the name of the property holding the name of the archive file of the provided stream. */
+  private static String getArchiveFilenameProperty(int stream)
+  {
+    return stream == 0 ? BACKUP_PROPERTY_ARCHIVE_FILENAME : BACKUP_PROPERTY_ARCHIVE_FILENAME + "." + stream;
+  }
+
+  private static byte[] getHash(BackupInfo backupInfo)
+  {
+    return backupInfo.getUnsignedHash() != null ? backupInfo.getUnsignedHash() : backupInfo.getSignedHash();
+  }
+
+  /** Returns the throughput in kilobytes per second. */
+  private static long getThroughput(long bytes, long elapsedMillis)
+  {
+    return elapsedMillis > 0 ? bytes * 1000 / 1024 / elapsedMillis : 0;
+  }
+
   /**
    * Get the information for a given backup ID from the backup directory.
    *
@@ -321,6 +321,51 @@ public final class ServerConstants
        "ds-backend-writability-mode";
 
 
+  /**
+   * The name of the monitor attribute that is used to hold the number of
+   * persistent searches registered with a backend.
+   */
+  public static final String ATTR_MONITOR_BACKEND_PSEARCH_COUNT =
+       "ds-backend-persistent-search-count";
+
+  /**
+   * The name of the monitor attribute that is used to hold the number of
+   * changes waiting to be matched against the persistent searches of a backend.
+   */
+  public static final String ATTR_MONITOR_BACKEND_PSEARCH_PENDING_CHANGES =
+       "ds-backend-persistent-search-pending-changes";
+
+  /**
+   * The name of the monitor attribute that is used to hold the number of
+   * change notifications waiting to be sent to persistent search clients.
+   */
+  public static final String ATTR_MONITOR_BACKEND_PSEARCH_QUEUED_NOTIFICATIONS =
+       "ds-backend-persistent-search-queued-notifications";
+
+  /**
+   * The name of the monitor attribute that is used to hold the number of
+   * change notifications dropped because a persistent search client was too
+   * slow.
+   */
+  public static final String ATTR_MONITOR_BACKEND_PSEARCH_DROPPED_NOTIFICATIONS =
+       "ds-backend-persistent-search-dropped-notifications";
+
+  /**
+   * The name of the monitor attribute that is used to hold the number of
+   * persistent searches terminated because their client was too slow.
+   */
+  public static final String ATTR_MONITOR_BACKEND_PSEARCH_OVERFLOW_CANCELLATIONS =
+       "ds-backend-persistent-search-overflow-cancellations";
+
+  /**
+   * The name of the monitor attribute that is used to hold the number of
+   * changes not matched against the persistent searches of a backend because
+   * too many changes were waiting to be matched.
+   */
+  public static final String ATTR_MONITOR_BACKEND_PSEARCH_UNMATCHED_CHANGES =
+       "ds-backend-persistent-search-unmatched-changes";
+
+
 
   /**
    * The name of the monitor attribute that is used to hold the connection
@@ -57,7 +57,6 @@ import org.opends.server.core.AddOperationWrapper;
 import org.opends.server.core.BackendConfigManager;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.PasswordPolicy;
-import org.opends.server.core.PersistentSearch;
 import org.opends.server.core.ServerContext;
 import org.opends.server.schema.AuthPasswordSyntax;
 import org.opends.server.schema.UserPasswordSyntax;
@@ -193,9 +192,9 @@ public class LocalBackendAddOperation
         @Override
         public void run()
         {
-          for (PersistentSearch psearch : backend.getPersistentSearches())
+          if (!backend.getPersistentSearches().isEmpty())
           {
-            psearch.processAdd(entry);
+            backend.getPersistentSearchDispatcher().notifyAdd(entry);
           }
         }
       });
@@ -682,7 +682,9 @@ public class LocalBackendBindOperation
       {
         PasswordPolicyState pwPolicyState = (PasswordPolicyState) authPolicyState;
 
+        // A busy server has not checked the password, so this is not an authentication failure
         if (saslHandler.isPasswordBased(saslMechanism)
+            && resultCode != ResultCode.BUSY
             && pwPolicyState.getAuthenticationPolicy().getLockoutFailureCount() > 0)
         {
           updateFailureCount(saslAuthUserEntry, pwPolicyState);
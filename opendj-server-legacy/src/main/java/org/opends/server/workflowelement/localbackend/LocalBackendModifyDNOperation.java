@@ -41,7 +41,6 @@ import org.opends.server.core.BackendConfigManager;
 import org.opends.server.core.DirectoryServer;
 import org.opends.server.core.ModifyDNOperation;
 import org.opends.server.core.ModifyDNOperationWrapper;
-import org.opends.server.core.PersistentSearch;
 import org.opends.server.types.Attribute;
 import org.opends.server.types.Attributes;
 import org.opends.server.types.CanceledOperationException;
@@ -206,9 +205,9 @@ public class LocalBackendModifyDNOperation
         @Override
         public void run()
         {
-          for (PersistentSearch psearch : backend.getPersistentSearches())
+          if (!backend.getPersistentSearches().isEmpty())
           {
-            psearch.processModifyDN(newEntry, currentEntry.getName());
+            backend.getPersistentSearchDispatcher().notifyModifyDN(newEntry, currentEntry.getName());
           }
         }
       });
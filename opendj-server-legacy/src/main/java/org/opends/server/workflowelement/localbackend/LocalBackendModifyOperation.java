@@ -56,7 +56,6 @@ import org.opends.server.core.ModifyOperation;
 import org.opends.server.core.ModifyOperationWrapper;
 import org.opends.server.core.PasswordPolicy;
 import org.opends.server.core.PasswordPolicyState;
-import org.opends.server.core.PersistentSearch;
 import org.opends.server.schema.AuthPasswordSyntax;
 import org.opends.server.schema.UserPasswordSyntax;
 import org.opends.server.types.AcceptRejectWarn;
@@ -300,9 +299,9 @@ public class LocalBackendModifyOperation
         @Override
         public void run()
         {
-          for (PersistentSearch psearch : backend.getPersistentSearches())
+          if (!backend.getPersistentSearches().isEmpty())
           {
-            psearch.processModify(modifiedEntry, currentEntry);
+            backend.getPersistentSearchDispatcher().notifyModify(modifiedEntry, currentEntry);
           }
         }
       });
@@ -1448,6 +1447,7 @@ public class LocalBackendModifyOperation
       // Nothing to do.
       return;
     }
+    DirectoryServer.getVerifiedCredentialCache().invalidate(entryDN);
 
     // If it was a self change, then see if the current password was provided
     // and handle accordingly.
@@ -0,0 +1,115 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.authorization.dseecompat;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.DirectoryServerTestCase;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.types.DirectoryException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class AciListTest extends DirectoryServerTestCase
+{
+  private static final String ACI =
+      "(targetattr=\"*\")(version 3.0; acl \"%s\"; allow(read) userdn=\"ldap:///anyone\";)";
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startFakeServer();
+  }
+
+  @AfterClass
+  public void tearDown() throws DirectoryException
+  {
+    TestCaseUtils.shutdownFakeServer();
+  }
+
+  @Test
+  public void candidateAcisAreGatheredFromAncestors() throws Exception
+  {
+    AciList aciList = new AciList(DN.valueOf("cn=config"));
+    DN suffix = DN.valueOf("dc=example,dc=com");
+    DN people = DN.valueOf("ou=people,dc=example,dc=com");
+    Aci suffixAci = addAci(aciList, suffix, "suffix");
+    Aci peopleAci = addAci(aciList, people, "people");
+
+    assertThat(aciList.getCandidateAcis(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com")))
+        .containsExactly(peopleAci, suffixAci);
+    assertThat(aciList.getCandidateAcis(people)).containsExactly(peopleAci, suffixAci);
+    assertThat(aciList.getCandidateAcis(DN.valueOf("ou=groups,dc=example,dc=com"))).containsExactly(suffixAci);
+    assertThat(aciList.getCandidateAcis(DN.valueOf("dc=other,dc=com"))).isEmpty();
+    assertThat(aciList.getCandidateAcis(null)).isEmpty();
+  }
+
+  @Test
+  public void candidateAcisAreSharedBetweenSiblings() throws Exception
+  {
+    AciList aciList = new AciList(DN.valueOf("cn=config"));
+    addAci(aciList, DN.valueOf("ou=people,dc=example,dc=com"), "people");
+
+    List<Aci> user0 = aciList.getCandidateAcis(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com"));
+    List<Aci> user1 = aciList.getCandidateAcis(DN.valueOf("uid=user.1,ou=people,dc=example,dc=com"));
+    assertThat(user0).isSameAs(user1);
+  }
+
+  @Test
+  public void candidateAcisReflectRenames() throws Exception
+  {
+    AciList aciList = new AciList(DN.valueOf("cn=config"));
+    DN oldDN = DN.valueOf("ou=people,dc=example,dc=com");
+    DN newDN = DN.valueOf("ou=users,dc=example,dc=com");
+    addAci(aciList, oldDN, "people");
+
+    aciList.renameAci(oldDN, newDN);
+
+    assertThat(aciList.getCandidateAcis(DN.valueOf("uid=user.0,ou=people,dc=example,dc=com"))).isEmpty();
+    assertThat(aciList.getCandidateAcis(DN.valueOf("uid=user.0,ou=users,dc=example,dc=com"))).hasSize(1);
+  }
+
+  @Test
+  public void globalAcisAreFilteredByTarget() throws Exception
+  {
+    AciList aciList = new AciList(DN.valueOf("cn=config"));
+    DN suffix = DN.valueOf("dc=example,dc=com");
+    Aci suffixAci = addAci(aciList, suffix, "suffix");
+    Aci globalAci = Aci.decode(ByteString.valueOfUtf8(
+        "(target=\"ldap:///ou=people,dc=example,dc=com\")(targetattr=\"*\")"
+            + "(version 3.0; acl \"global\"; allow(read) userdn=\"ldap:///anyone\";)"), DN.rootDN());
+    aciList.addAci(DN.rootDN(), new TreeSet<>(Collections.singleton(globalAci)));
+
+    assertThat(aciList.getCandidateAcis(DN.valueOf("ou=people,dc=example,dc=com")))
+        .containsExactly(suffixAci, globalAci);
+    assertThat(aciList.getCandidateAcis(DN.valueOf("ou=groups,dc=example,dc=com"))).containsExactly(suffixAci);
+  }
+
+  private Aci addAci(AciList aciList, DN dn, String name) throws AciException
+  {
+    Aci aci = Aci.decode(ByteString.valueOfUtf8(String.format(ACI, name)), dn);
+    aciList.addAci(dn, new TreeSet<>(Collections.singleton(aci)));
+    return aci;
+  }
+}
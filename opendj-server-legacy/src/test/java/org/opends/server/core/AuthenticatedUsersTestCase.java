@@ -0,0 +1,153 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.forgerock.i18n.LocalizableMessage;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.ClientConnection;
+import org.opends.server.types.DisconnectReason;
+import org.opends.server.types.operation.PostResponseDeleteOperation;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class AuthenticatedUsersTestCase extends CoreTestCase
+{
+  private AuthenticatedUsers authenticatedUsers;
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+    authenticatedUsers = new AuthenticatedUsers();
+  }
+
+  @AfterClass
+  public void tearDown() throws Exception
+  {
+    DirectoryServer.deregisterInternalPlugin(authenticatedUsers);
+  }
+
+  @Test
+  public void putGetRemove() throws Exception
+  {
+    DN userDN = DN.valueOf("uid=user.0,ou=people,dc=put,dc=com");
+    ClientConnection conn1 = mock(ClientConnection.class);
+    ClientConnection conn2 = mock(ClientConnection.class);
+
+    authenticatedUsers.put(userDN, conn1);
+    authenticatedUsers.put(userDN, conn2);
+    assertThat(authenticatedUsers.get(userDN)).containsOnly(conn1, conn2);
+
+    authenticatedUsers.remove(userDN, conn1);
+    assertThat(authenticatedUsers.get(userDN)).containsOnly(conn2);
+    authenticatedUsers.remove(userDN, conn2);
+    assertThat(authenticatedUsers.get(userDN)).isNull();
+  }
+
+  @Test
+  public void deleteDisconnectsUsersInSubtree() throws Exception
+  {
+    DN user0 = DN.valueOf("uid=user.0,ou=people,dc=delete,dc=com");
+    DN user1 = DN.valueOf("uid=user.1,ou=people,dc=delete,dc=com");
+    DN other = DN.valueOf("uid=user.0,ou=admins,dc=delete,dc=com");
+    ClientConnection conn0 = mock(ClientConnection.class);
+    ClientConnection conn1 = mock(ClientConnection.class);
+    ClientConnection otherConn = mock(ClientConnection.class);
+    authenticatedUsers.put(user0, conn0);
+    authenticatedUsers.put(user1, conn1);
+    authenticatedUsers.put(other, otherConn);
+
+    authenticatedUsers.doPostResponse(newDeleteOperation("ou=people,dc=delete,dc=com"));
+
+    verify(conn0).disconnect(eq(DisconnectReason.INVALID_CREDENTIALS), eq(true), any(LocalizableMessage.class));
+    verify(conn1).disconnect(eq(DisconnectReason.INVALID_CREDENTIALS), eq(true), any(LocalizableMessage.class));
+    verifyZeroInteractions(otherConn);
+    assertThat(authenticatedUsers.get(user0)).isNull();
+    assertThat(authenticatedUsers.get(user1)).isNull();
+    assertThat(authenticatedUsers.get(other)).containsOnly(otherConn);
+
+    authenticatedUsers.remove(other, otherConn);
+  }
+
+  @Test
+  public void concurrentBindsAndUnbinds() throws Exception
+  {
+    final int nbThreads = 8;
+    final int nbIterations = 1000;
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < nbThreads; i++)
+    {
+      final DN userDN = DN.valueOf("uid=user." + (i % 2) + ",ou=people,dc=concurrent,dc=com");
+      Thread thread = new Thread()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            start.await();
+            for (int j = 0; j < nbIterations; j++)
+            {
+              ClientConnection conn = mock(ClientConnection.class);
+              authenticatedUsers.put(userDN, conn);
+              authenticatedUsers.remove(userDN, conn);
+            }
+          }
+          catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          }
+        }
+      };
+      thread.start();
+      threads.add(thread);
+    }
+
+    start.countDown();
+    for (Thread thread : threads)
+    {
+      thread.join();
+    }
+
+    assertThat(authenticatedUsers.get(DN.valueOf("uid=user.0,ou=people,dc=concurrent,dc=com"))).isNull();
+    assertThat(authenticatedUsers.get(DN.valueOf("uid=user.1,ou=people,dc=concurrent,dc=com"))).isNull();
+    // no user is left in the subtree, hence nobody to disconnect
+    ClientConnection conn = mock(ClientConnection.class);
+    authenticatedUsers.put(DN.valueOf("uid=user.0,ou=admins,dc=concurrent,dc=com"), conn);
+    authenticatedUsers.doPostResponse(newDeleteOperation("ou=people,dc=concurrent,dc=com"));
+    verifyZeroInteractions(conn);
+  }
+
+  private PostResponseDeleteOperation newDeleteOperation(String entryDN)
+  {
+    PostResponseDeleteOperation op = mock(PostResponseDeleteOperation.class);
+    when(op.getEntryDN()).thenReturn(DN.valueOf(entryDN));
+    when(op.getResultCode()).thenReturn(ResultCode.SUCCESS);
+    return op;
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+import static java.util.concurrent.TimeUnit.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.LDAPConnectionFactory;
+import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.requests.Requests;
+import org.forgerock.opendj.ldap.responses.BindResult;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.util.promise.Promise;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.api.PasswordStorageScheme;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.util.TestTimer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class PasswordHashingPoolTestCase extends CoreTestCase
+{
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+    TestCaseUtils.dsconfig("set-global-configuration-prop",
+        "--set", "password-hashing-threads:1",
+        "--set", "password-hashing-queue-size:0");
+  }
+
+  @AfterClass
+  public void tearDown() throws Exception
+  {
+    TestCaseUtils.dsconfig("set-global-configuration-prop",
+        "--reset", "password-hashing-threads",
+        "--reset", "password-hashing-queue-size");
+  }
+
+  @Test
+  public void inexpensiveSchemeRunsOnCallingThread() throws Exception
+  {
+    PasswordHashingPool pool = new PasswordHashingPool();
+    final Thread caller = Thread.currentThread();
+    Boolean sameThread = pool.execute(newScheme("CHEAP", false), new Callable<Boolean>()
+    {
+      @Override
+      public Boolean call()
+      {
+        return Thread.currentThread() == caller;
+      }
+    });
+
+    assertTrue(sameThread);
+    assertThat(pool.getStatistics().get("CHEAP").getCount()).isEqualTo(1);
+    assertThat(pool.getStatistics().get("CHEAP").getLatencyHistogram()).hasSize(11);
+  }
+
+  @Test
+  public void expensiveSchemeIsRejectedWhenPoolIsFull() throws Exception
+  {
+    final PasswordHashingPool pool = new PasswordHashingPool();
+    final PasswordStorageScheme<?> scheme = newScheme("EXPENSIVE", true);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    ExecutorService client = Executors.newSingleThreadExecutor();
+    try
+    {
+      Future<Boolean> first = client.submit(new Callable<Boolean>()
+      {
+        @Override
+        public Boolean call() throws Exception
+        {
+          return pool.execute(scheme, new Callable<Boolean>()
+          {
+            @Override
+            public Boolean call() throws Exception
+            {
+              started.countDown();
+              release.await();
+              return true;
+            }
+          });
+        }
+      });
+      started.await();
+
+      try
+      {
+        pool.execute(scheme, new Callable<Boolean>()
+        {
+          @Override
+          public Boolean call()
+          {
+            return true;
+          }
+        });
+        fail("Expected the hashing to be rejected");
+      }
+      catch (DirectoryException e)
+      {
+        assertEquals(e.getResultCode(), ResultCode.BUSY);
+      }
+      assertThat(pool.getRejectedHashingCount()).isEqualTo(1);
+
+      release.countDown();
+      assertTrue(first.get());
+      assertThat(pool.getPendingHashingCount()).isEqualTo(0);
+      assertThat(pool.getStatistics().get("EXPENSIVE").getCount()).isEqualTo(1);
+    }
+    finally
+    {
+      release.countDown();
+      client.shutdownNow();
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void bindsBeyondTheLimitAreRejectedWhileSearchesComplete() throws Exception
+  {
+    // A large queue size must not let the waiting hashings hold all the worker threads
+    TestCaseUtils.dsconfig("set-global-configuration-prop", "--set", "password-hashing-queue-size:1000");
+    TestCaseUtils.dsconfig("set-password-policy-prop",
+        "--policy-name", "Default Password Policy",
+        "--set", "default-password-storage-scheme:PBKDF2");
+    final PasswordHashingPool pool = DirectoryServer.getPasswordHashingPool();
+    final int maxPendingHashings = pool.getMaxPendingHashingCount();
+    assertThat(maxPendingHashings).isLessThan(DirectoryServer.getWorkQueue().getNumWorkerThreads());
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    ExecutorService client = Executors.newSingleThreadExecutor();
+    final List<Connection> connections = new ArrayList<>();
+    try (LDAPConnectionFactory factory = new LDAPConnectionFactory("localhost", TestCaseUtils.getServerLdapPort()))
+    {
+      TestCaseUtils.initializeTestBackend(true);
+      TestCaseUtils.addEntry(
+          "dn: uid=test.user,o=test",
+          "objectClass: top",
+          "objectClass: person",
+          "objectClass: organizationalPerson",
+          "objectClass: inetOrgPerson",
+          "uid: test.user",
+          "givenName: Test",
+          "sn: User",
+          "cn: Test User",
+          "userPassword: password");
+      final Connection searchConnection = factory.getConnection();
+      connections.add(searchConnection);
+      searchConnection.bind("cn=Directory Manager", "password".toCharArray());
+
+      // Occupy the only password hashing thread
+      final PasswordStorageScheme<?> blockingScheme = newScheme("BLOCKING", true);
+      Future<Boolean> hashing = client.submit(new Callable<Boolean>()
+      {
+        @Override
+        public Boolean call() throws Exception
+        {
+          return pool.execute(blockingScheme, new Callable<Boolean>()
+          {
+            @Override
+            public Boolean call() throws Exception
+            {
+              started.countDown();
+              release.await();
+              return true;
+            }
+          });
+        }
+      });
+      started.await();
+
+      // Each of these binds holds a worker thread while waiting for the password hashing thread
+      final List<Promise<BindResult, LdapException>> waitingBinds = new ArrayList<>();
+      for (int i = 1; i < maxPendingHashings; i++)
+      {
+        final Connection connection = factory.getConnection();
+        connections.add(connection);
+        waitingBinds.add(connection.bindAsync(
+            Requests.newSimpleBindRequest("uid=test.user,o=test", "password".toCharArray())));
+      }
+      new TestTimer.Builder()
+        .maxSleep(10, SECONDS)
+        .sleepTimes(10, MILLISECONDS)
+        .toTimer()
+        .repeatUntilSuccess(new TestTimer.CallableVoid()
+        {
+          @Override
+          public void call() throws Exception
+          {
+            assertThat(pool.getPendingHashingCount()).isEqualTo(maxPendingHashings);
+          }
+        });
+
+      final Connection rejectedConnection = factory.getConnection();
+      connections.add(rejectedConnection);
+      try
+      {
+        rejectedConnection.bind("uid=test.user,o=test", "password".toCharArray());
+        fail("Expected the bind to be rejected");
+      }
+      catch (LdapException e)
+      {
+        assertEquals(e.getResult().getResultCode(), ResultCode.BUSY);
+      }
+
+      // The worker threads left are still serving the other operations
+      SearchResultEntry entry = searchConnection.searchSingleEntry(
+          Requests.newSingleEntrySearchRequest("uid=test.user,o=test", SearchScope.BASE_OBJECT, "(objectClass=*)"));
+      assertEquals(entry.getName().toString(), "uid=test.user,o=test");
+
+      release.countDown();
+      assertTrue(hashing.get());
+      for (Promise<BindResult, LdapException> bind : waitingBinds)
+      {
+        assertEquals(bind.getOrThrow().getResultCode(), ResultCode.SUCCESS);
+      }
+    }
+    finally
+    {
+      release.countDown();
+      client.shutdownNow();
+      for (Connection connection : connections)
+      {
+        connection.close();
+      }
+      TestCaseUtils.dsconfig("set-password-policy-prop",
+          "--policy-name", "Default Password Policy",
+          "--set", "default-password-storage-scheme:Salted SHA-1");
+      TestCaseUtils.dsconfig("set-global-configuration-prop", "--set", "password-hashing-queue-size:0");
+    }
+  }
+
+  private PasswordStorageScheme<?> newScheme(String name, boolean expensive)
+  {
+    PasswordStorageScheme<?> scheme = mock(PasswordStorageScheme.class);
+    when(scheme.getStorageSchemeName()).thenReturn(name);
+    when(scheme.isComputationallyExpensive()).thenReturn(expensive);
+    return scheme;
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.ResultCode;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.controls.PersistentSearchChangeType;
+import org.opends.server.protocols.internal.InternalClientConnection;
+import org.opends.server.types.Control;
+import org.opends.server.types.DirectoryException;
+import org.opends.server.types.Entry;
+import org.opends.server.types.SearchFilter;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class PersistentSearchDispatcherTestCase extends CoreTestCase
+{
+  private static final DN BASE_DN = DN.valueOf("dc=example,dc=com");
+
+  @BeforeClass
+  public void startServer() throws Exception
+  {
+    TestCaseUtils.startServer();
+  }
+
+  @Test(timeOut = 10000)
+  public void changesAreSentInOrder() throws Exception
+  {
+    final List<DN> sent = new ArrayList<>();
+    final PersistentSearch psearch = newPersistentSearch(sent);
+    final PersistentSearchDispatcher dispatcher = new PersistentSearchDispatcher("test");
+    try
+    {
+      dispatcher.register(psearch);
+      final List<DN> added = new ArrayList<>();
+      for (int i = 0; i < 100; i++)
+      {
+        final Entry entry = newEntry("uid=user." + i + "," + BASE_DN);
+        added.add(entry.getName());
+        dispatcher.notifyAdd(entry);
+      }
+      // an entry outside the base DN is not a candidate
+      dispatcher.notifyAdd(newEntry("uid=user.0,dc=other"));
+
+      awaitSent(sent, added.size());
+      synchronized (sent)
+      {
+        assertThat(sent).isEqualTo(added);
+      }
+    }
+    finally
+    {
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test(timeOut = 10000)
+  public void cancelledSearchIsNotNotified() throws Exception
+  {
+    final List<DN> sent = new ArrayList<>();
+    final PersistentSearch psearch = newPersistentSearch(sent);
+    final PersistentSearchDispatcher dispatcher = new PersistentSearchDispatcher("test");
+    try
+    {
+      dispatcher.register(psearch);
+      DirectoryServer.registerPersistentSearch();
+      psearch.cancel();
+      assertThat(psearch.isCancelled()).isTrue();
+
+      dispatcher.notifyAdd(newEntry("uid=user.0," + BASE_DN));
+      awaitNoPendingChange(dispatcher);
+      Thread.sleep(100);
+      synchronized (sent)
+      {
+        assertThat(sent).isEmpty();
+      }
+    }
+    finally
+    {
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test(timeOut = 10000)
+  public void changesBeyondTheMatchingQueueCancelTheCandidateSearches() throws Exception
+  {
+    final PersistentSearch psearch = newPersistentSearch(new ArrayList<DN>());
+    final SearchOperation searchOperation = psearch.getSearchOperation();
+    final CountDownLatch matching = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    when(searchOperation.getScope()).thenAnswer(new Answer<SearchScope>()
+    {
+      @Override
+      public SearchScope answer(InvocationOnMock invocation) throws InterruptedException
+      {
+        matching.countDown();
+        release.await();
+        return SearchScope.WHOLE_SUBTREE;
+      }
+    });
+    final PersistentSearchDispatcher dispatcher = new PersistentSearchDispatcher("test", 1);
+    try
+    {
+      dispatcher.register(psearch);
+      DirectoryServer.registerPersistentSearch();
+      // the first change blocks the matching thread, the second one fills the matching queue
+      dispatcher.notifyAdd(newEntry("uid=user.0," + BASE_DN));
+      matching.await();
+      dispatcher.notifyAdd(newEntry("uid=user.1," + BASE_DN));
+      assertThat(dispatcher.getPendingChangeCount()).isEqualTo(2);
+
+      dispatcher.notifyAdd(newEntry("uid=user.2," + BASE_DN));
+      assertThat(dispatcher.getPendingChangeCount()).isEqualTo(2);
+      assertThat(dispatcher.getUnmatchedChangeCount()).isEqualTo(1);
+      assertThat(dispatcher.getOverflowCancellationCount()).isEqualTo(1);
+
+      release.countDown();
+      verify(searchOperation, timeout(5000)).setResultCode(ResultCode.ADMIN_LIMIT_EXCEEDED);
+      assertThat(psearch.isCancelled()).isTrue();
+    }
+    finally
+    {
+      release.countDown();
+      dispatcher.shutdown();
+    }
+  }
+
+  @Test
+  public void registrationIsRejectedAfterShutdown() throws Exception
+  {
+    final PersistentSearchDispatcher dispatcher = new PersistentSearchDispatcher("test");
+    dispatcher.shutdown();
+    try
+    {
+      dispatcher.register(newPersistentSearch(new ArrayList<DN>()));
+      failBecauseExceptionWasNotThrown(DirectoryException.class);
+    }
+    catch (DirectoryException e)
+    {
+      assertThat(e.getResultCode()).isEqualTo(ResultCode.UNAVAILABLE);
+    }
+    assertThat(dispatcher.getPersistentSearchCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void changesAreDiscardedAfterShutdown() throws Exception
+  {
+    final List<DN> sent = new ArrayList<>();
+    final PersistentSearchDispatcher dispatcher = new PersistentSearchDispatcher("test");
+    dispatcher.register(newPersistentSearch(sent));
+    dispatcher.shutdown();
+
+    dispatcher.notifyAdd(newEntry("uid=user.0," + BASE_DN));
+    assertThat(dispatcher.getPersistentSearchCount()).isEqualTo(0);
+    assertThat(dispatcher.getPendingChangeCount()).isEqualTo(0);
+    synchronized (sent)
+    {
+      assertThat(sent).isEmpty();
+    }
+  }
+
+  /** Returns a persistent search on the whole base DN, which records the DNs of the entries sent. */
+  private static PersistentSearch newPersistentSearch(final List<DN> sent) throws Exception
+  {
+    final SearchOperation searchOperation = mock(SearchOperation.class);
+    when(searchOperation.getBaseDN()).thenReturn(BASE_DN);
+    when(searchOperation.getScope()).thenReturn(SearchScope.WHOLE_SUBTREE);
+    when(searchOperation.getFilter()).thenReturn(SearchFilter.objectClassPresent());
+    when(searchOperation.getClientConnection()).thenReturn(InternalClientConnection.getRootConnection());
+    when(searchOperation.returnEntry(any(Entry.class), anyListOf(Control.class))).thenAnswer(new Answer<Boolean>()
+    {
+      @Override
+      public Boolean answer(InvocationOnMock invocation)
+      {
+        synchronized (sent)
+        {
+          sent.add(((Entry) invocation.getArguments()[0]).getName());
+        }
+        return true;
+      }
+    });
+    return new PersistentSearch(searchOperation, EnumSet.allOf(PersistentSearchChangeType.class), true, false);
+  }
+
+  private static Entry newEntry(String dn) throws Exception
+  {
+    return TestCaseUtils.makeEntry(
+        "dn: " + dn,
+        "objectClass: top",
+        "objectClass: person",
+        "cn: test",
+        "sn: test");
+  }
+
+  private static void awaitSent(List<DN> sent, int expectedCount) throws InterruptedException
+  {
+    while (true)
+    {
+      synchronized (sent)
+      {
+        if (sent.size() >= expectedCount)
+        {
+          return;
+        }
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  private static void awaitNoPendingChange(PersistentSearchDispatcher dispatcher) throws InterruptedException
+  {
+    while (dispatcher.getPendingChangeCount() > 0)
+    {
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.core;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.TestCaseUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class VerifiedCredentialCacheTestCase extends CoreTestCase
+{
+  private final DN user0 = DN.valueOf("uid=user.0,dc=example,dc=com");
+  private final DN user1 = DN.valueOf("uid=user.1,dc=example,dc=com");
+  private final ByteString stored = ByteString.valueOfUtf8("{PBKDF2}10000:c2FsdA==");
+  private final ByteString password = ByteString.valueOfUtf8("password");
+
+  @BeforeClass
+  public void setUp() throws Exception
+  {
+    TestCaseUtils.startServer();
+    TestCaseUtils.dsconfig("set-global-configuration-prop",
+        "--set", "verified-credential-cache-size:1");
+  }
+
+  @AfterClass
+  public void tearDown() throws Exception
+  {
+    TestCaseUtils.dsconfig("set-global-configuration-prop",
+        "--reset", "verified-credential-cache-size");
+  }
+
+  @Test
+  public void onlyTheVerifiedPasswordMatches() throws Exception
+  {
+    VerifiedCredentialCache cache = new VerifiedCredentialCache();
+    assertThat(cache.isVerified(user0, stored, password)).isFalse();
+
+    cache.put(user0, stored, password);
+    assertThat(cache.isVerified(user0, stored, password)).isTrue();
+    assertThat(cache.isVerified(user0, stored, ByteString.valueOfUtf8("wrong"))).isFalse();
+    assertThat(cache.isVerified(user0, ByteString.valueOfUtf8("{PBKDF2}10000:b3RoZXI="), password)).isFalse();
+    assertThat(cache.isVerified(user1, stored, password)).isFalse();
+
+    cache.invalidate(user0);
+    assertThat(cache.isVerified(user0, stored, password)).isFalse();
+  }
+
+  @Test
+  public void leastRecentlyUsedCredentialIsEvicted() throws Exception
+  {
+    VerifiedCredentialCache cache = new VerifiedCredentialCache();
+    cache.put(user0, stored, password);
+    cache.put(user1, stored, password);
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.isVerified(user0, stored, password)).isFalse();
+    assertThat(cache.isVerified(user1, stored, password)).isTrue();
+  }
+
+  @Test
+  public void policyChangeClearsCache() throws Exception
+  {
+    VerifiedCredentialCache cache = DirectoryServer.getVerifiedCredentialCache();
+    cache.put(user0, stored, password);
+    TestCaseUtils.dsconfig("set-password-policy-prop",
+        "--policy-name", "Default Password Policy",
+        "--set", "password-history-count:1");
+    try
+    {
+      assertThat(cache.isVerified(user0, stored, password)).isFalse();
+    }
+    finally
+    {
+      TestCaseUtils.dsconfig("set-password-policy-prop",
+          "--policy-name", "Default Password Policy",
+          "--reset", "password-history-count");
+    }
+  }
+}
@@ -16,11 +16,19 @@
  */
 package org.opends.server.extensions;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.ByteStringBuilder;
 import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.schema.AttributeType;
 import org.opends.server.TestCaseUtils;
+import org.opends.server.api.PasswordStorageScheme;
 import org.opends.server.api.SASLMechanismHandler;
 import org.opends.server.core.BindOperation;
 import org.opends.server.core.DirectoryServer;
@@ -37,6 +45,8 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import static org.mockito.Mockito.*;
+import static org.opends.server.config.ConfigConstants.*;
 import static org.opends.server.protocols.internal.InternalClientConnection.*;
 import static org.opends.server.types.NullOutputStream.nullPrintStream;
 import static org.testng.Assert.*;
@@ -577,5 +587,100 @@ public class PlainSASLMechanismHandlerTestCase
     };
     assertFalse(LDAPSearch.run(nullPrintStream(), nullPrintStream(), args) == 0);
   }
-}
 
+
+
+  /**
+   * Ensures that a SASL PLAIN bind fails with BUSY, without being counted as an
+   * authentication failure, when the password hashing pool is saturated.
+   *
+   * @throws  Exception  If an unexpected problem occurs.
+   */
+  @Test
+  public void testSASLPlainBusyPasswordHashingPool()
+         throws Exception
+  {
+    TestCaseUtils.initializeTestBackend(true);
+    TestCaseUtils.dsconfig("set-global-configuration-prop",
+        "--set", "password-hashing-threads:1",
+        "--set", "password-hashing-queue-size:0");
+    TestCaseUtils.dsconfig("set-password-policy-prop",
+        "--policy-name", "Default Password Policy",
+        "--set", "default-password-storage-scheme:PBKDF2",
+        "--set", "lockout-failure-count:3");
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    ExecutorService client = Executors.newSingleThreadExecutor();
+    try
+    {
+      TestCaseUtils.addEntry(
+        "dn: uid=test.user,o=test",
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: test.user",
+        "givenName: Test",
+        "sn: User",
+        "cn: Test User",
+        "userPassword: password");
+
+      // Occupy the only password hashing thread
+      final PasswordStorageScheme<?> blockingScheme = mock(PasswordStorageScheme.class);
+      when(blockingScheme.getStorageSchemeName()).thenReturn("BLOCKING");
+      when(blockingScheme.isComputationallyExpensive()).thenReturn(true);
+      Future<Boolean> hashing = client.submit(new Callable<Boolean>()
+      {
+        @Override
+        public Boolean call() throws Exception
+        {
+          return DirectoryServer.getPasswordHashingPool().execute(blockingScheme, new Callable<Boolean>()
+          {
+            @Override
+            public Boolean call() throws Exception
+            {
+              started.countDown();
+              release.await();
+              return true;
+            }
+          });
+        }
+      });
+      started.await();
+
+      ByteStringBuilder saslCredBytes = new ByteStringBuilder();
+      saslCredBytes.appendByte(0);
+      saslCredBytes.appendUtf8("dn:uid=test.user,o=test");
+      saslCredBytes.appendByte(0);
+      saslCredBytes.appendUtf8("password");
+      InternalClientConnection anonymousConn =
+           new InternalClientConnection(new AuthenticationInfo());
+      BindOperation bindOperation =
+           anonymousConn.processSASLBind(ByteString.empty(), "PLAIN",
+                                         saslCredBytes.toByteString());
+      assertEquals(bindOperation.getResultCode(), ResultCode.BUSY);
+
+      Entry userEntry = DirectoryServer.getEntry(DN.valueOf("uid=test.user,o=test"));
+      AttributeType failureTimeType =
+          TestCaseUtils.getServerContext().getSchema().getAttributeType(OP_ATTR_PWPOLICY_FAILURE_TIME);
+      assertFalse(userEntry.hasAttribute(failureTimeType), "A busy server must not count an authentication failure");
+
+      release.countDown();
+      assertTrue(hashing.get());
+      bindOperation = anonymousConn.processSASLBind(ByteString.empty(), "PLAIN", saslCredBytes.toByteString());
+      assertEquals(bindOperation.getResultCode(), ResultCode.SUCCESS);
+    }
+    finally
+    {
+      release.countDown();
+      client.shutdownNow();
+      TestCaseUtils.dsconfig("set-password-policy-prop",
+          "--policy-name", "Default Password Policy",
+          "--set", "default-password-storage-scheme:Salted SHA-1",
+          "--set", "lockout-failure-count:0");
+      TestCaseUtils.dsconfig("set-global-configuration-prop",
+          "--reset", "password-hashing-threads",
+          "--reset", "password-hashing-queue-size");
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.plugin;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSN;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.Attributes;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class BinaryHistoricalCodecTestCase extends ReplicationTestCase
+{
+  @DataProvider
+  public Object[][] values()
+  {
+    return new Object[][] {
+      { "description", "description:0000014f2d0c9f53000100000001:add:added_value" },
+      { "description", "description:0000014f2d0c9f53000100000001:add" },
+      { "description", "description:0000014f2d0c9f53000100000001:del:deleted_value" },
+      { "description", "description:0000014f2d0c9f53000100000001:repl:new_value" },
+      { "description", "description:0000014f2d0c9f53000100000001:attrDel" },
+      { "dn", "dn:0000014f2d0c9f53000100000001:add" },
+      { "dn", "dn:0000014f2d0c9f53000100000001:moddn" },
+      { "description;FR;France", "description;FR;France:0000014f2d0c9f53000100000001:add:added_value" },
+    };
+  }
+
+  @Test(dataProvider = "values")
+  public void encodeDecode(String attrDesc, String strVal)
+  {
+    List<HistoricalAttributeValue> records = Collections.singletonList(new HistoricalAttributeValue(strVal));
+
+    ByteString encoded = BinaryHistoricalCodec.encode(attrDesc, records, null);
+
+    assertThat(BinaryHistoricalCodec.isBinary(encoded)).isTrue();
+    assertThat(BinaryHistoricalCodec.isBinary(ByteString.valueOfUtf8(strVal))).isFalse();
+    assertThat(BinaryHistoricalCodec.getAttributeDescription(encoded)).isEqualTo(attrDesc);
+    assertThat(toStrings(BinaryHistoricalCodec.decode(encoded, null))).containsExactly(strVal);
+  }
+
+  @Test
+  public void encodeDecodeKeepsOrderAndCSNs()
+  {
+    List<String> strVals = Arrays.asList(
+        "description:0000014f2d0c9f53000100000002:repl:value1",
+        "description:0000014f2d0c9f53000100000002:add:value2",
+        "description:0000014f2d0c9f53000200000001:del:value3",
+        "description:0000014f2d0ca001000100000007:add:value4");
+    List<HistoricalAttributeValue> records = new ArrayList<>();
+    for (String strVal : strVals)
+    {
+      records.add(new HistoricalAttributeValue(strVal));
+    }
+
+    ByteString encoded = BinaryHistoricalCodec.encode("description", records, null);
+
+    assertThat(toStrings(BinaryHistoricalCodec.decode(encoded, null))).containsExactlyElementsOf(strVals);
+    assertThat(BinaryHistoricalCodec.getOldestCSN(encoded)).isEqualTo(new CSN("0000014f2d0c9f53000100000002"));
+    List<CSN> csns = new ArrayList<>();
+    BinaryHistoricalCodec.getCSNs(encoded, csns);
+    assertThat(csns).containsExactly(
+        new CSN("0000014f2d0c9f53000100000002"),
+        new CSN("0000014f2d0c9f53000100000002"),
+        new CSN("0000014f2d0c9f53000200000001"),
+        new CSN("0000014f2d0ca001000100000007"));
+  }
+
+  @Test
+  public void valuesPresentInTheEntryAreReferenced()
+  {
+    String strVal = "description:0000014f2d0c9f53000100000001:add:a rather long value present in the entry";
+    List<HistoricalAttributeValue> records = Collections.singletonList(new HistoricalAttributeValue(strVal));
+    Attribute presentValues =
+        Attributes.create("description", "a rather long value present in the entry", "another value");
+
+    ByteString inlined = BinaryHistoricalCodec.encode("description", records, null);
+    ByteString referenced = BinaryHistoricalCodec.encode("description", records, presentValues);
+
+    assertThat(referenced.length()).isLessThan(inlined.length());
+    assertThat(toStrings(BinaryHistoricalCodec.decode(referenced, presentValues))).containsExactly(strVal);
+    // the value has been removed from the entry since the historical was encoded
+    Attribute otherValues = Attributes.create("description", "another value");
+    assertThat(BinaryHistoricalCodec.decode(referenced, otherValues)).isEmpty();
+  }
+
+  private List<String> toStrings(List<HistoricalAttributeValue> records)
+  {
+    List<String> results = new ArrayList<>();
+    for (HistoricalAttributeValue record : records)
+    {
+      results.add(record.toString());
+    }
+    return results;
+  }
+}
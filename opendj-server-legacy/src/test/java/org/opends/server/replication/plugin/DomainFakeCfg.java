@@ -24,6 +24,7 @@ import org.forgerock.opendj.config.server.ConfigException;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.config.server.ConfigurationChangeListener;
 import org.forgerock.opendj.server.config.meta.ReplicationDomainCfgDefn.AssuredType;
+import org.forgerock.opendj.server.config.meta.ReplicationDomainCfgDefn.ConflictsHistoricalEncoding;
 import org.forgerock.opendj.server.config.meta.ReplicationDomainCfgDefn.IsolationPolicy;
 import org.forgerock.opendj.server.config.server.ExternalChangelogDomainCfg;
 import org.forgerock.opendj.server.config.server.ReplicationDomainCfg;
@@ -281,6 +282,18 @@ public class DomainFakeCfg implements ReplicationDomainCfg
     return 100;
   }
 
+  @Override
+  public long getUpdateBatchLingerTime()
+  {
+    return 0;
+  }
+
+  @Override
+  public boolean isUpdateBatchCompression()
+  {
+    return false;
+  }
+
   /**
    * Gets the ECL Domain if it is present.
    *
@@ -326,6 +339,18 @@ public class DomainFakeCfg implements ReplicationDomainCfg
     return 1440;
   }
 
+  @Override
+  public ConflictsHistoricalEncoding getConflictsHistoricalEncoding()
+  {
+    return ConflictsHistoricalEncoding.TEXT;
+  }
+
+  @Override
+  public long getConflictsHistoricalPurgeInterval()
+  {
+    return 0;
+  }
+
   @Override
   public String toString()
   {
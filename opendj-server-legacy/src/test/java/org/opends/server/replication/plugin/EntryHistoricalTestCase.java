@@ -0,0 +1,231 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.plugin;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.opends.server.replication.plugin.EntryHistorical.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.ByteStringBuilder;
+import org.opends.server.TestCaseUtils;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSN;
+import org.opends.server.types.Attribute;
+import org.opends.server.types.AttributeBuilder;
+import org.opends.server.types.Entry;
+import org.testng.annotations.Test;
+
+/** Tests the reading and writing of the binary encoded historical information of an entry. */
+@SuppressWarnings("javadoc")
+public class EntryHistoricalTestCase extends ReplicationTestCase
+{
+  private static final String CSN1 = "0000014f2d0c9f53000100000001";
+  private static final String CSN2 = "0000014f2d0c9f54000100000002";
+  private static final String CSN3 = "0000014f2d0c9f55000200000001";
+
+  private static final String REFERENCED_VALUE = "a value referenced by its hash";
+  /** Two values whose 64 bits FNV-1a hashes collide. */
+  private static final String COLLIDING_VALUE1 = "c5bde799c2362419";
+  private static final String COLLIDING_VALUE2 = "a1a9a9bf38687075";
+
+  @Test
+  public void untouchedBinaryHistoricalIsNotDecoded() throws Exception
+  {
+    // Decoding this value fails, which shows whether it has been decoded
+    final ByteString undecodable = newUndecodableBinaryValue("description", new CSN(CSN1));
+    final Entry entry = newEntry(Arrays.asList("v1"), undecodable);
+
+    final EntryHistorical hist = EntryHistorical.newInstanceFromEntry(entry);
+    hist.setBinaryEncoding(true);
+    assertThat(hist.getOldestCSN()).isEqualTo(new CSN(CSN1));
+    assertThat(hist.encodeAndPurge()).containsExactly(undecodable);
+
+    // Switching to the text encoding requires decoding it: the bad historical is dropped
+    final EntryHistorical textHist = EntryHistorical.newInstanceFromEntry(entry);
+    assertThat(textHist.hasValuesInOtherEncoding()).isTrue();
+    assertThat(textHist.encodeAndPurge()).isEmpty();
+  }
+
+  @Test
+  public void textHistoricalIsMigratedToBinaryAndBack() throws Exception
+  {
+    final List<String> textValues = Arrays.asList(
+        "description:" + CSN1 + ":add:v1",
+        "description:" + CSN2 + ":add:v2",
+        "dn:" + CSN1 + ":add");
+    final Entry entry = newEntry(Arrays.asList("v1", "v2"), toByteStrings(textValues));
+
+    final EntryHistorical hist = EntryHistorical.newInstanceFromEntry(entry);
+    assertThat(hist.hasValuesInOtherEncoding()).isFalse();
+    hist.setBinaryEncoding(true);
+    assertThat(hist.hasValuesInOtherEncoding()).isTrue();
+
+    final Attribute binaryHist = hist.encodeAndPurge();
+    assertThat(binaryHist).hasSize(2);
+    for (ByteString value : binaryHist)
+    {
+      assertThat(BinaryHistoricalCodec.isBinary(value)).isTrue();
+    }
+
+    entry.replaceAttribute(binaryHist);
+    final EntryHistorical migratedHist = EntryHistorical.newInstanceFromEntry(entry);
+    migratedHist.setBinaryEncoding(true);
+    assertThat(migratedHist.hasValuesInOtherEncoding()).isFalse();
+    assertThat(migratedHist.encodeAndPurge()).isEqualTo(binaryHist);
+
+    migratedHist.setBinaryEncoding(false);
+    assertThat(migratedHist.hasValuesInOtherEncoding()).isTrue();
+    assertThat(toStrings(migratedHist.encodeAndPurge())).hasSize(3).containsOnly(textValues.toArray(new String[0]));
+  }
+
+  @Test
+  public void textAndBinaryHistoricalOfAnAttributeAreMerged() throws Exception
+  {
+    final ByteString binaryValue = BinaryHistoricalCodec.encode("description",
+        newRecords("description:" + CSN2 + ":add:v2"), null);
+    final Entry entry = newEntry(Arrays.asList("v1", "v2"),
+        ByteString.valueOfUtf8("description:" + CSN1 + ":add:v1"), binaryValue);
+
+    final EntryHistorical hist = EntryHistorical.newInstanceFromEntry(entry);
+    assertThat(hist.hasValuesInOtherEncoding()).isTrue();
+    assertThat(hist.getOldestCSN()).isEqualTo(new CSN(CSN1));
+    assertThat(toStrings(hist.encodeAndPurge())).containsOnly(
+        "description:" + CSN1 + ":add:v1",
+        "description:" + CSN2 + ":add:v2");
+  }
+
+  @Test
+  public void referencesToValuesRemovedFromTheEntryAreDropped() throws Exception
+  {
+    final ByteString binaryValue = BinaryHistoricalCodec.encode("description",
+        newRecords("description:" + CSN1 + ":add:v1", "description:" + CSN2 + ":add:v2",
+                   "description:" + CSN3 + ":del:v3"),
+        newEntry(Arrays.asList("v1", "v2")).getAttribute("description").get(0));
+    // v1 has been removed from the entry since the historical was encoded
+    final Entry entry = newEntry(Arrays.asList("v2"), binaryValue);
+
+    final EntryHistorical hist = EntryHistorical.newInstanceFromEntry(entry);
+    assertThat(toStrings(hist.encodeAndPurge())).containsOnly(
+        "description:" + CSN2 + ":add:v2",
+        "description:" + CSN3 + ":del:v3");
+  }
+
+  @Test
+  public void valuesWithCollidingHashesAreStoredInline() throws Exception
+  {
+    final List<String> textValues = Arrays.asList(
+        "description:" + CSN1 + ":add:" + COLLIDING_VALUE1,
+        "description:" + CSN2 + ":add:" + COLLIDING_VALUE2,
+        "description:" + CSN3 + ":add:" + REFERENCED_VALUE);
+    final Entry entry =
+        newEntry(Arrays.asList(COLLIDING_VALUE1, COLLIDING_VALUE2, REFERENCED_VALUE), toByteStrings(textValues));
+
+    final EntryHistorical hist = EntryHistorical.newInstanceFromEntry(entry);
+    hist.setBinaryEncoding(true);
+    final Attribute binaryHist = hist.encodeAndPurge();
+    assertThat(binaryHist).hasSize(1);
+    final String binaryValue = new String(binaryHist.iterator().next().toByteArray(), StandardCharsets.ISO_8859_1);
+    assertThat(binaryValue).contains(COLLIDING_VALUE1).contains(COLLIDING_VALUE2).doesNotContain(REFERENCED_VALUE);
+
+    entry.replaceAttribute(binaryHist);
+    final EntryHistorical decodedHist = EntryHistorical.newInstanceFromEntry(entry);
+    assertThat(toStrings(decodedHist.encodeAndPurge())).hasSize(3).containsOnly(textValues.toArray(new String[0]));
+  }
+
+  private static Entry newEntry(List<String> descriptions, ByteString... historicalValues) throws Exception
+  {
+    final Entry entry = TestCaseUtils.makeEntry(
+        "dn: uid=user.1,o=test",
+        "objectClass: top",
+        "objectClass: person",
+        "objectClass: organizationalPerson",
+        "objectClass: inetOrgPerson",
+        "uid: user.1",
+        "cn: Aaccf Amar",
+        "sn: Amar");
+    final AttributeBuilder descriptionBuilder = new AttributeBuilder("description");
+    for (String description : descriptions)
+    {
+      descriptionBuilder.add(description);
+    }
+    entry.replaceAttribute(descriptionBuilder.toAttribute());
+    if (historicalValues.length > 0)
+    {
+      final AttributeBuilder histBuilder = new AttributeBuilder(HISTORICAL_ATTRIBUTE_NAME);
+      for (ByteString value : historicalValues)
+      {
+        histBuilder.add(value);
+      }
+      entry.replaceAttribute(histBuilder.toAttribute());
+    }
+    return entry;
+  }
+
+  /** Returns a binary historical value with a valid header, but a record which cannot be decoded. */
+  private static ByteString newUndecodableBinaryValue(String attrDesc, CSN csn)
+  {
+    final ByteString attrDescBytes = ByteString.valueOfUtf8(attrDesc);
+    final ByteStringBuilder builder = new ByteStringBuilder();
+    builder.appendByte(0);
+    builder.appendByte(1);
+    builder.appendCompactUnsigned(attrDescBytes.length());
+    builder.appendBytes(attrDescBytes);
+    csn.toByteString(builder);
+    csn.toByteString(builder);
+    builder.appendCompactUnsigned(1);
+    // unknown record kind
+    builder.appendByte(0x0f);
+    builder.appendCompactUnsigned(0);
+    builder.appendCompactUnsigned(csn.getServerId());
+    builder.appendCompactUnsigned(csn.getSeqnum());
+    return builder.toByteString();
+  }
+
+  private static List<HistoricalAttributeValue> newRecords(String... strVals)
+  {
+    final List<HistoricalAttributeValue> records = new ArrayList<>();
+    for (String strVal : strVals)
+    {
+      records.add(new HistoricalAttributeValue(strVal));
+    }
+    return records;
+  }
+
+  private static ByteString[] toByteStrings(List<String> values)
+  {
+    final ByteString[] results = new ByteString[values.size()];
+    for (int i = 0; i < results.length; i++)
+    {
+      results[i] = ByteString.valueOfUtf8(values.get(i));
+    }
+    return results;
+  }
+
+  private static List<String> toStrings(Attribute attribute)
+  {
+    final List<String> results = new ArrayList<>();
+    for (ByteString value : attribute)
+    {
+      results.add(value.toString());
+    }
+    return results;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.plugin;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSNGenerator;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class ReplayLanesTest extends ReplicationTestCase
+{
+  private final CSNGenerator csnGen = new CSNGenerator(1, System.currentTimeMillis());
+
+  private UpdateToReplay newUpdate(String dn)
+  {
+    return new UpdateToReplay(new DeleteMsg(DN.valueOf(dn), csnGen.newCSN(), "uid"), null);
+  }
+
+  @Test
+  public void updatesOfSameEntryGoToSameLaneInOrder() throws Exception
+  {
+    ReplayLanes lanes = new ReplayLanes(100, 4);
+    List<UpdateToReplay> updates = new ArrayList<>();
+    for (int i = 0; i < 10; i++)
+    {
+      UpdateToReplay update = newUpdate("uid=user.0,dc=example,dc=com");
+      updates.add(update);
+      assertThat(lanes.offer(update)).isTrue();
+    }
+
+    List<UpdateToReplay> polled = new ArrayList<>();
+    for (int lane = 0; lane < lanes.getLaneCount(); lane++)
+    {
+      UpdateToReplay update;
+      while ((update = lanes.poll(lane, 0, TimeUnit.MILLISECONDS)) != null)
+      {
+        polled.add(update);
+      }
+    }
+    assertThat(polled).containsExactlyElementsOf(updates);
+    assertThat(lanes.getLaneOccupancy()).containsOnly(0);
+  }
+
+  @Test
+  public void capacityIsSharedByAllLanes() throws Exception
+  {
+    ReplayLanes lanes = new ReplayLanes(3, 2);
+    assertThat(lanes.offer(newUpdate("uid=user.0,dc=example,dc=com"))).isTrue();
+    assertThat(lanes.offer(newUpdate("uid=user.1,dc=example,dc=com"))).isTrue();
+    assertThat(lanes.offer(newUpdate("uid=user.2,dc=example,dc=com"))).isTrue();
+    assertThat(lanes.offer(newUpdate("uid=user.3,dc=example,dc=com"), 10, TimeUnit.MILLISECONDS)).isFalse();
+    assertThat(lanes).hasSize(3);
+    assertThat(lanes.remainingCapacity()).isZero();
+
+    assertThat(lanes.poll()).isNotNull();
+    assertThat(lanes.offer(newUpdate("uid=user.3,dc=example,dc=com"))).isTrue();
+  }
+
+  @Test
+  public void resizingPreservesPerEntryOrder() throws Exception
+  {
+    ReplayLanes lanes = new ReplayLanes(100, 3);
+    List<UpdateToReplay> updates = new ArrayList<>();
+    for (int i = 0; i < 5; i++)
+    {
+      UpdateToReplay update = newUpdate("uid=user.0,dc=example,dc=com");
+      updates.add(update);
+      lanes.put(update);
+    }
+
+    lanes.setLaneCount(7);
+
+    assertThat(lanes.getLaneCount()).isEqualTo(7);
+    assertThat(lanes).hasSize(5);
+    List<UpdateToReplay> polled = new ArrayList<>();
+    lanes.drainTo(polled);
+    assertThat(polled).containsExactlyElementsOf(updates);
+  }
+
+  @Test(timeOut = 10000)
+  public void takeIsWokenUpByAnOfferToAnyLane() throws Exception
+  {
+    final ReplayLanes lanes = new ReplayLanes(100, 4);
+    final AtomicReference<UpdateToReplay> taken = new AtomicReference<>();
+    final CountDownLatch waiting = new CountDownLatch(1);
+    Thread consumer = new Thread()
+    {
+      @Override
+      public void run()
+      {
+        try
+        {
+          waiting.countDown();
+          taken.set(lanes.take());
+        }
+        catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    consumer.start();
+    waiting.await();
+
+    UpdateToReplay update = newUpdate("uid=user.0,dc=example,dc=com");
+    lanes.put(update);
+    consumer.join(5000);
+    assertThat(consumer.isAlive()).isFalse();
+    assertThat(taken.get()).isSameAs(update);
+    assertThat(lanes).isEmpty();
+  }
+
+  @Test
+  public void pollWithTimeoutGivesUpWhenNoUpdateIsOffered() throws Exception
+  {
+    ReplayLanes lanes = new ReplayLanes(100, 4);
+    assertThat(lanes.poll(50, TimeUnit.MILLISECONDS)).isNull();
+
+    UpdateToReplay update = newUpdate("uid=user.0,dc=example,dc=com");
+    lanes.offer(update);
+    assertThat(lanes.poll(50, TimeUnit.MILLISECONDS)).isSameAs(update);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.protocol;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSNGenerator;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class UpdateBatchCodecTest extends ReplicationTestCase
+{
+  private final CSNGenerator csnGen = new CSNGenerator(1, 1000);
+
+  @DataProvider
+  public Object[][] compression()
+  {
+    return new Object[][] { { false }, { true } };
+  }
+
+  @Test(dataProvider = "compression")
+  public void successiveBatchesRoundTrip(boolean compress) throws Exception
+  {
+    UpdateBatchCodec encoder = new UpdateBatchCodec();
+    UpdateBatchCodec decoder = new UpdateBatchCodec();
+    for (int batchIndex = 0; batchIndex < 5; batchIndex++)
+    {
+      List<byte[]> buffers = new ArrayList<>();
+      for (int i = 0; i < 10; i++)
+      {
+        buffers.add(newDelete("uid=user." + i + ",dc=example,dc=com"));
+      }
+
+      byte[] frame = encoder.encode(buffers, compress);
+      assertThat(UpdateBatchCodec.isBatch(frame)).isTrue();
+
+      Deque<byte[]> decoded = new ArrayDeque<>();
+      decoder.decode(frame, decoded);
+      assertThat(decoded).hasSameSizeAs(buffers);
+      for (byte[] buffer : buffers)
+      {
+        assertThat(decoded.poll()).isEqualTo(buffer);
+      }
+    }
+  }
+
+  @Test
+  public void compressionReducesRepetitiveUpdates() throws Exception
+  {
+    List<byte[]> buffers = new ArrayList<>();
+    int totalLength = 0;
+    for (int i = 0; i < 100; i++)
+    {
+      byte[] buffer = newDelete("uid=user." + i + ",ou=people,dc=example,dc=com");
+      buffers.add(buffer);
+      totalLength += buffer.length;
+    }
+
+    assertThat(new UpdateBatchCodec().encode(buffers, true).length).isLessThan(totalLength / 2);
+  }
+
+  @Test
+  public void onlyUpdatesAreBatchable() throws Exception
+  {
+    assertThat(UpdateBatchCodec.isBatchable(newDelete("dc=example,dc=com"))).isTrue();
+    assertThat(UpdateBatchCodec.isBatchable(new HeartbeatMsg().getBytes(ProtocolVersion.getCurrentVersion())))
+        .isFalse();
+  }
+
+  @Test(expectedExceptions = DataFormatException.class)
+  public void truncatedCompressedBatchIsRejected() throws Exception
+  {
+    List<byte[]> buffers = new ArrayList<>();
+    buffers.add(newDelete("dc=example,dc=com"));
+    byte[] frame = new UpdateBatchCodec().encode(buffers, true);
+    // keep the header and half of the compressed payload
+    byte[] truncated = new byte[10 + (frame.length - 10) / 2];
+    System.arraycopy(frame, 0, truncated, 0, truncated.length);
+
+    new UpdateBatchCodec().decode(truncated, new ArrayDeque<byte[]>());
+  }
+
+  private byte[] newDelete(String dn)
+  {
+    return new DeleteMsg(DN.valueOf(dn), csnGen.newCSN(), "uid").getBytes(ProtocolVersion.getCurrentVersion());
+  }
+}
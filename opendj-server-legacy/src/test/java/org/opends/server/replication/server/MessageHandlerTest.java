@@ -0,0 +1,79 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2016 ForgeRock AS.
+ */
+package org.opends.server.replication.server;
+
+import static org.assertj.core.api.Assertions.*;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSNGenerator;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.opends.server.replication.protocol.UpdateMsg;
+import org.testng.annotations.Test;
+
+/** Tests the buffering of the updates sent by a replication server to another server. */
+@SuppressWarnings("javadoc")
+public class MessageHandlerTest extends ReplicationTestCase
+{
+  private static final DN ENTRY_DN = DN.valueOf("uid=user.0,dc=example,dc=com");
+
+  @Test(timeOut = 10000)
+  public void addDoesNotWaitForTheConsumer() throws Exception
+  {
+    final MessageHandler handler = new MessageHandler(10, null);
+    final UpdateMsg update = newMsg(new CSNGenerator(1, 1000));
+    Thread producer = new Thread()
+    {
+      @Override
+      public void run()
+      {
+        handler.add(update);
+      }
+    };
+
+    // the consumer holds the queue monitor while removing updates
+    synchronized (handler.getMsgQueue())
+    {
+      producer.start();
+      producer.join(5000);
+      assertThat(producer.isAlive()).isFalse();
+    }
+    assertThat(handler.getMsgQueue().first()).isSameAs(update);
+  }
+
+  @Test
+  public void addTrimsTheOldestUpdatesAboveTheThreshold() throws Exception
+  {
+    final int maxQueueSize = 10;
+    final MessageHandler handler = new MessageHandler(maxQueueSize, null);
+    final CSNGenerator gen = new CSNGenerator(1, 1000);
+    final UpdateMsg oldest = newMsg(gen);
+    handler.add(oldest);
+    for (int i = 0; i < maxQueueSize; i++)
+    {
+      handler.add(newMsg(gen));
+    }
+
+    final MsgQueue queue = handler.getMsgQueue();
+    assertThat(queue.count()).isLessThanOrEqualTo(maxQueueSize);
+    assertThat(queue.contains(oldest)).isFalse();
+  }
+
+  private static UpdateMsg newMsg(CSNGenerator gen)
+  {
+    return new DeleteMsg(ENTRY_DN, gen.newCSN(), "uid");
+  }
+}
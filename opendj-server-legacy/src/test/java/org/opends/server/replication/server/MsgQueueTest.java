@@ -0,0 +1,163 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 ForgeRock AS.
+ */
+package org.opends.server.replication.server;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.common.CSNGenerator;
+import org.opends.server.replication.protocol.DeleteMsg;
+import org.opends.server.replication.protocol.UpdateMsg;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("javadoc")
+public class MsgQueueTest extends ReplicationTestCase
+{
+  private static final DN ENTRY_DN = DN.valueOf("uid=user.0,dc=example,dc=com");
+
+  @Test
+  public void messagesAreOrderedByCSNAcrossReplicas() throws Exception
+  {
+    CSNGenerator replica1 = new CSNGenerator(1, 1000);
+    CSNGenerator replica2 = new CSNGenerator(2, 1000);
+    UpdateMsg msg1 = newMsg(replica1);
+    UpdateMsg msg2 = newMsg(replica2);
+    UpdateMsg msg3 = newMsg(replica1);
+
+    MsgQueue queue = new MsgQueue();
+    queue.add(msg3);
+    queue.add(msg2);
+    queue.add(msg1);
+    queue.add(msg2);
+
+    assertThat(queue.count()).isEqualTo(3);
+    assertThat(queue.bytesCount()).isEqualTo(msg1.size() + msg2.size() + msg3.size());
+    assertThat(queue.first()).isSameAs(msg1);
+    assertThat(queue.removeFirst()).isSameAs(msg1);
+    assertThat(queue.removeFirst()).isSameAs(msg2);
+    assertThat(queue.removeFirst()).isSameAs(msg3);
+    assertThat(queue.isEmpty()).isTrue();
+    assertThat(queue.count()).isZero();
+    assertThat(queue.bytesCount()).isZero();
+  }
+
+  @Test(expectedExceptions = NoSuchElementException.class)
+  public void removeFirstOnEmptyQueue() throws Exception
+  {
+    new MsgQueue().removeFirst();
+  }
+
+  @Test
+  public void pollAndPeekOnEmptyQueue() throws Exception
+  {
+    MsgQueue queue = new MsgQueue();
+    assertThat(queue.peekFirst()).isNull();
+    assertThat(queue.pollFirst()).isNull();
+
+    UpdateMsg msg = newMsg(new CSNGenerator(1, 1000));
+    queue.add(msg);
+    assertThat(queue.peekFirst()).isSameAs(msg);
+    assertThat(queue.pollFirst()).isSameAs(msg);
+    assertThat(queue.count()).isZero();
+    assertThat(queue.bytesCount()).isZero();
+  }
+
+  @Test
+  public void consumeUpTo() throws Exception
+  {
+    CSNGenerator gen = new CSNGenerator(1, 1000);
+    UpdateMsg msg1 = newMsg(gen);
+    UpdateMsg msg2 = newMsg(gen);
+    UpdateMsg msg3 = newMsg(gen);
+
+    MsgQueue queue = new MsgQueue();
+    queue.add(msg1);
+    queue.add(msg2);
+    queue.add(msg3);
+
+    queue.consumeUpTo(msg2);
+    assertThat(queue.count()).isEqualTo(1);
+    assertThat(queue.first()).isSameAs(msg3);
+
+    queue.consumeUpTo(newMsg(gen));
+    assertThat(queue.isEmpty()).isTrue();
+    assertThat(queue.bytesCount()).isZero();
+  }
+
+  @Test
+  public void concurrentProducersAndConsumer() throws Exception
+  {
+    final int nbProducers = 4;
+    final int nbMsgsPerProducer = 1000;
+    final MsgQueue queue = new MsgQueue();
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> producers = new ArrayList<>();
+    for (int i = 1; i <= nbProducers; i++)
+    {
+      final CSNGenerator gen = new CSNGenerator(i, 1000);
+      Thread producer = new Thread()
+      {
+        @Override
+        public void run()
+        {
+          try
+          {
+            start.await();
+            for (int j = 0; j < nbMsgsPerProducer; j++)
+            {
+              queue.add(newMsg(gen));
+            }
+          }
+          catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          }
+        }
+      };
+      producer.start();
+      producers.add(producer);
+    }
+
+    start.countDown();
+    int consumed = 0;
+    while (consumed < nbProducers * nbMsgsPerProducer)
+    {
+      if (!queue.isEmpty())
+      {
+        queue.removeFirst();
+        consumed++;
+      }
+    }
+    for (Thread producer : producers)
+    {
+      producer.join();
+    }
+    assertThat(queue.isEmpty()).isTrue();
+    assertThat(queue.count()).isZero();
+    assertThat(queue.bytesCount()).isZero();
+  }
+
+  private static UpdateMsg newMsg(CSNGenerator gen)
+  {
+    return new DeleteMsg(ENTRY_DN, gen.newCSN(), "uid");
+  }
+}
@@ -221,6 +221,18 @@ public class ReplServerFakeConfiguration implements ReplicationServerCfg
     return assuredTimeout;
   }
 
+  @Override
+  public long getUpdateBatchLingerTime()
+  {
+    return 0;
+  }
+
+  @Override
+  public boolean isUpdateBatchCompression()
+  {
+    return false;
+  }
+
   @Override
   public int getCipherKeyLength()
   {
@@ -16,6 +16,7 @@
 package org.opends.server.replication.server.changelog.file;
 
 import java.lang.Thread.State;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -685,10 +686,14 @@ public class ChangeNumberIndexerTest extends DirectoryServerTestCase
   private void assertExternalChangelogContent(ReplicatedUpdateMsg... expectedMsgs)
       throws Exception
   {
-    final ArgumentCaptor<ChangeNumberIndexRecord> arg =
-        ArgumentCaptor.forClass(ChangeNumberIndexRecord.class);
-    verify(cnIndexDB, atLeast(0)).addRecord(arg.capture());
-    final List<ChangeNumberIndexRecord> allValues = arg.getAllValues();
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    final ArgumentCaptor<List<ChangeNumberIndexRecord>> arg = (ArgumentCaptor) ArgumentCaptor.forClass(List.class);
+    verify(cnIndexDB, atLeast(0)).addRecords(arg.capture());
+    final List<ChangeNumberIndexRecord> allValues = new ArrayList<>();
+    for (List<ChangeNumberIndexRecord> batch : arg.getAllValues())
+    {
+      allValues.addAll(batch);
+    }
 
     // check it was not called more than expected
     String desc1 = "actual was:<" + allValues + ">, but expected was:<" + Arrays.toString(expectedMsgs) + ">";
@@ -208,6 +208,32 @@ public class CompositeDBCursorTest extends DirectoryServerTestCase
         of(msg6, baseDN1));
   }
 
+  @Test
+  public void manyInterleavedCursors() throws Exception
+  {
+    final int nbCursors = 40;
+    final int nbMsgsPerCursor = 50;
+    final CompositeDBCursor<String> compCursor = new ConcreteCompositeDBCursor();
+    for (int i = 0; i < nbCursors; i++)
+    {
+      final SequentialDBCursor cursor = new SequentialDBCursor();
+      for (int j = 0; j < nbMsgsPerCursor; j++)
+      {
+        cursor.add(new FakeUpdateMsg(1 + i + j * nbCursors));
+      }
+      compCursor.addCursor(cursor, "cursor" + i);
+    }
+
+    for (int t = 1; t <= nbCursors * nbMsgsPerCursor; t++)
+    {
+      assertTrue(compCursor.next());
+      assertEquals(compCursor.getRecord().getCSN().getTime(), t);
+      assertEquals(compCursor.getData(), "cursor" + ((t - 1) % nbCursors));
+    }
+    assertFalse(compCursor.next());
+    compCursor.close();
+  }
+
   private CompositeDBCursor<String> newCompositeDBCursor(
       Pair<? extends DBCursor<UpdateMsg>, String>... pairs) throws Exception
   {
@@ -0,0 +1,190 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions Copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2016 ForgeRock AS.
+ */
+package org.opends.server.replication.service;
+
+import static org.testng.Assert.*;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.opendj.ldap.DN;
+import org.opends.server.replication.ReplicationTestCase;
+import org.opends.server.replication.plugin.DomainFakeCfg;
+import org.opends.server.replication.protocol.UpdateMsg;
+import org.testng.annotations.Test;
+
+/** Tests the prefetching of the entries received during a total update. */
+@SuppressWarnings("javadoc")
+public class ReplInputStreamTest extends ReplicationTestCase
+{
+  private static final byte[] ENTRY = "dn: o=test\n\n".getBytes();
+
+  /** Replication domain serving the entries of a total update without any replication server. */
+  private static final class EntrySource extends ReplicationDomain
+  {
+    private final AtomicInteger received = new AtomicInteger();
+    /** Number of entries to send, negative for an endless total update. */
+    private final int entryCount;
+    private final boolean failAfterEntries;
+
+    private EntrySource(int entryCount, boolean failAfterEntries) throws Exception
+    {
+      super(new DomainFakeCfg(DN.valueOf("o=test"), 1, new TreeSet<String>()), 1);
+      this.entryCount = entryCount;
+      this.failAfterEntries = failAfterEntries;
+    }
+
+    @Override
+    protected byte[] receiveEntryBytes()
+    {
+      if (Thread.currentThread().isInterrupted())
+      {
+        return null;
+      }
+      int count = received.incrementAndGet();
+      if (entryCount < 0 || count <= entryCount)
+      {
+        return ENTRY;
+      }
+      if (failAfterEntries)
+      {
+        throw new IllegalStateException("connection lost during the total update");
+      }
+      return null;
+    }
+
+    @Override
+    protected void exportBackend(OutputStream output)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void importBackend(InputStream input)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long countEntries()
+    {
+      return 0;
+    }
+
+    @Override
+    public boolean processUpdate(UpdateMsg updateMsg)
+    {
+      return true;
+    }
+  }
+
+  private static EntrySource unlimitedEntries() throws Exception
+  {
+    return new EntrySource(-1, false);
+  }
+
+  private static void awaitReceived(EntrySource domain, int expected) throws Exception
+  {
+    for (int i = 0; i < 100 && domain.received.get() < expected; i++)
+    {
+      Thread.sleep(50);
+    }
+    assertEquals(domain.received.get(), expected);
+  }
+
+  @Test
+  public void testPrefetchWindowBackpressure() throws Exception
+  {
+    final int prefetchCount = 3;
+    EntrySource domain = unlimitedEntries();
+    ReplInputStream input = new ReplInputStream(domain, prefetchCount);
+    try
+    {
+      byte[] buffer = new byte[ENTRY.length];
+      assertEquals(input.read(buffer, 0, buffer.length), ENTRY.length);
+
+      // one entry has been read, the window is full and the receiver holds the next entry
+      awaitReceived(domain, prefetchCount + 2);
+      Thread.sleep(300);
+      assertEquals(domain.received.get(), prefetchCount + 2);
+
+      assertEquals(input.read(buffer, 0, buffer.length), ENTRY.length);
+      awaitReceived(domain, prefetchCount + 3);
+    }
+    finally
+    {
+      input.close();
+    }
+  }
+
+  @Test
+  public void testEarlyCloseStopsReceiver() throws Exception
+  {
+    EntrySource domain = unlimitedEntries();
+    ReplInputStream input = new ReplInputStream(domain, 2);
+    byte[] buffer = new byte[ENTRY.length];
+    assertEquals(input.read(buffer, 0, buffer.length), ENTRY.length);
+
+    input.close();
+    int receivedAtClose = domain.received.get();
+    Thread.sleep(300);
+    assertEquals(domain.received.get(), receivedAtClose, "the receiver must not outlive the stream");
+    assertEquals(input.read(buffer, 0, buffer.length), -1);
+  }
+
+  @Test
+  public void testCloseBeforeRead() throws Exception
+  {
+    EntrySource domain = unlimitedEntries();
+    ReplInputStream input = new ReplInputStream(domain, 2);
+    input.close();
+    assertEquals(input.read(), -1);
+    assertEquals(domain.received.get(), 0);
+  }
+
+  @Test(timeOut = 10000)
+  public void testErrorDuringTransfer() throws Exception
+  {
+    EntrySource domain = new EntrySource(2, true);
+    ReplInputStream input = new ReplInputStream(domain, 10);
+    try
+    {
+      byte[] buffer = new byte[ENTRY.length];
+      assertEquals(input.read(buffer, 0, buffer.length), ENTRY.length);
+      assertEquals(input.read(buffer, 0, buffer.length), ENTRY.length);
+      // the receiver died on the error: the import sees the end of the stream instead of hanging
+      assertEquals(input.read(buffer, 0, buffer.length), -1);
+      assertEquals(domain.received.get(), 3);
+    }
+    finally
+    {
+      input.close();
+    }
+  }
+
+  @Test(timeOut = 10000)
+  public void testEndOfEntries() throws Exception
+  {
+    EntrySource domain = new EntrySource(1, false);
+    ReplInputStream input = new ReplInputStream(domain, 10);
+    byte[] buffer = new byte[ENTRY.length];
+    assertEquals(input.read(buffer, 0, buffer.length), ENTRY.length);
+    assertEquals(input.read(buffer, 0, buffer.length), -1);
+    input.close();
+  }
+}
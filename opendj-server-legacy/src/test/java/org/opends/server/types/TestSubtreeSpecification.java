@@ -117,4 +117,19 @@ public final class TestSubtreeSpecification extends SubtreeSpecificationTestCase
     SubtreeSpecification ss = SubtreeSpecification.valueOf(DN.rootDN(), value);
     assertEquals(ss.isWithinScope(createEntry(dn, getObjectClasses())), expected);
   }
+
+  /**
+   * Tests that {@link SubtreeSpecification#areChildrenOfDNWithinScope(DN)} and
+   * {@link SubtreeSpecification#isChopBeforeDN(DN)} agree with
+   * {@link SubtreeSpecification#isDNWithinScope(DN)} for the entries below the base DN.
+   */
+  @Test(dataProvider = "isWithinScopeData")
+  public void testAreChildrenOfDNWithinScope(String dnString, String value, boolean expected) throws Exception {
+    DN dn = DN.valueOf(dnString);
+    SubtreeSpecification ss = SubtreeSpecification.valueOf(DN.rootDN(), value);
+    if (!dn.equals(ss.getBaseDN()))
+    {
+      assertEquals(ss.areChildrenOfDNWithinScope(dn.parent()) && !ss.isChopBeforeDN(dn), ss.isDNWithinScope(dn));
+    }
+  }
 }
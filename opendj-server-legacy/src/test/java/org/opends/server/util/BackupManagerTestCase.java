@@ -20,6 +20,7 @@ import static org.mockito.Mockito.*;
 import static org.opends.server.util.StaticUtils.*;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -28,6 +29,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.zip.ZipInputStream;
 
 import org.forgerock.opendj.ldap.DN;
 import org.opends.server.DirectoryServerTestCase;
@@ -116,6 +118,26 @@ public class BackupManagerTestCase extends DirectoryServerTestCase
     BackupConfig backupConfig6 = new BackupConfig(backupDir6, BACKUP_ID, false);
     RestoreConfig restoreConfig6 = new RestoreConfig(backupDir6, BACKUP_ID, false);
 
+    String label7 = "multiple_streams_signedhash";
+    Backupable backupable7 = buildBackupableForMultipleDirectoriesCase(createSourceDirectory(label7), 3);
+    BackupDirectory backupDir7 = buildBackupDir(label7);
+    BackupConfig backupConfig7 = new BackupConfig(backupDir7, BACKUP_ID, false);
+    backupConfig7.setHashData(true);
+    backupConfig7.setSignHash(true);
+    backupConfig7.setStreamCount(3);
+    RestoreConfig restoreConfig7 = new RestoreConfig(backupDir7, BACKUP_ID, false);
+
+    // some streams do not get any file
+    String label8 = "multiple_streams_encrypted_compressed";
+    Backupable backupable8 = buildBackupable(createSourceDirectory(label8), 2);
+    BackupDirectory backupDir8 = buildBackupDir(label8);
+    BackupConfig backupConfig8 = new BackupConfig(backupDir8, BACKUP_ID, false);
+    backupConfig8.setHashData(true);
+    backupConfig8.setEncryptData(true);
+    backupConfig8.setCompressData(true);
+    backupConfig8.setStreamCount(4);
+    RestoreConfig restoreConfig8 = new RestoreConfig(backupDir8, BACKUP_ID, false);
+
     return new Object[][] {
       { label0, backupable0, backupConfig0, restoreConfig0 },
       { label1, backupable1, backupConfig1, restoreConfig1 },
@@ -124,6 +146,8 @@ public class BackupManagerTestCase extends DirectoryServerTestCase
       { label4, backupable4, backupConfig4, restoreConfig4 },
       { label5, backupable5, backupConfig5, restoreConfig5 },
       { label6, backupable6, backupConfig6, restoreConfig6 },
+      { label7, backupable7, backupConfig7, restoreConfig7 },
+      { label8, backupable8, backupConfig8, restoreConfig8 },
     };
   }
 
@@ -214,6 +238,89 @@ public class BackupManagerTestCase extends DirectoryServerTestCase
     cleanDirectories(sourceDirectory, backupPath);
   }
 
+  /**
+   * A file modified in place, such as a database volume, must be archived again by an incremental
+   * backup, even though its name sorts before files which did not change.
+   */
+  @Test
+  public void testIncrementalBackupArchivesFilesModifiedInPlace() throws Exception
+  {
+    Path sourceDirectory = createSourceDirectory("modifiedInPlace");
+    BackupDirectory backupDir = buildBackupDir("modifiedInPlace");
+    BackupManager backupManager = new BackupManager(BACKEND_ID);
+    long tenSecondsAgo = System.currentTimeMillis() - 10000;
+
+    Path volume = sourceDirectory.resolve("dj");
+    List<Path> files = new ArrayList<>();
+    files.add(volume);
+    files.add(sourceDirectory.resolve("dj_journal.000000000001"));
+    files.add(sourceDirectory.resolve("dj_journal.000000000002"));
+    for (Path file : files)
+    {
+      createFile(file, StaticUtils.getBytes(file.getFileName().toString()));
+      file.toFile().setLastModified(tenSecondsAgo);
+    }
+    String initialBackupId = BACKUP_ID + "_0";
+    BackupConfig backupConfig0 = new BackupConfig(backupDir, initialBackupId, true);
+    backupManager.createBackup(buildBackupable(sourceDirectory, files), backupConfig0);
+
+    // same size, different content and modification time
+    createFile(volume, StaticUtils.getBytes("DJ"));
+    volume.toFile().setLastModified(tenSecondsAgo + 5000);
+    BackupConfig backupConfig1 = new BackupConfig(backupDir, BACKUP_ID, true);
+    backupManager.createBackup(buildBackupable(sourceDirectory, files), backupConfig1);
+
+    // the journal files are unchanged, hence only archived in the initial backup
+    assertThat(backupDir.getBackupInfo(BACKUP_ID).getDependencies()).containsOnly(initialBackupId);
+    // restoring an increment of a chain only reads the beginning of the archive
+    try (ZipInputStream zipStream = new ZipInputStream(
+        new FileInputStream(new File(backupDir.getPath(), getArchiveFileName(BACKUP_ID)))))
+    {
+      assertThat(zipStream.getNextEntry().getName()).isEqualTo("unchanged.txt");
+    }
+
+    Backupable backupable = buildBackupable(sourceDirectory, files);
+    removeBackedUpFiles(backupable);
+    backupManager.restoreBackup(backupable, new RestoreConfig(backupDir, BACKUP_ID, false));
+
+    assertThat(volume.toFile()).hasContent("DJ");
+    assertThat(files.get(1).toFile()).hasContent("dj_journal.000000000001");
+    assertThat(files.get(2).toFile()).hasContent("dj_journal.000000000002");
+
+    cleanDirectories(sourceDirectory, backupDir.getPath());
+  }
+
+  @Test
+  public void testMultipleStreamsBackupWritesAndRemovesOneArchivePerStream() throws Exception
+  {
+    Path sourceDirectory = createSourceDirectory("streams");
+    BackupDirectory backupDir = buildBackupDir("streams");
+    BackupManager backupManager = new BackupManager(BACKEND_ID);
+    Backupable backupable = buildBackupable(sourceDirectory, 6);
+    BackupConfig backupConfig = new BackupConfig(backupDir, BACKUP_ID, false);
+    backupConfig.setHashData(true);
+    backupConfig.setStreamCount(3);
+
+    backupManager.createBackup(backupable, backupConfig);
+
+    String backupPath = backupDir.getPath();
+    assertThat(new File(backupPath, getArchiveFileName(BACKUP_ID))).exists();
+    assertThat(new File(backupPath, getArchiveFileName(BACKUP_ID) + "-stream-1")).exists();
+    assertThat(new File(backupPath, getArchiveFileName(BACKUP_ID) + "-stream-2")).exists();
+    assertThat(backupConfig.getProcessedBytes()).isGreaterThan(0);
+
+    RestoreConfig verifyConfig = new RestoreConfig(backupDir, BACKUP_ID, true);
+    backupManager.restoreBackup(backupable, verifyConfig);
+    assertThat(verifyConfig.getProcessedBytes()).isEqualTo(backupConfig.getProcessedBytes());
+
+    backupManager.removeBackup(backupDir, BACKUP_ID);
+    assertThat(new File(backupPath, getArchiveFileName(BACKUP_ID))).doesNotExist();
+    assertThat(new File(backupPath, getArchiveFileName(BACKUP_ID) + "-stream-1")).doesNotExist();
+    assertThat(new File(backupPath, getArchiveFileName(BACKUP_ID) + "-stream-2")).doesNotExist();
+
+    cleanDirectories(sourceDirectory, backupPath);
+  }
+
   @Test
   public void testCreateDirectoryWithNumericSuffix() throws Exception
   {
@@ -295,8 +402,11 @@ public class BackupManagerTestCase extends DirectoryServerTestCase
 
   private Backupable buildBackupable(Path sourceDirectory, int numberOfFiles) throws Exception
   {
-    List<Path> files = createFilesInDirectoryToBackup(sourceDirectory, numberOfFiles);
+    return buildBackupable(sourceDirectory, createFilesInDirectoryToBackup(sourceDirectory, numberOfFiles));
+  }
 
+  private Backupable buildBackupable(Path sourceDirectory, List<Path> files) throws Exception
+  {
     Backupable backupable = mock(Backupable.class);
     when(backupable.getDirectory()).thenReturn(sourceDirectory.toFile());
     when(backupable.getFilesToBackup()).thenReturn(files.listIterator());